@@ -24,18 +24,32 @@ import org.apache.ignite.IgniteDataStreamer;
 import org.apache.ignite.cache.CacheAtomicityMode;
 import org.apache.ignite.cache.CacheMode;
 import org.apache.ignite.ci.issue.Issue;
+import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
+import org.apache.ignite.ci.teamcity.ignited.runhist.RunHistKey;
+import org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity;
 import org.apache.ignite.ci.issue.IssueKey;
+import org.apache.ignite.tcbot.engine.issue.IssueOutboxKey;
 import org.apache.ignite.tcbot.engine.issue.IssuesStorage;
+import org.apache.ignite.tcbot.common.TcBotConst;
+import org.apache.ignite.tcbot.persistence.CacheConfigs;
+import org.apache.ignite.tcbot.persistence.IgniteStringCompactor;
 import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.internal.util.GridIntList;
+import org.apache.ignite.tcignited.buildref.BuildRefDao;
+import org.apache.ignite.tcignited.buildref.SuiteBranchIdxUpdateProcessor;
+import org.apache.ignite.tcignited.history.BuildStartTimeBlockUpdateProcessor;
+import org.apache.ignite.tcignited.history.BuildStartTimeStorage;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.cache.Cache;
+import javax.cache.processor.EntryProcessor;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Migrations to be applied to each TC related caches.
@@ -73,6 +87,7 @@ public class DbMigrations {
         /** Build Start time Cache name. */
         String BUILD_START_TIME_CACHE_NAME = "buildStartTimeV0";
         String BUILD_START_TIME_CACHE_NAME2 = "teamcityBuildStartTimeV0";
+        String BUILD_START_TIME_CACHE_NAME3 = "teamcityBuildStartTime";
 
         /** Cache name. */
         String SUITE_HIST_CACHE_NAME = "teamcitySuiteRunHistV0";
@@ -160,6 +175,29 @@ public class DbMigrations {
             }
         });
 
+        applyMigration("fill-" + IssuesStorage.BOT_ISSUES_OUTBOX, () -> {
+            IgniteCache<IssueOutboxKey, Boolean> outbox = IssuesStorage.issuesOutboxCache(ignite);
+
+            long minTs = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(
+                Math.max(TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_HOURS,
+                    TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_FOR_NOTIFIED_ISSUE_HOURS));
+
+            Map<IssueOutboxKey, Boolean> pending = new HashMap<>();
+
+            for (Cache.Entry<IssueKey, Issue> entry : issuesCache) {
+                Long detectedTs = entry.getValue().detectedTs;
+
+                if (detectedTs != null && detectedTs >= minTs)
+                    pending.put(new IssueOutboxKey(detectedTs, entry.getKey()), true);
+            }
+
+            if (!pending.isEmpty())
+                outbox.putAll(pending);
+
+            logger.info("Migrating " + issuesCache.getName() + " to " + outbox.getName() + ": "
+                + pending.size() + " issues pending notification");
+        });
+
         applyDestroyCacheMigration(BUILD_CONDITIONS_CACHE_NAME, BUILD_CONDITIONS_CACHE_NAME);
         applyDestroyCacheMigration(Old.TEAMCITY_BUILD_CACHE_NAME_OLD, Old.TEAMCITY_BUILD_CACHE_NAME_OLD);
 
@@ -232,6 +270,126 @@ public class DbMigrations {
         applyDestroyCacheMigration(Old.TEST_HIST_CACHE_NAME_V2_0);
         applyDestroyCacheMigration(Old.SUITE_HIST_CACHE_NAME_V2_0);
 
+        applyMigration("fill-" + IgniteStringCompactor.STRINGS_BY_ID_CACHE, () -> {
+            IgniteCache<String, CompactorEntity> strings = ignite.cache(IgniteStringCompactor.STRINGS_CACHE);
+
+            if (strings == null)
+                return;
+
+            IgniteCache<Integer, String> stringsById
+                = ignite.getOrCreateCache(IgniteStringCompactor.stringsByIdCacheConfig());
+
+            int size = strings.size();
+            int i = 0;
+            Map<Integer, String> batch = new HashMap<>();
+
+            try (IgniteDataStreamer<Integer, String> streamer = ignite.dataStreamer(stringsById.getName())) {
+                for (Cache.Entry<String, CompactorEntity> entry : strings) {
+                    CompactorEntity val = entry.getValue();
+
+                    batch.put(val.id(), val.val());
+
+                    i++;
+
+                    if (batch.size() >= 1000)
+                        saveOneBatch(IgniteStringCompactor.STRINGS_CACHE, size, i, batch, streamer);
+                }
+
+                if (!batch.isEmpty())
+                    saveOneBatch(IgniteStringCompactor.STRINGS_CACHE, size, i, batch, streamer);
+            }
+        });
+
+        applyMigration("fill-" + BuildRefDao.TEAMCITY_BUILD_IDX_CACHE_NAME, () -> {
+            IgniteCache<Long, BuildRefCompacted> buildRefs = ignite.cache(BuildRefDao.TEAMCITY_BUILD_CACHE_NAME);
+
+            if (buildRefs == null)
+                return;
+
+            IgniteCache<RunHistKey, int[]> idx = ignite.getOrCreateCache(BuildRefDao.suiteBranchIdxCacheConfig());
+
+            Map<RunHistKey, GridIntList> ids = new HashMap<>();
+
+            for (Cache.Entry<Long, BuildRefCompacted> entry : buildRefs) {
+                BuildRefCompacted ref = entry.getValue();
+                RunHistKey key = new RunHistKey(BuildRefDao.cacheKeyToSrvId(entry.getKey()),
+                    ref.buildTypeId(), ref.branchName());
+
+                ids.computeIfAbsent(key, k -> new GridIntList()).add(ref.id());
+            }
+
+            int i = 0;
+            Map<RunHistKey, EntryProcessor<RunHistKey, int[], Void>> batch = new HashMap<>();
+
+            for (Map.Entry<RunHistKey, GridIntList> entry : ids.entrySet()) {
+                batch.put(entry.getKey(), new SuiteBranchIdxUpdateProcessor(entry.getValue().array(), new int[0]));
+
+                i++;
+
+                if (batch.size() >= 1000 || i == ids.size()) {
+                    String msg = "Migrating " + BuildRefDao.TEAMCITY_BUILD_CACHE_NAME + " to "
+                        + idx.getName() + ": processed " + i + " from " + ids.size() + " suite in branch keys";
+                    System.out.println(msg);
+                    logger.info(msg);
+
+                    idx.invokeAll(batch);
+
+                    batch.clear();
+                }
+            }
+        });
+
+        applyMigration("fill-" + BuildStartTimeStorage.BUILD_START_TIME_BLOCKS_CACHE_NAME, () -> {
+            IgniteCache<Long, Long> startTimes = ignite.cache(Old.BUILD_START_TIME_CACHE_NAME3);
+
+            if (startTimes == null)
+                return;
+
+            IgniteCache<Long, int[]> blocks = ignite.getOrCreateCache(
+                CacheConfigs.getCacheV2Config(BuildStartTimeStorage.BUILD_START_TIME_BLOCKS_CACHE_NAME));
+
+            Map<Long, GridIntList> idxs = new HashMap<>();
+            Map<Long, GridIntList> times = new HashMap<>();
+
+            for (Cache.Entry<Long, Long> entry : startTimes) {
+                Long ts = entry.getValue();
+                int time = ts == null ? 0 : BuildStartTimeStorage.encode(ts);
+
+                if (time == 0)
+                    continue;
+
+                int buildId = BuildRefDao.cacheKeyToBuildId(entry.getKey());
+                long key = BuildStartTimeStorage.blockKey(BuildRefDao.cacheKeyToSrvId(entry.getKey()),
+                    BuildStartTimeStorage.blockNo(buildId));
+
+                idxs.computeIfAbsent(key, k -> new GridIntList()).add(BuildStartTimeStorage.idxInBlock(buildId));
+                times.computeIfAbsent(key, k -> new GridIntList()).add(time);
+            }
+
+            int i = 0;
+            Map<Long, EntryProcessor<Long, int[], Void>> batch = new HashMap<>();
+
+            for (Map.Entry<Long, GridIntList> entry : idxs.entrySet()) {
+                batch.put(entry.getKey(), new BuildStartTimeBlockUpdateProcessor(entry.getValue().array(),
+                    times.get(entry.getKey()).array()));
+
+                i++;
+
+                if (batch.size() >= 100 || i == idxs.size()) {
+                    String msg = "Migrating " + Old.BUILD_START_TIME_CACHE_NAME3 + " to "
+                        + blocks.getName() + ": processed " + i + " from " + idxs.size() + " blocks";
+                    System.out.println(msg);
+                    logger.info(msg);
+
+                    blocks.invokeAll(batch);
+
+                    batch.clear();
+                }
+            }
+        });
+
+        applyDestroyCacheMigration(Old.BUILD_START_TIME_CACHE_NAME3);
+
         int sizeAfter = doneMigrations.size();
         return (sizeAfter - sizeBefore) + " Migrations done from " + sizeAfter;
 
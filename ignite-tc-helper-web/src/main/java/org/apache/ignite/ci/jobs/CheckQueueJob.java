@@ -21,6 +21,7 @@ import com.google.common.base.Strings;
 import java.text.MessageFormat;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,7 +32,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.inject.Inject;
 import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
-import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildHeader;
 import org.apache.ignite.ci.user.ITcBotUserCreds;
 import org.apache.ignite.internal.util.typedef.T2;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
@@ -43,10 +44,9 @@ import org.apache.ignite.tcbot.engine.conf.ITrackedChain;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.ITeamcityIgnitedProvider;
-import org.apache.ignite.tcservice.model.agent.Agent;
+import org.apache.ignite.tcignited.SyncMode;
+import org.apache.ignite.tcignited.agent.AgentCompacted;
 import org.apache.ignite.tcservice.model.result.Build;
-import org.apache.ignite.tcservice.model.result.Triggered;
-import org.apache.ignite.tcservice.model.user.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -155,13 +155,13 @@ public class CheckQueueJob implements Runnable {
     protected String checkQueue(String srvCode, List<ITrackedChain> chains) {
         ITeamcityIgnited tcIgn = tcIgnitedProv.server(srvCode, creds);
 
-        List<Agent> agents = tcIgn.agents(true, true);
+        Collection<AgentCompacted> agents = tcIgn.agentStates(SyncMode.RELOAD_QUEUED);
 
         int total = agents.size();
         int running = 0;
 
-        for (Agent agent : agents) {
-            if (agent.getBuild() != null) //  || !STATE_RUNNING.equals(agent.getFatBuild().status)
+        for (AgentCompacted agent : agents) {
+            if (agent.isRunningBuild())
                 ++running;
         }
 
@@ -211,34 +211,22 @@ public class CheckQueueJob implements Runnable {
             if (buildId == null)
                 continue; // should not occur;
 
-            FatBuildCompacted fatBuild = tcIgn.getFatBuild(buildId);
+            FatBuildHeader build = tcIgn.getFatBuildHeader(buildId);
+            String buildTypeIdExisting = build.buildTypeId(compactor);
+            String login = build.triggeredByUsername(compactor);
 
-            Build build = fatBuild.toBuild(compactor);
-            Triggered triggered = build.getTriggered();
-
-            if (triggered == null) {
-                logger.info("Unable to get triggering info for queued build {} (type={}).", buildId, build.buildTypeId);
+            if (login == null) {
+                logger.info("Unable to get username for queued build {} (type={}).", buildId, buildTypeIdExisting);
 
                 continue;
             }
 
-            User user = build.getTriggered().getUser();
-
-            if (user == null) {
-                logger.info("Unable to get username for queued build {} (type={}).", buildId, build.buildTypeId);
-
-                continue;
-            }
-
-            String buildTypeIdExisting = build.buildTypeId();
             if (buildTypeIdExisting == null) {
-                logger.info("Unable to get buildTypeId  for queued build {} (type={}).", buildId, build.buildTypeId);
+                logger.info("Unable to get buildTypeId  for queued build {}.", buildId);
 
                 continue;
             }
 
-            String login = user.username;
-
             if (selfLogin.equalsIgnoreCase(login)
                 && buildTypeIdExisting.trim().equals(Strings.nullToEmpty(buildTypeId).trim())) {
                 String msg
@@ -25,7 +25,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nullable;
-import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildHeader;
 import org.apache.ignite.ci.web.model.ContributionKey;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
@@ -115,7 +115,7 @@ public class BuildsInfo {
         boolean isFinished = true;
 
         for (Integer id : builds) {
-            FatBuildCompacted build = teamcity.getFatBuild(id);
+            FatBuildHeader build = teamcity.getFatBuildHeader(id);
 
             if (build.isFakeStub() || build.isCancelled(strCompactor))
                 return CANCELLED_STATUS;
@@ -157,7 +157,7 @@ public class BuildsInfo {
         int finishedCnt = 0;
 
         for (Integer id : builds) {
-            FatBuildCompacted build = teamcity.getFatBuild(id);
+            FatBuildHeader build = teamcity.getFatBuildHeader(id);
 
             if (!build.isFakeStub() && build.isFinished(strCompactor))
                 ++finishedCnt;
@@ -50,12 +50,13 @@ import org.apache.ignite.tcbot.persistence.IgniteStringCompactor;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.build.FatBuildDao;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
+import org.apache.ignite.tcignited.history.BuildStartTimeStorage;
 import org.apache.ignite.tcservice.model.hist.BuildRef;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.apache.ignite.tcservice.util.XmlUtil;
 import org.jetbrains.annotations.NotNull;
 
-import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.BUILD_START_TIME_CACHE_NAME;
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.BUILD_START_TIME_BLOCKS_CACHE_NAME;
 
 /**
  * Utility class for connecting to a remote server.
@@ -202,20 +203,27 @@ public class RemoteClientTmpHelper {
 
     public static void mainDumpBuildStartTime(String[] args) {
         try (Ignite ignite = tcbotServerConnectedClient()) {
-            IgniteCache<Long, Long> bst = ignite.cache(BUILD_START_TIME_CACHE_NAME);
-            Iterator<Cache.Entry<Long, Long>> iterator = bst.iterator();
+            IgniteCache<Long, int[]> bst = ignite.cache(BUILD_START_TIME_BLOCKS_CACHE_NAME);
+            Iterator<Cache.Entry<Long, int[]>> iterator = bst.iterator();
             try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(dumpsDir(),
                     "BuildStartTime.txt")))) {
             while (iterator.hasNext()) {
-                Cache.Entry<Long, Long> next = iterator.next();
+                Cache.Entry<Long, int[]> next = iterator.next();
 
-                Long val = next.getValue();
-                long ageDays = -1;
-                if(val!=null)
-                ageDays = Duration.ofMillis(System.currentTimeMillis() - val).toDays();
+                int[] block = next.getValue();
+                int srvId = BuildRefDao.cacheKeyToSrvId(next.getKey());
+                int blockNo = BuildRefDao.cacheKeyToBuildId(next.getKey());
 
-                writer.write(next.getKey() + " " + val + " " +
-                    ageDays +"\n");
+                for (int i = 0; i < block.length; i++) {
+                    long val = BuildStartTimeStorage.decode(block[i]);
+                    if (val == 0)
+                        continue;
+
+                    long ageDays = Duration.ofMillis(System.currentTimeMillis() - val).toDays();
+
+                    writer.write(BuildRefDao.buildIdToCacheKey(srvId, BuildStartTimeStorage.buildId(blockNo, i))
+                        + " " + val + " " + ageDays + "\n");
+                }
             }
 
             }
@@ -262,7 +270,7 @@ public class RemoteClientTmpHelper {
 
         try (Ignite ignite = tcbotServerConnectedClient()) {
 
-            IgniteCache<Object, Object> cacheStartTimes = ignite.cache(BUILD_START_TIME_CACHE_NAME);
+            IgniteCache<Object, Object> cacheStartTimes = ignite.cache(BUILD_START_TIME_BLOCKS_CACHE_NAME);
 
             buildStartTimes = cacheStartTimes.size();
 
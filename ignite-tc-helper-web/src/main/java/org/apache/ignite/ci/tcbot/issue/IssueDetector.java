@@ -30,6 +30,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -39,7 +40,6 @@ import org.apache.ignite.tcbot.engine.issue.IIssuesStorage;
 import org.apache.ignite.tcbot.engine.issue.IssueType;
 import org.apache.ignite.ci.jobs.CheckQueueJob;
 import org.apache.ignite.tcbot.engine.tracked.DisplayMode;
-import org.apache.ignite.tcbot.notify.ISlackSender;
 import org.apache.ignite.tcbot.engine.user.IUserStorage;
 import org.apache.ignite.ci.teamcity.ignited.change.ChangeCompacted;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
@@ -58,7 +58,7 @@ import org.apache.ignite.tcbot.engine.ui.DsChainUi;
 import org.apache.ignite.tcbot.engine.ui.DsSuiteUi;
 import org.apache.ignite.tcbot.engine.ui.DsSummaryUi;
 import org.apache.ignite.tcbot.engine.ui.DsTestFailureUi;
-import org.apache.ignite.tcbot.notify.IEmailSender;
+import org.apache.ignite.tcbot.notify.NotificationDispatcher;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.ITeamcityIgnitedProvider;
@@ -102,11 +102,8 @@ public class IssueDetector {
     /** Config. */
     @Inject private ITcBotConfig cfg;
 
-    /** Email sender. */
-    @Inject private IEmailSender emailSender;
-
-    /** Email sender. */
-    @Inject private ISlackSender slackSender;
+    /** Notifications dispatcher. */
+    @Inject private NotificationDispatcher notificationDispatcher;
 
     /** Send notification guard. */
     private final AtomicBoolean sndNotificationGuard = new AtomicBoolean();
@@ -162,7 +159,13 @@ public class IssueDetector {
         AtomicInteger hasSubscriptions = new AtomicInteger();
         AtomicInteger neverSentBefore = new AtomicInteger();
 
-        issuesStorage.allIssues()
+        long outboxMaxAgeMs = TimeUnit.HOURS.toMillis(Math.max(TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_HOURS,
+            TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_FOR_NOTIFIED_ISSUE_HOURS));
+
+        // Issues, which are out of notification window and can't be notified anymore.
+        List<Issue> processed = new ArrayList<>();
+
+        issuesStorage.pendingNotifications(outboxMaxAgeMs)
             .peek(issue -> issuesChecked.incrementAndGet())
             .filter(issue -> {
                 long detected = issue.detectedTs == null ? 0 : issue.detectedTs;
@@ -178,7 +181,13 @@ public class IssueDetector {
                     ? TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_HOURS
                     : TcBotConst.NOTIFY_MAX_AGE_SINCE_DETECT_FOR_NOTIFIED_ISSUE_HOURS );
 
-                return issueAgeMs <= bound;
+                if (issueAgeMs > bound) {
+                    processed.add(issue);
+
+                    return false;
+                }
+
+                return true;
             })
             .peek(issue -> filteredFresh.incrementAndGet())
             .filter(issue -> {
@@ -189,7 +198,13 @@ public class IssueDetector {
                 long buildAgeMs = System.currentTimeMillis() - buildStartTs;
                 long maxBuildAgeToNotify = TimeUnit.DAYS.toMillis(TcBotConst.NOTIFY_MAX_AGE_SINCE_START_DAYS) / 2;
 
-                return buildAgeMs <= maxBuildAgeToNotify;
+                if (buildAgeMs > maxBuildAgeToNotify) {
+                    processed.add(issue);
+
+                    return false;
+                }
+
+                return true;
             })
             .peek(issue -> filteredBuildTs.incrementAndGet())
             .filter(issue -> {
@@ -261,6 +276,9 @@ public class IssueDetector {
                     neverSentBefore.incrementAndGet();
             });
 
+        if (!processed.isEmpty())
+            issuesStorage.removeFromOutbox(processed);
+
         String stat = issuesChecked.get() + " issues checked, " +
             filteredFresh.get() + " detected recenty, " +
             filteredBuildTs.get() + " for fresh builds, " +
@@ -278,42 +296,43 @@ public class IssueDetector {
         for (Notification next : toBeSent.values()) {
             String addr = next.addr;
 
-            try {
-                if (addr.startsWith(SLACK)) {
-                    String slackUser = addr.substring(SLACK.length());
-
-                    List<String> messages = next.toSlackMarkup();
+            if (addr.startsWith(SLACK)) {
+                String slackUser = addr.substring(SLACK.length());
 
-                    for (String msg : messages) {
-                        slackSender.sendMessage(slackUser, msg, notifications);
-
-                        sndStat.computeIfAbsent(addr, k -> new AtomicInteger()).incrementAndGet();
-                    }
-                }
-                else {
-                    String builds = next.buildIdToIssue.keySet().toString();
-                    String subj = "[MTCGA]: " + next.countIssues() + " new failures in builds " + builds + " needs to be handled";
-
-                    emailSender.sendEmail(addr, subj, next.toHtml(), next.toPlainText(), notifications);
+                for (List<Issue> buildIssues : next.buildIdToIssue.values()) {
+                    notificationDispatcher.sendSlack(slackUser, next.toSlackMarkup(buildIssues), notifications,
+                        e -> rollbackNotified(buildIssues, addr, e));
 
                     sndStat.computeIfAbsent(addr, k -> new AtomicInteger()).incrementAndGet();
                 }
             }
-            catch (Exception e) {
-                e.printStackTrace();
-                logger.warn("Unable to notify address [" + addr + "] about build failures", e);
+            else {
+                String builds = next.buildIdToIssue.keySet().toString();
+                String subj = "[MTCGA]: " + next.countIssues() + " new failures in builds " + builds + " needs to be handled";
 
-                next.allIssues().forEach(issue -> {
-                        IssueKey key = issue.issueKey();
-                        // rollback successfull notification
-                        issuesStorage.getIsNewAndSetNotified(key, addr, e);
-                    });
+                List<Issue> issues = next.allIssues().collect(Collectors.toList());
+
+                notificationDispatcher.sendEmail(addr, subj, next.toHtml(), next.toPlainText(), notifications,
+                    e -> rollbackNotified(issues, addr, e));
 
-                stat += " ;" + e.getClass().getSimpleName() + ": " + e.getMessage();
+                sndStat.computeIfAbsent(addr, k -> new AtomicInteger()).incrementAndGet();
             }
         }
 
-        return "Send " + sndStat.toString() + "; Statistics: " + stat;
+        return "Queued " + sndStat.toString() + "; Statistics: " + stat;
+    }
+
+    /**
+     * Rollbacks notified flag of issues after failed notification, so it can be sent again.
+     *
+     * @param issues Issues.
+     * @param addr Address.
+     * @param e Notification failure.
+     */
+    private void rollbackNotified(Collection<Issue> issues, String addr, Exception e) {
+        logger.warn("Unable to notify address [" + addr + "] about build failures", e);
+
+        issues.forEach(issue -> issuesStorage.getIsNewAndSetNotified(issue.issueKey(), addr, e));
     }
 
     /**
@@ -167,19 +167,11 @@ public class Notification {
         return "";
     }
 
-    public List<String> toSlackMarkup() {
-        List<String> res = new ArrayList<>();
-
-        for (Map.Entry<Integer, List<Issue>> nextEntry : buildIdToIssue.entrySet()) {
-            List<Issue> issues = nextEntry.getValue();
-
-            res.add(toSlackMarkup(issues));
-        }
-
-        return res;
-    }
-
-    private String toSlackMarkup(List<Issue> issues) {
+    /**
+     * @param issues Issues of one build.
+     * @return Slack message about issues.
+     */
+    String toSlackMarkup(List<Issue> issues) {
         StringBuilder sb = new StringBuilder();
 
         sb.append(":warning: ");
@@ -51,6 +51,7 @@ import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.ITeamcityIgnitedProvider;
 import org.apache.ignite.tcignited.SyncMode;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildHeader;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.ProblemCompacted;
 import org.apache.ignite.ci.user.ITcBotUserCreds;
 import org.apache.ignite.tcbot.common.util.FutureUtil;
@@ -98,7 +99,7 @@ public class MasterTrendsService {
     public void initialize(BuildStatisticsSummary s, @Nonnull final ITeamcityIgnited tcIgn) {
         BuildStatisticsSummary.initStrings(compactor);
 
-        FatBuildCompacted build = tcIgn.getFatBuild(s.buildId);
+        FatBuildHeader build = tcIgn.getFatBuildHeader(s.buildId);
 
         s.isFakeStub = build.isFakeStub();
 
@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.tcbot.visa;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.cache.Cache;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.ci.db.TcHelperDb;
+import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
+import org.apache.ignite.githubignited.PullRequestsSavedEvent;
+import org.apache.ignite.jiraignited.TicketsSavedEvent;
+import org.apache.ignite.jiraservice.Ticket;
+import org.apache.ignite.tcbot.engine.pr.BranchTicketMatcher;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
+import org.apache.ignite.tcignited.event.BuildRefsSavedEvent;
+
+/**
+ * Persisted index of contributions to check: PR/ticket -> resolved TC branch and JIRA ticket. Sync of GitHub, JIRA and
+ * build references marks affected entries as dirty, so only these entries are recomputed on next request. Dirty marks
+ * are saved with computed index; if marks were not saved before restart, index is fully recomputed.
+ */
+public class ContributionIndex {
+    /** Cache name. */
+    public static final String CONTRIBUTION_INDEX_CACHE_NAME = "contributionIndex";
+
+    /** Branch of TC build for PR, e.g. pull/1234/head. */
+    private static final Pattern PR_BRANCH = Pattern.compile("pull/(\\d+)/(head|merge)");
+
+    /** Ignite provider. */
+    @Inject private Provider<Ignite> igniteProvider;
+
+    /** Event bus. */
+    @Inject private TcEventBus eventBus;
+
+    /** Compactor. */
+    @Inject private IStringCompactor compactor;
+
+    /** Index cache: TC server code -> index state. */
+    private volatile IgniteCache<String, ContributionIndexState> idxCache;
+
+    /** Locks serializing updates: TC server code -> lock. */
+    private final ConcurrentMap<String, Object> updateLocks = new ConcurrentHashMap<>();
+
+    /** States loaded from the cache: TC server code -> index state. Guarded by this. */
+    @Nullable private Map<String, ContributionIndexState> states;
+
+    /**
+     * Subscribes to sync events. Should be called before sync is started, so changes are not missed.
+     */
+    public void init() {
+        String name = ContributionIndex.class.getSimpleName();
+
+        eventBus.subscribe(PullRequestsSavedEvent.class, name, this::onPullRequestsSaved);
+        eventBus.subscribe(TicketsSavedEvent.class, name, this::onTicketsSaved);
+        eventBus.subscribe(BuildRefsSavedEvent.class, name, this::onBuildRefsSaved);
+    }
+
+    /**
+     * Updates index of server. Updates of the same server are serialized.
+     *
+     * @param srvCode TC server code.
+     * @param cfgFingerprint Configuration used for computation.
+     * @param gitHubSrvCode GitHub server code.
+     * @param jiraSrvId JIRA server id.
+     * @param tcSrvId TC server id.
+     * @param ticketMentionsMatching Ticket may be matched to PR using its summary and custom fields.
+     * @param computer Function, accepting copy of persisted state with dirty marks (or null if index should be fully
+     * computed) and returning updated state. Returning the same instance means nothing was changed.
+     * @return Actual state.
+     */
+    public ContributionIndexState update(String srvCode, String cfgFingerprint, String gitHubSrvCode,
+        int jiraSrvId, int tcSrvId, boolean ticketMentionsMatching,
+        UnaryOperator<ContributionIndexState> computer) {
+        synchronized (updateLocks.computeIfAbsent(srvCode, k -> new Object())) {
+            ContributionIndexState prev = startUpdate(srvCode, cfgFingerprint, gitHubSrvCode, jiraSrvId, tcSrvId,
+                ticketMentionsMatching);
+
+            ContributionIndexState computed;
+
+            try {
+                computed = computer.apply(prev);
+            }
+            catch (RuntimeException e) {
+                if (prev != null)
+                    restoreDirty(srvCode, prev);
+
+                throw e;
+            }
+
+            if (computed != prev)
+                finishUpdate(srvCode, computed);
+            else
+                unchangedUpdate(srvCode);
+
+            return computed;
+        }
+    }
+
+    /**
+     * Takes dirty marks of server index to start its update.
+     *
+     * @param srvCode TC server code.
+     * @param cfgFingerprint Configuration used for computation.
+     * @param gitHubSrvCode GitHub server code.
+     * @param jiraSrvId JIRA server id.
+     * @param tcSrvId TC server id.
+     * @param ticketMentionsMatching Ticket may be matched to PR using its summary and custom fields.
+     * @return Copy of persisted state with dirty marks, or null if index should be fully computed.
+     */
+    @Nullable private synchronized ContributionIndexState startUpdate(String srvCode, String cfgFingerprint,
+        String gitHubSrvCode, int jiraSrvId, int tcSrvId, boolean ticketMentionsMatching) {
+        ContributionIndexState state = states().computeIfAbsent(srvCode, k -> new ContributionIndexState());
+
+        boolean full = state.cfgFingerprint == null || !state.cfgFingerprint.equals(cfgFingerprint);
+
+        state.gitHubSrvCode = gitHubSrvCode;
+        state.jiraSrvId = jiraSrvId;
+        state.tcSrvId = tcSrvId;
+        state.ticketMentionsMatching = ticketMentionsMatching;
+
+        ContributionIndexState cp = new ContributionIndexState();
+
+        cp.cfgFingerprint = cfgFingerprint;
+        cp.dirtyPrs = state.dirtyPrs;
+        cp.dirtyTickets = state.dirtyTickets;
+
+        state.dirtyPrs = new HashSet<>();
+        state.dirtyTickets = new HashSet<>();
+
+        if (full)
+            return null;
+
+        cp.prContributions = new LinkedHashMap<>(state.prContributions);
+        cp.prLessContributions = new LinkedHashMap<>(state.prLessContributions);
+        cp.prLessBranchToTicket = new HashMap<>(state.prLessBranchToTicket);
+        cp.headRefToPr = new HashMap<>(state.headRefToPr);
+        cp.prMentions = new HashMap<>(state.prMentions);
+
+        return cp;
+    }
+
+    /**
+     * Saves computed index. Entries marked as dirty during computation are kept dirty.
+     *
+     * @param srvCode TC server code.
+     * @param computed Computed state.
+     */
+    private synchronized void finishUpdate(String srvCode, ContributionIndexState computed) {
+        ContributionIndexState state = states().get(srvCode);
+
+        if (state != null) {
+            computed.gitHubSrvCode = state.gitHubSrvCode;
+            computed.jiraSrvId = state.jiraSrvId;
+            computed.tcSrvId = state.tcSrvId;
+            computed.ticketMentionsMatching = state.ticketMentionsMatching;
+            computed.dirtyPrs = state.dirtyPrs;
+            computed.dirtyTickets = state.dirtyTickets;
+        }
+
+        // Marks set during computation are saved now.
+        computed.marksNotSaved = false;
+
+        states().put(srvCode, computed);
+
+        cache().put(srvCode, computed);
+    }
+
+    /**
+     * Saves that dirty marks were processed by update, which did not change the index.
+     *
+     * @param srvCode TC server code.
+     */
+    private synchronized void unchangedUpdate(String srvCode) {
+        ContributionIndexState state = states().get(srvCode);
+
+        if (state == null || !state.marksNotSaved || !state.dirtyPrs.isEmpty() || !state.dirtyTickets.isEmpty())
+            return;
+
+        state.marksNotSaved = false;
+
+        cache().put(srvCode, state);
+    }
+
+    /**
+     * Returns dirty marks taken by failed update.
+     *
+     * @param srvCode TC server code.
+     * @param taken State with taken dirty marks.
+     */
+    private synchronized void restoreDirty(String srvCode, ContributionIndexState taken) {
+        ContributionIndexState state = states().get(srvCode);
+
+        if (state == null)
+            return;
+
+        state.dirtyPrs.addAll(taken.dirtyPrs);
+        state.dirtyTickets.addAll(taken.dirtyTickets);
+    }
+
+    /**
+     * @param evt Event.
+     */
+    private synchronized void onPullRequestsSaved(PullRequestsSavedEvent evt) {
+        states().forEach((srvCode, state) -> {
+            if (!Objects.equals(state.gitHubSrvCode, evt.srvCode()))
+                return;
+
+            boolean changed = false;
+
+            for (Integer prNum : evt.prNumbers()) {
+                if (state.prContributions.containsKey(prNum))
+                    changed |= state.dirtyPrs.add(prNum);
+            }
+
+            if (changed)
+                onMarksChanged(srvCode, state);
+        });
+    }
+
+    /**
+     * @param evt Event.
+     */
+    private synchronized void onTicketsSaved(TicketsSavedEvent evt) {
+        states().forEach((srvCode, state) -> {
+            if (state.jiraSrvId != evt.srvId())
+                return;
+
+            boolean changed = state.dirtyTickets.addAll(evt.ticketKeys());
+
+            for (Map.Entry<Integer, ContributionToCheck> e : state.prContributions.entrySet()) {
+                if (affectedByTickets(state, e.getKey(), e.getValue(), evt))
+                    changed |= state.dirtyPrs.add(e.getKey());
+            }
+
+            if (changed)
+                onMarksChanged(srvCode, state);
+        });
+    }
+
+    /**
+     * @param state Index state.
+     * @param prNum PR number.
+     * @param c PR contribution.
+     * @param evt Saved tickets.
+     * @return {@code True} if ticket of PR was changed, or PR may be matched to a changed ticket by mentions.
+     */
+    private static boolean affectedByTickets(ContributionIndexState state, int prNum, ContributionToCheck c,
+        TicketsSavedEvent evt) {
+        if (c.jiraIssueId != null && evt.ticketKeys().contains(c.jiraIssueId))
+            return true;
+
+        if (!state.ticketMentionsMatching)
+            return false;
+
+        Set<String> mentions = state.prMentions.get(prNum);
+
+        if (mentions == null)
+            return false;
+
+        for (String branchNum : mentions) {
+            for (Ticket ticket : evt.tickets()) {
+                if (BranchTicketMatcher.matchesBranchNum(ticket, branchNum))
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Marks contributions which may get its first build as dirty.
+     *
+     * @param evt Event.
+     */
+    private synchronized void onBuildRefsSaved(BuildRefsSavedEvent evt) {
+        Set<Integer> persistedIds = evt.persisted().values().stream()
+            .map(BuildRefCompacted::id)
+            .collect(Collectors.toSet());
+
+        Set<String> newBuildBranches = evt.saved().stream()
+            .filter(ref -> !persistedIds.contains(ref.id()))
+            .map(ref -> ref.branchName(compactor))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+
+        if (newBuildBranches.isEmpty())
+            return;
+
+        states().forEach((srvCode, state) -> {
+            if (state.tcSrvId != evt.srvId())
+                return;
+
+            boolean changed = false;
+
+            for (String branch : newBuildBranches) {
+                Integer prNum = state.headRefToPr.get(branch);
+
+                if (prNum == null) {
+                    Matcher matcher = PR_BRANCH.matcher(branch);
+
+                    if (matcher.matches())
+                        prNum = Integer.valueOf(matcher.group(1));
+                }
+
+                if (prNum != null && state.prContributions.containsKey(prNum))
+                    changed |= state.dirtyPrs.add(prNum);
+
+                String ticket = state.prLessBranchToTicket.get(branch);
+
+                if (ticket != null)
+                    changed |= state.dirtyTickets.add(ticket);
+            }
+
+            if (changed)
+                onMarksChanged(srvCode, state);
+        });
+    }
+
+    /**
+     * Dirty marks are kept in memory until next update saves the index. Only the first mark after save is written to
+     * the cache, to flag that persisted index may miss marks and should be fully recomputed after restart.
+     *
+     * @param srvCode TC server code.
+     * @param state Index state with new dirty marks.
+     */
+    private void onMarksChanged(String srvCode, ContributionIndexState state) {
+        if (state.marksNotSaved)
+            return;
+
+        state.marksNotSaved = true;
+
+        cache().put(srvCode, state);
+    }
+
+    /**
+     * @return States of all servers, loaded from the cache on first call.
+     */
+    private synchronized Map<String, ContributionIndexState> states() {
+        if (states == null) {
+            Map<String, ContributionIndexState> loaded = new HashMap<>();
+
+            for (Cache.Entry<String, ContributionIndexState> entry : cache()) {
+                ContributionIndexState state = entry.getValue();
+
+                // Index saved without mentions or marks may be stale, it is fully recomputed on first update.
+                if (state.marksNotSaved || state.prMentions == null) {
+                    state.cfgFingerprint = null;
+                    state.prMentions = new HashMap<>();
+                }
+
+                loaded.put(entry.getKey(), state);
+            }
+
+            states = loaded;
+        }
+
+        return states;
+    }
+
+    /**
+     * @return Index cache.
+     */
+    private IgniteCache<String, ContributionIndexState> cache() {
+        if (idxCache == null)
+            idxCache = igniteProvider.get().getOrCreateCache(TcHelperDb.getCacheV3Config(CONTRIBUTION_INDEX_CACHE_NAME));
+
+        return idxCache;
+    }
+}
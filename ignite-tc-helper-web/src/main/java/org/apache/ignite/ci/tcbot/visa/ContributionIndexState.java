@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.tcbot.visa;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persisted state of {@link ContributionIndex} for one TC server: contributions computed last time and marks of entries
+ * changed by sync since then.
+ */
+public class ContributionIndexState {
+    /** Configuration used for computation, index is fully recomputed if it was changed. */
+    String cfgFingerprint;
+
+    /** GitHub server code. */
+    String gitHubSrvCode;
+
+    /** JIRA server id. */
+    int jiraSrvId;
+
+    /** TC server id. */
+    int tcSrvId;
+
+    /** Ticket may be matched to PR using its summary and custom fields, see {@link #prMentions}. */
+    boolean ticketMentionsMatching;
+
+    /** PR based contributions: PR number -> contribution. */
+    Map<Integer, ContributionToCheck> prContributions = new LinkedHashMap<>();
+
+    /** PR-less contributions having GitHub branch or TC builds: ticket key -> contribution. */
+    Map<String, ContributionToCheck> prLessContributions = new LinkedHashMap<>();
+
+    /** TC branch -> key of active ticket resolved for this branch, for all PR-less candidates. */
+    Map<String, String> prLessBranchToTicket = new HashMap<>();
+
+    /** Head ref branch of open PR -> PR number. */
+    Map<String, Integer> headRefToPr = new HashMap<>();
+
+    /** PR number -> branch numbers mentioned by PR title or head ref, used to match tickets by mentions. */
+    Map<Integer, Set<String>> prMentions = new HashMap<>();
+
+    /** PRs to be recomputed. */
+    Set<Integer> dirtyPrs = new HashSet<>();
+
+    /** Tickets to be recomputed. */
+    Set<String> dirtyTickets = new HashSet<>();
+
+    /** Dirty marks are kept in memory and may be lost on restart, index is fully recomputed after restart then. */
+    boolean marksNotSaved;
+}
@@ -31,8 +31,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -64,6 +67,8 @@ import org.apache.ignite.jiraservice.Ticket;
 import org.apache.ignite.tcbot.common.conf.IGitHubConfig;
 import org.apache.ignite.tcbot.common.conf.IJiraServerConfig;
 import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
+import org.apache.ignite.tcbot.common.util.FutureUtil;
+import org.apache.ignite.tcbot.common.util.IoExecutors;
 import org.apache.ignite.tcbot.engine.conf.ITcBotConfig;
 import org.apache.ignite.tcbot.engine.pr.BranchTicketMatcher;
 import org.apache.ignite.tcbot.engine.pr.PrChainsProcessor;
@@ -134,6 +139,9 @@ public class TcBotTriggerAndSignOffService {
     @Inject
     BranchTicketMatcher ticketMatcher;
 
+    /** Contribution index. */
+    @Inject ContributionIndex contributionIdx;
+
     /** Jackson serializer. */
     private final ObjectMapper objMapper = new ObjectMapper();
 
@@ -394,6 +402,9 @@ public class TcBotTriggerAndSignOffService {
     }
 
     /**
+     * Provides contributions from {@link ContributionIndex}, only entries changed by sync since previous call are
+     * recomputed.
+     *
      * @param srvCodeOrAlias Server id.
      * @param credsProv Credentials
      */
@@ -405,108 +416,244 @@ public class TcBotTriggerAndSignOffService {
 
         ITeamcityIgnited tcIgn = tcIgnitedProv.server(srvCodeOrAlias, credsProv);
 
-        List<PullRequest> prs = gitHubConnIgnited.getPullRequests();
-
-        Set<Ticket> tickets = jiraIntegration.getTickets();
-
         IJiraServerConfig jiraCfg = jiraIntegration.config();
         IGitHubConfig ghCfg = gitHubConnIgnited.config();
 
         String defBtForTcServ = findDefaultBuildType(srvCodeOrAlias);
 
-        List<ContributionToCheck> contribsList = new ArrayList<>();
+        String cfgFingerprint = defBtForTcServ
+            + "|" + ghCfg.code() + "|" + ghCfg.gitBranchPrefix() + "|" + ghCfg.isPreferBranches()
+            + "|" + jiraCfg.getCode() + "|" + jiraCfg.getUrl() + "|" + jiraCfg.projectCodeForVisa()
+            + "|" + jiraCfg.branchNumPrefix();
+
+        ContributionIndexState idx = contributionIdx.update(tcIgn.serverCode(),
+            cfgFingerprint,
+            ghCfg.code(),
+            IJiraIgnited.serverIdToInt(jiraCfg.getCode()),
+            ITeamcityIgnited.serverIdToInt(tcIgn.serverCode()),
+            !Strings.isNullOrEmpty(jiraCfg.branchNumPrefix()),
+            prev -> updateContributions(prev, cfgFingerprint, defBtForTcServ, jiraIntegration, gitHubConnIgnited, tcIgn));
+
+        List<ContributionToCheck> contribsList = new ArrayList<>(idx.prContributions.values());
+
+        contribsList.addAll(idx.prLessContributions.values());
+
+        return contribsList;
+    }
+
+    /**
+     * @param prev Previous state with dirty marks, or null if all contributions should be computed.
+     * @param cfgFingerprint Configuration used for computation.
+     * @param defBtForTcServ Default build type.
+     * @param jiraIntegration Jira integration.
+     * @param gitHubConnIgnited GitHub integration.
+     * @param tcIgn TC server.
+     * @return New state, or {@code prev} if nothing was changed.
+     */
+    private ContributionIndexState updateContributions(@Nullable ContributionIndexState prev,
+        String cfgFingerprint,
+        String defBtForTcServ,
+        IJiraIgnited jiraIntegration,
+        IGitHubConnIgnited gitHubConnIgnited,
+        ITeamcityIgnited tcIgn) {
+        boolean full = prev == null;
+
+        ContributionIndexState idx = new ContributionIndexState();
+
+        idx.cfgFingerprint = cfgFingerprint;
+
+        boolean changed = full;
+
+        List<PullRequest> prs = gitHubConnIgnited.getPullRequests();
+
+        Set<Ticket> tickets = jiraIntegration.getTickets();
 
         if (prs != null) {
-            prs.forEach(pr -> {
-                ContributionToCheck c = new ContributionToCheck();
-
-                c.prNumber = pr.getNumber();
-                c.prTitle = pr.getTitle();
-                c.prHtmlUrl = pr.htmlUrl();
-                c.prHeadCommit = pr.lastCommitShaShort();
-                c.prTimeUpdate = pr.getTimeUpdate();
-
-                GitHubUser user = pr.gitHubUser();
-                if (user != null) {
-                    c.prAuthor = user.login();
-                    c.prAuthorAvatarUrl = user.avatarUrl();
-                }
-                else {
-                    c.prAuthor = "";
-                    c.prAuthorAvatarUrl = "";
-                }
+            for (PullRequest pr : prs) {
+                ContributionToCheck c = full ? null : prev.prContributions.get(pr.getNumber());
 
-                Ticket ticket = ticketMatcher.resolveTicketIdForPrBasedContrib(tickets, jiraCfg, pr.getTitle());
+                if (c == null
+                    || prev.dirtyPrs.contains(pr.getNumber())
+                    || !Objects.equals(c.prTimeUpdate, pr.getTimeUpdate())
+                    || !Objects.equals(c.prHeadCommit, pr.lastCommitShaShort())) {
+                    c = prContribution(pr, tickets, defBtForTcServ, jiraIntegration, gitHubConnIgnited, tcIgn);
 
-                if (ticket == null || ticket.id == 0) {
-                    if (pr.head() != null && pr.head().ref() != null)
-                        ticket = ticketMatcher.resolveTicketIdForPrBasedContrib(tickets, jiraCfg, pr.head().ref());
+                    changed = true;
                 }
 
-                c.jiraIssueId = ticket == null ? null : ticket.key;
-                c.jiraStatusName = ticket == null ? null : ticket.status();
+                idx.prContributions.put(pr.getNumber(), c);
+
+                GitHubBranch head = pr.head();
+                String headRef = head == null ? null : head.ref();
+
+                if (headRef != null)
+                    idx.headRefToPr.put(headRef, pr.getNumber());
+
+                Set<String> mentions = ticketMatcher.findBranchNumMentions(jiraIntegration.config(), pr.getTitle(),
+                    headRef);
+
+                if (!mentions.isEmpty())
+                    idx.prMentions.put(pr.getNumber(), mentions);
+            }
+        }
 
-                if (!Strings.isNullOrEmpty(c.jiraIssueId)
-                        && jiraCfg.getUrl() != null)
-                    c.jiraIssueUrl = jiraIntegration.generateTicketUrl(c.jiraIssueId);
+        if (!full && idx.prContributions.size() != prev.prContributions.size())
+            changed = true;
 
-                findBuildsForPr(defBtForTcServ, Integer.toString(pr.getNumber()), gitHubConnIgnited, tcIgn)
-                        .stream()
-                        .map(buildRefCompacted -> buildRefCompacted.branchName(compactor))
-                        .findAny()
-                        .ifPresent(bName -> c.tcBranchName = bName);
+        Set<String> branches = new HashSet<>(gitHubConnIgnited.getBranches());
 
-                contribsList.add(c);
+        Set<String> ticketsToCheck = new HashSet<>();
+
+        if (!full) {
+            ticketsToCheck.addAll(prev.dirtyTickets);
+
+            // Contribution without builds is shown as soon as its branch is pushed to GitHub.
+            prev.prLessBranchToTicket.forEach((branch, ticketKey) -> {
+                if (!prev.prLessContributions.containsKey(ticketKey) && branches.contains(branch))
+                    ticketsToCheck.add(ticketKey);
+            });
+
+            prev.prLessBranchToTicket.forEach((branch, ticketKey) -> {
+                if (!ticketsToCheck.contains(ticketKey))
+                    idx.prLessBranchToTicket.put(branch, ticketKey);
+            });
+
+            prev.prLessContributions.forEach((ticketKey, c) -> {
+                if (!ticketsToCheck.contains(ticketKey))
+                    idx.prLessContributions.put(ticketKey, c);
             });
         }
 
-        List<String> branches = gitHubConnIgnited.getBranches();
+        if (full || !ticketsToCheck.isEmpty()) {
+            tickets.stream()
+                .filter(Ticket::isActiveContribution)
+                .filter(ticket -> full || ticketsToCheck.contains(ticket.key))
+                .forEach(ticket -> addPrLessContribution(idx, ticket, branches, defBtForTcServ, jiraIntegration,
+                    gitHubConnIgnited, tcIgn));
 
-        List<Ticket> activeTickets = tickets.stream().filter(Ticket::isActiveContribution).collect(Collectors.toList());
+            changed = true;
+        }
 
-        activeTickets.forEach(ticket -> {
-            String branch = ticketMatcher.resolveTcBranchForPrLess(ticket,
-                jiraCfg,
-                ghCfg);
+        return changed ? idx : prev;
+    }
 
-            if (Strings.isNullOrEmpty(branch))
-                return; // nothing to do if branch was not resolved
+    /**
+     * @param pr Pull request.
+     * @param tickets Tickets.
+     * @param defBtForTcServ Default build type.
+     * @param jiraIntegration Jira integration.
+     * @param gitHubConnIgnited GitHub integration.
+     * @param tcIgn TC server.
+     */
+    private ContributionToCheck prContribution(PullRequest pr,
+        Set<Ticket> tickets,
+        String defBtForTcServ,
+        IJiraIgnited jiraIntegration,
+        IGitHubConnIgnited gitHubConnIgnited,
+        ITeamcityIgnited tcIgn) {
+        IJiraServerConfig jiraCfg = jiraIntegration.config();
 
+        ContributionToCheck c = new ContributionToCheck();
 
-            if (!branches.contains(branch)
-                && tcIgn.getAllBuildsCompacted(defBtForTcServ, branch).isEmpty())
-                return; //Skipping contributions without builds
+        c.prNumber = pr.getNumber();
+        c.prTitle = pr.getTitle();
+        c.prHtmlUrl = pr.htmlUrl();
+        c.prHeadCommit = pr.lastCommitShaShort();
+        c.prTimeUpdate = pr.getTimeUpdate();
 
-            ContributionToCheck contribution = new ContributionToCheck();
+        GitHubUser user = pr.gitHubUser();
+        if (user != null) {
+            c.prAuthor = user.login();
+            c.prAuthorAvatarUrl = user.avatarUrl();
+        }
+        else {
+            c.prAuthor = "";
+            c.prAuthorAvatarUrl = "";
+        }
 
-            contribution.jiraIssueId = ticket.key;
-            contribution.jiraStatusName = ticket.status();
-            contribution.jiraIssueUrl = jiraIntegration.generateTicketUrl(ticket.key);
-            contribution.tcBranchName = branch;
+        Ticket ticket = ticketMatcher.resolveTicketIdForPrBasedContrib(tickets, jiraCfg, pr.getTitle());
 
-            if (branch.startsWith(ghCfg.gitBranchPrefix())) {
-                String branchTc = branch.substring(ghCfg.gitBranchPrefix().length());
+        if (ticket == null || ticket.id == 0) {
+            if (pr.head() != null && pr.head().ref() != null)
+                ticket = ticketMatcher.resolveTicketIdForPrBasedContrib(tickets, jiraCfg, pr.head().ref());
+        }
 
-                try {
-                    contribution.prNumber = -Integer.valueOf(branchTc);
-                }
-                catch (NumberFormatException e) {
-                    logger.error("PR less contribution has invalid branch name", e);
-                }
-            }
+        c.jiraIssueId = ticket == null ? null : ticket.key;
+        c.jiraStatusName = ticket == null ? null : ticket.status();
 
-            contribution.prTitle = ticket.fields.summary;
-            contribution.prHtmlUrl = "";
-            contribution.prHeadCommit = "";
-            contribution.prTimeUpdate = ""; //todo ticket updateTime
+        if (!Strings.isNullOrEmpty(c.jiraIssueId)
+                && jiraCfg.getUrl() != null)
+            c.jiraIssueUrl = jiraIntegration.generateTicketUrl(c.jiraIssueId);
 
-            contribution.prAuthor = "";
-            contribution.prAuthorAvatarUrl = "";
+        findBuildsForPr(defBtForTcServ, Integer.toString(pr.getNumber()), gitHubConnIgnited, tcIgn)
+                .stream()
+                .map(buildRefCompacted -> buildRefCompacted.branchName(compactor))
+                .findAny()
+                .ifPresent(bName -> c.tcBranchName = bName);
 
-            contribsList.add(contribution);
-        });
+        return c;
+    }
 
-        return contribsList;
+    /**
+     * Resolves branch for PR-less contribution and adds contribution to index if there is GitHub branch or builds.
+     *
+     * @param idx Index to fill.
+     * @param ticket Active ticket.
+     * @param branches GitHub branches.
+     * @param defBtForTcServ Default build type.
+     * @param jiraIntegration Jira integration.
+     * @param gitHubConnIgnited GitHub integration.
+     * @param tcIgn TC server.
+     */
+    private void addPrLessContribution(ContributionIndexState idx,
+        Ticket ticket,
+        Set<String> branches,
+        String defBtForTcServ,
+        IJiraIgnited jiraIntegration,
+        IGitHubConnIgnited gitHubConnIgnited,
+        ITeamcityIgnited tcIgn) {
+        IGitHubConfig ghCfg = gitHubConnIgnited.config();
+
+        String branch = ticketMatcher.resolveTcBranchForPrLess(ticket,
+            jiraIntegration.config(),
+            ghCfg);
+
+        if (Strings.isNullOrEmpty(branch))
+            return; // nothing to do if branch was not resolved
+
+        idx.prLessBranchToTicket.put(branch, ticket.key);
+
+        if (!branches.contains(branch)
+            && tcIgn.getAllBuildsCompacted(defBtForTcServ, branch).isEmpty())
+            return; //Skipping contributions without builds
+
+        ContributionToCheck contribution = new ContributionToCheck();
+
+        contribution.jiraIssueId = ticket.key;
+        contribution.jiraStatusName = ticket.status();
+        contribution.jiraIssueUrl = jiraIntegration.generateTicketUrl(ticket.key);
+        contribution.tcBranchName = branch;
+
+        if (branch.startsWith(ghCfg.gitBranchPrefix())) {
+            String branchTc = branch.substring(ghCfg.gitBranchPrefix().length());
+
+            try {
+                contribution.prNumber = -Integer.valueOf(branchTc);
+            }
+            catch (NumberFormatException e) {
+                logger.error("PR less contribution has invalid branch name", e);
+            }
+        }
+
+        contribution.prTitle = ticket.fields.summary;
+        contribution.prHtmlUrl = "";
+        contribution.prHeadCommit = "";
+        contribution.prTimeUpdate = ""; //todo ticket updateTime
+
+        contribution.prAuthor = "";
+        contribution.prAuthorAvatarUrl = "";
+
+        idx.prLessContributions.put(ticket.key, contribution);
     }
 
     /**
@@ -611,12 +758,29 @@ public class TcBotTriggerAndSignOffService {
 
         List<String> compositeBuildTypeIds = findApplicableBuildTypes(srvCodeOrAlias, teamcity);
 
-        for (String btId : compositeBuildTypeIds) {
-            List<BuildRefCompacted> buildsForBt = findBuildsForPr(btId, prId, ghConn, teamcity);
+        List<Future<List<BuildRefCompacted>>> buildsFutures = compositeBuildTypeIds.stream()
+            .map(btId -> IoExecutors.shared().submit(() -> findBuildsForPr(btId, prId, ghConn, teamcity)))
+            .collect(Collectors.toList());
+
+        List<List<BuildRefCompacted>> buildsForBts = FutureUtil.getResults(buildsFutures).collect(Collectors.toList());
+
+        Set<Integer> lastFinishedBuilds = buildsForBts.stream()
+            .map(builds -> builds.stream().filter(t -> t.isFinished(compactor)).findFirst())
+            .filter(Optional::isPresent)
+            .map(ref -> ref.get().id())
+            .collect(Collectors.toSet());
+
+        Map<Integer, String> commits = lastFinishedBuilds.isEmpty()
+            ? Collections.emptyMap()
+            : teamcity.getLatestCommitVersions(lastFinishedBuilds);
+
+        for (int i = 0; i < compositeBuildTypeIds.size(); i++) {
+            String btId = compositeBuildTypeIds.get(i);
+            List<BuildRefCompacted> buildsForBt = buildsForBts.get(i);
 
             ContributionCheckStatus contributionAgainstSuite = buildsForBt.isEmpty()
                 ? new ContributionCheckStatus(btId, branchForTcDefault(prId, ghConn))
-                : contributionStatus(srvCodeOrAlias, btId, buildsForBt, teamcity, ghConn, prId);
+                : contributionStatus(srvCodeOrAlias, btId, buildsForBt, teamcity, ghConn, prId, commits);
 
             if(Objects.equals(btId, defaultBuildType))
                 contributionAgainstSuite.defaultBuildType = true;
@@ -697,9 +861,10 @@ public class TcBotTriggerAndSignOffService {
      * @param suiteId Suite id.
      * @param builds Build references.
      * @param ghConn GitHub integration.
+     * @param commits Build ID to commit version, should contain latest finished build of {@code builds}.
      */
     public ContributionCheckStatus contributionStatus(String srvId, String suiteId, List<BuildRefCompacted> builds,
-        ITeamcityIgnited teamcity, IGitHubConnIgnited ghConn, String prId) {
+        ITeamcityIgnited teamcity, IGitHubConnIgnited ghConn, String prId, Map<Integer, String> commits) {
         ContributionCheckStatus status = new ContributionCheckStatus(suiteId);
 
         List<BuildRefCompacted> finishedOrCancelled = builds.stream()
@@ -711,9 +876,7 @@ public class TcBotTriggerAndSignOffService {
             status.suiteIsFinished = !buildRefCompacted.isCancelled(compactor);
             status.branchWithFinishedSuite = buildRefCompacted.branchName(compactor);
 
-            FatBuildCompacted fatBuild = teamcity.getFatBuild(buildRefCompacted.id(), SyncMode.NONE);
-
-            String commit = teamcity.getLatestCommitVersion(fatBuild);
+            String commit = commits.get(buildRefCompacted.id());
 
             if (!Strings.isNullOrEmpty(commit) && commit.length() > PullRequest.INCLUDE_SHORT_VER) {
                 status.finishedSuiteCommit
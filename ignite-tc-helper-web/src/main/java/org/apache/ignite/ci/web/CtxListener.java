@@ -28,11 +28,15 @@ import javax.servlet.ServletContextListener;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.ci.db.TcHelperDb;
 import org.apache.ignite.ci.tcbot.TcBotWebAppModule;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTaskInterceptor;
+import org.apache.ignite.tcbot.common.util.HttpClientPool;
 import org.apache.ignite.tcbot.engine.pool.TcUpdatePool;
+import org.apache.ignite.tcbot.notify.NotificationDispatcher;
 import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
 import org.apache.ignite.ci.observer.BuildObserver;
 import org.apache.ignite.ci.tcbot.issue.IssueDetector;
+import org.apache.ignite.tcignited.build.TcRequestsPool;
 import org.apache.ignite.tcservice.http.TeamcityRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +56,7 @@ public class CtxListener implements ServletContextListener {
     /** {@inheritDoc} */
     @Override public void contextInitialized(ServletContextEvent sctxEvt) {
         initLoggerBridge();
+        initHttpKeepAlive();
         TcBotWebAppModule igniteTcBotModule = new TcBotWebAppModule();
         Injector injectorPreCreated = Guice.createInjector(igniteTcBotModule);
 
@@ -62,6 +67,20 @@ public class CtxListener implements ServletContextListener {
         ctx.setAttribute(INJECTOR, injector);
     }
 
+    /**
+     * Aligns count of idle connections kept alive by JDK for one host with HTTP connections limit. Should be called
+     * before first HTTP request, because JDK reads this property once.
+     */
+    private void initHttpKeepAlive() {
+        if (System.getProperty(TcBotSystemProperties.JDK_HTTP_MAX_CONNECTIONS) != null)
+            return;
+
+        int maxConnections = Integer.getInteger(TcBotSystemProperties.HTTP_MAX_CONNECTIONS_PER_HOST,
+            HttpClientPool.DFLT_MAX_CONNECTIONS_PER_HOST);
+
+        System.setProperty(TcBotSystemProperties.JDK_HTTP_MAX_CONNECTIONS, Integer.toString(maxConnections));
+    }
+
     /**
      * initializes logger bridgle for jul->Slf4j redirection for Jersey.
      */
@@ -85,10 +104,12 @@ public class CtxListener implements ServletContextListener {
 
         try {
             injector.getInstance(IssueDetector.class).stop();
+            injector.getInstance(NotificationDispatcher.class).stop();
             injector.getInstance(TcUpdatePool.class).stop();
             injector.getInstance(BuildObserver.class).stop();
 
             injector.getInstance(IScheduler.class).stop();
+            injector.getInstance(TcRequestsPool.class).stop();
         }
         catch (Exception e) {
             e.printStackTrace();
@@ -25,6 +25,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.security.DenyAll;
 import javax.annotation.security.PermitAll;
 import javax.annotation.security.RolesAllowed;
@@ -69,6 +70,9 @@ public class AuthenticationFilter implements ContainerRequestFilter {
     private static final String AUTHENTICATION_SCHEME = "Basic";
     private static final String TOKEN_SCHEME = "Token";
 
+    /** Session last activity is persisted not more often than this interval to avoid a write for each request. */
+    private static final long SESSION_ACTIVITY_SAVE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
     private static Response rspUnathorized() {
         return Response.status(Response.Status.UNAUTHORIZED)
                 .entity("You cannot access this resource. Please (re)login").build();
@@ -205,9 +209,13 @@ public class AuthenticationFilter implements ContainerRequestFilter {
             return false;
         }
 
-        ses.lastActiveTs = System.currentTimeMillis();
+        long now = System.currentTimeMillis();
+
+        if (ses.lastActiveTs == null || now - ses.lastActiveTs > SESSION_ACTIVITY_SAVE_INTERVAL_MS) {
+            ses.lastActiveTs = now;
 
-        users.putSession(sessId, ses);
+            users.putSession(sessId, ses);
+        }
 
         reqCtx.setProperty(ITcBotUserCreds._KEY, createCredsProv(user, userKey));
 
@@ -24,6 +24,10 @@ import org.apache.ignite.cache.affinity.Affinity;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfilingInterceptor;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTaskInterceptor;
 import org.apache.ignite.ci.web.CtxListener;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
+import org.apache.ignite.tcbot.persistence.scheduler.TaskPriority;
+import org.apache.ignite.tcignited.history.HistoryCollector;
 
 import javax.annotation.security.PermitAll;
 import javax.servlet.ServletContext;
@@ -129,4 +133,36 @@ public class MonitoringService {
         }
         return res;
     }
+
+    @GET
+    @PermitAll
+    @Path("historyMemory")
+    public List<SuiteHistoryMemoryUi> getHistoryMemory() {
+        HistoryCollector histCollector = CtxListener.getInjector(ctx).getInstance(HistoryCollector.class);
+        IStringCompactor compactor = CtxListener.getInjector(ctx).getInstance(IStringCompactor.class);
+
+        return histCollector.inMemHistories().entrySet().stream()
+            .map(e -> new SuiteHistoryMemoryUi(e.getKey().srvId(),
+                compactor.getStringFromId(e.getKey().testNameOrSuite()),
+                compactor.getStringFromId(e.getKey().branch()),
+                e.getValue().testsCount(),
+                e.getValue().buildsCount(),
+                e.getValue().testStatusesFootprint()))
+            .sorted(Comparator.comparing((SuiteHistoryMemoryUi h) -> h.statusesBytes).reversed())
+            .collect(Collectors.toList());
+    }
+
+    @GET
+    @PermitAll
+    @Path("schedulerQueues")
+    public List<SchedulerQueueUi> getSchedulerQueues() {
+        IScheduler scheduler = CtxListener.getInjector(ctx).getInstance(IScheduler.class);
+
+        Map<TaskPriority, Integer> queued = scheduler.queueDepth();
+        Map<TaskPriority, Integer> running = scheduler.runningTasks();
+
+        return Stream.of(TaskPriority.values())
+            .map(p -> new SchedulerQueueUi(p.name(), queued.getOrDefault(p, 0), running.getOrDefault(p, 0)))
+            .collect(Collectors.toList());
+    }
 }
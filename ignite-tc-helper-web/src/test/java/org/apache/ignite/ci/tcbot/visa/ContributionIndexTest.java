@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.ci.tcbot.visa;
+
+import com.google.common.collect.Sets;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.githubignited.PullRequestsSavedEvent;
+import org.apache.ignite.jiraignited.TicketsSavedEvent;
+import org.apache.ignite.jiraservice.Fields;
+import org.apache.ignite.jiraservice.Ticket;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dirty marks of contribution index set by sync events.
+ */
+public class ContributionIndexTest {
+    /** TC server code. */
+    private static final String SRV = "apache";
+
+    /** GitHub server code. */
+    private static final String GH = "apache";
+
+    /** JIRA server id. */
+    private static final int JIRA_ID = 1;
+
+    /** TC server id. */
+    private static final int TC_ID = 2;
+
+    /** Config fingerprint. */
+    private static final String CFG = "cfg";
+
+    /** Index cache. */
+    @SuppressWarnings("unchecked")
+    private final IgniteCache<String, ContributionIndexState> cache = mock(IgniteCache.class);
+
+    /** Event bus. */
+    private TcEventBus eventBus;
+
+    /** Index. */
+    private ContributionIndex idx;
+
+    /** */
+    @Before
+    public void setUp() {
+        Ignite ignite = mock(Ignite.class);
+
+        when(ignite.getOrCreateCache(any(CacheConfiguration.class))).thenReturn(cache);
+        when(cache.iterator()).thenReturn(Collections.emptyIterator());
+
+        eventBus = new TcEventBus();
+
+        idx = Guice.createInjector(new AbstractModule() {
+            @Override protected void configure() {
+                bind(Ignite.class).toInstance(ignite);
+                bind(TcEventBus.class).toInstance(eventBus);
+                bind(IStringCompactor.class).toInstance(mock(IStringCompactor.class));
+            }
+        }).getInstance(ContributionIndex.class);
+
+        idx.init();
+    }
+
+    /** */
+    @Test
+    public void testTicketSaveMarksOnlyPrsMentioningTicket() {
+        ContributionIndexState state = new ContributionIndexState();
+
+        addPr(state, 1, null, "IGNITE-12345");
+        addPr(state, 2, null, "IGNITE-777");
+        addPr(state, 3, "IGNITE-9");
+
+        computeFull(state, true);
+
+        eventBus.publish(new TicketsSavedEvent(JIRA_ID,
+            Collections.singletonList(ticket("IGNITE-100", "Fix for IGNITE-12345 branch"))));
+
+        assertEquals(Collections.singleton(1), takeDirtyPrs(true));
+
+        eventBus.publish(new TicketsSavedEvent(JIRA_ID,
+            Arrays.asList(ticket("IGNITE-9", "Other"), ticket("IGNITE-777", "Key is mentioned"))));
+
+        assertEquals(Sets.newHashSet(2, 3), takeDirtyPrs(true));
+
+        eventBus.publish(new TicketsSavedEvent(JIRA_ID,
+            Collections.singletonList(ticket("IGNITE-101", "Unrelated"))));
+
+        assertEquals(Collections.emptySet(), takeDirtyPrs(true));
+    }
+
+    /** */
+    @Test
+    public void testTicketSaveMarksPrOfResolvedTicket() {
+        ContributionIndexState state = new ContributionIndexState();
+
+        addPr(state, 1, "IGNITE-1");
+        addPr(state, 2, "IGNITE-2");
+
+        computeFull(state, false);
+
+        eventBus.publish(new TicketsSavedEvent(JIRA_ID, Collections.singletonList(ticket("IGNITE-2", "IGNITE-1"))));
+
+        assertEquals(Collections.singleton(2), takeDirtyPrs(false));
+    }
+
+    /** */
+    @Test
+    public void testPrSaveMarksOnlyIndexedPrs() {
+        ContributionIndexState state = new ContributionIndexState();
+
+        addPr(state, 1, null);
+
+        computeFull(state, false);
+
+        eventBus.publish(new PullRequestsSavedEvent(GH, Sets.newHashSet(1, 42)));
+        eventBus.publish(new PullRequestsSavedEvent("other", Sets.newHashSet(1)));
+
+        assertEquals(Collections.singleton(1), takeDirtyPrs(false));
+    }
+
+    /** */
+    @Test
+    public void testMarksOfFailedRecomputeAreKept() {
+        ContributionIndexState state = new ContributionIndexState();
+
+        addPr(state, 1, "IGNITE-1");
+
+        computeFull(state, false);
+
+        eventBus.publish(new TicketsSavedEvent(JIRA_ID, Collections.singletonList(ticket("IGNITE-1", ""))));
+
+        try {
+            update(false, prev -> {
+                throw new IllegalStateException("Test failure");
+            });
+
+            fail();
+        }
+        catch (IllegalStateException ignored) {
+            // Expected.
+        }
+
+        assertEquals(Collections.singleton(1), takeDirtyPrs(false));
+    }
+
+    /** */
+    @Test
+    public void testMarksSetDuringRecomputeAreKept() {
+        ContributionIndexState state = new ContributionIndexState();
+
+        addPr(state, 1, "IGNITE-1");
+        addPr(state, 2, "IGNITE-2");
+
+        computeFull(state, false);
+
+        update(false, prev -> {
+            eventBus.publish(new PullRequestsSavedEvent(GH, Collections.singleton(2)));
+
+            ContributionIndexState computed = new ContributionIndexState();
+
+            computed.prContributions.putAll(prev.prContributions);
+
+            return computed;
+        });
+
+        assertEquals(Collections.singleton(2), takeDirtyPrs(false));
+    }
+
+    /** */
+    @Test
+    public void testStateIsSavedOnceForSeveralEvents() {
+        ContributionIndexState state = new ContributionIndexState();
+
+        addPr(state, 1, "IGNITE-1");
+
+        computeFull(state, false);
+
+        verify(cache, times(1)).put(anyString(), any());
+
+        for (int i = 0; i < 3; i++)
+            eventBus.publish(new PullRequestsSavedEvent(GH, Collections.singleton(1)));
+
+        // Only the first mark flags the persisted index.
+        verify(cache, times(2)).put(anyString(), any());
+
+        assertEquals(Collections.singleton(1), takeDirtyPrs(false));
+
+        // Update without changes clears the flag.
+        verify(cache, times(3)).put(anyString(), any());
+    }
+
+    /**
+     * @param state Computed state.
+     * @param mentions Tickets are matched by mentions.
+     */
+    private void computeFull(ContributionIndexState state, boolean mentions) {
+        update(mentions, prev -> {
+            assertNull(prev);
+
+            return state;
+        });
+    }
+
+    /**
+     * Runs update, which does not change the index.
+     *
+     * @param mentions Tickets are matched by mentions.
+     * @return PRs marked as dirty since previous update.
+     */
+    private Set<Integer> takeDirtyPrs(boolean mentions) {
+        AtomicReference<Set<Integer>> res = new AtomicReference<>();
+
+        update(mentions, prev -> {
+            res.set(new HashSet<>(prev.dirtyPrs));
+
+            return prev;
+        });
+
+        return res.get();
+    }
+
+    /**
+     * @param mentions Tickets are matched by mentions.
+     * @param computer Computer.
+     */
+    private void update(boolean mentions, UnaryOperator<ContributionIndexState> computer) {
+        idx.update(SRV, CFG, GH, JIRA_ID, TC_ID, mentions, computer);
+    }
+
+    /**
+     * @param state State.
+     * @param prNum PR number.
+     * @param jiraIssueId Resolved ticket.
+     * @param mentions Branch numbers mentioned by PR.
+     */
+    private static void addPr(ContributionIndexState state, int prNum, String jiraIssueId, String... mentions) {
+        ContributionToCheck c = new ContributionToCheck();
+
+        c.prNumber = prNum;
+        c.jiraIssueId = jiraIssueId;
+
+        state.prContributions.put(prNum, c);
+
+        if (mentions.length > 0)
+            state.prMentions.put(prNum, new HashSet<>(Arrays.asList(mentions)));
+    }
+
+    /**
+     * @param key Ticket key.
+     * @param summary Summary.
+     */
+    private static Ticket ticket(String key, String summary) {
+        Ticket ticket = new Ticket(key);
+
+        ticket.fields = new Fields();
+        ticket.fields.summary = summary;
+
+        return ticket;
+    }
+}
@@ -60,6 +60,10 @@ public class TeamcityIgnitedMock {
         when(tcIgnited.getFatBuild(anyInt(), any(SyncMode.class))).thenAnswer(buildAnswer);
         when(tcIgnited.getFatBuild(anyInt())).thenAnswer(buildAnswer);
 
+        Answer<Object> hdrAnswer = inv -> ((FatBuildCompacted)buildAnswer.answer(inv)).header();
+        when(tcIgnited.getFatBuildHeader(anyInt(), any(SyncMode.class))).thenAnswer(hdrAnswer);
+        when(tcIgnited.getFatBuildHeader(anyInt())).thenAnswer(hdrAnswer);
+
         when(tcIgnited.getAllBuildsCompacted(anyString(), anyString()))
             .thenAnswer(inv -> {
                 String btId = inv.getArgument(0);
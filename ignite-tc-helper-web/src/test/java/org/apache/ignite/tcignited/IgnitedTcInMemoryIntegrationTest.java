@@ -48,6 +48,7 @@ import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
 import org.apache.ignite.Ignition;
@@ -57,6 +58,7 @@ import org.apache.ignite.ci.tcbot.issue.IssueDetectorTest;
 import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
 import org.apache.ignite.ci.teamcity.ignited.buildtype.BuildTypeRefCompacted;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildHeader;
 import org.apache.ignite.ci.teamcity.pure.BuildHistoryEmulator;
 import org.apache.ignite.ci.user.ITcBotUserCreds;
 import org.apache.ignite.configuration.IgniteConfiguration;
@@ -76,6 +78,7 @@ import org.apache.ignite.tcbot.persistence.TcBotPersistenceModule;
 import org.apache.ignite.tcbot.persistence.scheduler.DirectExecNoWaitScheduler;
 import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
 import org.apache.ignite.tcignited.build.FatBuildDao;
+import org.apache.ignite.tcignited.build.ITest;
 import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
 import org.apache.ignite.tcignited.build.TestCompactedV2;
 import org.apache.ignite.tcignited.buildlog.ILogProductSpecific;
@@ -100,7 +103,9 @@ import org.apache.ignite.tcservice.model.result.Triggered;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrence;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrences;
 import org.apache.ignite.tcservice.model.result.stat.Statistics;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
 import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesParser;
 import org.apache.ignite.tcservice.model.vcs.Revision;
 import org.apache.ignite.tcservice.model.vcs.Revisions;
 import org.apache.ignite.tcservice.util.XmlUtil;
@@ -170,6 +175,7 @@ public class IgnitedTcInMemoryIntegrationTest {
     @Before
     public void clearIgniteCaches() {
         clearCache(BuildRefDao.TEAMCITY_BUILD_CACHE_NAME);
+        clearCache(BuildRefDao.TEAMCITY_BUILD_IDX_CACHE_NAME);
         clearCache(FatBuildDao.TEAMCITY_FAT_BUILD_CACHE_NAME);
 
         BuildRefCompacted.resetCached();
@@ -544,6 +550,23 @@ public class IgnitedTcInMemoryIntegrationTest {
         assertTrue(problems.stream().anyMatch(ProblemOccurrence::isExitCode));
         assertTrue(problems.stream().noneMatch(ProblemOccurrence::isJvmCrash));
 
+        FatBuildHeader hdr = stor.getBuildHeader(srvIdMaskHigh, 2153237);
+        assertNotNull(hdr);
+        assertEquals(fatBuild.id(), hdr.id());
+        assertEquals(refBuild.buildTypeId(), hdr.buildTypeId(compactor));
+        assertEquals(refBuild.state(), hdr.state(compactor));
+        assertEquals(fatBuild.getStartDateTs(), hdr.getStartDateTs());
+        assertEquals(refBt.getProjectId(), hdr.projectId(compactor));
+        assertEquals(refTrig.getUser().username, hdr.triggeredByUsername(compactor));
+        assertEquals(fatBuild.isComposite(), hdr.isComposite());
+        assertFalse(hdr.isFakeStub());
+
+        assertEquals(buildCompacted.problems(), stor.getProblems(srvIdMaskHigh, 2153237));
+
+        ITest test = fatBuild.getAllTests().findFirst().orElseThrow(IllegalStateException::new);
+        assertEquals(test, stor.findTest(srvIdMaskHigh, 2153237, test.testName()));
+        assertNull(stor.findTest(srvIdMaskHigh, 2153237, -1));
+
         Long duration = buildCompacted.buildDuration(compactor);
         assertNotNull(duration);
         assertTrue(duration > 10000L);
@@ -577,6 +600,49 @@ public class IgnitedTcInMemoryIntegrationTest {
         assertEquals(refBuild.parameter(parmKey), actBuild.parameter(parmKey));
     }
 
+    @Test
+    public void testTestOccurrencesParserMatchesJaxb() throws JAXBException, IOException, XMLStreamException {
+        TestOccurrencesFull ref = jaxbTestXml("/testList.xml", TestOccurrencesFull.class);
+
+        List<TestOccurrenceFull> act = new ArrayList<>();
+        String nextHref;
+
+        try (InputStream stream = getClass().getResourceAsStream("/testList.xml")) {
+            nextHref = TestOccurrencesParser.parse(stream, act::add);
+        }
+
+        assertNotNull(ref.nextHref());
+        assertEquals(ref.nextHref(), nextHref);
+
+        List<TestOccurrenceFull> refTests = ref.getTests();
+        assertFalse(refTests.isEmpty());
+        assertEquals(refTests.size(), act.size());
+
+        for (int i = 0; i < refTests.size(); i++) {
+            TestOccurrenceFull refOcc = refTests.get(i);
+            TestOccurrenceFull actOcc = act.get(i);
+            String id = refOcc.getId();
+
+            assertEquals(id, actOcc.getId());
+            assertEquals(id, refOcc.name, actOcc.name);
+            assertEquals(id, refOcc.status, actOcc.status);
+            assertEquals(id, refOcc.duration, actOcc.duration);
+            assertEquals(id, refOcc.href, actOcc.href);
+            assertEquals(id, refOcc.muted, actOcc.muted);
+            assertEquals(id, refOcc.currentlyMuted, actOcc.currentlyMuted);
+            assertEquals(id, refOcc.currentlyInvestigated, actOcc.currentlyInvestigated);
+            assertEquals(id, refOcc.ignored, actOcc.ignored);
+            assertEquals(id, refOcc.details, actOcc.details);
+
+            assertNotNull(id, actOcc.test);
+            assertEquals(id, refOcc.test.id, actOcc.test.id);
+            assertEquals(id, refOcc.test.name, actOcc.test.name);
+
+            assertNotNull(id, actOcc.build);
+            assertEquals(id, refOcc.build.getId(), actOcc.build.getId());
+        }
+    }
+
     private void saveTmpFile(Object obj, String name) throws IOException, JAXBException {
         ensureDirExist(new File(name).getParentFile());
 
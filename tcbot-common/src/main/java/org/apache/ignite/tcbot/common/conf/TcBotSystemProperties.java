@@ -34,4 +34,28 @@ public class TcBotSystemProperties {
 
     /** System property to specify: Teamcity helper home. Ignite home will be set to same dir. */
     public static final String TEAMCITY_HELPER_HOME = "teamcity.helper.home";
+
+    /** Connect timeout for HTTP requests to integrated services, milliseconds. */
+    public static final String HTTP_CONNECT_TIMEOUT = "teamcity.bot.http.connectTimeout";
+
+    /** Read timeout for HTTP requests to integrated services, milliseconds. */
+    public static final String HTTP_READ_TIMEOUT = "teamcity.bot.http.readTimeout";
+
+    /** Max count of connections opened in parallel to one host. */
+    public static final String HTTP_MAX_CONNECTIONS_PER_HOST = "teamcity.bot.http.maxConnectionsPerHost";
+
+    /**
+     * JDK property: max idle keep-alive connections cached per destination, default is 5. Set at web application
+     * startup to {@link #HTTP_MAX_CONNECTIONS_PER_HOST} value if not specified by user.
+     */
+    public static final String JDK_HTTP_MAX_CONNECTIONS = "http.maxConnections";
+
+    /**
+     * Run blocking I/O fan-out (TC, GitHub, JIRA requests) on virtual threads if supported by JVM, boolean. If JVM
+     * does not support virtual threads, fixed pools of platform threads are used.
+     */
+    public static final String IO_VIRTUAL_THREADS = "teamcity.bot.io.virtualThreads";
+
+    /** Full reindex of build references loads ranges of builds in parallel and is continued after restart, boolean. */
+    public static final String BUILD_REFS_PARALLEL_REINDEX = "teamcity.bot.buildRefs.parallelReindex";
 }
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcbot.common.util;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Strings;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nullable;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+import org.apache.ignite.tcbot.common.exeption.ServiceBadRequestException;
+import org.apache.ignite.tcbot.common.exeption.ServiceConflictException;
+import org.apache.ignite.tcbot.common.exeption.ServiceUnauthorizedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP client shared by all integrations (TC, GitHub, JIRA). Limits count of connections opened to one host in
+ * parallel, keeps connections alive between requests, requests gzip-encoded responses and provides asynchronous API.
+ *
+ * Connection is counted as used until its response stream is closed or read up to the end.
+ */
+public class HttpClientPool {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientPool.class);
+
+    /** Default timeout for connect and read, ms. */
+    public static final int DFLT_TIMEOUT = 60000;
+
+    /** Default max connections to one host. */
+    public static final int DFLT_MAX_CONNECTIONS_PER_HOST = 16;
+
+    /** Shared instance. */
+    private static final HttpClientPool SHARED = new HttpClientPool(
+        Integer.getInteger(TcBotSystemProperties.HTTP_CONNECT_TIMEOUT, DFLT_TIMEOUT),
+        Integer.getInteger(TcBotSystemProperties.HTTP_READ_TIMEOUT, DFLT_TIMEOUT),
+        Integer.getInteger(TcBotSystemProperties.HTTP_MAX_CONNECTIONS_PER_HOST, DFLT_MAX_CONNECTIONS_PER_HOST));
+
+    /** Connect timeout, ms. */
+    private final int connectTimeout;
+
+    /** Read timeout, ms. */
+    private final int readTimeout;
+
+    /** Max connections to one host. */
+    private final int maxConnectionsPerHost;
+
+    /** Connections permits by host and port. */
+    private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    /**
+     * @param connectTimeout Connect timeout, ms.
+     * @param readTimeout Read timeout, ms.
+     * @param maxConnectionsPerHost Max connections to one host.
+     */
+    public HttpClientPool(int connectTimeout, int readTimeout, int maxConnectionsPerHost) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * @return Instance shared by all integrations.
+     */
+    public static HttpClientPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Sends request and returns response stream. Stream should be closed by caller.
+     *
+     * @param mtd HTTP method.
+     * @param url URL.
+     * @param headers Request headers.
+     * @param body Request body, sent in UTF-8.
+     * @param rspHeaders [IN] - required headers name->null, [OUT] required headers: name->value.
+     * @return Input stream with decoded response body.
+     * @throws IOException If communication failed.
+     * @throws FileNotFoundException If not found (404) was returned from service.
+     * @throws ServiceConflictException If conflict (409) was returned from service.
+     * @throws IllegalStateException if some unexpected HTTP error returned.
+     */
+    public InputStream send(String mtd, String url, Map<String, String> headers, @Nullable String body,
+        @Nullable Map<String, String> rspHeaders) throws IOException {
+        Stopwatch started = Stopwatch.createStarted();
+        URL obj = new URL(url);
+        Semaphore permits = hostPermits.computeIfAbsent(obj.getHost() + ":" + obj.getPort(),
+            k -> new Semaphore(maxConnectionsPerHost));
+
+        try {
+            permits.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while waiting for connection to " + obj.getHost());
+        }
+
+        boolean success = false;
+
+        try {
+            HttpURLConnection con = (HttpURLConnection)obj.openConnection();
+
+            con.setConnectTimeout(connectTimeout);
+            con.setReadTimeout(readTimeout);
+            con.setRequestMethod(mtd);
+
+            con.setRequestProperty("accept-charset", StandardCharsets.UTF_8.toString());
+            con.setRequestProperty("Accept-Encoding", "gzip");
+            con.setRequestProperty("Connection", "Keep-Alive");
+            con.setRequestProperty("Keep-Alive", "header");
+
+            headers.forEach(con::setRequestProperty);
+
+            if (body != null) {
+                con.setDoOutput(true);
+
+                try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream(), StandardCharsets.UTF_8)) {
+                    writer.write(body);
+                }
+            }
+
+            int resCode = con.getResponseCode();
+
+            if (rspHeaders != null)
+                rspHeaders.keySet().forEach(k -> rspHeaders.put(k, con.getHeaderField(k)));
+
+            if (body == null) {
+                logger.info(Thread.currentThread().getName() + ": Required: " + started.elapsed(TimeUnit.MILLISECONDS)
+                    + "ms : Sending '" + mtd + "' request to : " + url + " Response: " + resCode);
+            }
+            else
+                logger.info("\nSending '" + mtd + "' request to URL : " + url + "\n" + body);
+
+            InputStream is = getInputStream(con, resCode);
+
+            success = true;
+
+            return new PermitReleasingInputStream(is, permits);
+        }
+        finally {
+            if (!success)
+                permits.release();
+        }
+    }
+
+    /**
+     * Sends request asynchronously. Request is executed by {@link IoExecutors#shared()}, so no threads are owned by
+     * the pool; count of requests running in parallel is still limited by per host permits.
+     *
+     * @param mtd HTTP method.
+     * @param url URL.
+     * @param headers Request headers.
+     * @param body Request body, sent in UTF-8.
+     * @return Future for response body as string, completed exceptionally with {@link CompletionException} if request
+     * failed.
+     */
+    public CompletableFuture<String> sendAsync(String mtd, String url, Map<String, String> headers,
+        @Nullable String body) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream is = send(mtd, url, headers, body, null)) {
+                return readIsToString(is);
+            }
+            catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, IoExecutors.shared());
+    }
+
+    /**
+     * Get input stream for successful connection. Throws exception if connection response wasn't successful.
+     *
+     * @param con Http connection.
+     * @param resCode Response code.
+     * @return Input stream from connection.
+     */
+    private static InputStream getInputStream(HttpURLConnection con, int resCode) throws IOException {
+        // Successful responses (with code 200+).
+        if (resCode / 100 == 2)
+            return decode(con, con.getInputStream());
+
+        String detailsFromResponeText;
+
+        try (InputStream errStream = decode(con, con.getErrorStream())) {
+            detailsFromResponeText = readIsToString(errStream);
+        }
+
+        if (resCode == 400)
+            throw new ServiceBadRequestException(detailsFromResponeText);
+
+        if (resCode == 401)
+            throw new ServiceUnauthorizedException("Service " + con.getURL() + " returned forbidden error.");
+
+        if (resCode == 404)
+            throw new FileNotFoundException("Service " + con.getURL() + " returned not found error. " + detailsFromResponeText);
+
+        if (resCode == 409)
+            throw new ServiceConflictException("Service " + con.getURL() + " returned Conflict Response Code :\n" + detailsFromResponeText);
+
+        throw new IllegalStateException("Service " + con.getURL() + " returned Invalid Response Code : " + resCode + ":\n"
+                + detailsFromResponeText);
+    }
+
+    /**
+     * @param con Connection.
+     * @param is Raw response stream.
+     * @return Stream with content encoding removed.
+     */
+    @Nullable private static InputStream decode(HttpURLConnection con, @Nullable InputStream is) throws IOException {
+        if (is != null && "gzip".equalsIgnoreCase(Strings.nullToEmpty(con.getContentEncoding()).trim()))
+            return new GZIPInputStream(is);
+
+        return is;
+    }
+
+    /**
+     * @param inputStream Input stream.
+     */
+    static String readIsToString(@Nullable InputStream inputStream) throws IOException {
+        if (inputStream == null)
+            return "<null>";
+
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String inputLine;
+        StringBuilder res = new StringBuilder();
+
+        while ((inputLine = in.readLine()) != null) {
+            res.append(inputLine);
+            res.append("\n");
+        }
+        return res.toString();
+    }
+
+    /**
+     * Returns host connection permit when response is read up to the end or closed.
+     */
+    private static class PermitReleasingInputStream extends FilterInputStream {
+        /** Permits. */
+        private final Semaphore permits;
+
+        /** Released flag. */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        /**
+         * @param in Response stream.
+         * @param permits Host permits.
+         */
+        PermitReleasingInputStream(InputStream in, Semaphore permits) {
+            super(in);
+
+            this.permits = permits;
+        }
+
+        /** {@inheritDoc} */
+        @Override public int read() throws IOException {
+            int res = super.read();
+
+            if (res < 0)
+                release();
+
+            return res;
+        }
+
+        /** {@inheritDoc} */
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            int res = super.read(b, off, len);
+
+            if (res < 0)
+                release();
+
+            return res;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void close() throws IOException {
+            try {
+                super.close();
+            }
+            finally {
+                release();
+            }
+        }
+
+        /** */
+        private void release() {
+            if (released.compareAndSet(false, true))
+                permits.release();
+        }
+    }
+}
@@ -17,57 +17,23 @@
 
 package org.apache.ignite.tcbot.common.util;
 
-import com.google.common.base.Stopwatch;
-import java.io.BufferedReader;
+import com.google.common.collect.ImmutableMap;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
-import org.apache.ignite.tcbot.common.exeption.ServiceUnauthorizedException;
-import org.apache.ignite.tcbot.common.exeption.ServiceBadRequestException;
 import org.apache.ignite.tcbot.common.exeption.ServiceConflictException;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 
 /**
- * Methods for sending HTTP requests
+ * Methods for sending HTTP requests. Requests are sent using connections of {@link HttpClientPool#shared()}.
  */
 public class HttpUtil {
-    /** Logger. */
-    private static final Logger logger = LoggerFactory.getLogger(HttpUtil.class);
-
-    /**
-     * @param inputStream Input stream.
-     */
-    private static String readIsToString(InputStream inputStream) throws IOException {
-        if (inputStream == null)
-            return "<null>";
-
-        BufferedReader in = new BufferedReader(
-            new InputStreamReader(inputStream));
-        String inputLine;
-        StringBuilder res = new StringBuilder();
-
-        while ((inputLine = in.readLine()) != null) {
-            res.append(inputLine);
-            res.append("\n");
-        }
-        return res.toString();
-    }
-
     /**
      * Send GET request to the TeamCity url.
      *
@@ -80,23 +46,8 @@ public class HttpUtil {
      * @throws IllegalStateException if some unexpected HTTP error returned.
      */
     public static InputStream sendGetWithBasicAuth(String basicAuthTok, String url) throws IOException {
-        final Stopwatch started = Stopwatch.createStarted();
-        URL obj = new URL(url);
-        HttpURLConnection con = (HttpURLConnection)obj.openConnection();
-        con.setConnectTimeout(60000); //todo make configurable
-        con.setReadTimeout(60000);
-
-        con.setRequestProperty("Authorization", "Basic " + basicAuthTok);
-        con.setRequestProperty("Connection", "Keep-Alive");
-        con.setRequestProperty("Keep-Alive", "header");
-        con.setRequestProperty("accept-charset", StandardCharsets.UTF_8.toString());
-
-        int resCode = con.getResponseCode();
-
-        logger.info(Thread.currentThread().getName() + ": Required: " + started.elapsed(TimeUnit.MILLISECONDS)
-            + "ms : Sending 'GET' request to : " + url + " Response: " + resCode);
-
-        return getInputStream(con);
+        return HttpClientPool.shared().send("GET", url,
+            ImmutableMap.of("Authorization", "Basic " + basicAuthTok), null, null);
     }
 
     /**
@@ -109,30 +60,11 @@ public class HttpUtil {
      * @throws IOException If failed.
      */
     public static InputStream sendGetToGit(String githubAuthTok, String url, @Nullable Map<String, String> rspHeaders) throws IOException {
-        Stopwatch started = Stopwatch.createStarted();
-        URL obj = new URL(url);
-        HttpURLConnection con = (HttpURLConnection)obj.openConnection();
-
-        if (githubAuthTok != null)
-            con.setRequestProperty("Authorization", "token " + githubAuthTok);
+        Map<String, String> headers = githubAuthTok != null
+            ? ImmutableMap.of("Authorization", "token " + githubAuthTok)
+            : ImmutableMap.of();
 
-        con.setRequestProperty("accept-charset", StandardCharsets.UTF_8.toString());
-        con.setRequestProperty("Connection", "Keep-Alive");
-        con.setRequestProperty("Keep-Alive", "header");
-
-        int resCode = con.getResponseCode();
-
-        if(rspHeaders != null) {
-            rspHeaders.keySet().forEach((k) -> {
-                String link = con.getHeaderField(k);
-
-                rspHeaders.put(k, link);
-            });
-        }
-        logger.info(Thread.currentThread().getName() + ": Required: " + started.elapsed(TimeUnit.MILLISECONDS)
-            + "ms : Sending 'GET' request to : " + url + " Response: " + resCode);
-
-        return getInputStream(con);
+        return HttpClientPool.shared().send("GET", url, headers, null, rspHeaders);
     }
 
     /**
@@ -152,68 +84,13 @@ public class HttpUtil {
     }
 
     public static String sendPostAsString(String basicAuthTok, String url, String body) throws IOException {
-        try (InputStream inputStream = sendPostWithBasicAuth(basicAuthTok, url, body)){
-            return readIsToString(inputStream);
-        }
-    }
-
-    private static InputStream sendPostWithBasicAuth(String tok, String url,
-        String body) throws IOException {
-        URL obj = new URL(url);
-        HttpURLConnection con = (HttpURLConnection)obj.openConnection();
+        Map<String, String> headers = ImmutableMap.of(
+            "Authorization", "Basic " + basicAuthTok,
+            "content-type", "application/xml");
 
-        con.setRequestMethod("POST");
-        con.setRequestProperty("Authorization", "Basic " + tok);
-        con.setRequestProperty("Connection", "Keep-Alive");
-        con.setRequestProperty("Keep-Alive", "header");
-        Charset charset = StandardCharsets.UTF_8;
-
-        con.setRequestProperty("accept-charset", charset.toString());
-        con.setRequestProperty("content-type", "application/xml");
-
-        con.setDoOutput(true);
-        try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream(), charset)){
-            writer.write(body); // Write POST query string (if any needed).
+        try (InputStream inputStream = HttpClientPool.shared().send("POST", url, headers, body, null)) {
+            return HttpClientPool.readIsToString(inputStream);
         }
-
-        logger.info("\nSending 'POST' request to URL : " + url + "\n" + body);
-
-        return getInputStream(con);
-    }
-
-    /**
-     * Get input stream for successful connection. Throws exception if connection response wasn't successful.
-     *
-     * @param con Http connection.
-     * @return Input stream from connection.
-     * @throws IOException If communication failed.
-     * @throws FileNotFoundException If not found (404) was returned from service.
-     * @throws ServiceConflictException If conflict (409) was returned from service.
-     * @throws IllegalStateException if some unexpected HTTP error returned.
-     */
-    private static InputStream getInputStream(HttpURLConnection con) throws IOException {
-        int resCode = con.getResponseCode();
-
-        // Successful responses (with code 200+).
-        if (resCode / 100 == 2)
-            return con.getInputStream();
-
-        String detailsFromResponeText = readIsToString(con.getErrorStream());
-
-        if (resCode == 400)
-            throw new ServiceBadRequestException(detailsFromResponeText);
-
-        if (resCode == 401)
-            throw new ServiceUnauthorizedException("Service " + con.getURL() + " returned forbidden error.");
-
-        if (resCode == 404)
-            throw new FileNotFoundException("Service " + con.getURL() + " returned not found error. " + detailsFromResponeText);
-
-        if (resCode == 409)
-            throw new ServiceConflictException("Service " + con.getURL() + " returned Conflict Response Code :\n" + detailsFromResponeText);
-
-        throw new IllegalStateException("Service " + con.getURL() + " returned Invalid Response Code : " + resCode + ":\n"
-                + detailsFromResponeText);
     }
 
     /**
@@ -226,28 +103,12 @@ public class HttpUtil {
      * @throws IOException If failed.
      */
     public static String sendPostAsStringToGit(String githubAuthTok, String url, String body) throws IOException {
-        URL obj = new URL(url);
-        HttpURLConnection con = (HttpURLConnection)obj.openConnection();
-        Charset charset = StandardCharsets.UTF_8;
-
-        con.setRequestProperty("accept-charset", charset.toString());
-        con.setRequestProperty("Authorization", "token " + githubAuthTok);
-        con.setRequestProperty("Connection", "Keep-Alive");
-        con.setRequestProperty("Keep-Alive", "header");
-        con.setRequestProperty("content-type", "application/json");
-
-        con.setRequestMethod("POST");
-
-        con.setDoOutput(true);
+        Map<String, String> headers = ImmutableMap.of(
+            "Authorization", "token " + githubAuthTok,
+            "content-type", "application/json");
 
-        try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream(), charset)){
-            writer.write(body); // Write POST query string (if any needed).
-        }
-
-        logger.info("\nSending 'POST' request to URL : " + url + "\n" + body);
-
-        try (InputStream inputStream = getInputStream(con)){
-            return readIsToString(inputStream);
+        try (InputStream inputStream = HttpClientPool.shared().send("POST", url, headers, body, null)) {
+            return HttpClientPool.readIsToString(inputStream);
         }
     }
 
@@ -261,28 +122,8 @@ public class HttpUtil {
      * @throws IOException If failed.
      */
     public static String sendPostAsStringToJira(String jiraAuthTok, String url, String body) throws IOException {
-        URL obj = new URL(url);
-        HttpURLConnection con = (HttpURLConnection)obj.openConnection();
-        Charset charset = StandardCharsets.UTF_8;
-
-        con.setRequestProperty("accept-charset", charset.toString());
-        con.setRequestProperty("Authorization", "Basic " + jiraAuthTok);
-        con.setRequestProperty("content-type", "application/json");
-        con.setRequestProperty("Connection", "Keep-Alive");
-        con.setRequestProperty("Keep-Alive", "header");
-
-        con.setRequestMethod("POST");
-
-        con.setDoOutput(true);
-
-        try (OutputStreamWriter writer = new OutputStreamWriter(con.getOutputStream(), charset)){
-            writer.write(body); // Write POST query string (if any needed).
-        }
-
-        logger.info("\nSending 'POST' request to URL : " + url + "\n" + body);
-
-        try (InputStream inputStream = getInputStream(con)) {
-            return readIsToString(inputStream);
+        try (InputStream inputStream = HttpClientPool.shared().send("POST", url, jiraHeaders(jiraAuthTok), body, null)) {
+            return HttpClientPool.readIsToString(inputStream);
         }
     }
 
@@ -293,26 +134,17 @@ public class HttpUtil {
      * @param url Url.
      */
     public static String sendGetToJira(String jiraAuthTok, String url) throws IOException {
-        Stopwatch started = Stopwatch.createStarted();
-        URL obj = new URL(url);
-        HttpURLConnection con = (HttpURLConnection)obj.openConnection();
-        Charset charset = StandardCharsets.UTF_8;
-
-        con.setRequestProperty("accept-charset", charset.toString());
-        con.setRequestProperty("Authorization", "Basic " + jiraAuthTok);
-        con.setRequestProperty("content-type", "application/json");
-        con.setRequestProperty("Connection", "Keep-Alive");
-        con.setRequestProperty("Keep-Alive", "header");
-
-        con.setRequestMethod("GET");
-
-        int resCode = con.getResponseCode();
-
-        logger.info(Thread.currentThread().getName() + ": Required: " + started.elapsed(TimeUnit.MILLISECONDS)
-            + "ms : Sending 'GET' request to : " + url + " Response: " + resCode);
-
-        try (InputStream inputStream = getInputStream(con)) {
-            return readIsToString(inputStream);
+        try (InputStream inputStream = HttpClientPool.shared().send("GET", url, jiraHeaders(jiraAuthTok), null, null)) {
+            return HttpClientPool.readIsToString(inputStream);
         }
     }
+
+    /**
+     * @param jiraAuthTok Jira auth token.
+     */
+    private static Map<String, String> jiraHeaders(String jiraAuthTok) {
+        return ImmutableMap.of(
+            "Authorization", "Basic " + jiraAuthTok,
+            "content-type", "application/json");
+    }
 }
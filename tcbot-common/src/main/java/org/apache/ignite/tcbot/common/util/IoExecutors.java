@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.common.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nullable;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executors for blocking I/O requests to integrated services. If {@link TcBotSystemProperties#IO_VIRTUAL_THREADS} is
+ * set and JVM supports virtual threads, each task is executed in its own virtual thread, so count of requests running
+ * in parallel is limited only by {@link HttpClientPool} per host limit. Otherwise fixed pools of platform threads are
+ * used.
+ */
+public class IoExecutors {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(IoExecutors.class);
+
+    /** Count of platform threads in shared executor. */
+    public static final int SHARED_PLATFORM_THREADS = 16;
+
+    /** Virtual threads are requested and supported. */
+    private static final boolean VIRTUAL = Boolean.getBoolean(TcBotSystemProperties.IO_VIRTUAL_THREADS)
+        && virtualThreadsSupported();
+
+    /** Shared executor for short fan-outs of requests. */
+    private static volatile ExecutorService shared;
+
+    /**
+     * @return {@code true} if virtual threads are used for I/O executors.
+     */
+    public static boolean virtualThreads() {
+        return VIRTUAL;
+    }
+
+    /**
+     * @return Executor shared by components without own pool.
+     */
+    public static ExecutorService shared() {
+        ExecutorService svc = shared;
+
+        if (svc != null)
+            return svc;
+
+        synchronized (IoExecutors.class) {
+            if (shared == null)
+                shared = newIoExecutor("io-shared-", SHARED_PLATFORM_THREADS);
+
+            return shared;
+        }
+    }
+
+    /**
+     * @param namePrefix Thread name prefix.
+     * @param platformThreads Count of threads if virtual threads are not used.
+     * @return New executor, should be stopped by caller.
+     */
+    public static ExecutorService newIoExecutor(String namePrefix, int platformThreads) {
+        ExecutorService virtual = newVirtualExecutor(namePrefix);
+
+        if (virtual != null)
+            return virtual;
+
+        ThreadFactory threadFactory = Executors.defaultThreadFactory();
+
+        return Executors.newFixedThreadPool(platformThreads, r -> {
+            Thread thread = threadFactory.newThread(r);
+
+            thread.setName(namePrefix + thread.getName());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * @param namePrefix Thread name prefix.
+     * @return New executor starting virtual thread per task, or {@code null} if virtual threads are not used.
+     */
+    @Nullable public static ExecutorService newVirtualExecutor(String namePrefix) {
+        if (!VIRTUAL)
+            return null;
+
+        try {
+            return newVirtualThreadPerTaskExecutor(namePrefix);
+        }
+        catch (Exception e) {
+            logger.error("Failed to create virtual threads executor, platform threads will be used", e);
+
+            return null;
+        }
+    }
+
+    /**
+     * Creates executor using reflection, so code is compatible with JDKs without virtual threads.
+     *
+     * @param namePrefix Thread name prefix.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) throws Exception {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        Class<?> builderCls = Class.forName("java.lang.Thread$Builder");
+
+        builder = builderCls.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+
+        ThreadFactory factory = (ThreadFactory)builderCls.getMethod("factory").invoke(builder);
+        Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+
+        return (ExecutorService)newExecutor.invoke(null, factory);
+    }
+
+    /**
+     * @return {@code true} if virtual threads can be started in this JVM.
+     */
+    private static boolean virtualThreadsSupported() {
+        try {
+            newVirtualThreadPerTaskExecutor("io-check-").shutdown();
+
+            return true;
+        }
+        catch (Exception e) {
+            logger.warn("Virtual threads are requested, but not supported by JVM, platform threads will be used: "
+                + e);
+
+            return false;
+        }
+    }
+}
@@ -214,6 +214,35 @@ public class TcHelperUser implements IVersionedEntity, INotificationChannel {
         return Boolean.TRUE.equals(admin);
     }
 
+    /**
+     * @return Copy of the user, credentials, keys and collections are not shared with this instance.
+     */
+    public TcHelperUser copy() {
+        TcHelperUser res = new TcHelperUser();
+
+        res._version = _version;
+        res.username = username;
+        res.salt = salt == null ? null : salt.clone();
+        res.userKeyKcv = userKeyKcv == null ? null : userKeyKcv.clone();
+
+        if (credentialsList != null) {
+            res.credentialsList = new ArrayList<>(credentialsList.size());
+
+            for (Credentials creds : credentialsList)
+                res.credentialsList.add(creds.copy());
+        }
+        else
+            res.credentialsList = null;
+
+        res.fullName = fullName;
+        res.email = email;
+        res.additionalEmails = additionalEmails == null ? null : new LinkedHashSet<>(additionalEmails);
+        res.admin = admin;
+        res.subscribedToAllFailures = subscribedToAllFailures == null ? null : new TreeSet<>(subscribedToAllFailures);
+
+        return res;
+    }
+
     public static class Credentials {
         String serverId;
         String username;
@@ -229,6 +258,17 @@ public class TcHelperUser implements IVersionedEntity, INotificationChannel {
             this.username = serviceLogin;
         }
 
+        /**
+         * @return Copy of the credentials.
+         */
+        Credentials copy() {
+            Credentials res = new Credentials(serverId, username);
+
+            res.passwordUnderUserKey = passwordUnderUserKey == null ? null : passwordUnderUserKey.clone();
+
+            return res;
+        }
+
         @Override
         public String toString() {
             return MoreObjects.toStringHelper(this)
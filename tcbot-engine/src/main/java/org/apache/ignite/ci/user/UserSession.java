@@ -30,4 +30,19 @@ public class UserSession {
     public Long lastActiveTs;
 
     public byte[] userKeyUnderToken;
+
+    /**
+     * @return Copy of the session.
+     */
+    public UserSession copy() {
+        UserSession res = new UserSession();
+
+        res.sessId = sessId;
+        res.username = username;
+        res.loginTs = loginTs;
+        res.lastActiveTs = lastActiveTs;
+        res.userKeyUnderToken = userKeyUnderToken == null ? null : userKeyUnderToken.clone();
+
+        return res;
+    }
 }
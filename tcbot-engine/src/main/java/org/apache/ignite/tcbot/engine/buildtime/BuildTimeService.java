@@ -24,6 +24,7 @@ import org.apache.ignite.tcbot.engine.ui.BuildTimeRecordUi;
 import org.apache.ignite.tcbot.engine.ui.BuildTimeResultUi;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
+import org.apache.ignite.tcbot.persistence.scheduler.TaskPriority;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.build.FatBuildDao;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
@@ -66,7 +67,7 @@ public class BuildTimeService {
 
         Collection<String> allSrvs = cfg.getServerIds();
 
-        scheduler.sheduleNamed("BuildTimeService.loadAnalytics",
+        scheduler.sheduleNamed("BuildTimeService.loadAnalytics", TaskPriority.FULL_REINDEX, null,
                 this::loadAnalytics, 15, TimeUnit.MINUTES);
 
         Set<Integer> availableSrvs = allSrvs.stream()
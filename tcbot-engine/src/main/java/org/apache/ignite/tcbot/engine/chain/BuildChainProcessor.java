@@ -357,7 +357,6 @@ public class BuildChainProcessor {
             .stream()
             .filter(bref -> !bref.isCancelled(compactor))
             .filter(bref -> bref.isFinished(compactor))
-            .sorted(Comparator.comparing(BuildRefCompacted::id).reversed())
             .collect(Collectors.toList());
 
         List<Future<FatBuildCompacted>> res = new ArrayList<>();
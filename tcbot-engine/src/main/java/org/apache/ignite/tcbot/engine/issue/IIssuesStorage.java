@@ -17,6 +17,7 @@
 
 package org.apache.ignite.tcbot.engine.issue;
 
+import java.util.Collection;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.apache.ignite.ci.issue.Issue;
@@ -35,6 +36,21 @@ public interface IIssuesStorage {
 
     public Stream<Issue> allIssues();
 
+    /**
+     * Returns issues registered in notification outbox and detected not earlier than max age ago, oldest first.
+     * Outbox entries older than max age are removed, so the scan touches only recently detected issues.
+     *
+     * @param maxAgeMs Max age of issue since detection, milliseconds.
+     */
+    public Stream<Issue> pendingNotifications(long maxAgeMs);
+
+    /**
+     * Removes issues, which can't be notified anymore, from notification outbox, so next rounds don't read them.
+     *
+     * @param issues Processed issues.
+     */
+    public void removeFromOutbox(Collection<Issue> issues);
+
     /**
      * Checks and saves address was notified (NotThreadSafe)
      * @param key issue key.
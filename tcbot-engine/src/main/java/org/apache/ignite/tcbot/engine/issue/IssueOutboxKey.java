@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.engine.issue;
+
+import com.google.common.base.MoreObjects;
+import java.util.Objects;
+import org.apache.ignite.ci.issue.IssueKey;
+import org.apache.ignite.tcbot.persistence.Persisted;
+
+/**
+ * Key of issue waiting for notification in outbox: detection time and issue key.
+ */
+@Persisted
+public class IssueOutboxKey {
+    /** Issue detection timestamp. */
+    private long detectedTs;
+
+    /** Issue key. */
+    private IssueKey issueKey;
+
+    /**
+     * @param detectedTs Issue detection timestamp.
+     * @param issueKey Issue key.
+     */
+    public IssueOutboxKey(long detectedTs, IssueKey issueKey) {
+        this.detectedTs = detectedTs;
+        this.issueKey = issueKey;
+    }
+
+    /**
+     * @return Issue detection timestamp.
+     */
+    public long detectedTs() {
+        return detectedTs;
+    }
+
+    /**
+     * @return Issue key.
+     */
+    public IssueKey issueKey() {
+        return issueKey;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        IssueOutboxKey key = (IssueOutboxKey)o;
+        return detectedTs == key.detectedTs &&
+            Objects.equals(issueKey, key.issueKey);
+    }
+
+    /** {@inheritDoc} */
+    @Override public int hashCode() {
+        return Objects.hash(detectedTs, issueKey);
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("detectedTs", detectedTs)
+            .add("issueKey", issueKey)
+            .toString();
+    }
+}
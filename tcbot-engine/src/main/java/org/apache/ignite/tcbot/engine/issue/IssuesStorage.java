@@ -17,7 +17,15 @@
 
 package org.apache.ignite.tcbot.engine.issue;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -29,6 +37,10 @@ import org.apache.ignite.IgniteCache;
 import org.apache.ignite.ci.issue.Issue;
 import org.apache.ignite.ci.issue.IssueKey;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
+import org.apache.ignite.transactions.Transaction;
+
+import static org.apache.ignite.transactions.TransactionConcurrency.PESSIMISTIC;
+import static org.apache.ignite.transactions.TransactionIsolation.REPEATABLE_READ;
 
 /**
  *
@@ -36,6 +48,9 @@ import org.apache.ignite.tcbot.persistence.CacheConfigs;
 public class IssuesStorage implements IIssuesStorage {
     public static final String BOT_DETECTED_ISSUES = "botDetectedIssues";
 
+    /** Notification outbox: issues pending notification keyed by detection time and issue key. */
+    public static final String BOT_ISSUES_OUTBOX = "botIssuesOutbox";
+
     @Inject
     private Provider<Ignite> igniteProvider;
 
@@ -54,6 +69,14 @@ public class IssuesStorage implements IIssuesStorage {
         return ignite.getOrCreateCache(CacheConfigs.getCacheV2TxConfig(BOT_DETECTED_ISSUES));
     }
 
+    public static IgniteCache<IssueOutboxKey, Boolean> issuesOutboxCache(Ignite ignite) {
+        return ignite.getOrCreateCache(CacheConfigs.getCacheV2TxConfig(BOT_ISSUES_OUTBOX));
+    }
+
+    private IgniteCache<IssueOutboxKey, Boolean> outbox() {
+        return issuesOutboxCache(getIgnite());
+    }
+
     /** {@inheritDoc} */
     @Override public boolean getIsNewAndSetNotified(IssueKey issueKey, String to,
         @Nullable Exception e) {
@@ -118,11 +141,75 @@ public class IssuesStorage implements IIssuesStorage {
 
     /** {@inheritDoc} */
     @Override public void saveIssue(Issue issue) {
-        cache().put(issue.issueKey(), issue);
+        if (issue.detectedTs == null) {
+            cache().put(issue.issueKey(), issue);
+
+            return;
+        }
+
+        // Issue and its outbox entry are saved together, so saved issue can't miss notification.
+        try (Transaction tx = getIgnite().transactions().txStart(PESSIMISTIC, REPEATABLE_READ)) {
+            cache().put(issue.issueKey(), issue);
+
+            outbox().put(new IssueOutboxKey(issue.detectedTs, issue.issueKey()), true);
+
+            tx.commit();
+        }
     }
 
     /** {@inheritDoc} */
     @Override public Stream<Issue> allIssues() {
         return StreamSupport.stream(cache().spliterator(), false).map(Cache.Entry::getValue);
     }
+
+    /** {@inheritDoc} */
+    @Override public Stream<Issue> pendingNotifications(long maxAgeMs) {
+        long minTs = System.currentTimeMillis() - maxAgeMs;
+
+        List<IssueOutboxKey> pending = new ArrayList<>();
+        Set<IssueOutboxKey> expired = new HashSet<>();
+
+        IgniteCache<IssueOutboxKey, Boolean> outbox = outbox();
+
+        for (Cache.Entry<IssueOutboxKey, Boolean> entry : outbox) {
+            IssueOutboxKey key = entry.getKey();
+
+            if (key.detectedTs() < minTs)
+                expired.add(key);
+            else
+                pending.add(key);
+        }
+
+        if (!expired.isEmpty())
+            outbox.removeAll(expired);
+
+        if (pending.isEmpty())
+            return Stream.empty();
+
+        pending.sort(Comparator.comparingLong(IssueOutboxKey::detectedTs));
+
+        Set<IssueKey> issueKeys = new HashSet<>();
+        pending.forEach(k -> issueKeys.add(k.issueKey()));
+
+        Map<IssueKey, Issue> issues = cache().getAll(issueKeys);
+
+        return pending.stream()
+            .map(IssueOutboxKey::issueKey)
+            .distinct()
+            .map(issues::get)
+            .filter(Objects::nonNull);
+    }
+
+    /** {@inheritDoc} */
+    @Override public void removeFromOutbox(Collection<Issue> issues) {
+        Set<IssueOutboxKey> keys = new HashSet<>();
+
+        for (Issue issue : issues) {
+            if (issue.detectedTs != null)
+                keys.add(new IssueOutboxKey(issue.detectedTs, issue.issueKey()));
+        }
+
+        if (!keys.isEmpty())
+            outbox().removeAll(keys);
+    }
 }
@@ -18,23 +18,18 @@
 package org.apache.ignite.tcbot.engine.pool;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import org.apache.ignite.tcbot.common.util.IoExecutors;
 
 /**
- * Component for storing catchable results into ignite and get updates
+ * Component for storing catchable results into ignite and get updates. Uses virtual threads if enabled by
+ * {@link org.apache.ignite.tcbot.common.conf.TcBotSystemProperties#IO_VIRTUAL_THREADS}.
  */
 public class TcUpdatePool {
-    private ThreadFactory threadFactory = Executors.defaultThreadFactory();
+    /** Count of threads if platform threads are used. */
+    public static final int PLATFORM_THREADS = 30;
 
-    private ExecutorService service = Executors.newFixedThreadPool(30, r -> {
-        Thread thread = threadFactory.newThread(r);
-
-        thread.setName("tc-upd-" + thread.getName());
-
-        return thread;
-    });
+    private ExecutorService service = IoExecutors.newIoExecutor("tc-upd-", PLATFORM_THREADS);
 
 
     /**
@@ -19,7 +19,10 @@ package org.apache.ignite.tcbot.engine.pr;
 
 import com.google.common.base.Strings;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -113,6 +116,40 @@ public class BranchTicketMatcher {
         return findTicketMentions(tickets, branchNum);
     }
 
+    /**
+     * @param jiraCfg Jira config.
+     * @param prTitle PR title.
+     * @param headRef PR head branch.
+     * @return Branch numbers mentioned by PR, which are used to find ticket by its mentions. Empty if branch number
+     * prefix is not configured, ticket key is taken from PR title in this case.
+     */
+    public Set<String> findBranchNumMentions(IJiraServerConfig jiraCfg, String prTitle, @Nullable String headRef) {
+        String branchNumPrefix = jiraCfg.branchNumPrefix();
+
+        if (Strings.isNullOrEmpty(branchNumPrefix))
+            return Collections.emptySet();
+
+        Set<String> res = new HashSet<>();
+
+        for (String val : new String[] {prTitle, headRef}) {
+            String branchNum = findFixPrefixedNumber(val, branchNumPrefix);
+
+            if (branchNum != null)
+                res.add(branchNum);
+        }
+
+        return res;
+    }
+
+    /**
+     * @param ticket Ticket.
+     * @param branchNum Branch number mentioned by PR.
+     * @return {@code True} if ticket may be found for PR by the mention: by ticket key, summary or custom field.
+     */
+    public static boolean matchesBranchNum(Ticket ticket, String branchNum) {
+        return Objects.equals(ticket.key, branchNum) || (ticket.fields != null && mentionsBranch(branchNum, ticket));
+    }
+
     /**
      * @param srvCode Server code.
      * @param branchNum Branch number to be checked.
@@ -156,7 +193,7 @@ public class BranchTicketMatcher {
      * @param branchName Full branch name in jira.
      * @param ticket Ticket.
      */
-    private boolean mentionsBranch(String branchName, Ticket ticket) {
+    private static boolean mentionsBranch(String branchName, Ticket ticket) {
         String summary = ticket.fields.summary;
         if (summary != null && summary.contains(branchName))
             return true;
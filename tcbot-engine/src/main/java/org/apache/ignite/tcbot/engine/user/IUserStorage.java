@@ -27,7 +27,7 @@ import javax.annotation.Nullable;
  */
 public interface IUserStorage {
     /**
-     * Get user by username.
+     * Get user by username. Returned instance is not shared, it may be changed and then saved by {@link #putUser}.
      *
      * @param username Username.
      */
@@ -40,6 +40,10 @@ public interface IUserStorage {
      */
     public Stream<TcHelperUser> allUsers();
 
+    /**
+     * @param id Session ID.
+     * @return Session, returned instance is not shared, it may be changed and then saved by {@link #putSession}.
+     */
     @Nullable public UserSession getSession(String id);
 
     public void putSession(String sessId, UserSession userSes);
@@ -17,10 +17,15 @@
 
 package org.apache.ignite.tcbot.engine.user;
 
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
-import javax.cache.Cache;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import org.apache.ignite.Ignite;
@@ -37,6 +42,24 @@ public class UserAndSessionsStorage implements IUserStorage {
 
     private volatile Ignite ignite;
 
+    /**
+     * Write-through sessions cache, saves transactional get for each authenticated request. Callers change sessions in
+     * place before put, so cached instances are never returned or stored as is, copies are used instead.
+     */
+    private final Cache<String, UserSession> sessionsCache = CacheBuilder.newBuilder()
+        .maximumSize(10000)
+        .expireAfterWrite(1, TimeUnit.MINUTES)
+        .build();
+
+    /** Write-through users cache, contains copies not shared with callers, same as for sessions. */
+    private final Cache<String, TcHelperUser> usersCache = CacheBuilder.newBuilder()
+        .maximumSize(10000)
+        .expireAfterWrite(1, TimeUnit.MINUTES)
+        .build();
+
+    /** Email to username index, built on first search by email and updated by {@link #putUser}. */
+    private volatile Map<String, String> emailToUsername;
+
     public IgniteCache<String, TcHelperUser> users() {
         return getIgnite().getOrCreateCache(CacheConfigs.<String, TcHelperUser>getCacheV2TxConfig(USERS));
     }
@@ -52,7 +75,16 @@ public class UserAndSessionsStorage implements IUserStorage {
 
     /** {@inheritDoc} */
     @Nullable public UserSession getSession(String sessId) {
-        return sessions().get(sessId);
+        UserSession ses = sessionsCache.getIfPresent(sessId);
+        if (ses != null)
+            return ses.copy();
+
+        ses = sessions().get(sessId);
+
+        if (ses != null)
+            sessionsCache.put(sessId, ses.copy());
+
+        return ses;
     }
 
     private IgniteCache<String, UserSession> sessions() {
@@ -62,25 +94,102 @@ public class UserAndSessionsStorage implements IUserStorage {
     /** {@inheritDoc} */
     @Override public void putSession(String sessId, UserSession userSes) {
         sessions().put(sessId, userSes);
+
+        sessionsCache.put(sessId, userSes.copy());
     }
 
     /** {@inheritDoc} */
     @Nullable @Override public TcHelperUser findUserByEmail(String email) {
-        return allUsers().filter(u -> u.containsEmail(email)).findAny().orElse(null);
+        if (Strings.isNullOrEmpty(email))
+            return null;
+
+        String username = emailIndex().get(email);
+        if (username == null)
+            return null;
+
+        TcHelperUser user = getUser(username);
+
+        if (user == null || !user.containsEmail(email)) {
+            emailIndex().remove(email, username);
+
+            return null;
+        }
+
+        return user;
+    }
+
+    /**
+     * @return Email to username index, built from all users on first call.
+     */
+    private Map<String, String> emailIndex() {
+        Map<String, String> idx = emailToUsername;
+        if (idx != null)
+            return idx;
+
+        synchronized (this) {
+            if (emailToUsername != null)
+                return emailToUsername;
+
+            Map<String, String> newIdx = new ConcurrentHashMap<>();
+
+            allUsers().forEach(u -> indexEmails(newIdx, u.username, u));
+
+            emailToUsername = newIdx;
+
+            return newIdx;
+        }
+    }
+
+    /**
+     * @param idx Email index.
+     * @param username Username.
+     * @param user User to register emails of.
+     */
+    private static void indexEmails(Map<String, String> idx, String username, TcHelperUser user) {
+        if (!Strings.isNullOrEmpty(user.email))
+            idx.put(user.email, username);
+
+        if (user.additionalEmails != null) {
+            for (String email : user.additionalEmails) {
+                if (!Strings.isNullOrEmpty(email))
+                    idx.put(email, username);
+            }
+        }
     }
 
     /** {@inheritDoc} */
     @Override @Nullable public TcHelperUser getUser(String username) {
-        return users().get(username);
+        TcHelperUser user = usersCache.getIfPresent(username);
+        if (user != null)
+            return user.copy();
+
+        user = users().get(username);
+
+        if (user != null)
+            usersCache.put(username, user.copy());
+
+        return user;
     }
 
     /** {@inheritDoc} */
     @Override public void putUser(String username, TcHelperUser user) {
         users().put(username, user);
+
+        usersCache.put(username, user.copy());
+
+        synchronized (this) {
+            Map<String, String> idx = emailToUsername;
+
+            if (idx != null) {
+                idx.values().removeIf(username::equals);
+
+                indexEmails(idx, username, user);
+            }
+        }
     }
 
     /** {@inheritDoc} */
     @Override public Stream<TcHelperUser> allUsers() {
-        return StreamSupport.stream(users().spliterator(), false).map(Cache.Entry::getValue);
+        return StreamSupport.stream(users().spliterator(), false).map(javax.cache.Cache.Entry::getValue);
     }
 }
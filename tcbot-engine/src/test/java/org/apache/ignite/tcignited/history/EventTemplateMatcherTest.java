@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.annotation.Nullable;
+import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
+import org.apache.ignite.tcbot.engine.issue.EventTemplate;
+import org.apache.ignite.tcbot.engine.issue.EventTemplates;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks {@link EventTemplateMatcher} finds same events as nested loop template matching.
+ */
+public class EventTemplateMatcherTest {
+    /** Statuses used for generated histories. */
+    private static final int[] STATUSES = {
+        InvocationData.OK, InvocationData.FAILURE, InvocationData.CRITICAL_FAILURE, InvocationData.MISSING,
+        InvocationData.IGNORED, InvocationData.MUTED};
+
+    /** First build ID in generated histories. */
+    private static final int FIRST_BUILD = 1000;
+
+    @Test
+    public void testTemplateMatchesWholeHistory() {
+        for (EventTemplate t : EventTemplates.templates) {
+            List<Integer> hist = concrete(t);
+
+            // match starts at index 0 and ends at the last index
+            Integer detected = checkSame(t, hist);
+
+            assertNotNull(t.toString(), detected);
+            assertEquals(FIRST_BUILD + t.beforeEvent().length, detected.intValue());
+        }
+    }
+
+    @Test
+    public void testTemplateAtEndOfHistory() {
+        for (EventTemplate t : EventTemplates.templates) {
+            List<Integer> hist = new ArrayList<>();
+
+            hist.add(InvocationData.FAILURE);
+            hist.add(InvocationData.OK);
+            hist.addAll(concrete(t));
+
+            checkSame(t, hist);
+        }
+    }
+
+    @Test
+    public void testTemplateAtStartOfHistory() {
+        for (EventTemplate t : EventTemplates.templates) {
+            List<Integer> hist = concrete(t);
+
+            hist.add(InvocationData.OK);
+            hist.add(InvocationData.IGNORED);
+
+            checkSame(t, hist);
+        }
+    }
+
+    @Test
+    public void testHistoryShorterThanTemplate() {
+        for (EventTemplate t : EventTemplates.templates) {
+            List<Integer> hist = concrete(t);
+
+            hist.remove(hist.size() - 1);
+
+            assertNull(t.toString(), checkSame(t, hist));
+            assertNull(t.toString(), checkSame(t, new ArrayList<>()));
+        }
+    }
+
+    @Test
+    public void testMissingAndIgnoredGaps() {
+        for (EventTemplate t : EventTemplates.templates) {
+            for (int gap : new int[] {InvocationData.MISSING, InvocationData.IGNORED}) {
+                List<Integer> full = concrete(t);
+
+                for (int pos = 0; pos <= full.size(); pos++) {
+                    List<Integer> hist = new ArrayList<>(full);
+
+                    hist.add(pos, gap);
+
+                    checkSame(t, hist);
+
+                    hist.add(pos, gap);
+
+                    checkSame(t, hist);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRandomHistories() {
+        Random rnd = new Random(42);
+
+        for (EventTemplate t : EventTemplates.templates) {
+            for (int i = 0; i < 5000; i++) {
+                List<Integer> hist = new ArrayList<>();
+                int len = rnd.nextInt(40);
+
+                // mostly repeating statuses, so templates are matched often enough
+                int status = STATUSES[rnd.nextInt(STATUSES.length)];
+
+                for (int j = 0; j < len; j++) {
+                    if (rnd.nextInt(4) == 0)
+                        status = STATUSES[rnd.nextInt(STATUSES.length)];
+
+                    hist.add(status);
+                }
+
+                checkSame(t, hist);
+            }
+        }
+    }
+
+    /**
+     * @param t Template.
+     * @return History exactly matching template, {@link RunStatus#RES_OK_OR_FAILURE} replaced with OK.
+     */
+    private static List<Integer> concrete(EventTemplate t) {
+        List<Integer> res = new ArrayList<>();
+
+        for (int code : t.beforeEvent())
+            res.add(code == RunStatus.RES_OK_OR_FAILURE.getCode() ? InvocationData.OK : code);
+
+        for (int code : t.eventAndAfter())
+            res.add(code == RunStatus.RES_OK_OR_FAILURE.getCode() ? InvocationData.OK : code);
+
+        return res;
+    }
+
+    /**
+     * @param t Template.
+     * @param statuses Statuses from oldest to newest, build IDs are assigned sequentially.
+     * @return Detected build ID.
+     */
+    @Nullable private static Integer checkSame(EventTemplate t, List<Integer> statuses) {
+        RunHistCompacted hist = new RunHistCompacted();
+
+        for (int i = 0; i < statuses.size(); i++)
+            hist.addInvocation(new Invocation(FIRST_BUILD + i).withStatus(statuses.get(i)));
+
+        Integer expected = nestedLoopDetect(t, hist);
+        Integer actual = hist.detectTemplate(t);
+
+        assertEquals(t + " " + statuses, expected, actual);
+
+        return actual;
+    }
+
+    /**
+     * Template detection by checking template at each position of history, starting from most recent.
+     *
+     * @param t Template.
+     * @param hist History.
+     * @return Build ID of event or null if template was not found.
+     */
+    @Nullable private static Integer nestedLoopDetect(IEventTemplate t, RunHistCompacted hist) {
+        int centralEvtBuild = t.beforeEvent().length;
+
+        int[] template = new int[t.beforeEvent().length + t.eventAndAfter().length];
+        System.arraycopy(t.beforeEvent(), 0, template, 0, t.beforeEvent().length);
+        System.arraycopy(t.eventAndAfter(), 0, template, t.beforeEvent().length, t.eventAndAfter().length);
+
+        List<Invocation> histAsArr = new ArrayList<>();
+        for (Invocation invocation : hist.invocations()) {
+            if (t.includeMissing() || invocation.status() != InvocationData.MISSING)
+                histAsArr.add(invocation);
+        }
+
+        if (histAsArr.size() < template.length)
+            return null;
+
+        Integer detectedAt = null;
+
+        for (int idx = histAsArr.size() - template.length; idx >= 0 && detectedAt == null; idx--) {
+            for (int tIdx = 0; tIdx < template.length; tIdx++) {
+                int status = histAsArr.get(idx + tIdx).status();
+                RunStatus tmpl = RunStatus.byCode(template[tIdx]);
+
+                boolean matches = (tmpl == RunStatus.RES_OK_OR_FAILURE
+                    && (status == InvocationData.OK || status == InvocationData.FAILURE))
+                    || status == tmpl.getCode();
+
+                if (!matches)
+                    break;
+
+                if (tIdx == template.length - 1)
+                    detectedAt = histAsArr.get(idx + centralEvtBuild).buildId();
+            }
+        }
+
+        if (detectedAt != null && t.shouldBeFirstNonMissing()) {
+            for (Invocation invocation : hist.invocations()) {
+                if (invocation.status() != InvocationData.MISSING)
+                    return invocation.buildId() != detectedAt ? null : detectedAt;
+            }
+
+            return null;
+        }
+
+        return detectedAt;
+    }
+}
@@ -35,11 +35,13 @@ import org.apache.ignite.githubservice.IGitHubConnection;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
 import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
 import org.apache.ignite.ci.github.GitHubBranchKey;
 import org.apache.ignite.ci.github.GitHubBranchShort;
 import org.apache.ignite.ci.github.PullRequest;
 import org.apache.ignite.tcbot.common.conf.IGitHubConfig;
+import org.apache.ignite.tcbot.persistence.scheduler.TaskPriority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +65,9 @@ class GitHubConnIgnitedImpl implements IGitHubConnIgnited {
     /** Scheduler. */
     @Inject IScheduler scheduler;
 
+    /** Event bus. */
+    @Inject TcEventBus eventBus;
+
     /** Server ID mask for cache Entries. */
     private int srvIdMaskHigh;
 
@@ -115,7 +120,7 @@ class GitHubConnIgnitedImpl implements IGitHubConnIgnited {
     /** {@inheritDoc} */
     @AutoProfiling
     @Override public List<PullRequest> getPullRequests() {
-        scheduler.sheduleNamed(taskName("actualizePrs"), this::actualizePrs, 2, TimeUnit.MINUTES);
+        scheduler.sheduleNamed(taskName("actualizePrs"), TaskPriority.PR, srvCode, this::actualizePrs, 2, TimeUnit.MINUTES);
 
         return StreamSupport.stream(prCache.spliterator(), false)
             .filter(entry -> entry.getKey() >> 32 == srvIdMaskHigh)
@@ -129,7 +134,7 @@ class GitHubConnIgnitedImpl implements IGitHubConnIgnited {
     @Override public List<String> getBranches() {
         final int rescanIntervalMins = config().isPreferBranches() ? 5 : 120;
 
-        scheduler.sheduleNamed(taskName("actualizeBranches"),
+        scheduler.sheduleNamed(taskName("actualizeBranches"), TaskPriority.PR, srvCode,
                 this::actualizeBranches,
                 rescanIntervalMins, TimeUnit.MINUTES);
 
@@ -158,7 +163,8 @@ class GitHubConnIgnitedImpl implements IGitHubConnIgnited {
 
         // schedule full resync later
         scheduler.invokeLater(
-            () -> scheduler.sheduleNamed(taskName("fullReindex"), this::fullReindex, 2, TimeUnit.HOURS),
+            () -> scheduler.sheduleNamed(taskName("fullReindex"), TaskPriority.FULL_REINDEX, srvCode, this::fullReindex,
+                2, TimeUnit.HOURS),
             5, TimeUnit.MINUTES);
     }
 
@@ -213,12 +219,18 @@ class GitHubConnIgnitedImpl implements IGitHubConnIgnited {
     @SuppressWarnings({"WeakerAccess", "UnusedReturnValue"})
     @MonitoredTask(name = "Check Outdated PRs(srv)", nameExtArgsIndexes = {0})
     protected String refreshOutdatedPrs(String srvId, Set<Integer> actualPrs) {
-        final long cnt = StreamSupport.stream(prCache.spliterator(), false)
+        Set<Integer> refreshed = StreamSupport.stream(prCache.spliterator(), false)
             .filter(entry -> entry.getKey() >> 32 == srvIdMaskHigh)
             .filter(entry -> PullRequest.OPEN.equals(entry.getValue().getState()))
             .filter(entry -> !actualPrs.contains(entry.getValue().getNumber()))
             .peek(entry -> prCache.put(entry.getKey(), conn.getPullRequest(entry.getValue().getNumber())))
-            .count();
+            .map(entry -> entry.getValue().getNumber())
+            .collect(Collectors.toSet());
+
+        long cnt = refreshed.size();
+
+        if (!refreshed.isEmpty())
+            eventBus.publish(new PullRequestsSavedEvent(srvCode, refreshed));
 
         return "PRs updated for " + srvId + ": " + cnt + " from " + prCache.size();
     }
@@ -244,9 +256,13 @@ class GitHubConnIgnitedImpl implements IGitHubConnIgnited {
 
         int size = entriesToPut.size();
 
-        if (size != 0)
+        if (size != 0) {
             prCache.putAll(entriesToPut);
 
+            eventBus.publish(new PullRequestsSavedEvent(srvCode,
+                entriesToPut.values().stream().map(PullRequest::getNumber).collect(Collectors.toSet())));
+        }
+
         return size;
     }
 
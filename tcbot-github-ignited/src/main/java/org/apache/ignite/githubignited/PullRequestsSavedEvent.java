@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.githubignited;
+
+import java.util.Set;
+
+/**
+ * New or changed pull requests were saved to persistence.
+ */
+public class PullRequestsSavedEvent {
+    /** GitHub server code. */
+    private final String srvCode;
+
+    /** Numbers of saved PRs. */
+    private final Set<Integer> prNumbers;
+
+    /**
+     * @param srvCode GitHub server code.
+     * @param prNumbers Numbers of saved PRs.
+     */
+    public PullRequestsSavedEvent(String srvCode, Set<Integer> prNumbers) {
+        this.srvCode = srvCode;
+        this.prNumbers = prNumbers;
+    }
+
+    /**
+     * @return GitHub server code.
+     */
+    public String srvCode() {
+        return srvCode;
+    }
+
+    /**
+     * @return Numbers of saved PRs.
+     */
+    public Set<Integer> prNumbers() {
+        return prNumbers;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return "PullRequestsSavedEvent{srvCode=" + srvCode + ", saved=" + prNumbers.size() + "}";
+    }
+}
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.cache.Cache;
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -34,6 +35,7 @@ import org.apache.ignite.tcbot.common.interceptor.GuavaCached;
 import org.apache.ignite.jiraservice.Ticket;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
 import org.apache.ignite.internal.util.typedef.F;
 import org.apache.ignite.internal.util.typedef.internal.U;
 
@@ -53,6 +55,9 @@ public class JiraTicketDao {
     /** Compactor. */
     @Inject private IStringCompactor compactor;
 
+    /** Event bus. */
+    @Inject private TcEventBus eventBus;
+
     /**
      *
      */
@@ -107,12 +112,14 @@ public class JiraTicketDao {
             return 0;
 
         Map<Long, TicketCompacted> compactedTickets = new HashMap<>(U.capacity(chunk.size()));
+        Map<Long, Ticket> ticketsByKey = new HashMap<>(U.capacity(chunk.size()));
 
         for (Ticket ticket : chunk) {
             long key = ticketToCacheKey(srvIdMaskHigh, ticket.keyWithoutProject(projectCode));
             TicketCompacted val = new TicketCompacted(ticket, compactor, projectCode);
 
             compactedTickets.put(key, val);
+            ticketsByKey.put(key, ticket);
         }
 
         Map<Long, TicketCompacted> dbVal = jiraCache.getAll(compactedTickets.keySet());
@@ -126,9 +133,13 @@ public class JiraTicketDao {
                 ticketsToUpdate.put(k, v);
         });
 
-        if (!ticketsToUpdate.isEmpty())
+        if (!ticketsToUpdate.isEmpty()) {
             jiraCache.putAll(ticketsToUpdate);
 
+            eventBus.publish(new TicketsSavedEvent(srvIdMaskHigh,
+                ticketsToUpdate.keySet().stream().map(ticketsByKey::get).collect(Collectors.toList())));
+        }
+
         return ticketsToUpdate.size();
     }
 }
@@ -33,6 +33,7 @@ import org.apache.ignite.jiraservice.IJiraIntegrationProvider;
 import org.apache.ignite.jiraservice.Ticket;
 import org.apache.ignite.tcbot.common.conf.IJiraServerConfig;
 import org.apache.ignite.internal.util.typedef.F;
+import org.apache.ignite.tcbot.persistence.scheduler.TaskPriority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,7 +59,7 @@ public class JiraTicketSync {
      * @param srvCode Server ID
      */
     public void ensureActualizeJiraTickets(String srvCode) {
-        scheduler.sheduleNamed(taskName("incrementalSync", srvCode),
+        scheduler.sheduleNamed(taskName("incrementalSync", srvCode), TaskPriority.TRACKED_BRANCH, srvCode,
             () -> incrementalUpdate(srvCode), 15, TimeUnit.MINUTES);
     }
 
@@ -69,7 +70,7 @@ public class JiraTicketSync {
         String res = actualizeJiraTickets(srvCode, false);
 
         scheduler.invokeLater(() -> {
-                scheduler.sheduleNamed(taskName("fullResync", srvCode),
+                scheduler.sheduleNamed(taskName("fullResync", srvCode), TaskPriority.FULL_REINDEX, srvCode,
                     () -> actualizeJiraTickets(srvCode, true), 3, TimeUnit.HOURS);
             },
             5, TimeUnit.MINUTES);
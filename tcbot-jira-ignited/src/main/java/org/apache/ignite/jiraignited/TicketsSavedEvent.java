@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.jiraignited;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.ignite.jiraservice.Ticket;
+
+/**
+ * New or changed JIRA tickets were saved to persistence.
+ */
+public class TicketsSavedEvent {
+    /** Server id. */
+    private final int srvId;
+
+    /** Saved tickets. */
+    private final Collection<Ticket> tickets;
+
+    /** Keys of saved tickets, with project code. */
+    private final Set<String> ticketKeys;
+
+    /**
+     * @param srvId Server id.
+     * @param tickets Saved tickets.
+     */
+    public TicketsSavedEvent(int srvId, Collection<Ticket> tickets) {
+        this.srvId = srvId;
+        this.tickets = tickets;
+
+        ticketKeys = tickets.stream().map(t -> t.key).collect(Collectors.toSet());
+    }
+
+    /**
+     * @return Server id.
+     */
+    public int srvId() {
+        return srvId;
+    }
+
+    /**
+     * @return Saved tickets.
+     */
+    public Collection<Ticket> tickets() {
+        return tickets;
+    }
+
+    /**
+     * @return Keys of saved tickets, with project code.
+     */
+    public Set<String> ticketKeys() {
+        return ticketKeys;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return "TicketsSavedEvent{srvId=" + srvId + ", saved=" + ticketKeys.size() + "}";
+    }
+}
@@ -18,6 +18,8 @@
 package org.apache.ignite.tcbot.notify;
 
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.mail.Authenticator;
 import javax.mail.Message;
 import javax.mail.MessagingException;
@@ -29,11 +31,19 @@ import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Class for sending email with configured credentials.
+ * Class for sending email with configured credentials. SMTP connection is kept open and reused for next messages.
  */
 class EmailSender implements IEmailSender {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(EmailSender.class);
+
+    /** Connections: username -> connection. */
+    private final ConcurrentMap<String, SmtpConnection> connections = new ConcurrentHashMap<>();
+
     /** {@inheritDoc} */
     @Override public void sendEmail(String to, String subject, String html, String plainText,
         ISendEmailConfig notifications) throws MessagingException {
@@ -44,22 +54,11 @@ class EmailSender implements IEmailSender {
 
         final String pwd = notifications.emailPasswordClearMandatory();
 
-        Properties props = new Properties();
-        props.put("mail.smtp.host", "smtp.gmail.com");
-        props.put("mail.smtp.socketFactory.port", "465");
-        props.put("mail.smtp.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.port", "465");
-
-        Session ses = Session.getInstance(props,
-            new Authenticator() {
-                @Override protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(user, pwd);
-                }
-            });
+        SmtpConnection conn = connections.compute(user,
+            (k, existing) -> existing != null && existing.pwd.equals(pwd) ? existing : new SmtpConnection(user, pwd));
 
         // Create a default MimeMessage object.
-        MimeMessage msg = new MimeMessage(ses);
+        MimeMessage msg = new MimeMessage(conn.ses);
 
         // Set From: header field of the header.
         msg.setFrom(new InternetAddress(from));
@@ -84,8 +83,85 @@ class EmailSender implements IEmailSender {
         msg.setContent(mp);
 
         // Send message
-        Transport.send(msg);
+        conn.send(msg);
+
+        logger.info("Sent message successfully to [" + to + "]...");
+    }
 
-        System.out.println("Sent message successfully to [" + to + "]...");
+    /**
+     * Mail session with SMTP transport reused for all messages.
+     */
+    private static class SmtpConnection {
+        /** Password. */
+        private final String pwd;
+
+        /** Session. */
+        private final Session ses;
+
+        /** Transport, null if not created yet or closed after failure. */
+        private Transport transport;
+
+        /**
+         * @param user Username.
+         * @param pwd Password.
+         */
+        SmtpConnection(String user, String pwd) {
+            this.pwd = pwd;
+
+            Properties props = new Properties();
+            props.put("mail.smtp.host", "smtp.gmail.com");
+            props.put("mail.smtp.socketFactory.port", "465");
+            props.put("mail.smtp.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
+            props.put("mail.smtp.auth", "true");
+            props.put("mail.smtp.port", "465");
+
+            ses = Session.getInstance(props,
+                new Authenticator() {
+                    @Override protected PasswordAuthentication getPasswordAuthentication() {
+                        return new PasswordAuthentication(user, pwd);
+                    }
+                });
+        }
+
+        /**
+         * Sends message, (re)connects transport if server closed connection.
+         *
+         * @param msg Message.
+         */
+        synchronized void send(MimeMessage msg) throws MessagingException {
+            msg.saveChanges();
+
+            try {
+                if (transport == null)
+                    transport = ses.getTransport("smtp");
+
+                if (!transport.isConnected())
+                    transport.connect();
+
+                transport.sendMessage(msg, msg.getAllRecipients());
+            }
+            catch (MessagingException | RuntimeException e) {
+                close();
+
+                throw e;
+            }
+        }
+
+        /**
+         * Closes transport, next message will be sent using new connection.
+         */
+        private void close() {
+            if (transport == null)
+                return;
+
+            try {
+                transport.close();
+            }
+            catch (MessagingException e) {
+                logger.warn("Failed to close SMTP connection", e);
+            }
+
+            transport = null;
+        }
     }
 }
@@ -0,0 +1,417 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.notify;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous delivery of notifications. Messages are queued per recipient and delivered in order of submission,
+ * Slack messages queued for the same recipient are coalesced into one message. Failed delivery is retried with
+ * growing delay, failure callback is called if all attempts failed. Messages are kept only in memory, so failure
+ * callback is also called for messages not delivered before {@link #stop()}.
+ */
+public class NotificationDispatcher {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    /** Delivery attempts for one message. */
+    public static final int MAX_ATTEMPTS = 4;
+
+    /** Delay before first retry, doubled for each next attempt. */
+    public static final long RETRY_DELAY_SECS = 30;
+
+    /** Max length of coalesced Slack message. */
+    public static final int SLACK_MAX_MSG_LEN = 4000;
+
+    /** Delivery threads: one per transport is enough, senders serialize usage of a connection. */
+    private static final int THREADS = 2;
+
+    /** Slack sender. */
+    @Inject private ISlackSender slackSender;
+
+    /** Email sender. */
+    @Inject private IEmailSender emailSender;
+
+    /** Queues: transport and recipient address -> queue. */
+    private final ConcurrentMap<String, RecipientQueue> queues = new ConcurrentHashMap<>();
+
+    /** Delay before first retry, milliseconds. */
+    long retryDelayMs = TimeUnit.SECONDS.toMillis(RETRY_DELAY_SECS);
+
+    /** Executor, created on first submission. Guarded by this. */
+    @Nullable private ScheduledExecutorService executor;
+
+    /** Dispatcher is stopped. Guarded by this. */
+    private boolean stopped;
+
+    /**
+     * @param addr Address, if starts from "#" - channel is notified, otherwise - user.
+     * @param msg Message text.
+     * @param cfg Config with Slack token.
+     * @param onFailure Callback for failed delivery, called after all attempts.
+     */
+    public void sendSlack(String addr, String msg, ISlackBotConfig cfg, Consumer<Exception> onFailure) {
+        PendingMessage pending = new PendingMessage(addr, onFailure);
+
+        pending.text = msg;
+        pending.slackCfg = cfg;
+
+        enqueue("slack:" + addr, pending);
+    }
+
+    /**
+     * @param to Recipient email.
+     * @param subject Subject.
+     * @param html HTML version of message.
+     * @param plainText Plain text version of message.
+     * @param cfg Config with email credentials.
+     * @param onFailure Callback for failed delivery, called after all attempts.
+     */
+    public void sendEmail(String to, String subject, String html, String plainText, ISendEmailConfig cfg,
+        Consumer<Exception> onFailure) {
+        PendingMessage pending = new PendingMessage(to, onFailure);
+
+        pending.subject = subject;
+        pending.html = html;
+        pending.text = plainText;
+        pending.emailCfg = cfg;
+
+        enqueue("email:" + to, pending);
+    }
+
+    /**
+     * @return Count of messages waiting for delivery.
+     */
+    public int pending() {
+        int res = 0;
+
+        for (RecipientQueue q : queues.values()) {
+            synchronized (q) {
+                res += q.msgs.size();
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Stops delivery, waits a bit for messages in progress. Failure callback is called for messages not delivered, so
+     * they can be sent again after restart.
+     */
+    public void stop() {
+        ScheduledExecutorService svc;
+
+        synchronized (this) {
+            stopped = true;
+
+            svc = executor;
+        }
+
+        if (svc != null) {
+            svc.shutdown();
+
+            try {
+                if (!svc.awaitTermination(10, TimeUnit.SECONDS))
+                    svc.shutdownNow();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        int lost = pending();
+
+        if (lost > 0)
+            logger.warn("Notification dispatcher stopped, " + lost + " messages were not delivered");
+
+        queues.values().forEach(this::failQueued);
+    }
+
+    /**
+     * @param key Queue key.
+     * @param pending Message.
+     */
+    private void enqueue(String key, PendingMessage pending) {
+        RecipientQueue q = queues.computeIfAbsent(key, k -> new RecipientQueue());
+
+        synchronized (q) {
+            q.msgs.add(pending);
+
+            if (q.scheduled)
+                return;
+
+            q.scheduled = true;
+        }
+
+        scheduleDrain(q, 0);
+    }
+
+    /**
+     * Schedules drain of queue, if dispatcher is stopped queued messages are failed instead.
+     *
+     * @param q Queue.
+     * @param delayMs Delay, milliseconds.
+     */
+    private void scheduleDrain(RecipientQueue q, long delayMs) {
+        ScheduledExecutorService svc = executor();
+
+        if (svc != null) {
+            try {
+                svc.schedule(() -> drain(q), delayMs, TimeUnit.MILLISECONDS);
+
+                return;
+            }
+            catch (RejectedExecutionException ignored) {
+                // Stopped concurrently.
+            }
+        }
+
+        failQueued(q);
+    }
+
+    /**
+     * Calls failure callback for all messages of queue, used for messages not delivered before stop.
+     *
+     * @param q Queue.
+     */
+    private void failQueued(RecipientQueue q) {
+        List<PendingMessage> failed;
+
+        synchronized (q) {
+            failed = new ArrayList<>(q.msgs);
+
+            q.msgs.clear();
+
+            q.scheduled = false;
+        }
+
+        if (!failed.isEmpty())
+            onFailure(failed, new IllegalStateException("Notification dispatcher is stopped"));
+    }
+
+    /**
+     * Delivers queued messages of recipient until queue is empty or delivery failed and was rescheduled.
+     *
+     * @param q Queue.
+     */
+    private void drain(RecipientQueue q) {
+        while (true) {
+            List<PendingMessage> batch;
+
+            synchronized (q) {
+                if (q.msgs.isEmpty()) {
+                    q.scheduled = false;
+
+                    return;
+                }
+
+                batch = takeBatch(q.msgs);
+            }
+
+            try {
+                deliver(batch);
+            }
+            catch (Exception e) {
+                int attempt = batch.stream().mapToInt(m -> ++m.attempts).max().orElse(MAX_ATTEMPTS);
+
+                if (attempt < MAX_ATTEMPTS) {
+                    long delay = retryDelayMs << (attempt - 1);
+
+                    logger.warn("Unable to notify address [" + batch.get(0).addr + "], attempt " + attempt
+                        + ", will retry in " + delay + " ms", e);
+
+                    synchronized (q) {
+                        for (int i = batch.size() - 1; i >= 0; i--)
+                            q.msgs.addFirst(batch.get(i));
+                    }
+
+                    scheduleDrain(q, delay);
+
+                    return;
+                }
+
+                logger.error("Unable to notify address [" + batch.get(0).addr + "] after " + attempt + " attempts", e);
+
+                onFailure(batch, e);
+            }
+        }
+    }
+
+    /**
+     * @param msgs Messages not delivered.
+     * @param e Failure.
+     */
+    private void onFailure(List<PendingMessage> msgs, Exception e) {
+        for (PendingMessage msg : msgs) {
+            try {
+                msg.onFailure.accept(e);
+            }
+            catch (Exception cbErr) {
+                logger.error("Notification failure callback failed", cbErr);
+            }
+        }
+    }
+
+    /**
+     * Takes first message from queue and all following Slack messages which can be coalesced with it.
+     *
+     * @param msgs Queued messages.
+     */
+    private List<PendingMessage> takeBatch(Deque<PendingMessage> msgs) {
+        List<PendingMessage> batch = new ArrayList<>();
+
+        PendingMessage first = msgs.poll();
+
+        batch.add(first);
+
+        if (first.slackCfg == null)
+            return batch;
+
+        int len = first.text.length();
+
+        while (!msgs.isEmpty()) {
+            PendingMessage next = msgs.peek();
+
+            if (next.slackCfg == null
+                || !Objects.equals(next.slackCfg.slackAuthToken(), first.slackCfg.slackAuthToken())
+                || len + 1 + next.text.length() > SLACK_MAX_MSG_LEN)
+                break;
+
+            len += 1 + next.text.length();
+
+            batch.add(msgs.poll());
+        }
+
+        return batch;
+    }
+
+    /**
+     * @param batch Messages to the same recipient.
+     */
+    private void deliver(List<PendingMessage> batch) throws Exception {
+        PendingMessage first = batch.get(0);
+
+        if (first.slackCfg != null) {
+            String text = batch.stream().map(m -> m.text).collect(Collectors.joining("\n"));
+
+            slackSender.sendMessage(first.addr, text, first.slackCfg);
+        }
+        else {
+            Preconditions.checkState(batch.size() == 1, "Emails are not coalesced");
+
+            emailSender.sendEmail(first.addr, first.subject, first.html, first.text, first.emailCfg);
+        }
+    }
+
+    /**
+     * @return Executor, {@code null} if dispatcher is stopped.
+     */
+    @Nullable private synchronized ScheduledExecutorService executor() {
+        if (stopped)
+            return null;
+
+        if (executor == null) {
+            AtomicInteger threadNum = new AtomicInteger();
+
+            ThreadFactory threadFactory = r -> {
+                Thread thread = new Thread(r, "tcbot-notify-" + threadNum.incrementAndGet());
+
+                thread.setDaemon(true);
+
+                return thread;
+            };
+
+            ScheduledThreadPoolExecutor svc = new ScheduledThreadPoolExecutor(THREADS, threadFactory);
+
+            // Retries are not waited on stop, messages are failed instead.
+            svc.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+            executor = svc;
+        }
+
+        return executor;
+    }
+
+    /**
+     * Messages of one recipient.
+     */
+    private static class RecipientQueue {
+        /** Messages in order of submission. Guarded by this. */
+        private final Deque<PendingMessage> msgs = new ArrayDeque<>();
+
+        /** Drain of queue is submitted or scheduled. Guarded by this. */
+        private boolean scheduled;
+    }
+
+    /**
+     * Message waiting for delivery.
+     */
+    private static class PendingMessage {
+        /** Recipient address. */
+        private final String addr;
+
+        /** Failure callback. */
+        private final Consumer<Exception> onFailure;
+
+        /** Slack message or plain text version of email. */
+        private String text;
+
+        /** Slack config, null for email. */
+        @Nullable private ISlackBotConfig slackCfg;
+
+        /** Email subject. */
+        private String subject;
+
+        /** HTML version of email. */
+        private String html;
+
+        /** Email config, null for Slack message. */
+        @Nullable private ISendEmailConfig emailCfg;
+
+        /** Failed delivery attempts. */
+        private int attempts;
+
+        /**
+         * @param addr Recipient address.
+         * @param onFailure Failure callback.
+         */
+        private PendingMessage(String addr, Consumer<Exception> onFailure) {
+            this.addr = addr;
+            this.onFailure = onFailure;
+        }
+    }
+}
@@ -25,49 +25,120 @@ import com.ullink.slack.simpleslackapi.SlackUser;
 import com.ullink.slack.simpleslackapi.impl.SlackSessionFactory;
 import com.ullink.slack.simpleslackapi.replies.SlackMessageReply;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 /**
- *
+ * Sends Slack messages using long-lived session per bot token. Session is reconnected if it was disconnected or
+ * failed to send message.
  */
 public class SlackSender implements ISlackSender {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(SlackSender.class);
+
+    /** Connections: auth token -> connection. */
+    private final ConcurrentMap<String, SlackConnection> connections = new ConcurrentHashMap<>();
+
     /** {@inheritDoc} */
     @Override public void sendMessage(String addr, String msg,
         ISlackBotConfig cfg) throws IOException {
         String authTok = cfg.slackAuthToken();
         Preconditions.checkState(!isNullOrEmpty(authTok), "notifications:\"{}\" property should be filled in branches.json");
 
-        SlackSession ses = SlackSessionFactory.createWebSocketSlackSession(authTok);
-
-        ses.connect();
+        SlackConnection conn = connections.computeIfAbsent(authTok, SlackConnection::new);
 
         try {
+            conn.sendMessage(addr, msg);
+        }
+        catch (IOException | RuntimeException e) {
+            conn.disconnect();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Slack session with cached channels and users.
+     */
+    private static class SlackConnection {
+        /** Auth token. */
+        private final String authTok;
+
+        /** Session, null if not connected. */
+        private SlackSession ses;
+
+        /** Channels found by name. */
+        private final Map<String, SlackChannel> channels = new HashMap<>();
+
+        /** Users found by name. */
+        private final Map<String, SlackUser> users = new HashMap<>();
+
+        /**
+         * @param authTok Auth token.
+         */
+        SlackConnection(String authTok) {
+            this.authTok = authTok;
+        }
+
+        /**
+         * @param addr Address, if starts from "#" - channel is notified, otherwise - user
+         * @param msg Message text.
+         */
+        synchronized void sendMessage(String addr, String msg) throws IOException {
+            if (ses == null || !ses.isConnected()) {
+                channels.clear();
+                users.clear();
+
+                ses = SlackSessionFactory.createWebSocketSlackSession(authTok);
+
+                ses.connect();
+            }
+
             if (addr.startsWith("#")) {
                 String ch = addr.substring(1);
 
-                SlackChannel slackCh = ses.findChannelByName(ch);
+                SlackChannel slackCh = channels.computeIfAbsent(ch, ses::findChannelByName);
 
                 if (slackCh == null)
                     throw new RuntimeException("Failed to find channel [" + addr + "]: Notification not send [" + msg + "]");
 
                 SlackMessageHandle<SlackMessageReply> handle = ses.sendMessage(slackCh, msg);
 
-                System.out.println("Message to channel " + addr + " " + msg + "; acked: " + handle.isAcked());
+                logger.info("Message to channel " + addr + " " + msg + "; acked: " + handle.isAcked());
             }
             else {
-                SlackUser user = ses.findUserByUserName(addr); //make sure bot is a member of the user.
+                SlackUser user = users.computeIfAbsent(addr, ses::findUserByUserName); //make sure bot is a member of the user.
 
                 if (user == null)
                     throw new RuntimeException("Failed to find user [" + addr + "]: Notification not send [" + msg + "]");
 
                 SlackMessageHandle<SlackMessageReply> handle = ses.sendMessageToUser(user, msg, null);
 
-                System.out.println("Message to user " + addr + " " + msg + "; acked: " + handle.isAcked());
+                logger.info("Message to user " + addr + " " + msg + "; acked: " + handle.isAcked());
             }
         }
-        finally {
-            ses.disconnect();
+
+        /**
+         * Closes session, next message will be sent using new one.
+         */
+        synchronized void disconnect() {
+            if (ses == null)
+                return;
+
+            try {
+                ses.disconnect();
+            }
+            catch (Exception e) {
+                logger.warn("Failed to disconnect from Slack", e);
+            }
+
+            ses = null;
         }
     }
 }
@@ -27,5 +27,6 @@ public class TcBotNotificationsModule extends AbstractModule {
     @Override protected void configure() {
         bind(IEmailSender.class).to(EmailSender.class).in(new SingletonScope());
         bind(ISlackSender.class).to(SlackSender.class).in(new SingletonScope());
+        bind(NotificationDispatcher.class).in(new SingletonScope());
     }
 }
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.notify;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Coalescing, retries and failure callbacks of notifications dispatcher.
+ */
+public class NotificationDispatcherTest {
+    /** Slack config. */
+    private static final ISlackBotConfig SLACK_CFG = () -> "token";
+
+    /** Delivered Slack messages. */
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    /** Failures of Slack messages. */
+    private final List<Exception> failures = new CopyOnWriteArrayList<>();
+
+    /** Slack sender, delivers to {@link #delivered} by default. */
+    private volatile ISlackSender slack = (addr, msg, cfg) -> delivered.add(msg);
+
+    /** Dispatcher. */
+    private final NotificationDispatcher dispatcher = Guice.createInjector(new AbstractModule() {
+        @Override protected void configure() {
+            bind(ISlackSender.class).toInstance((addr, msg, cfg) -> slack.sendMessage(addr, msg, cfg));
+            bind(IEmailSender.class).toInstance((to, subject, html, plainText, cfg) -> {
+                throw new UnsupportedOperationException();
+            });
+        }
+    }).getInstance(NotificationDispatcher.class);
+
+    /** */
+    @After
+    public void stop() {
+        dispatcher.stop();
+    }
+
+    /** */
+    @Test
+    public void testQueuedSlackMessagesAreCoalesced() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        slack = (addr, msg, cfg) -> {
+            firstStarted.countDown();
+
+            await(releaseFirst);
+
+            delivered.add(msg);
+        };
+
+        send("a");
+
+        assertTrue(firstStarted.await(10, TimeUnit.SECONDS));
+
+        send("b");
+        send("c");
+
+        releaseFirst.countDown();
+
+        waitFor(() -> delivered.size() == 2);
+
+        assertEquals(Arrays.asList("a", "b\nc"), delivered);
+        assertEquals(0, dispatcher.pending());
+        assertTrue(failures.isEmpty());
+    }
+
+    /** */
+    @Test
+    public void testFailedDeliveryIsRetried() throws Exception {
+        dispatcher.retryDelayMs = 10;
+
+        AtomicInteger attempts = new AtomicInteger();
+
+        slack = (addr, msg, cfg) -> {
+            if (attempts.incrementAndGet() < NotificationDispatcher.MAX_ATTEMPTS)
+                throw new IOException("Test failure");
+
+            delivered.add(msg);
+        };
+
+        send("a");
+
+        waitFor(() -> delivered.size() == 1);
+
+        assertEquals(NotificationDispatcher.MAX_ATTEMPTS, attempts.get());
+        assertTrue(failures.isEmpty());
+    }
+
+    /** */
+    @Test
+    public void testFailureCallbackAfterAllAttempts() throws Exception {
+        dispatcher.retryDelayMs = 10;
+
+        AtomicInteger attempts = new AtomicInteger();
+
+        slack = (addr, msg, cfg) -> {
+            attempts.incrementAndGet();
+
+            throw new IOException("Test failure");
+        };
+
+        send("a");
+
+        waitFor(() -> failures.size() == 1);
+
+        assertEquals(NotificationDispatcher.MAX_ATTEMPTS, attempts.get());
+        assertTrue(failures.get(0) instanceof IOException);
+    }
+
+    /** */
+    @Test
+    public void testNotDeliveredMessagesAreFailedOnStop() throws Exception {
+        dispatcher.retryDelayMs = TimeUnit.HOURS.toMillis(1);
+
+        slack = (addr, msg, cfg) -> {
+            throw new IOException("Test failure");
+        };
+
+        send("a");
+
+        waitFor(() -> dispatcher.pending() == 1);
+
+        long start = System.currentTimeMillis();
+
+        dispatcher.stop();
+
+        assertTrue("Retry should not be waited", System.currentTimeMillis() - start < 5000);
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof IllegalStateException);
+        assertEquals(0, dispatcher.pending());
+
+        send("b");
+
+        assertEquals(2, failures.size());
+        assertTrue(delivered.isEmpty());
+    }
+
+    /**
+     * @param msg Slack message.
+     */
+    private void send(String msg) {
+        dispatcher.sendSlack("user", msg, SLACK_CFG, failures::add);
+    }
+
+    /**
+     * @param latch Latch.
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param cond Condition.
+     */
+    private static void waitFor(BooleanSupplier cond) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+
+        while (!cond.getAsBoolean() && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        assertTrue("Condition is not met", cond.getAsBoolean());
+    }
+}
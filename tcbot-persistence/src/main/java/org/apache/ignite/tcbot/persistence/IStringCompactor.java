@@ -16,6 +16,8 @@
  */
 package org.apache.ignite.tcbot.persistence;
 
+import java.util.Collection;
+
 /**
  *
  */
@@ -36,4 +38,31 @@ public interface IStringCompactor {
      * @param val Value to check in the compactor.
      */
     public Integer getStringIdIfPresent(String val);
+
+    /**
+     * @param vals Values to be identified as integers.
+     * @return IDs of strings, in iteration order of values.
+     */
+    public default int[] getStringIds(Collection<String> vals) {
+        int[] res = new int[vals.size()];
+        int idx = 0;
+
+        for (String val : vals)
+            res[idx++] = getStringId(val);
+
+        return res;
+    }
+
+    /**
+     * @param ids IDs of strings from {@link #getStringId(String)}. Negative value implies <code>null</code>.
+     * @return Strings, index is aligned with IDs.
+     */
+    public default String[] getStringsFromIds(int[] ids) {
+        String[] res = new String[ids.length];
+
+        for (int i = 0; i < ids.length; i++)
+            res[i] = getStringFromId(ids[i]);
+
+        return res;
+    }
 }
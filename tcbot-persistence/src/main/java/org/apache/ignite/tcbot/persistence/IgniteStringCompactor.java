@@ -16,10 +16,17 @@
  */
 package org.apache.ignite.tcbot.persistence;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.GuardedBy;
 import javax.cache.Cache;
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -28,25 +35,36 @@ import org.apache.ignite.IgniteAtomicSequence;
 import org.apache.ignite.IgniteCache;
 import org.apache.ignite.cache.QueryEntity;
 import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
 import org.apache.ignite.cache.query.SqlQuery;
+import org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
-import org.apache.ignite.tcbot.common.interceptor.GuavaCached;
 import org.apache.ignite.tcbot.common.util.ObjectInterner;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * String compactor persisted in Ignite. Dictionary is small, so it is completely loaded into near cache at start, and
+ * Ignite is accessed only for new strings. IDs for new strings are reserved from sequence in blocks.
+ */
 public class IgniteStringCompactor implements IStringCompactor {
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(IgniteStringCompactor.class);
 
+    /** Count of IDs reserved from sequence at once. */
+    private static final int ID_RESERVE_BLOCK = 1000;
+
     private final AtomicBoolean initGuard = new AtomicBoolean();
     private final CountDownLatch initLatch = new CountDownLatch(1);
 
     /** Cache name */
     public static final String STRINGS_CACHE = "stringsCache";
 
+    /** Reverse index cache name: ID to string. */
+    public static final String STRINGS_BY_ID_CACHE = "stringsById";
+
     /** Strings sequence. */
     private static final String STRINGS_SEQ = "stringsSeq";
 
@@ -54,11 +72,28 @@ public class IgniteStringCompactor implements IStringCompactor {
     @Inject private Provider<Ignite> igniteProvider;
 
     /** Builds cache. */
-    private IgniteCache<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity> stringsCache;
+    private IgniteCache<String, CompactorEntity> stringsCache;
+
+    /** Reverse index: ID to string. */
+    private IgniteCache<Integer, String> stringsByIdCache;
 
     /** Sequence. */
     private IgniteAtomicSequence seq;
 
+    /** Near cache: string to ID. */
+    private final ConcurrentMap<String, Integer> strToId = new ConcurrentHashMap<>();
+
+    /** Near cache: ID to string. */
+    private final ConcurrentMap<Integer, String> idToStr = new ConcurrentHashMap<>();
+
+    /** Next ID from reserved block. */
+    @GuardedBy("this")
+    private long nextReservedId;
+
+    /** Upper bound (exclusive) of reserved block. */
+    @GuardedBy("this")
+    private long reservedIdsEnd;
+
     private void initIfNeeded() {
         if (initGuard.compareAndSet(false, true)) {
             init();
@@ -80,48 +115,157 @@ public class IgniteStringCompactor implements IStringCompactor {
      */
     public void init() {
         Ignite ignite = igniteProvider.get();
-        CacheConfiguration<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity> cfg = CacheConfigs.getCache8PartsConfig(STRINGS_CACHE);
+        CacheConfiguration<String, CompactorEntity> cfg = CacheConfigs.getCache8PartsConfig(STRINGS_CACHE);
 
-        cfg.setQueryEntities(Collections.singletonList(new QueryEntity(String.class, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity.class)));
+        cfg.setQueryEntities(Collections.singletonList(new QueryEntity(String.class, CompactorEntity.class)));
 
         stringsCache = ignite.getOrCreateCache(cfg);
+        stringsByIdCache = ignite.getOrCreateCache(stringsByIdCacheConfig());
 
         seq = ignite.atomicSequence(STRINGS_SEQ, 0, true);
+
+        try (QueryCursor<Cache.Entry<String, CompactorEntity>> cursor = stringsCache.query(new ScanQuery<>())) {
+            for (Cache.Entry<String, CompactorEntity> entry : cursor)
+                cacheLocally(entry.getValue());
+        }
+
+        logger.info("String compactor loaded " + strToId.size() + " strings");
+    }
+
+    /**
+     * @return Configuration of reverse index cache.
+     */
+    public static CacheConfiguration<Integer, String> stringsByIdCacheConfig() {
+        return CacheConfigs.getCache8PartsConfig(STRINGS_BY_ID_CACHE);
+    }
+
+    /**
+     * @param entity Entity.
+     * @return ID of string.
+     */
+    private int cacheLocally(CompactorEntity entity) {
+        String val = ObjectInterner.internString(entity.val());
+
+        strToId.put(val, entity.id());
+        idToStr.put(entity.id(), val);
+
+        return entity.id();
+    }
+
+    /**
+     * @return ID for new string, never returned before.
+     */
+    private synchronized int nextId() {
+        if (nextReservedId >= reservedIdsEnd) {
+            long start = seq.getAndAdd(ID_RESERVE_BLOCK);
+
+            nextReservedId = start + 1;
+            reservedIdsEnd = start + 1 + ID_RESERVE_BLOCK;
+        }
+
+        return (int)nextReservedId++;
     }
 
     /** {@inheritDoc} */
     @AutoProfiling
-    @GuavaCached(cacheNegativeNumbersRval = false)
     @Override public int getStringId(String val) {
         if (val == null)
             return STRING_NULL;
 
         initIfNeeded();
 
-        org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity entity = stringsCache.get(val);
+        Integer id = strToId.get(val);
+        if (id != null)
+            return id;
+
+        CompactorEntity entity = stringsCache.get(val);
         if (entity != null)
-            return entity.id();
+            return cacheLocally(entity);
+
+        return save(val);
+    }
+
+    /**
+     * @param val Value, which is not present in the cache.
+     * @return ID of string.
+     */
+    private int save(String val) {
+        CompactorEntity candidate = new CompactorEntity(nextId(), val);
+
+        // Reverse entry is saved first, so any ID visible in the strings cache can be resolved using reverse index.
+        // If candidate loses the race, its ID remains unused.
+        stringsByIdCache.put(candidate.id(), val);
+
+        boolean valWasSet = stringsCache.putIfAbsent(val, candidate);
+
+        return cacheLocally(valWasSet ? candidate : stringsCache.get(val));
+    }
+
+    /** {@inheritDoc} */
+    @AutoProfiling
+    @Override public int[] getStringIds(Collection<String> vals) {
+        initIfNeeded();
+
+        Set<String> missing = null;
+
+        for (String val : vals) {
+            if (val != null && !strToId.containsKey(val)) {
+                if (missing == null)
+                    missing = new HashSet<>();
+
+                missing.add(val);
+            }
+        }
+
+        if (missing != null) {
+            Map<String, CompactorEntity> persisted = stringsCache.getAll(missing);
+
+            for (String val : missing) {
+                CompactorEntity entity = persisted.get(val);
 
-        int codeCandidate = (int)seq.incrementAndGet();
+                if (entity != null)
+                    cacheLocally(entity);
+                else
+                    save(val);
+            }
+        }
 
-        boolean valWasSet = stringsCache.putIfAbsent(val, new org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity(codeCandidate, val));
+        int[] res = new int[vals.size()];
+        int idx = 0;
 
-        return valWasSet ? codeCandidate : stringsCache.get(val).id();
+        for (String val : vals)
+            res[idx++] = val == null ? STRING_NULL : strToId.get(val);
+
+        return res;
     }
 
     /** {@inheritDoc} */
     @AutoProfiling
-    @GuavaCached(cacheNullRval = false)
     @Override public String getStringFromId(int id) {
         if (id < 0)
             return null;
 
         initIfNeeded();
 
-        QueryCursor<Cache.Entry<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity>> qryCursor
-            = stringsCache.query(new SqlQuery<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity>(org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity.class, "id = ?").setArgs(id));
+        String val = idToStr.get(id);
+        if (val != null)
+            return val;
+
+        String persisted = stringsByIdCache.get(id);
+        if (persisted != null) {
+            // Only reverse mapping is cached: ID may be unused if it has lost the race for the string.
+            String interned = ObjectInterner.internString(persisted);
 
-        Iterator<Cache.Entry<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity>> iter = qryCursor.iterator();
+            idToStr.put(id, interned);
+
+            return interned;
+        }
+
+        // Fallback for strings saved before reverse index was introduced, and not migrated yet.
+        QueryCursor<Cache.Entry<String, CompactorEntity>> qryCursor
+            = stringsCache.query(new SqlQuery<String, CompactorEntity>(CompactorEntity.class, "id = ?").setArgs(id));
+
+        Iterator<Cache.Entry<String, CompactorEntity>> iter = qryCursor.iterator();
 
         if (!iter.hasNext()) {
             System.err.println("Error: String Not found string by id " + id);
@@ -129,25 +273,32 @@ public class IgniteStringCompactor implements IStringCompactor {
             return null;
         }
 
-        Cache.Entry<String, org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity> next = iter.next();
+        Cache.Entry<String, CompactorEntity> next = iter.next();
 
         qryCursor.close();
 
-        return ObjectInterner.internString(next.getValue().val());
+        stringsByIdCache.put(id, next.getValue().val());
+
+        cacheLocally(next.getValue());
+
+        return idToStr.get(id);
     }
 
     /** {@inheritDoc} */
-    @GuavaCached(cacheNullRval = false, cacheNegativeNumbersRval = false)
     @Override public Integer getStringIdIfPresent(String val) {
         if (val == null)
             return -1;
 
         initIfNeeded();
 
-        org.apache.ignite.ci.teamcity.ignited.IgniteStringCompactor.CompactorEntity entity = stringsCache.get(val);
+        Integer id = strToId.get(val);
+        if (id != null)
+            return id;
+
+        CompactorEntity entity = stringsCache.get(val);
 
         if (entity != null)
-            return entity.id();
+            return cacheLocally(entity);
 
         return null;
     }
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import javax.cache.Cache;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.lang.IgniteBiPredicate;
+import org.apache.ignite.lang.IgniteClosure;
+import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
+
+/**
+ * Full cache pass split by partitions. Each partition is scanned by its own partition-local query, partitions are
+ * processed in parallel. Filter and transformer are executed on the data node, so passing a cache in binary mode
+ * (see {@link IgniteCache#withKeepBinary()}) allows to read only required fields without deserialization.
+ */
+public class PartitionedScan {
+    /** Partitions scanned in parallel. */
+    public static final int PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    /** Page size for scan queries. */
+    private static final int PAGE_SIZE = 4096;
+
+    /** Fan-out pool. Dedicated to avoid blocking common pool by scan queries. */
+    private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM);
+
+    /**
+     * @param cache Cache to scan.
+     * @return Count of partitions of cache.
+     */
+    public static int partitions(IgniteCache<?, ?> cache) {
+        return cache.unwrap(Ignite.class).affinity(cache.getName()).partitions();
+    }
+
+    /**
+     * Scans all partitions of cache. Consumer is called once per partition, possibly from several threads concurrently.
+     *
+     * @param cache Cache to scan.
+     * @param filter Entry filter, null means all entries.
+     * @param transformer Entry to result transformer.
+     * @param consumer Consumer of partition results: results and partition number.
+     */
+    public static <K, V, R> void forEachPartition(IgniteCache<K, V> cache,
+        @Nullable IgniteBiPredicate<K, V> filter,
+        IgniteClosure<Cache.Entry<K, V>, R> transformer,
+        ObjIntConsumer<List<R>> consumer) {
+        int parts = partitions(cache);
+
+        try {
+            POOL.submit(() -> IntStream.range(0, parts).parallel().forEach(part -> {
+                ScanQuery<K, V> qry = new ScanQuery<K, V>(part, filter);
+
+                qry.setPageSize(PAGE_SIZE);
+
+                List<R> res;
+
+                try (QueryCursor<R> cursor = cache.query(qry, transformer)) {
+                    res = cursor.getAll();
+                }
+
+                consumer.accept(res, part);
+            })).get();
+        }
+        catch (InterruptedException | ExecutionException e) {
+            throw ExceptionUtil.propagateException(e);
+        }
+    }
+
+    /**
+     * Scans all partitions of cache and collects results.
+     *
+     * @param cache Cache to scan.
+     * @param filter Entry filter, null means all entries.
+     * @param transformer Entry to result transformer.
+     * @return Results of all partitions in order of partition number.
+     */
+    public static <K, V, R> List<R> collect(IgniteCache<K, V> cache,
+        @Nullable IgniteBiPredicate<K, V> filter,
+        IgniteClosure<Cache.Entry<K, V>, R> transformer) {
+        List<List<R>> byPart = new ArrayList<>(Collections.nCopies(partitions(cache), null));
+
+        forEachPartition(cache, filter, transformer, (res, part) -> byPart.set(part, res));
+
+        List<R> res = new ArrayList<>();
+
+        for (List<R> partRes : byPart) {
+            if (partRes != null)
+                res.addAll(partRes);
+        }
+
+        return res;
+    }
+}
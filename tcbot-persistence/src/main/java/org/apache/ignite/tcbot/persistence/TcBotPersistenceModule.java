@@ -19,6 +19,7 @@ package org.apache.ignite.tcbot.persistence;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.internal.SingletonScope;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
 
 public class TcBotPersistenceModule extends AbstractModule {
     @Override
@@ -27,5 +28,6 @@ public class TcBotPersistenceModule extends AbstractModule {
 
 
         bind(IStringCompactor.class).to(IgniteStringCompactor.class).in(new SingletonScope());
+        bind(TcEventBus.class).in(new SingletonScope());
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.persistence.event;
+
+import com.google.common.cache.Cache;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versions of keys of an in memory cache, which is updated in place by events. Event applied to an entry being loaded
+ * is lost, so subscriber increments key version before applying the change, and entry loaded while version was
+ * changed is invalidated and loaded again. Keys are mapped to a fixed number of stripes, so a change may cause an
+ * extra reload of an unrelated key, but never leaves an entry stale.
+ */
+public class InMemCacheVersions {
+    /** Count of stripes, power of 2. */
+    private static final int STRIPES = 1024;
+
+    /** Max attempts to load entry not changed concurrently. */
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    /** Versions of stripes. */
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    /**
+     * Registers change of the key, should be called before the change is applied to the cache entry.
+     *
+     * @param key Cache key.
+     */
+    public void changed(Object key) {
+        versions.incrementAndGet(stripe(key));
+    }
+
+    /**
+     * Gets entry from cache or loads it. If the key was changed during the call, entry may miss the change, so it is
+     * invalidated and loaded again.
+     *
+     * @param cache Cache.
+     * @param key Key.
+     * @param loader Loader of the entry.
+     * @return Cached or loaded value.
+     */
+    public <K, V> V get(Cache<K, V> cache, K key, Callable<? extends V> loader) throws ExecutionException {
+        int stripe = stripe(key);
+
+        for (int attempt = 1; ; attempt++) {
+            long ver = versions.get(stripe);
+
+            V val = cache.get(key, loader);
+
+            if (versions.get(stripe) == ver)
+                return val;
+
+            cache.invalidate(key);
+
+            if (attempt >= MAX_LOAD_ATTEMPTS)
+                return val; // Key is changed too often, entry is already invalidated, so next call loads it again.
+        }
+    }
+
+    /**
+     * @param key Key.
+     * @return Stripe index.
+     */
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
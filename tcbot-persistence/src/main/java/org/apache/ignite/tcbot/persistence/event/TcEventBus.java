@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.persistence.event;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bus for change events of data stored by the bot (TC, GitHub, JIRA). In memory caches subscribe to events and apply
+ * changes in place instead of dropping cached entries. Events are delivered synchronously in thread of publisher, so
+ * caches are updated before save method returns.
+ */
+public class TcEventBus {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(TcEventBus.class);
+
+    /** Subscribers: Event class -> Subscriber name -> subscriber. */
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Consumer<Object>>> subscribers
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribes to events of provided type. Subscription with the same name replaces previous one, so it is safe
+     * to subscribe from DAO {@code init()} methods, which may be called several times.
+     *
+     * @param evtCls Event class.
+     * @param name Subscriber name.
+     * @param subscriber Subscriber.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void subscribe(Class<E> evtCls, String name, Consumer<? super E> subscriber) {
+        subscribers.computeIfAbsent(evtCls, k -> new ConcurrentHashMap<>())
+            .put(name, (Consumer<Object>)subscriber);
+    }
+
+    /**
+     * Delivers event to all subscribers of its class. Failure of subscriber is logged and does not affect others.
+     *
+     * @param evt Event.
+     */
+    public void publish(Object evt) {
+        Map<String, Consumer<Object>> evtSubscribers = subscribers.get(evt.getClass());
+
+        if (evtSubscribers == null)
+            return;
+
+        evtSubscribers.forEach((name, subscriber) -> {
+            try {
+                subscriber.accept(evt);
+            }
+            catch (Exception e) {
+                logger.error("Subscriber [" + name + "] failed to process event " + evt, e);
+            }
+        });
+    }
+}
@@ -17,6 +17,7 @@
 package org.apache.ignite.tcbot.persistence.scheduler;
 
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * Scheduler which never waits. Can be used for tests.
@@ -28,7 +29,8 @@ public class DirectExecNoWaitScheduler implements IScheduler {
     }
 
     /** {@inheritDoc} */
-    @Override public void sheduleNamed(String fullName, Runnable cmd, long queitPeriod, TimeUnit unit) {
+    @Override public void sheduleNamed(String fullName, TaskPriority priority, @Nullable String srvCode, Runnable cmd,
+        long queitPeriod, TimeUnit unit) {
         cmd.run();
     }
 
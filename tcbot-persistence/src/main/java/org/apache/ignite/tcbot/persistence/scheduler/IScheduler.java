@@ -16,8 +16,11 @@
  */
 package org.apache.ignite.tcbot.persistence.scheduler;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * Scheduler is a way to run background syncs between Ignite DB and REST services.
@@ -34,7 +37,42 @@ public interface IScheduler {
      */
     public void invokeLater(Runnable cmd, long delay, TimeUnit unit);
 
-    public void sheduleNamed(String fullName, Runnable cmd, long queitPeriod, TimeUnit unit);
+    /**
+     * Schedules named task with {@link TaskPriority#TRACKED_BRANCH} priority, not bound to particular server.
+     *
+     * @see #sheduleNamed(String, TaskPriority, String, Runnable, long, TimeUnit)
+     */
+    public default void sheduleNamed(String fullName, Runnable cmd, long queitPeriod, TimeUnit unit) {
+        sheduleNamed(fullName, TaskPriority.TRACKED_BRANCH, null, cmd, queitPeriod, unit);
+    }
+
+    /**
+     * Schedules named task. Requests for the same name are deduplicated: task is executed once, if its previous
+     * result is older than quiet period.
+     *
+     * @param fullName Unique task name.
+     * @param priority Priority class.
+     * @param srvCode Server code to limit concurrent tasks for one server, {@code null} for non server tasks.
+     * @param cmd Command to execute.
+     * @param queitPeriod Period, during which result of previous execution is still actual.
+     * @param unit Time unit of the period.
+     */
+    public void sheduleNamed(String fullName, TaskPriority priority, @Nullable String srvCode, Runnable cmd,
+        long queitPeriod, TimeUnit unit);
+
+    /**
+     * @return Count of named tasks, which are ready to be started but are waiting for a runner, by priority.
+     */
+    public default Map<TaskPriority, Integer> queueDepth() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @return Count of running named tasks by priority.
+     */
+    public default Map<TaskPriority, Integer> runningTasks() {
+        return Collections.emptyMap();
+    }
 
     public void stop();
 }
@@ -19,6 +19,7 @@ package org.apache.ignite.tcbot.persistence.scheduler;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.StampedLock;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 class NamedTask {
@@ -37,6 +38,14 @@ class NamedTask {
     @GuardedBy("lock")
     private volatile long resValidityMs = 0;
 
+    /** Highest priority requested for the task. */
+    @GuardedBy("lock")
+    private volatile TaskPriority priority = TaskPriority.FULL_REINDEX;
+
+    /** Server code, {@code null} if task is not related to particular server. */
+    @GuardedBy("lock")
+    @Nullable private volatile String srvCode;
+
     enum Status {
         CREATED, RUNNING, COMPLETED;
     }
@@ -45,7 +54,8 @@ class NamedTask {
         this.name = name;
     }
 
-    public void sheduleWithQuitePeriod(@Nonnull Runnable cmd, long period, TimeUnit unit) {
+    public void sheduleWithQuitePeriod(@Nonnull Runnable cmd, long period, TimeUnit unit, TaskPriority priority,
+        @Nullable String srvCode) {
         long resValidityMs = unit.toMillis(period);
 
         boolean canSkip = false;
@@ -58,6 +68,9 @@ class NamedTask {
         if (this.resValidityMs == 0 || this.resValidityMs > resValidityMs)
             canSkip = false;
 
+        if (this.priority.compareTo(priority) > 0)
+            canSkip = false;
+
         boolean optRead = lock.validate(optReadStamp);
 
         if (optRead && canSkip)
@@ -66,6 +79,13 @@ class NamedTask {
         long writeLockStamp = lock.writeLock();
         try {
             this.cmd = cmd;
+
+            if (this.priority.compareTo(priority) > 0)
+                this.priority = priority;
+
+            if (srvCode != null)
+                this.srvCode = srvCode;
+
             if (this.resValidityMs != 0)
                 this.resValidityMs = Math.min(this.resValidityMs, resValidityMs);
             else
@@ -108,8 +128,12 @@ class NamedTask {
             this.cmd = null;
 
             // because here lock is not upgraded from read lock cmd may come here with null
-            if (cmd != null)
+            if (cmd != null) {
                 status = Status.RUNNING;
+
+                // next request sets its own priority
+                priority = TaskPriority.FULL_REINDEX;
+            }
         }
         finally {
             lock.unlock(writeLockStamp);
@@ -135,6 +159,34 @@ class NamedTask {
         return cmd;
     }
 
+    /**
+     * @return Task name.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return Highest priority requested for the task.
+     */
+    public TaskPriority priority() {
+        return priority;
+    }
+
+    /**
+     * @return Server code, {@code null} if task is not related to particular server.
+     */
+    @Nullable public String srvCode() {
+        return srvCode;
+    }
+
+    /**
+     * @return Timestamp of last execution finish, 0 if task was never executed.
+     */
+    public long lastFinishedTs() {
+        return lastFinishedTs;
+    }
+
     public boolean canSkipStartNow() {
         boolean canSkip = false;
         if (status == Status.RUNNING)
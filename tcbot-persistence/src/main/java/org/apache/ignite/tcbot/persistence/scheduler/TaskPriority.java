@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.persistence.scheduler;
+
+/**
+ * Priority class of named task. Tasks of higher priority are started first, and lower priority tasks may occupy only
+ * part of runners, so higher priority tasks never wait for long running tasks of lower priority.
+ */
+public enum TaskPriority {
+    /** Reload requested by user, UI response depends on it. */
+    UI_BLOCKING(1),
+
+    /** Sync of tracked branches and related data: mutes, build types, tickets. */
+    TRACKED_BRANCH(3 / 4.),
+
+    /** Sync of PRs and branches. */
+    PR(1 / 2.),
+
+    /**
+     * Full reindex or resync, may run for hours. The share is global, not per server: reindexes of several servers
+     * are run 2 at a time for the default pool, so they never occupy runners needed for sync of tracked branches.
+     */
+    FULL_REINDEX(1 / 8.);
+
+    /** Share of runners, which can be occupied by tasks of this or lower priority. */
+    private final double runnersShare;
+
+    /**
+     * @param runnersShare Share of runners, which can be occupied by tasks of this or lower priority.
+     */
+    TaskPriority(double runnersShare) {
+        this.runnersShare = runnersShare;
+    }
+
+    /**
+     * @param poolSize Runners pool size.
+     * @return Max count of runners, which can be occupied by tasks of this or lower priority.
+     */
+    public int runnersLimit(int poolSize) {
+        return Math.max(1, (int)(poolSize * runnersShare));
+    }
+}
@@ -14,27 +14,49 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
 package org.apache.ignite.tcbot.persistence.scheduler;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Strings;
-import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Scheduler of named tasks. Tasks ready to run are started by priority, then by age of previous result. Tasks of lower
+ * priority may occupy only part of runners (see {@link TaskPriority}) and tasks of one server may occupy only
+ * {@link #SRV_RUNNERS_LIMIT} runners, so user-facing reloads are not waiting for long running reindex tasks.
+ * Priority shares are global: e.g. full reindexes of all servers share 2 runners, reindexes of other servers wait,
+ * and the one with the oldest previous result is started first when a runner is freed.
+ */
 class TcBotScheduler implements IScheduler {
     public static final int POOL_SIZE = 16;
+
+    /** Max runners occupied by tasks of one server, UI blocking tasks are not limited. */
+    public static final int SRV_RUNNERS_LIMIT = POOL_SIZE / 2;
+
+    /** Period of check for named tasks to be ready, milliseconds. */
+    private static final long CHECK_PERIOD_MS = 1000;
+
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(TcBotScheduler.class);
 
@@ -48,65 +70,241 @@ class TcBotScheduler implements IScheduler {
         return thread;
     };
 
-    /** Executor service. */
-    private volatile ScheduledExecutorService executorSvc = Executors.newScheduledThreadPool(POOL_SIZE, threadFactory1);
+    /** Executor service for delayed commands and named tasks dispatching. */
+    private volatile ScheduledExecutorService executorSvc = Executors.newScheduledThreadPool(2, threadFactory1);
+
+    /** Runners of named tasks. */
+    private volatile ExecutorService runnersSvc = Executors.newFixedThreadPool(POOL_SIZE, threadFactory1);
 
     /** Submit named task checker guard. */
     private AtomicBoolean tickGuard = new AtomicBoolean();
 
+    /** Dispatch is requested, but not started yet. */
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
     /** Named tasks. */
     private final ConcurrentMap<String, NamedTask> namedTasks = new ConcurrentHashMap<>();
 
+    /** Names of tasks submitted to runners. */
+    @GuardedBy("this")
+    private final Set<String> dispatched = new HashSet<>();
+
+    /** Count of tasks submitted to runners by priority. */
+    @GuardedBy("this")
+    private final Map<TaskPriority, Integer> runningByPriority = new EnumMap<>(TaskPriority.class);
+
+    /** Count of tasks submitted to runners by server code. */
+    @GuardedBy("this")
+    private final Map<String, Integer> runningBySrv = new HashMap<>();
+
+    /** Count of tasks ready to run, but waiting for runner, by priority. Updated on each dispatch. */
+    private volatile Map<TaskPriority, Integer> queueDepth = new EnumMap<>(TaskPriority.class);
+
     /** {@inheritDoc} */
     @Override public void invokeLater(Runnable cmd, long delay, TimeUnit unit) {
         service().schedule(cmd, delay, unit);
     }
 
     /** {@inheritDoc} */
-    @Override public void sheduleNamed(String fullName, Runnable cmd, long queitPeriod, TimeUnit unit) {
+    @Override public void sheduleNamed(String fullName, TaskPriority priority, @Nullable String srvCode,
+        Runnable cmd, long queitPeriod, TimeUnit unit) {
         NamedTask task = namedTasks.computeIfAbsent(fullName, NamedTask::new);
 
-        task.sheduleWithQuitePeriod(cmd, queitPeriod, unit);
+        task.sheduleWithQuitePeriod(cmd, queitPeriod, unit, priority, srvCode);
+
+        if (tickGuard.compareAndSet(false, true))
+            service().scheduleWithFixedDelay(this::dispatch, 0, CHECK_PERIOD_MS, TimeUnit.MILLISECONDS);
+
+        if (!task.canSkipStartNow())
+            requestDispatch();
+    }
+
+    /**
+     * Requests dispatch to be run asynchronously, so new tasks are started without waiting for next check.
+     */
+    private void requestDispatch() {
+        if (!dispatchRequested.compareAndSet(false, true))
+            return;
+
+        try {
+            service().execute(this::dispatch);
+        }
+        catch (RejectedExecutionException ignored) {
+            // Scheduler is stopped, tasks finished after stop are not followed by dispatch.
+        }
+    }
+
+    /**
+     * Starts ready tasks in order of priority while limits allow. Priority and server code of a task may be changed
+     * concurrently, so they are read once and the same values are used for sorting, limits and counters.
+     */
+    private synchronized void dispatch() {
+        dispatchRequested.set(false);
 
-        if (tickGuard.compareAndSet(false, true)) {
-            for (int threadId = 0; threadId < POOL_SIZE; threadId++) {
-                String threadNme = "Runner " + Strings.padStart(Integer.toString(threadId), 2, '0');
-                int period = 15000 + ThreadLocalRandom.current().nextInt(10000);
-                service().scheduleAtFixedRate(() -> checkNamedTasks(threadNme), 0, period, TimeUnit.MILLISECONDS);
+        try {
+            List<ReadyTask> ready = namedTasks.values().stream()
+                .filter(task -> !dispatched.contains(task.name()) && !task.canSkipStartNow())
+                .map(ReadyTask::new)
+                .sorted(Comparator.comparing((ReadyTask t) -> t.priority).thenComparingLong(t -> t.lastFinishedTs))
+                .collect(Collectors.toList());
+
+            Map<TaskPriority, Integer> waiting = new EnumMap<>(TaskPriority.class);
+
+            for (ReadyTask task : ready) {
+                if (canStart(task.priority, task.srvCode))
+                    start(task);
+                else
+                    waiting.merge(task.priority, 1, Integer::sum);
             }
+
+            queueDepth = waiting;
+        }
+        catch (Exception e) {
+            // Exception from periodic dispatch would cancel all further checks.
+            logger.error("Named tasks dispatch failure: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Submits task to runners, counters are rolled back if submit failed.
+     *
+     * @param ready Task ready to run.
+     */
+    @GuardedBy("this")
+    private void start(ReadyTask ready) {
+        NamedTask task = ready.task;
+        TaskPriority priority = ready.priority;
+        String srvCode = ready.srvCode;
+
+        acquire(task.name(), priority, srvCode);
+
+        try {
+            runners().execute(() -> {
+                try {
+                    runTask(task.name(), task);
+                }
+                finally {
+                    finished(task.name(), priority, srvCode);
+                }
+            });
         }
+        catch (RuntimeException e) {
+            release(task.name(), priority, srvCode);
+
+            logger.error("Unable to start background task [" + task.name() + "]: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param priority Task priority.
+     * @param srvCode Task server code.
+     * @return {@code true} if task can be started now according to runner limits.
+     */
+    @GuardedBy("this")
+    private boolean canStart(TaskPriority priority, @Nullable String srvCode) {
+        int running = 0;
+        int runningSameOrLower = 0;
+
+        for (Map.Entry<TaskPriority, Integer> entry : runningByPriority.entrySet()) {
+            running += entry.getValue();
+
+            if (entry.getKey().compareTo(priority) >= 0)
+                runningSameOrLower += entry.getValue();
+        }
+
+        if (running >= POOL_SIZE || runningSameOrLower >= priority.runnersLimit(POOL_SIZE))
+            return false;
+
+        return priority == TaskPriority.UI_BLOCKING
+            || srvCode == null
+            || runningBySrv.getOrDefault(srvCode, 0) < SRV_RUNNERS_LIMIT;
     }
 
     /**
-     * @param threadNme Runner name to be used in display.
+     * @param name Task name.
+     * @param priority Priority used for dispatch.
+     * @param srvCode Server code used for dispatch.
+     */
+    @GuardedBy("this")
+    private void acquire(String name, TaskPriority priority, @Nullable String srvCode) {
+        dispatched.add(name);
+        runningByPriority.merge(priority, 1, Integer::sum);
+
+        if (srvCode != null)
+            runningBySrv.merge(srvCode, 1, Integer::sum);
+    }
+
+    /**
+     * @param name Task name.
+     * @param priority Priority used for dispatch.
+     * @param srvCode Server code used for dispatch.
+     */
+    @GuardedBy("this")
+    private void release(String name, TaskPriority priority, @Nullable String srvCode) {
+        dispatched.remove(name);
+        runningByPriority.computeIfPresent(priority, (k, v) -> v > 1 ? v - 1 : null);
+
+        if (srvCode != null)
+            runningBySrv.computeIfPresent(srvCode, (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    /**
+     * @param name Task name.
+     * @param priority Priority used for dispatch.
+     * @param srvCode Server code used for dispatch.
+     */
+    private void finished(String name, TaskPriority priority, @Nullable String srvCode) {
+        synchronized (this) {
+            release(name, priority, srvCode);
+        }
+
+        requestDispatch();
+    }
+
+    /**
+     * @param taskName Task name to be used in display.
+     * @param task Task.
      */
     @SuppressWarnings({"UnusedReturnValue", "WeakerAccess"})
     @MonitoredTask(name = "Scheduled", nameExtArgIndex = 0, log = false)
-    protected String checkNamedTasks(String threadNme) {
-        AtomicInteger run = new AtomicInteger();
-        List<Throwable> problems = new ArrayList<>();
-        namedTasks.forEach((s, task) -> {
-            try {
-                Runnable runnable = task.runIfNeeded();
-                if (runnable != null)
-                    run.incrementAndGet();
-            }
-            catch (Exception e) {
-                logger.error("Background task [" + s + "] execution failure: " + e.getMessage(), e);
-                problems.add(e);
-            }
-        });
+    protected String runTask(String taskName, NamedTask task) {
+        try {
+            Runnable runnable = task.runIfNeeded();
+
+            return runnable != null ? "Finished" : "Skipped";
+        }
+        catch (Exception e) {
+            logger.error("Background task [" + taskName + "] execution failure: " + e.getMessage(), e);
+
+            return "Failed: " + e;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override public Map<TaskPriority, Integer> queueDepth() {
+        return new EnumMap<>(queueDepth);
+    }
 
-        return "Finished " + run.get() + " task(s) " + (problems.isEmpty() ? "" : (", exceptions: " + problems.toString()));
+    /** {@inheritDoc} */
+    @Override public synchronized Map<TaskPriority, Integer> runningTasks() {
+        return new EnumMap<>(runningByPriority);
     }
 
     /** {@inheritDoc} */
     @Override public void stop() {
-        if (executorSvc != null) {
-            executorSvc.shutdown();
+        stop(executorSvc);
+        stop(runnersSvc);
+    }
+
+    /**
+     * @param svc Service to stop.
+     */
+    private static void stop(@Nullable ExecutorService svc) {
+        if (svc != null) {
+            svc.shutdown();
             try {
-                if (!executorSvc.awaitTermination(10, TimeUnit.SECONDS))
-                    executorSvc.shutdownNow();
+                if (!svc.awaitTermination(10, TimeUnit.SECONDS))
+                    svc.shutdownNow();
             }
             catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -120,4 +318,38 @@ class TcBotScheduler implements IScheduler {
     private ScheduledExecutorService service() {
         return Preconditions.checkNotNull(executorSvc, "Service should be created");
     }
+
+    /**
+     *
+     */
+    private ExecutorService runners() {
+        return Preconditions.checkNotNull(runnersSvc, "Service should be created");
+    }
+
+    /**
+     * Named task with dispatch parameters read once.
+     */
+    private static class ReadyTask {
+        /** Task. */
+        private final NamedTask task;
+
+        /** Priority. */
+        private final TaskPriority priority;
+
+        /** Server code. */
+        @Nullable private final String srvCode;
+
+        /** Timestamp of last execution finish. */
+        private final long lastFinishedTs;
+
+        /**
+         * @param task Task.
+         */
+        ReadyTask(NamedTask task) {
+            this.task = task;
+            priority = task.priority();
+            srvCode = task.srvCode();
+            lastFinishedTs = task.lastFinishedTs();
+        }
+    }
 }
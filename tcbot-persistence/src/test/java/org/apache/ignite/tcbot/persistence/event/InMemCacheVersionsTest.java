@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.persistence.event;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Reload of in memory cache entries changed while loaded.
+ */
+public class InMemCacheVersionsTest {
+    /** Versions. */
+    private final InMemCacheVersions versions = new InMemCacheVersions();
+
+    /** Cache. */
+    private final Cache<String, Integer> cache = CacheBuilder.newBuilder().build();
+
+    /** Loads count. */
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /** */
+    @Test
+    public void testEntryIsLoadedOnce() throws Exception {
+        assertEquals(1, (int)versions.get(cache, "key", loads::incrementAndGet));
+        assertEquals(1, (int)versions.get(cache, "key", loads::incrementAndGet));
+
+        assertEquals(1, loads.get());
+    }
+
+    /** */
+    @Test
+    public void testEntryChangedDuringLoadIsReloaded() throws Exception {
+        Integer val = versions.get(cache, "key", () -> {
+            // Change event arrives while entry is loading, so it is not applied to the entry.
+            if (loads.incrementAndGet() == 1)
+                versions.changed("key");
+
+            return loads.get();
+        });
+
+        assertEquals(2, (int)val);
+        assertEquals(2, (int)cache.getIfPresent("key"));
+    }
+
+    /** */
+    @Test
+    public void testEntryChangedOnEachLoadIsInvalidated() throws Exception {
+        versions.get(cache, "key", () -> {
+            versions.changed("key");
+
+            return loads.incrementAndGet();
+        });
+
+        assertEquals(3, loads.get());
+        assertEquals(null, cache.getIfPresent("key"));
+    }
+
+    /** */
+    @Test
+    public void testChangeOfOtherKeyDoesNotReloadCached() throws Exception {
+        versions.get(cache, "key", loads::incrementAndGet);
+
+        versions.changed("other");
+
+        assertEquals(1, (int)versions.get(cache, "key", loads::incrementAndGet));
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcbot.persistence.scheduler;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runner limits of named tasks scheduler.
+ */
+public class TcBotSchedulerTest {
+    /** Scheduler. */
+    private final TcBotScheduler scheduler = new TcBotScheduler();
+
+    /** Latch blocking all started tasks. */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /** */
+    @After
+    public void stop() {
+        release.countDown();
+
+        scheduler.stop();
+    }
+
+    /** */
+    @Test
+    public void testFullReindexShareIsGlobal() throws Exception {
+        schedule("reindex", 6, TaskPriority.FULL_REINDEX, i -> "srv" + i);
+
+        assertRunning(TaskPriority.FULL_REINDEX.runnersLimit(TcBotScheduler.POOL_SIZE));
+        assertEquals(2, running(TaskPriority.FULL_REINDEX));
+
+        // Higher priority task is not waiting for reindex.
+        schedule("pr", 1, TaskPriority.PR, i -> "srv0");
+
+        assertRunning(3);
+        assertEquals(1, running(TaskPriority.PR));
+
+        release.countDown();
+
+        assertRunning(0);
+    }
+
+    /** */
+    @Test
+    public void testSharesOfLowerPriorities() throws Exception {
+        schedule("pr", 12, TaskPriority.PR, i -> null);
+
+        assertRunning(TaskPriority.PR.runnersLimit(TcBotScheduler.POOL_SIZE));
+
+        schedule("tracked", 12, TaskPriority.TRACKED_BRANCH, i -> null);
+
+        assertRunning(TaskPriority.TRACKED_BRANCH.runnersLimit(TcBotScheduler.POOL_SIZE));
+        assertEquals(8, running(TaskPriority.PR));
+        assertEquals(4, running(TaskPriority.TRACKED_BRANCH));
+
+        schedule("ui", 12, TaskPriority.UI_BLOCKING, i -> null);
+
+        assertRunning(TcBotScheduler.POOL_SIZE);
+        assertEquals(4, running(TaskPriority.UI_BLOCKING));
+    }
+
+    /** */
+    @Test
+    public void testServerLimit() throws Exception {
+        schedule("srv1-tracked", 12, TaskPriority.TRACKED_BRANCH, i -> "srv1");
+
+        assertRunning(TcBotScheduler.SRV_RUNNERS_LIMIT);
+
+        schedule("srv2-tracked", 2, TaskPriority.TRACKED_BRANCH, i -> "srv2");
+
+        assertRunning(TcBotScheduler.SRV_RUNNERS_LIMIT + 2);
+    }
+
+    /** */
+    @Test
+    public void testUiBlockingIsNotLimitedByServer() throws Exception {
+        schedule("srv1-ui", 12, TaskPriority.UI_BLOCKING, i -> "srv1");
+
+        assertRunning(12);
+        assertEquals(12, running(TaskPriority.UI_BLOCKING));
+    }
+
+    /** */
+    @Test
+    public void testFailedTaskReleasesRunner() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+
+        scheduler.sheduleNamed("failing", TaskPriority.FULL_REINDEX, "srv1", () -> {
+            throw new IllegalStateException("Test failure");
+        }, 0, TimeUnit.MILLISECONDS);
+
+        assertRunning(0);
+
+        scheduler.sheduleNamed("next", TaskPriority.FULL_REINDEX, "srv1", done::countDown, 0, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * @param prefix Task name prefix.
+     * @param cnt Count of tasks.
+     * @param priority Priority.
+     * @param srvCode Server code for task index.
+     */
+    private void schedule(String prefix, int cnt, TaskPriority priority, IntFunction<String> srvCode) {
+        for (int i = 0; i < cnt; i++) {
+            scheduler.sheduleNamed(prefix + i, priority, srvCode.apply(i), () -> {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Waits for count of running tasks and checks it is not exceeded after several dispatch periods.
+     *
+     * @param expected Expected count of running tasks.
+     */
+    private void assertRunning(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+
+        while (running() != expected && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        Thread.sleep(300);
+
+        assertEquals(expected, running());
+    }
+
+    /**
+     * @return Count of running tasks.
+     */
+    private int running() {
+        return scheduler.runningTasks().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * @param priority Priority.
+     * @return Count of running tasks of priority.
+     */
+    private int running(TaskPriority priority) {
+        Map<TaskPriority, Integer> running = scheduler.runningTasks();
+
+        return running.getOrDefault(priority, 0);
+    }
+}
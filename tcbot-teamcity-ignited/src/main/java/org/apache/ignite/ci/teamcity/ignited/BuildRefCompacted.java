@@ -99,6 +99,21 @@ public class BuildRefCompacted {
         this.id = buildId == null ? -1 : buildId;
     }
 
+    /**
+     * @param id Build id.
+     * @param buildTypeId Build type id from compactor.
+     * @param branchName Branch name from compactor.
+     * @param status Status from compactor.
+     * @param state State from compactor.
+     */
+    protected BuildRefCompacted(int id, int buildTypeId, int branchName, int status, int state) {
+        this.id = id;
+        this.buildTypeId = buildTypeId;
+        this.branchName = branchName;
+        this.status = status;
+        this.state = state;
+    }
+
     /**
      * @param refCompacted Reference compacted.
      */
@@ -106,4 +106,27 @@ public class ChangeDao {
 
         return changes;
     }
+
+    /**
+     * Saves changes using one batch get to skip unchanged entries and one batch put.
+     *
+     * @param srvId Server id.
+     * @param changes Changes to save, mapped by change ID.
+     * @return Count of changes actually written.
+     */
+    @AutoProfiling
+    public int saveAll(int srvId, Map<Integer, ChangeCompacted> changes) {
+        Map<Long, ChangeCompacted> toSave = new HashMap<>();
+
+        changes.forEach((changeId, change) -> toSave.put(changeIdToCacheKey(srvId, changeId), change));
+
+        Map<Long, ChangeCompacted> persisted = changesCache.getAll(toSave.keySet());
+
+        toSave.entrySet().removeIf(e -> e.getValue().equals(persisted.get(e.getKey())));
+
+        if (!toSave.isEmpty())
+            changesCache.putAll(toSave);
+
+        return toSave.size();
+    }
 }
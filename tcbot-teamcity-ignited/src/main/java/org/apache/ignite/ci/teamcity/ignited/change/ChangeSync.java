@@ -17,11 +17,12 @@
 package org.apache.ignite.ci.teamcity.ignited.change;
 
 import com.google.common.base.Throwables;
+import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
-import org.apache.ignite.tcservice.model.changes.Change;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcignited.build.TcRequestsPool;
 import org.apache.ignite.tcservice.ITeamcityConn;
-import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
+import org.apache.ignite.tcservice.model.changes.Change;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXParseException;
@@ -29,6 +30,9 @@ import org.xml.sax.SAXParseException;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ChangeSync {
     /** Logger. */
@@ -39,6 +43,9 @@ public class ChangeSync {
 
     @Inject private IStringCompactor compactor;
 
+    /** Pool for parallel requests to TC. */
+    @Inject private TcRequestsPool reqPool;
+
     public ChangeCompacted change(int srvId, int changeId, ITeamcityConn conn) {
         final ChangeCompacted load = changeDao.load(srvId, changeId);
 
@@ -48,9 +55,62 @@ public class ChangeSync {
         return reloadChange(srvId, changeId, conn);
     }
 
+    /**
+     * Provides changes data, existing changes are checked using one batch get, missing or outdated changes are
+     * requested from TC in parallel and saved using one batch put.
+     *
+     * @param srvId Server id.
+     * @param changeIds Change IDs.
+     * @param conn Connection.
+     * @return Changes mapped by change ID.
+     */
+    @Nonnull
+    @AutoProfiling
+    public Map<Integer, ChangeCompacted> changes(int srvId, int[] changeIds, ITeamcityConn conn) {
+        Map<Integer, ChangeCompacted> changes = changeDao.getAll(srvId, changeIds);
+
+        String srvCode = conn.serverCode();
+        Map<Integer, CompletableFuture<Change>> loading = new HashMap<>();
+
+        for (int changeId : changeIds) {
+            ChangeCompacted existing = changes.get(changeId);
+
+            if (existing == null || existing.isOutdatedEntityVersion())
+                loading.computeIfAbsent(changeId, id -> reqPool.submit(srvCode, () -> loadChange(id, conn)));
+        }
+
+        if (loading.isEmpty())
+            return changes;
+
+        Map<Integer, ChangeCompacted> reloaded = new HashMap<>();
+
+        loading.forEach((changeId, fut) ->
+            reloaded.put(changeId, new ChangeCompacted(compactor, TcRequestsPool.get(fut))));
+
+        changeDao.saveAll(srvId, reloaded);
+
+        changes.putAll(reloaded);
+
+        return changes;
+    }
+
     @Nonnull
     @AutoProfiling
     public ChangeCompacted reloadChange(int srvId, int changeId, ITeamcityConn conn) {
+        final ChangeCompacted changeCompacted = new ChangeCompacted(compactor, loadChange(changeId, conn));
+
+        changeDao.save(srvId, changeId, changeCompacted);
+
+        return changeCompacted;
+    }
+
+    /**
+     * @param changeId Change id.
+     * @param conn Connection.
+     * @return Change from TC or empty change if it is not available.
+     */
+    @Nonnull
+    private Change loadChange(int changeId, ITeamcityConn conn) {
         Change change;
         try {
             change = conn.getChange(changeId);
@@ -69,10 +129,6 @@ public class ChangeSync {
                 throw ExceptionUtil.propagateException(e);
         }
 
-        final ChangeCompacted changeCompacted = new ChangeCompacted(compactor, change);
-
-        changeDao.save(srvId, changeId, changeCompacted);
-
-        return changeCompacted;
+        return change;
     }
 }
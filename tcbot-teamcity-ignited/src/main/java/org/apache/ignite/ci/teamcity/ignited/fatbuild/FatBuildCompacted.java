@@ -22,6 +22,7 @@ import com.google.common.base.Strings;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -381,6 +382,18 @@ public class FatBuildCompacted extends BuildRefCompacted implements IVersionedEn
         return this;
     }
 
+    /**
+     * @param tests Tests already compacted.
+     */
+    public FatBuildCompacted addTests(Collection<TestCompactedV2> tests) {
+        if (testsV2 == null)
+            testsV2 = new ArrayList<>(tests.size());
+
+        testsV2.addAll(tests);
+
+        return this;
+    }
+
     /**
      * @param off Offset.
      * @param val Value.
@@ -426,6 +439,24 @@ public class FatBuildCompacted extends BuildRefCompacted implements IVersionedEn
         return testOccurrences;
     }
 
+    /**
+     * @return Copy of header fields.
+     */
+    public FatBuildHeader header() {
+        FatBuildHeader res = new FatBuildHeader(id(), buildTypeId(), branchName(), status(), state());
+
+        res.ver = _ver;
+        res.startDate = startDate;
+        res.finishDate = finishDate;
+        res.queuedDate = queuedDate;
+        res.projectId = projectId;
+        res.name = name;
+        res.flags = flags == null ? null : (BitSet)flags.clone();
+        res.triggered = triggered;
+
+        return res;
+    }
+
     /** Start date. */
     @Nullable public Date getStartDate() {
         return getStartDateTs() > 0 ? new Date(getStartDateTs()) : null;
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.ci.teamcity.ignited.fatbuild;
+
+import java.util.BitSet;
+import java.util.Date;
+import javax.annotation.Nullable;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+
+/**
+ * Header fields of {@link FatBuildCompacted}: reference, dates, flags and triggering info. Can be read from binary
+ * build without deserialization of tests, problems, parameters and revisions.
+ */
+public class FatBuildHeader extends BuildRefCompacted {
+    /** Entity version. */
+    int ver;
+
+    /** Start date. The number of milliseconds since January 1, 1970, 00:00:00 GMT */
+    long startDate;
+
+    /** Finish date. The number of milliseconds since January 1, 1970, 00:00:00 GMT */
+    long finishDate;
+
+    /** Queued date. The number of milliseconds since January 1, 1970, 00:00:00 GMT */
+    long queuedDate;
+
+    /** Project ID from compactor. */
+    int projectId = -1;
+
+    /** Suite name from compactor. */
+    int name = -1;
+
+    /** Flags. */
+    @Nullable BitSet flags;
+
+    /** Triggering info. */
+    @Nullable TriggeredCompacted triggered;
+
+    /**
+     * @param id Build id.
+     * @param buildTypeId Build type id from compactor.
+     * @param branchName Branch name from compactor.
+     * @param status Status from compactor.
+     * @param state State from compactor.
+     */
+    FatBuildHeader(int id, int buildTypeId, int branchName, int status, int state) {
+        super(id, buildTypeId, branchName, status, state);
+    }
+
+    /**
+     * Reads header fields from build in binary form.
+     *
+     * @param build Binary {@link FatBuildCompacted}.
+     */
+    public static FatBuildHeader fromBinary(BinaryObject build) {
+        FatBuildHeader res = new FatBuildHeader(
+            intField(build, "id"),
+            intField(build, "buildTypeId"),
+            intField(build, "branchName"),
+            intField(build, "status"),
+            intField(build, "state"));
+
+        Short ver = build.field("_ver");
+
+        res.ver = ver == null ? 0 : ver;
+        res.startDate = longField(build, "startDate");
+        res.finishDate = longField(build, "finishDate");
+        res.queuedDate = longField(build, "queuedDate");
+        res.projectId = intField(build, "projectId");
+        res.name = intField(build, "name");
+        res.flags = objField(build, "flags");
+        res.triggered = objField(build, "triggered");
+
+        return res;
+    }
+
+    /**
+     * @param obj Binary object.
+     * @param name Field name.
+     */
+    private static int intField(BinaryObject obj, String name) {
+        Integer val = obj.field(name);
+
+        return val == null ? -1 : val;
+    }
+
+    /**
+     * @param obj Binary object.
+     * @param name Field name.
+     */
+    private static long longField(BinaryObject obj, String name) {
+        Long val = obj.field(name);
+
+        return val == null ? 0 : val;
+    }
+
+    /**
+     * @param obj Binary object.
+     * @param name Field name.
+     * @return Deserialized field value.
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable static <T> T objField(BinaryObject obj, String name) {
+        Object val = obj.field(name);
+
+        if (val instanceof BinaryObject)
+            return ((BinaryObject)val).deserialize();
+
+        return (T)val;
+    }
+
+    /** */
+    public boolean isOutdatedEntityVersion() {
+        return ver < FatBuildCompacted.LATEST_VERSION;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean isFakeStub() {
+        return getId() == null || Boolean.TRUE.equals(getFlag(FatBuildCompacted.FAKE_BUILD_F));
+    }
+
+    /** */
+    public boolean isComposite() {
+        return Boolean.TRUE.equals(getFlag(FatBuildCompacted.COMPOSITE_F));
+    }
+
+    /**
+     * @param off Offset.
+     */
+    @Nullable private Boolean getFlag(int off) {
+        if (flags == null || !flags.get(off))
+            return null;
+
+        return flags.get(off + 1);
+    }
+
+    /** Start date. */
+    @Nullable public Date getStartDate() {
+        return startDate > 0 ? new Date(startDate) : null;
+    }
+
+    /** */
+    public long getStartDateTs() {
+        return startDate;
+    }
+
+    /** */
+    public long getFinishDateTs() {
+        return finishDate;
+    }
+
+    /** */
+    public long getQueuedDateTs() {
+        return queuedDate;
+    }
+
+    /**
+     * @param compactor Compactor.
+     */
+    public String projectId(IStringCompactor compactor) {
+        return compactor.getStringFromId(projectId);
+    }
+
+    /**
+     * @param compactor Compactor.
+     */
+    public String buildTypeName(IStringCompactor compactor) {
+        return compactor.getStringFromId(name);
+    }
+
+    /**
+     * @param compactor Compactor.
+     * @return Username of user triggered the build or null if build was not triggered by user.
+     */
+    @Nullable public String triggeredByUsername(IStringCompactor compactor) {
+        if (triggered == null || triggered.userId <= 0)
+            return null;
+
+        return compactor.getStringFromId(triggered.userUsername);
+    }
+}
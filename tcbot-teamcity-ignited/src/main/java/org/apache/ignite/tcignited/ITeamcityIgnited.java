@@ -16,13 +16,11 @@
  */
 package org.apache.ignite.tcignited;
 
-import com.google.common.base.Strings;
 import java.io.File;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -31,10 +29,11 @@ import org.apache.ignite.ci.teamcity.ignited.buildcondition.BuildCondition;
 import org.apache.ignite.ci.teamcity.ignited.buildtype.BuildTypeCompacted;
 import org.apache.ignite.ci.teamcity.ignited.buildtype.BuildTypeRefCompacted;
 import org.apache.ignite.ci.teamcity.ignited.change.ChangeCompacted;
-import org.apache.ignite.ci.teamcity.ignited.change.RevisionCompacted;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildHeader;
 import org.apache.ignite.internal.util.typedef.T2;
 import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
+import org.apache.ignite.tcignited.agent.AgentCompacted;
 import org.apache.ignite.tcignited.history.IRunHistory;
 import org.apache.ignite.tcignited.history.ISuiteRunHistory;
 import org.apache.ignite.tcservice.model.agent.Agent;
@@ -65,7 +64,7 @@ public interface ITeamcityIgnited {
      *
      * @param buildTypeId Build type identifier.
      * @param branchName Branch name.
-     * @return list of builds in history, includes all statuses: queued, running, etc
+     * @return list of builds in history sorted by ID descending, includes all statuses: queued, running, etc
      */
     public List<BuildRefCompacted> getAllBuildsCompacted(
             @Nullable String buildTypeId,
@@ -164,6 +163,22 @@ public interface ITeamcityIgnited {
      */
     public FatBuildCompacted getFatBuild(int id, SyncMode mode);
 
+    /**
+     * @param id Id.
+     */
+    public default FatBuildHeader getFatBuildHeader(int id) {
+        return getFatBuildHeader(id, SyncMode.RELOAD_QUEUED);
+    }
+
+    /**
+     * Returns header fields of build without deserialization of tests, problems, etc. Full build is synchronized
+     * (see {@link #getFatBuild(int, SyncMode)}) only if it would be reloaded by refresh mode.
+     *
+     * @param id Id.
+     * @param mode Refresh mode.
+     */
+    public FatBuildHeader getFatBuildHeader(int id, SyncMode mode);
+
     public Collection<ChangeCompacted> getAllChanges(int[] changeIds);
 
     /**
@@ -227,37 +242,22 @@ public interface ITeamcityIgnited {
     public List<Agent> agents(boolean connected, boolean authorized);
 
     /**
-     * @param build Build.
+     * Get state of connected and authorized agents. State is kept in memory and refreshed with one request to TC.
+     *
+     * @param mode Refresh mode: {@link SyncMode#RELOAD_QUEUED} - refresh before return, {@link SyncMode#LOAD_NEW} -
+     * return state from memory and request asynchronous refresh, {@link SyncMode#NONE} - state from memory only.
+     * @return Agents state.
      */
-    @Nullable
-    public default String getLatestCommitVersion(FatBuildCompacted build) {
-        List<RevisionCompacted> revisions = build.revisions();
-        if (revisions != null) {
-            Optional<String> any = revisions.stream()
-                .map(RevisionCompacted::commitFullVersion)
-                .filter(s -> !Strings.isNullOrEmpty(s))
-                .findAny();
-
-            if (any.isPresent())
-                return any.get(); // Not so good for several VCS roots, probably should use collection here and concatenate.
-        }
-
-        //fallback version of commit hash extraction
-        int changeMax = -1;
-        int[] changes = build.changes();
-        for (int i = 0; i < changes.length; i++) {
-            int change = changes[i];
-            if (change > changeMax)
-                changeMax = change;
-        }
-
-        if (changeMax > 0) {
-            final Collection<ChangeCompacted> allChanges = getAllChanges(new int[] {changeMax});
-            return allChanges.stream().findAny().map(ChangeCompacted::commitFullVersion).orElse(null);
-        }
-
-        return null;
-    }
+    public Collection<AgentCompacted> agentStates(SyncMode mode);
+
+    /**
+     * Finds commit versions of builds: version of any VCS revision of build, or version of its latest change if build
+     * has no revisions. Builds are read from DB only, changes are requested for all builds at once.
+     *
+     * @param buildIds Build IDs.
+     * @return Build ID to commit version, for builds having one.
+     */
+    public Map<Integer, String> getLatestCommitVersions(Collection<Integer> buildIds);
 
     @Nullable File downloadAndCacheBuildLog(int buildId);
 
@@ -16,6 +16,7 @@
  */
 package org.apache.ignite.tcignited;
 
+import com.google.common.base.Strings;
 import java.io.File;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -23,15 +24,20 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -47,19 +53,27 @@ import org.apache.ignite.ci.teamcity.ignited.buildtype.BuildTypeSync;
 import org.apache.ignite.ci.teamcity.ignited.change.ChangeCompacted;
 import org.apache.ignite.ci.teamcity.ignited.change.ChangeDao;
 import org.apache.ignite.ci.teamcity.ignited.change.ChangeSync;
+import org.apache.ignite.ci.teamcity.ignited.change.RevisionCompacted;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildHeader;
 import org.apache.ignite.internal.util.typedef.T2;
 import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
+import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.common.interceptor.GuavaCached;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
+import org.apache.ignite.tcbot.persistence.scheduler.TaskPriority;
+import org.apache.ignite.tcignited.agent.AgentCompacted;
+import org.apache.ignite.tcignited.agent.AgentDao;
+import org.apache.ignite.tcignited.agent.AgentSync;
 import org.apache.ignite.tcignited.build.FatBuildDao;
 import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
 import org.apache.ignite.tcignited.buildlog.BuildLogCheckResultDao;
 import org.apache.ignite.tcignited.buildref.BranchEquivalence;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
+import org.apache.ignite.tcignited.buildref.BuildRefRangesDao;
 import org.apache.ignite.tcignited.buildref.BuildRefSync;
 import org.apache.ignite.tcignited.history.BuildStartTimeStorage;
 import org.apache.ignite.tcignited.history.HistoryCollector;
@@ -119,9 +133,18 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
     /** Mute DAO. */
     @Inject private MuteDao muteDao;
 
+    /** Parallel reindex progress DAO. */
+    @Inject private BuildRefRangesDao buildRefRangesDao;
+
     /** Mute Sync. */
     @Inject private MuteSync muteSync;
 
+    /** Agent DAO. */
+    @Inject private AgentDao agentDao;
+
+    /** Agent Sync. */
+    @Inject private AgentSync agentSync;
+
     /** Changes DAO. */
     @Inject private ChangeDao changesDao;
 
@@ -165,13 +188,16 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
 
         srvIdMaskHigh = ITeamcityIgnited.serverIdToInt(srvCode);
         buildRefDao.init(); //todo init somehow in auto
+        buildRefRangesDao.init();
         buildConditionDao.init();
         fatBuildDao.init();
         changesDao.init();
         buildStartTimeStorage.init();
         muteDao.init();
+        agentDao.init();
         logCheckResDao.init();
         histDao.init();
+        histCollector.init();
     }
 
     /**
@@ -212,28 +238,40 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         else
             minBuildId = null;
 
-        List<BuildRefCompacted> buildRefs = getAllBuildsCompacted(buildTypeId, branchName)
-            .stream()
-            .filter(b -> b.isFinished(compactor))
-            .filter(b -> b.status() != unknownStatus) //check build is not cancelled
-            .filter(buildRefCompacted -> minBuildId == null || buildRefCompacted.id() > minBuildId)
-            .sorted(Comparator.comparing(BuildRefCompacted::id))
-            .collect(Collectors.toList());
+        List<BuildRefCompacted> buildRefs = getRecentBuildsCompacted(buildTypeId, branchName, minBuildId,
+            b -> b.isFinished(compactor) && b.status() != unknownStatus, //check build is not cancelled
+            Integer.MAX_VALUE);
+
+        buildRefs.sort(Comparator.comparing(BuildRefCompacted::id));
 
         if (buildRefs.isEmpty())
             return Collections.emptyList();
 
+        // Known start times are read in bulk, unknown are loaded only for builds checked by search.
+        long[] startTimes = buildStartTimeStorage.getBuildsStartTime(srvIdMaskHigh,
+            buildRefs.stream().mapToInt(BuildRefCompacted::id).toArray());
+
+        IntFunction<Date> startDate = idx -> {
+            if (startTimes[idx] == 0) {
+                Long ts = getBuildStartTs(buildRefs.get(idx).id());
+
+                startTimes[idx] = ts != null ? ts : -1;
+            }
+
+            return startTimes[idx] > 0 ? new Date(startTimes[idx]) : null;
+        };
+
         int idSince = 0;
         int idUntil = buildRefs.size() - 1;
 
         if (sinceDate != null) {
-            idSince = binarySearchDate(buildRefs, 0, buildRefs.size(), sinceDate, true);
+            idSince = binarySearchDate(startDate, 0, buildRefs.size(), sinceDate, true);
             idSince = (idSince == someDatesOutOfBounds) ? 0 : idSince;
         }
 
         if (untilDate != null) {
             idUntil = (idSince < 0) ? allDatesOutOfBounds :
-                binarySearchDate(buildRefs, idSince, buildRefs.size(), untilDate, false);
+                binarySearchDate(startDate, idSince, buildRefs.size(), untilDate, false);
             idUntil = (idUntil == someDatesOutOfBounds) ? buildRefs.size() - 1 : idUntil;
         }
 
@@ -241,12 +279,12 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
             AtomicBoolean stopFilter = new AtomicBoolean();
             AtomicBoolean addBuild = new AtomicBoolean();
 
-            return buildRefs.stream()
-                .filter(b -> {
+            return IntStream.range(0, buildRefs.size())
+                .filter(idx -> {
                     if (stopFilter.get())
                         return addBuild.get();
 
-                    Date date = getBuildStartDate(b.id());
+                    Date date = startDate.apply(idx);
 
                     if (date == null)
                         return false;
@@ -284,6 +322,7 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
                         return true;
                     }
                 })
+                .mapToObj(buildRefs::get)
                 .collect(Collectors.toList());
         } else if (idSince == allDatesOutOfBounds || idUntil == allDatesOutOfBounds)
             return Collections.emptyList();
@@ -292,7 +331,7 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
     }
 
     /**
-     * @param buildRefs Build refs list.
+     * @param startDate Start date of build by index in sorted build refs list.
      * @param fromIdx From index.
      * @param toIdx To index.
      * @param key Key.
@@ -306,7 +345,7 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
      * element;
      * {@value -3} Invalid value. If method get null or fake stub build.
      */
-    private int binarySearchDate(List<BuildRefCompacted> buildRefs, int fromIdx, int toIdx, Date key, boolean since) {
+    private int binarySearchDate(IntFunction<Date> startDate, int fromIdx, int toIdx, Date key, boolean since) {
         final int allDatesOutOfBounds = -1;
         final int someDatesOutOfBounds = -2;
         final int invalidVal = -3;
@@ -317,8 +356,8 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         int minDiffId = since ? low : high;
         long temp;
 
-        Date highBuildStartDate = getBuildStartDate(buildRefs.get(high).id());
-        Date lowBuildStartDate = getBuildStartDate(buildRefs.get(low).id());
+        Date highBuildStartDate = startDate.apply(high);
+        Date lowBuildStartDate = startDate.apply(low);
 
         if (highBuildStartDate != null) {
             if (highBuildStartDate.before(key))
@@ -332,7 +371,7 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
 
         while (low <= high) {
             int mid = (low + high) >>> 1;
-            Date midValStartDate = getBuildStartDate(buildRefs.get(mid).id());
+            Date midValStartDate = startDate.apply(mid);
 
             if (midValStartDate != null) {
                 if (midValStartDate.after(key))
@@ -413,29 +452,44 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
     /** {@inheritDoc} */
     @AutoProfiling
     @Override @Nonnull public List<Integer> getLastNBuildsFromHistory(String btId, String branchForTc, int cnt) {
-        List<BuildRefCompacted> hist = getAllBuildsCompacted(btId, branchForTc);
-
-        List<Integer> chains = hist.stream()
-            .filter(ref -> !ref.isFakeStub())
-            .filter(t -> !t.isCancelled(compactor))
-            .filter(t -> t.isFinished(compactor))
-            .sorted(Comparator.comparing(BuildRefCompacted::id).reversed())
-            .limit(cnt)
-            .map(BuildRefCompacted::id)
-            .collect(Collectors.toList());
-
-        if (chains.isEmpty()) {
+        List<BuildRefCompacted> hist = getRecentBuildsCompacted(btId, branchForTc, null,
+            t -> !t.isFakeStub() && !t.isCancelled(compactor) && t.isFinished(compactor), cnt);
+
+        if (hist.isEmpty()) {
             // probably there are no not-cacelled builds at all, check for cancelled
-            chains = hist.stream()
-                .filter(ref -> !ref.isFakeStub())
-                .filter(t -> t.isFinished(compactor))
-                .sorted(Comparator.comparing(BuildRefCompacted::id).reversed())
-                .map(BuildRefCompacted::id)
-                .limit(cnt)
-                .collect(Collectors.toList());
+            hist = getRecentBuildsCompacted(btId, branchForTc, null,
+                t -> !t.isFakeStub() && t.isFinished(compactor), cnt);
         }
 
-        return chains;
+        return hist.stream().map(BuildRefCompacted::id).collect(Collectors.toList());
+    }
+
+    /**
+     * @param buildTypeId Build type id.
+     * @param branchName Branch name.
+     * @param minBuildId Builds with ID less or equal to this are skipped, {@code null} means no bound.
+     * @param filter Builds filter applied before limit.
+     * @param limit Max count of builds to return.
+     * @return Builds sorted by ID descending.
+     */
+    private List<BuildRefCompacted> getRecentBuildsCompacted(@Nullable String buildTypeId,
+        @Nullable String branchName,
+        @Nullable Integer minBuildId,
+        Predicate<BuildRefCompacted> filter,
+        int limit) {
+        ensureActualizeRequested();
+
+        Integer buildTypeIdId = compactor.getStringIdIfPresent(buildTypeId);
+        if (buildTypeIdId == null)
+            return new ArrayList<>();
+
+        Set<Integer> branchNameIds = branchEquivalence.branchIdsForQuery(branchName, compactor);
+
+        if (branchNameIds.isEmpty())
+            return new ArrayList<>();
+
+        return buildRefDao.getRecentBuildsCompacted(srvIdMaskHigh, buildTypeIdId, branchNameIds, minBuildId, filter,
+            limit);
     }
 
     /** {@inheritDoc} */
@@ -471,6 +525,16 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         return conn.agents(connected, authorized);
     }
 
+    /** {@inheritDoc} */
+    @Override public Collection<AgentCompacted> agentStates(SyncMode mode) {
+        if (mode == SyncMode.RELOAD_QUEUED)
+            agentSync.actualizeAgents(srvIdMaskHigh, conn);
+        else if (mode == SyncMode.LOAD_NEW)
+            agentSync.ensureActualizeAgents(taskName("actualizeAgents"), srvIdMaskHigh, conn);
+
+        return agentDao.getAgents(srvIdMaskHigh);
+    }
+
     @Nullable
     @Override
     public File downloadAndCacheBuildLog(int buildId) {
@@ -502,7 +566,8 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
      * Enables scheduling for build refs/builds/history sync
      */
     public void ensureActualizeRequested() {
-        scheduler.sheduleNamed(taskName("actualizeRecentBuildRefs"), () -> actualizeRecentBuildRefs(srvCode), 2, TimeUnit.MINUTES);
+        scheduler.sheduleNamed(taskName("actualizeRecentBuildRefs"), TaskPriority.UI_BLOCKING, srvCode,
+            () -> actualizeRecentBuildRefs(srvCode), 2, TimeUnit.MINUTES);
 
         // schedule find missing later
         fatBuildSync.ensureActualizationRequested(srvCode, conn);
@@ -612,6 +677,31 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
         return savedVer;
     }
 
+    /** {@inheritDoc} */
+    @Override public FatBuildHeader getFatBuildHeader(int buildId, SyncMode mode) {
+        ensureActualizeRequested();
+
+        FatBuildHeader hdr = fatBuildDao.getBuildHeader(srvIdMaskHigh, buildId);
+
+        if (mode == SyncMode.NONE) {
+            // providing fake builds
+            return hdr != null ? hdr : new FatBuildCompacted().setFakeStub(true).header();
+        }
+
+        if (hdr != null && !hdr.isOutdatedEntityVersion()) {
+            boolean finished = hdr.state(compactor) != null // don't count old fake builds as finished
+                && !hdr.isRunning(compactor)
+                && !hdr.isQueued(compactor);
+
+            if (finished || mode != SyncMode.RELOAD_QUEUED)
+                return hdr;
+        }
+
+        FatBuildCompacted build = getFatBuild(buildId, mode);
+
+        return build == null ? null : build.header();
+    }
+
     protected FatBuildCompacted getFatBuildFromIgnite(int buildId) {
         ensureActualizeRequested();
 
@@ -621,17 +711,52 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
     /** {@inheritDoc} */
     @AutoProfiling
     @Override public Collection<ChangeCompacted> getAllChanges(int[] changeIds) {
-        final Map<Integer, ChangeCompacted> changes = changesDao.getAll(srvIdMaskHigh, changeIds);
+        return changeSync.changes(srvIdMaskHigh, changeIds, conn).values();
+    }
 
-        for (int changeId : changeIds) {
-            if (!changes.containsKey(changeId)) {
-                final ChangeCompacted change = changeSync.reloadChange(srvIdMaskHigh, changeId, conn);
+    /** {@inheritDoc} */
+    @AutoProfiling
+    @Override public Map<Integer, String> getLatestCommitVersions(Collection<Integer> buildIds) {
+        ensureActualizeRequested();
 
-                changes.put(changeId, change);
+        Map<Integer, String> res = new HashMap<>();
+        Map<Integer, Integer> lastChangeOfBuild = new HashMap<>();
+
+        fatBuildDao.getBuildsCommits(srvIdMaskHigh, buildIds).forEach((buildId, commits) -> {
+            Optional<String> ver = commits.get1().stream()
+                .map(RevisionCompacted::commitFullVersion)
+                .filter(s -> !Strings.isNullOrEmpty(s))
+                .findAny();
+
+            if (ver.isPresent()) {
+                res.put(buildId, ver.get());
+
+                return;
             }
+
+            OptionalInt changeMax = IntStream.of(commits.get2()).max();
+
+            if (changeMax.isPresent() && changeMax.getAsInt() > 0)
+                lastChangeOfBuild.put(buildId, changeMax.getAsInt());
+        });
+
+        if (!lastChangeOfBuild.isEmpty()) {
+            int[] changeIds = lastChangeOfBuild.values().stream().distinct().mapToInt(Integer::intValue).toArray();
+
+            Map<Integer, String> changeVers = new HashMap<>();
+
+            for (ChangeCompacted change : getAllChanges(changeIds))
+                changeVers.putIfAbsent(change.id(), change.commitFullVersion());
+
+            lastChangeOfBuild.forEach((buildId, changeId) -> {
+                String ver = changeVers.get(changeId);
+
+                if (ver != null)
+                    res.put(buildId, ver);
+            });
         }
 
-        return changes.values();
+        return res;
     }
 
     public void actualizeRecentBuildRefs() {
@@ -686,13 +811,18 @@ public class TeamcityIgnitedImpl implements ITeamcityIgnited {
      *
      */
     private void sheduleResyncBuildRefs() {
-        scheduler.sheduleNamed(taskName("fullReindex"), this::fullReindex, 2, TimeUnit.HOURS);
+        scheduler.sheduleNamed(taskName("fullReindex"), TaskPriority.FULL_REINDEX, srvCode, this::fullReindex,
+            2, TimeUnit.HOURS);
     }
 
     /**
      *
      */
     void fullReindex() {
-        buildRefSync.runActualizeBuildRefs(srvCode, BuildRefSync.SyncMode.FULL_REINDEX, null, conn);
+        BuildRefSync.SyncMode mode = Boolean.getBoolean(TcBotSystemProperties.BUILD_REFS_PARALLEL_REINDEX)
+            ? BuildRefSync.SyncMode.PARALLEL_FULL_REINDEX
+            : BuildRefSync.SyncMode.FULL_REINDEX;
+
+        buildRefSync.runActualizeBuildRefs(srvCode, mode, null, conn);
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.agent;
+
+import com.google.common.base.Objects;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.Persisted;
+import org.apache.ignite.tcservice.model.agent.AgentRef;
+
+/**
+ * State of TC agent: agent identity and build running on agent.
+ */
+@Persisted
+public class AgentCompacted {
+    /** Build ID if agent is idle. */
+    public static final int NO_BUILD = -1;
+
+    /** Agent id. */
+    private int id;
+
+    /** Agent name, compacted string id. */
+    private int name;
+
+    /** Running build ID or {@link #NO_BUILD}. */
+    private int buildId = NO_BUILD;
+
+    /**
+     * @param agent Agent.
+     * @param comp Compactor.
+     */
+    public AgentCompacted(AgentRef agent, IStringCompactor comp) {
+        id = agent.getId() == null ? -1 : agent.getId();
+        name = comp.getStringId(agent.getName());
+
+        if (agent.getBuild() != null && agent.getBuild().getId() != null)
+            buildId = agent.getBuild().getId();
+    }
+
+    /**
+     * @return Agent id.
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * @param comp Compactor.
+     * @return Agent name.
+     */
+    public String name(IStringCompactor comp) {
+        return comp.getStringFromId(name);
+    }
+
+    /**
+     * @return Running build ID or {@link #NO_BUILD}.
+     */
+    public int buildId() {
+        return buildId;
+    }
+
+    /**
+     * @return {@code true} if agent is running build.
+     */
+    public boolean isRunningBuild() {
+        return buildId != NO_BUILD;
+    }
+
+    /** {@inheritDoc} */
+    @Override public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        AgentCompacted compacted = (AgentCompacted)o;
+        return id == compacted.id &&
+            name == compacted.name &&
+            buildId == compacted.buildId;
+    }
+
+    /** {@inheritDoc} */
+    @Override public int hashCode() {
+        return Objects.hashCode(id, name, buildId);
+    }
+}
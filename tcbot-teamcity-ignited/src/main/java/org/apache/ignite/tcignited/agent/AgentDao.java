@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.agent;
+
+import com.google.common.base.Preconditions;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.cache.Cache;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
+import org.apache.ignite.tcbot.persistence.CacheConfigs;
+
+/**
+ * Agents state storage. Agents of server are loaded into memory on first access and are kept in sync with cache.
+ */
+public class AgentDao {
+    /** Cache name. */
+    public static final String TEAMCITY_AGENT_CACHE_NAME = "teamcityAgent";
+
+    /** Ignite provider. */
+    @Inject private Provider<Ignite> igniteProvider;
+
+    /** Agents cache. */
+    private IgniteCache<Long, AgentCompacted> agentCache;
+
+    /** Agents in memory: server ID -> agent ID -> state. */
+    private final ConcurrentMap<Integer, ConcurrentMap<Integer, AgentCompacted>> agentsInMem = new ConcurrentHashMap<>();
+
+    /**
+     *
+     */
+    public void init() {
+        agentCache = igniteProvider.get().getOrCreateCache(CacheConfigs.getCacheV2Config(TEAMCITY_AGENT_CACHE_NAME));
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     * @param agentId Agent id.
+     * @return Key for storage.
+     */
+    private static long agentIdToCacheKey(int srvIdMaskHigh, int agentId) {
+        return (long)agentId | (long)srvIdMaskHigh << 32;
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     * @return Agents of server, unmodifiable view.
+     */
+    public Collection<AgentCompacted> getAgents(int srvIdMaskHigh) {
+        Preconditions.checkNotNull(agentCache, "init() was not called");
+
+        return Collections.unmodifiableCollection(agents(srvIdMaskHigh).values());
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     */
+    private ConcurrentMap<Integer, AgentCompacted> agents(int srvIdMaskHigh) {
+        return agentsInMem.computeIfAbsent(srvIdMaskHigh, this::loadAgents);
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     * @return Persisted agents of server.
+     */
+    private ConcurrentMap<Integer, AgentCompacted> loadAgents(int srvIdMaskHigh) {
+        ConcurrentMap<Integer, AgentCompacted> res = new ConcurrentHashMap<>();
+
+        for (Cache.Entry<Long, AgentCompacted> entry : agentCache) {
+            if ((int)(entry.getKey() >> 32) == srvIdMaskHigh)
+                res.put(entry.getValue().id(), entry.getValue());
+        }
+
+        return res;
+    }
+
+    /**
+     * Saves changed agents and removes agents absent in actual list.
+     *
+     * @param srvIdMaskHigh Server id mask high.
+     * @param actual Actual state of all agents of server.
+     * @return Count of added, changed and removed agents.
+     */
+    @AutoProfiling
+    public synchronized int saveAgents(int srvIdMaskHigh, Collection<AgentCompacted> actual) {
+        Preconditions.checkNotNull(agentCache, "init() was not called");
+
+        ConcurrentMap<Integer, AgentCompacted> inMem = agents(srvIdMaskHigh);
+
+        Map<Long, AgentCompacted> changed = new HashMap<>();
+        Set<Integer> rmv = new HashSet<>(inMem.keySet());
+
+        for (AgentCompacted agent : actual) {
+            rmv.remove(agent.id());
+
+            if (!agent.equals(inMem.get(agent.id())))
+                changed.put(agentIdToCacheKey(srvIdMaskHigh, agent.id()), agent);
+        }
+
+        if (!changed.isEmpty())
+            agentCache.putAll(changed);
+
+        if (!rmv.isEmpty()) {
+            Set<Long> keys = new HashSet<>();
+
+            for (Integer id : rmv)
+                keys.add(agentIdToCacheKey(srvIdMaskHigh, id));
+
+            agentCache.removeAll(keys);
+        }
+
+        changed.values().forEach(agent -> inMem.put(agent.id(), agent));
+        rmv.forEach(inMem::remove);
+
+        return changed.size() + rmv.size();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.agent;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
+import org.apache.ignite.tcbot.persistence.scheduler.TaskPriority;
+import org.apache.ignite.tcservice.ITeamcityConn;
+
+/**
+ * Refreshes connected and authorized agents state using one request with limited fields per refresh.
+ */
+public class AgentSync {
+    /** Scheduler. */
+    @Inject private IScheduler scheduler;
+
+    /** Agent DAO. */
+    @Inject private AgentDao agentDao;
+
+    /** Compactor. */
+    @Inject private IStringCompactor compactor;
+
+    /**
+     * Start named task to refresh agents.
+     *
+     * @param taskName Task name.
+     * @param srvIdMaskHigh Server id mask high.
+     * @param conn TeamCity connection.
+     */
+    public void ensureActualizeAgents(String taskName, int srvIdMaskHigh, ITeamcityConn conn) {
+        scheduler.sheduleNamed(taskName, TaskPriority.TRACKED_BRANCH, conn.serverCode(),
+            () -> actualizeAgents(srvIdMaskHigh, conn), 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Refresh agents state.
+     *
+     * @param srvIdMaskHigh Server id mask high.
+     * @param conn TeamCity connection.
+     * @return Message with loading result.
+     */
+    @MonitoredTask(name = "Actualize Agents", nameExtArgsIndexes = {0})
+    public String actualizeAgents(int srvIdMaskHigh, ITeamcityConn conn) {
+        List<AgentCompacted> agents = conn.agentStates(true, true).stream()
+            .map(agent -> new AgentCompacted(agent, compactor))
+            .collect(Collectors.toList());
+
+        int changed = agentDao.saveAgents(srvIdMaskHigh, agents);
+
+        return "Agents loaded " + agents.size() + ", changed " + changed + " for " + conn.serverCode();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.build;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcignited.buildlog.ILogProductSpecific;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
+
+/**
+ * Tests page compacted while it is being parsed. Test names and statuses are collected for the whole page and their
+ * string IDs are requested from compactor using one bulk call.
+ */
+public class CompactedTestsPage implements Consumer<TestOccurrenceFull> {
+    /** Compactor. */
+    private final IStringCompactor compactor;
+
+    /** Log product specific. */
+    private final ILogProductSpecific logSpecific;
+
+    /** Tests, name and status IDs are set by {@link #tests()}. */
+    private final List<TestCompactedV2> tests = new ArrayList<>();
+
+    /** Names of tests, index is aligned with {@link #tests}. */
+    private final List<String> names = new ArrayList<>();
+
+    /** Statuses of tests, index is aligned with {@link #tests}. */
+    private final List<String> statuses = new ArrayList<>();
+
+    /** Reference to next page. */
+    @Nullable private String nextHref;
+
+    /**
+     * @param compactor Compactor.
+     * @param logSpecific Log product specific.
+     */
+    public CompactedTestsPage(IStringCompactor compactor, ILogProductSpecific logSpecific) {
+        this.compactor = compactor;
+        this.logSpecific = logSpecific;
+    }
+
+    /** {@inheritDoc} */
+    @Override public void accept(TestOccurrenceFull occurrence) {
+        tests.add(new TestCompactedV2(occurrence, logSpecific));
+        names.add(occurrence.name);
+        statuses.add(occurrence.status);
+    }
+
+    /**
+     * @return Reference to next page or null for last page.
+     */
+    @Nullable public String nextHref() {
+        return nextHref;
+    }
+
+    /**
+     * @param nextHref Reference to next page.
+     */
+    public CompactedTestsPage nextHref(@Nullable String nextHref) {
+        this.nextHref = nextHref;
+
+        return this;
+    }
+
+    /**
+     * @return Compacted tests of the page.
+     */
+    public List<TestCompactedV2> tests() {
+        if (!names.isEmpty()) {
+            List<String> strings = new ArrayList<>(names.size() + statuses.size());
+
+            strings.addAll(names);
+            strings.addAll(statuses);
+
+            int[] ids = compactor.getStringIds(strings);
+            int statusesOff = names.size();
+
+            for (int i = 0; i < tests.size(); i++)
+                tests.get(i).setStringIds(ids[i], ids[statusesOff + i]);
+
+            names.clear();
+            statuses.clear();
+        }
+
+        return tests;
+    }
+}
@@ -19,16 +19,18 @@ package org.apache.ignite.tcignited.build;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.cache.Cache;
@@ -42,14 +44,20 @@ import org.apache.ignite.IgniteCache;
 import org.apache.ignite.binary.BinaryObject;
 import org.apache.ignite.cache.CacheEntryProcessor;
 import org.apache.ignite.cache.affinity.Affinity;
+import org.apache.ignite.ci.teamcity.ignited.change.RevisionCompacted;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildHeader;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.ProblemCompacted;
+import org.apache.ignite.lang.IgniteBiTuple;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.PartitionedScan;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
 import org.apache.ignite.tcignited.buildlog.ILogProductSpecific;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
 import org.apache.ignite.tcignited.buildtime.BuildTimeResult;
-import org.apache.ignite.tcignited.history.HistoryCollector;
+import org.apache.ignite.tcignited.event.FatBuildSavedEvent;
 import org.apache.ignite.tcservice.model.changes.ChangesList;
 import org.apache.ignite.tcservice.model.hist.BuildRef;
 import org.apache.ignite.tcservice.model.result.Build;
@@ -82,18 +90,21 @@ public class FatBuildDao {
     /** Logger product specific. */
     @Inject private ILogProductSpecific logProductSpecific;
 
-    /** History collector. */
-    @Inject private HistoryCollector histCollector;
-
     /** Update Counters for branch-related changes storage. */
     @Inject private UpdateCountersStorage countersStorage;
 
+    /** Change events bus. */
+    @Inject private TcEventBus eventBus;
+
     /**
      *
      */
     public FatBuildDao init() {
         buildsCache = igniteProvider.get().getOrCreateCache(CacheConfigs.getCacheV2Config(TEAMCITY_FAT_BUILD_CACHE_NAME));
 
+        eventBus.subscribe(FatBuildSavedEvent.class, UpdateCountersStorage.class.getSimpleName(),
+            evt -> countersStorage.increment(evt.build().branchName()));
+
         return this;
     }
 
@@ -116,13 +127,41 @@ public class FatBuildDao {
                                        @Nullable Statistics statistics,
                                        @Nullable ChangesList changesList,
                                        @Nullable FatBuildCompacted existingBuild) {
+        CompactedTestsPage compacted = new CompactedTestsPage(compactor, logProductSpecific);
+
+        for (TestOccurrencesFull next : tests)
+            next.getTests().forEach(compacted);
+
+        return saveBuild(srvIdMaskHigh, buildId, build, compacted.tests(), problems, statistics, changesList,
+            existingBuild);
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     * @param buildId
+     * @param build Build data.
+     * @param tests Tests already compacted, see {@link CompactedTestsPage}.
+     * @param problems
+     * @param statistics
+     * @param changesList
+     * @param existingBuild existing version of build in the DB.
+     * @return Fat Build saved (if modifications detected), otherwise null.
+     */
+    @Nullable public FatBuildCompacted saveBuild(int srvIdMaskHigh,
+                                       int buildId,
+                                       @Nonnull Build build,
+                                       @Nonnull Collection<TestCompactedV2> tests,
+                                       @Nullable List<ProblemOccurrence> problems,
+                                       @Nullable Statistics statistics,
+                                       @Nullable ChangesList changesList,
+                                       @Nullable FatBuildCompacted existingBuild) {
         Preconditions.checkNotNull(buildsCache, "init() was not called");
         Preconditions.checkNotNull(build, "build can't be null");
 
         FatBuildCompacted newBuild = new FatBuildCompacted(compactor, build);
 
-        for (TestOccurrencesFull next : tests)
-            newBuild.addTests(compactor, next.getTests(), logProductSpecific);
+        if (!tests.isEmpty())
+            newBuild.addTests(tests);
 
         if (problems != null)
             newBuild.addProblems(compactor, problems);
@@ -146,9 +185,7 @@ public class FatBuildDao {
     public void putFatBuild(int srvIdMaskHigh, int buildId, FatBuildCompacted newBuild) {
         buildsCache.put(buildIdToCacheKey(srvIdMaskHigh, buildId), newBuild);
 
-        histCollector.invalidateHistoryInMem(srvIdMaskHigh, newBuild);
-
-        countersStorage.increment(newBuild.branchName());
+        eventBus.publish(new FatBuildSavedEvent(srvIdMaskHigh, newBuild));
     }
 
     public static int[] extractChangeIds(@Nonnull ChangesList changesList) {
@@ -195,6 +232,148 @@ public class FatBuildDao {
         return buildsCache.getAll(ids);
     }
 
+    /**
+     * Reads header fields of build without deserialization of the whole build.
+     *
+     * @param srvIdMaskHigh Server id mask high.
+     * @param buildId Build id.
+     * @return Header or null if build is absent.
+     */
+    @Nullable public FatBuildHeader getBuildHeader(int srvIdMaskHigh, int buildId) {
+        Preconditions.checkNotNull(buildsCache, "init() was not called");
+
+        BinaryObject build = buildsCache.<Long, BinaryObject>withKeepBinary()
+            .get(buildIdToCacheKey(srvIdMaskHigh, buildId));
+
+        return build == null ? null : FatBuildHeader.fromBinary(build);
+    }
+
+    /**
+     * Reads header fields of builds without deserialization of the whole builds.
+     *
+     * @param srvIdMaskHigh Server id mask high.
+     * @param buildsIds Builds ids.
+     * @return Build ID to header for existing builds.
+     */
+    public Map<Integer, FatBuildHeader> getBuildHeaders(int srvIdMaskHigh, Collection<Integer> buildsIds) {
+        Preconditions.checkNotNull(buildsCache, "init() was not called");
+
+        Map<Long, BinaryObject> builds = buildsCache.<Long, BinaryObject>withKeepBinary()
+            .getAll(buildsIdsToCacheKeys(srvIdMaskHigh, buildsIds));
+
+        Map<Integer, FatBuildHeader> res = new HashMap<>();
+
+        builds.forEach((k, build) -> res.put(BuildRefDao.cacheKeyToBuildId(k), FatBuildHeader.fromBinary(build)));
+
+        return res;
+    }
+
+    /**
+     * Reads VCS revisions and changes of builds, other build fields are not deserialized.
+     *
+     * @param srvIdMaskHigh Server id mask high.
+     * @param buildsIds Builds ids.
+     * @return Build ID to (revisions, change IDs) for existing builds.
+     */
+    public Map<Integer, IgniteBiTuple<List<RevisionCompacted>, int[]>> getBuildsCommits(int srvIdMaskHigh,
+        Collection<Integer> buildsIds) {
+        Preconditions.checkNotNull(buildsCache, "init() was not called");
+
+        Map<Long, BinaryObject> builds = buildsCache.<Long, BinaryObject>withKeepBinary()
+            .getAll(buildsIdsToCacheKeys(srvIdMaskHigh, buildsIds));
+
+        Map<Integer, IgniteBiTuple<List<RevisionCompacted>, int[]>> res = new HashMap<>();
+
+        builds.forEach((k, build) -> {
+            Object[] revisions = build.field("revisions");
+            int[] changes = build.field("changesIds");
+
+            List<RevisionCompacted> revList = new ArrayList<>();
+
+            if (revisions != null) {
+                for (Object rev : revisions) {
+                    revList.add(rev instanceof BinaryObject
+                        ? ((BinaryObject)rev).<RevisionCompacted>deserialize()
+                        : (RevisionCompacted)rev);
+                }
+            }
+
+            res.put(BuildRefDao.cacheKeyToBuildId(k),
+                new IgniteBiTuple<>(revList, changes == null ? new int[] {} : changes));
+        });
+
+        return res;
+    }
+
+    /**
+     * Reads problems of build, other build fields are not deserialized.
+     *
+     * @param srvIdMaskHigh Server id mask high.
+     * @param buildId Build id.
+     * @return Problems, empty list if build is absent or has no problems.
+     */
+    @Nonnull public List<ProblemCompacted> getProblems(int srvIdMaskHigh, int buildId) {
+        Preconditions.checkNotNull(buildsCache, "init() was not called");
+
+        BinaryObject build = buildsCache.<Long, BinaryObject>withKeepBinary()
+            .get(buildIdToCacheKey(srvIdMaskHigh, buildId));
+
+        Collection<?> problems = build == null ? null : build.<Collection<?>>field("problems");
+
+        if (problems == null)
+            return Collections.emptyList();
+
+        List<ProblemCompacted> res = new ArrayList<>(problems.size());
+
+        for (Object problem : problems) {
+            res.add(problem instanceof BinaryObject
+                ? ((BinaryObject)problem).<ProblemCompacted>deserialize()
+                : (ProblemCompacted)problem);
+        }
+
+        return res;
+    }
+
+    /**
+     * Finds test by name in build, only found test is deserialized.
+     *
+     * @param srvIdMaskHigh Server id mask high.
+     * @param buildId Build id.
+     * @param testName Test name id from compactor.
+     * @return Test or null if build is absent or test was not found.
+     */
+    @Nullable public ITest findTest(int srvIdMaskHigh, int buildId, int testName) {
+        Preconditions.checkNotNull(buildsCache, "init() was not called");
+
+        BinaryObject build = buildsCache.<Long, BinaryObject>withKeepBinary()
+            .get(buildIdToCacheKey(srvIdMaskHigh, buildId));
+
+        if (build == null)
+            return null;
+
+        Collection<?> tests = build.field("testsV2");
+
+        if (tests == null)
+            tests = build.field("tests"); // older DB records
+
+        if (tests == null)
+            return null;
+
+        for (Object test : tests) {
+            if (test instanceof BinaryObject) {
+                BinaryObject binTest = (BinaryObject)test;
+                Integer name = binTest.field("name");
+
+                if (name != null && name == testName)
+                    return binTest.deserialize();
+            }
+            else if (test instanceof ITest && ((ITest)test).testName() == testName)
+                return (ITest)test;
+        }
+
+        return null;
+    }
+
     /**
      * @param key Key.
      * @param srvId Server id.
@@ -203,10 +382,36 @@ public class FatBuildDao {
         return key != null && key >> 32 == srvId;
     }
 
-    public Stream<Cache.Entry<Long, FatBuildCompacted>> outdatedVersionEntries(int srvId) {
-        return StreamSupport.stream(buildsCache.spliterator(), false)
-            .filter(entry -> entry.getValue().isOutdatedEntityVersion())
-            .filter(entry -> isKeyForServer(entry.getKey(), srvId));
+    /**
+     * Finds builds having outdated entity version. Version is checked in binary mode, only keys of outdated builds are
+     * collected, and builds are loaded by chunks, so all outdated builds are not held in memory at once.
+     *
+     * @param srvId Server id.
+     * @param consumer Consumer of outdated build cache key and build.
+     */
+    public void forEachOutdatedVersionEntry(int srvId, BiConsumer<Long, FatBuildCompacted> consumer) {
+        List<Long> keys = PartitionedScan.collect(buildsCache.<Long, BinaryObject>withKeepBinary(),
+            (k, v) -> {
+                if (!isKeyForServer(k, srvId))
+                    return false;
+
+                Short ver = v.field("_ver");
+
+                return ver == null || ver < FatBuildCompacted.LATEST_VERSION;
+            },
+            Cache.Entry::getKey);
+
+        for (List<Long> chunk : Iterables.partition(keys, MAX_FAT_BUILD_CHUNK)) {
+            Map<Long, FatBuildCompacted> builds = buildsCache.getAll(new HashSet<>(chunk));
+
+            for (Long key : chunk) {
+                FatBuildCompacted build = builds.get(key);
+
+                // Build may be removed since scan.
+                if (build != null)
+                    consumer.accept(key, build);
+            }
+        }
     }
 
     private static Set<Long> buildsIdsToCacheKeys(int srvId, Collection<Integer> stream) {
@@ -238,24 +443,46 @@ public class FatBuildDao {
     }
 
     /**
+     * Reads start times in binary mode. Keys are sorted by partition, so each bulk request touches as few partitions
+     * as possible.
+     *
      * @param srvId Server id.
-     * @param ids Ids.
+     * @param buildIds Build ids.
+     * @return Start timestamps in order of build ids, 0 if build is absent or start time is unknown.
      */
-    public Map<Integer, Long> getBuildStartTime(int srvId, Set<Integer> ids) {
+    @AutoProfiling
+    public long[] getBuildsStartTime(int srvId, int[] buildIds) {
         IgniteCache<Long, BinaryObject> cacheBin = buildsCache.withKeepBinary();
-        Set<Long> keys = buildsIdsToCacheKeys(srvId, ids);
-        HashMap<Integer, Long> res = new HashMap<>();
-
-        Iterables.partition(keys, MAX_FAT_BUILD_CHUNK).forEach(
-            chunk -> {
-                Map<Long, EntryProcessorResult<Long>> map = cacheBin.invokeAll(keys, new GetStartTimeProc());
-                map.forEach((k, r) -> {
-                    Long ts = r.get();
-                    if (ts != null)
-                        res.put(BuildRefDao.cacheKeyToBuildId(k), ts);
-                });
-            }
-        );
+        Affinity<Long> affinity = affinity();
+
+        List<Long> keys = new ArrayList<>(buildIds.length);
+
+        for (int buildId : buildIds)
+            keys.add(buildIdToCacheKey(srvId, buildId));
+
+        keys.sort(Comparator.comparingInt(affinity::partition));
+
+        Map<Long, Long> startTimes = new HashMap<>();
+
+        Iterables.partition(keys, MAX_FAT_BUILD_CHUNK).forEach(chunk -> {
+            Map<Long, EntryProcessorResult<Long>> map
+                = cacheBin.invokeAll(new HashSet<>(chunk), new GetStartTimeProc());
+
+            map.forEach((k, r) -> {
+                Long ts = r.get();
+
+                if (ts != null)
+                    startTimes.put(k, ts);
+            });
+        });
+
+        long[] res = new long[buildIds.length];
+
+        for (int i = 0; i < buildIds.length; i++) {
+            Long ts = startTimes.get(buildIdToCacheKey(srvId, buildIds[i]));
+
+            res[i] = ts == null ? 0 : ts;
+        }
 
         return res;
     }
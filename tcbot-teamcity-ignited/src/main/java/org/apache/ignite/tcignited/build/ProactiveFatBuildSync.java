@@ -20,42 +20,44 @@ import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
-import org.apache.ignite.cache.affinity.Affinity;
 import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
 import org.apache.ignite.ci.teamcity.ignited.change.ChangeSync;
 import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
 import org.apache.ignite.internal.util.GridConcurrentHashSet;
 import org.apache.ignite.internal.util.GridIntList;
+import org.apache.ignite.lang.IgniteBiTuple;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.exeption.ServiceConflictException;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
+import org.apache.ignite.tcbot.persistence.scheduler.TaskPriority;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.SyncMode;
+import org.apache.ignite.tcignited.buildlog.ILogProductSpecific;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
 import org.apache.ignite.tcservice.ITeamcityConn;
 import org.apache.ignite.tcservice.model.changes.ChangesList;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrence;
 import org.apache.ignite.tcservice.model.result.stat.Statistics;
-import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,9 +82,18 @@ public class ProactiveFatBuildSync {
     /** Change sync. */
     @Inject private ChangeSync changeSync;
 
+    /** Pool for parallel requests to TC. */
+    @Inject private TcRequestsPool reqPool;
+
+    /** Log product specific. */
+    @Inject private ILogProductSpecific logSpecific;
+
     @GuardedBy("this")
     private Map<String, SyncTask> buildToLoad = new HashMap<>();
 
+    /** Next loader to activate, loaders are activated round-robin to spread builds between runners. */
+    private final AtomicInteger nextLdr = new AtomicInteger();
+
     public void doLoadBuilds(int i, String srvNme, ITeamcityConn conn, Set<Integer> paginateUntil) {
         doLoadBuilds(i, srvNme, conn, paginateUntil, getSyncTask(conn).loadingBuilds);
     }
@@ -114,9 +125,10 @@ public class ProactiveFatBuildSync {
                     .forEach(syncTask.ids::add);
         }
 
-        int ldrToActivate = ThreadLocalRandom.current().nextInt(FAT_BUILD_PROACTIVE_TASKS);
+        int ldrToActivate = Math.floorMod(nextLdr.getAndIncrement(), FAT_BUILD_PROACTIVE_TASKS);
 
         scheduler.sheduleNamed(taskName("loadFatBuilds" + ldrToActivate, conn.serverCode()),
+                TaskPriority.TRACKED_BRANCH, conn.serverCode(),
                 () -> loadFatBuilds(ldrToActivate, conn.serverCode()), 2, TimeUnit.MINUTES);
 
     }
@@ -136,62 +148,40 @@ public class ProactiveFatBuildSync {
     protected String findMissingBuildsFromBuildRef(String srvCode, ITeamcityConn conn) {
         int srvIdMaskHigh = ITeamcityIgnited.serverIdToInt(srvCode);
 
-        List<Integer> buildsIdsToLoad = new ArrayList<>();
-        AtomicInteger totalAskedToLoad = new AtomicInteger();
-
-        Affinity<Long> affinity = fatBuildDao.affinity();
-        int partitions = affinity.partitions();
+        int stateRunning = compactor.getStringId(BuildRef.STATE_RUNNING);
+        int stateQueued = compactor.getStringId(BuildRef.STATE_QUEUED);
         int checkBatchSize = 1000;
+        AtomicInteger totalAskedToLoad = new AtomicInteger();
 
-        GridIntList keysToCheck = new GridIntList();
-        for (int p = 0; p < partitions; p++) {
-            int curPart = p;
-
-            buildRefDao.compactedBuildsForServer(srvIdMaskHigh, bref -> true)
-                .filter(
-                    bref -> {
-                        long fatBuildKey = FatBuildDao.buildIdToCacheKey(srvIdMaskHigh, bref.id());
-                        int part = affinity.partition(fatBuildKey);
-                        return part == curPart;
-                    }
-                )
-                .forEach(buildRef -> {
-                    int buildId = buildRef.id();
-
-                    if (buildRef.isRunning(compactor) || buildRef.isQueued(compactor))
-                        buildsIdsToLoad.add(buildId); //re-check queued
-                    else
-                        keysToCheck.add(buildId); // check if missing
-
-                    int initSize = keysToCheck.size();
-                    if (initSize >= checkBatchSize) {
-                        System.err.println("findMissingBuilds: Srv: " + srvCode + " Checking " + initSize + " builds for partition " + curPart);
+        buildRefDao.forEachPartitionBuildStates(srvIdMaskHigh, (refs, part) -> {
+            List<Integer> buildsIdsToLoad = new ArrayList<>();
+            GridIntList keysToCheck = new GridIntList(refs.size());
 
-                        int[] buildIds = keysToCheck.array();
-                        keysToCheck.clear();
+            for (IgniteBiTuple<Integer, Integer> ref : refs) {
+                Integer state = ref.get2();
 
-                        Collection<Integer> builds = fatBuildDao.getMissingBuilds(srvIdMaskHigh, buildIds);
-                        System.err.println("foundMissing: " + builds.size() + ": Srv: " + srvCode + " Checking " + initSize + " builds for partition " + curPart);
+                if (state != null && (state == stateRunning || state == stateQueued))
+                    buildsIdsToLoad.add(ref.get1()); //re-check queued
+                else
+                    keysToCheck.add(ref.get1()); // check if missing
+            }
 
-                        buildsIdsToLoad.addAll(builds);
-                    }
+            int[] buildIds = keysToCheck.array();
 
-                    if (buildsIdsToLoad.size() >= 100) {
-                        totalAskedToLoad.addAndGet(buildsIdsToLoad.size());
-                        scheduleBuildsLoad(conn, buildsIdsToLoad);
-                        buildsIdsToLoad.clear();
-                    }
-                });
-        }
+            for (int from = 0; from < buildIds.length; from += checkBatchSize) {
+                int[] batch = Arrays.copyOfRange(buildIds, from, Math.min(from + checkBatchSize, buildIds.length));
 
-        if (!keysToCheck.isEmpty())
-            buildsIdsToLoad.addAll(fatBuildDao.getMissingBuilds(srvIdMaskHigh, keysToCheck.array()));
+                buildsIdsToLoad.addAll(fatBuildDao.getMissingBuilds(srvIdMaskHigh, batch));
+            }
 
+            if (!buildsIdsToLoad.isEmpty()) {
+                System.err.println("findMissingBuilds: Srv: " + srvCode + " Checked " + buildIds.length
+                    + " builds for partition " + part + ", found to load: " + buildsIdsToLoad.size());
 
-        if (!buildsIdsToLoad.isEmpty()) {
-            totalAskedToLoad.addAndGet(buildsIdsToLoad.size());
-            scheduleBuildsLoad(conn, buildsIdsToLoad);
-        }
+                totalAskedToLoad.addAndGet(buildsIdsToLoad.size());
+                scheduleBuildsLoad(conn, buildsIdsToLoad);
+            }
+        });
 
         return "Invoked later load for " + totalAskedToLoad.get() + " builds from " + srvCode;
     }
@@ -280,6 +270,7 @@ public class ProactiveFatBuildSync {
     public void ensureActualizationRequested(String srvName, ITeamcityConn conn) {
         scheduler.invokeLater(() -> {
             scheduler.sheduleNamed(taskName("findMissingBuildsFromBuildRef", srvName),
+                TaskPriority.FULL_REINDEX, srvName,
                 () -> findMissingBuildsFromBuildRef(srvName, conn), 360, TimeUnit.MINUTES);
         }, 15, TimeUnit.MINUTES);
 
@@ -299,13 +290,13 @@ public class ProactiveFatBuildSync {
 
         AtomicInteger cnt = new AtomicInteger();
         AtomicInteger divergedIds = new AtomicInteger();
-        fatBuildDao.outdatedVersionEntries(srvId).forEach(entry -> {
+        fatBuildDao.forEachOutdatedVersionEntry(srvId, (key, build) -> {
             cnt.incrementAndGet();
-            int buildId = BuildRefDao.cacheKeyToBuildId(entry.getKey());
+            int buildId = BuildRefDao.cacheKeyToBuildId(key);
             FatBuildCompacted transformed = transformV5Build(
                 srvId,
                 buildId,
-                entry.getValue());
+                build);
 
             if (transformed != null)
                 divergedIds.incrementAndGet();
@@ -375,7 +366,7 @@ public class ProactiveFatBuildSync {
         }
 
         Build build;
-        List<TestOccurrencesFull> tests = new ArrayList<>();
+        List<TestCompactedV2> tests = new ArrayList<>();
         List<ProblemOccurrence> problems = null;
         Statistics statistics = null;
         ChangesList changesList = null;
@@ -390,32 +381,43 @@ public class ProactiveFatBuildSync {
                         "Build IDs are not consistent: returned " + build.getId() + " queued is " + buildId);
             }
 
-            if (build.testOccurrences != null && !build.isComposite()) { // don't query tests for compoite
-                String nextHref = null;
-                do {
-                    TestOccurrencesFull page = conn.getTestsPage(buildId, nextHref, true);
-                    nextHref = page.nextHref();
+            // independent requests are issued in parallel with tests pages loading
+            CompletableFuture<List<ProblemOccurrence>> problemsFut = build.problemOccurrences != null
+                ? reqPool.submit(srvName, () -> conn.getProblems(buildId).getProblemsNonNull())
+                : CompletableFuture.completedFuture(null);
 
-                    tests.add(page);
-                }
-                while (!Strings.isNullOrEmpty(nextHref));
-            }
+            CompletableFuture<Statistics> statisticsFut = build.statisticsRef != null
+                ? reqPool.submit(srvName, () -> conn.getStatistics(buildId))
+                : CompletableFuture.completedFuture(null);
 
-            if (build.problemOccurrences != null)
-                problems = conn.getProblems(buildId).getProblemsNonNull();
+            CompletableFuture<ChangesList> changesListFut = build.changesRef != null
+                ? reqPool.submit(srvName, () -> conn.getChangesList(buildId))
+                : CompletableFuture.completedFuture(null);
 
-            if (build.statisticsRef != null)
-                statistics = conn.getStatistics(buildId);
+            if (build.testOccurrences != null && !build.isComposite()) { // don't query tests for compoite
+                // next page is requested as soon as its reference is known, previous page is compacted meanwhile
+                CompletableFuture<CompactedTestsPage> pageFut
+                    = reqPool.submit(srvName, () -> loadTestsPage(conn, buildId, null));
 
-            if (build.changesRef != null) {
-                changesList = conn.getChangesList(buildId);
+                while (pageFut != null) {
+                    CompactedTestsPage page = TcRequestsPool.get(pageFut);
+                    String nextHref = page.nextHref();
 
-                for (int changeId : FatBuildDao.extractChangeIds(changesList)) {
-                    // consult change sync for provided changes data
+                    pageFut = Strings.isNullOrEmpty(nextHref)
+                        ? null
+                        : reqPool.submit(srvName, () -> loadTestsPage(conn, buildId, nextHref));
 
-                    changeSync.change(srvIdMask, changeId, conn);
+                    tests.addAll(page.tests());
                 }
             }
+
+            problems = TcRequestsPool.get(problemsFut);
+            statistics = TcRequestsPool.get(statisticsFut);
+            changesList = TcRequestsPool.get(changesListFut);
+
+            // consult change sync for provided changes data
+            if (changesList != null)
+                changeSync.changes(srvIdMask, FatBuildDao.extractChangeIds(changesList), conn);
         }
         catch (Exception e) {
             Throwable cause = Throwables.getRootCause(e);
@@ -432,7 +434,11 @@ public class ProactiveFatBuildSync {
                     if (build.isFakeStub())
                         build.setCancelled();
 
-                    tests = Collections.singletonList(existingBuild.getTestOcurrences(compactor));
+                    CompactedTestsPage existingTests = new CompactedTestsPage(compactor, logSpecific);
+
+                    existingBuild.getTestOcurrences(compactor).getTests().forEach(existingTests);
+
+                    tests = existingTests.tests();
 
                     problems = existingBuild.problems(compactor);
 
@@ -459,6 +465,18 @@ public class ProactiveFatBuildSync {
         return fatBuildDao.saveBuild(srvIdMask, buildId, build, tests, problems, statistics, changesList, existingBuild);
     }
 
+    /**
+     * @param conn Connection.
+     * @param buildId Build id.
+     * @param href Href. Null activates first page loaded.
+     * @return Page with tests compacted while response is being parsed.
+     */
+    private CompactedTestsPage loadTestsPage(ITeamcityConn conn, int buildId, @Nullable String href) {
+        CompactedTestsPage page = new CompactedTestsPage(compactor, logSpecific);
+
+        return page.nextHref(conn.getTestsPage(buildId, href, true, page));
+    }
+
     @Nullable
     public FatBuildCompacted transformV5Build(int srvIdMask, int buildId, @Nonnull FatBuildCompacted existingBuild) {
         if (Objects.equals(buildId, existingBuild.id())) {
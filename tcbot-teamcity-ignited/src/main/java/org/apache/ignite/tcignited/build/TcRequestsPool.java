@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.build;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.ignite.tcbot.common.util.IoExecutors;
+
+/**
+ * Pool for issuing independent TC REST requests concurrently. Number of requests being executed in parallel for one
+ * server is limited by a per-server budget, so one big catch up does not overload TC and does not starve other servers.
+ * Requests over budget wait in a per-server queue and are handed to executor only when a running request of the same
+ * server completes, so pool threads never block waiting for budget.
+ */
+public class TcRequestsPool {
+    /** Max requests executed in parallel for one server. */
+    public static final int MAX_PARALLEL_REQUESTS_PER_SRV = 8;
+
+    /** Pool size. */
+    public static final int POOL_SIZE = 32;
+
+    /** Executor service, virtual threads are used if enabled. */
+    private final ExecutorService service = IoExecutors.newIoExecutor("tc-req-", POOL_SIZE);
+
+    /** Requests queue for server code. */
+    private final ConcurrentMap<String, SrvQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * @param srvCode Server code.
+     * @param req Request to TC.
+     * @return Future for request result.
+     */
+    public <T> CompletableFuture<T> submit(String srvCode, Supplier<T> req) {
+        SrvQueue queue = queues.computeIfAbsent(Strings.nullToEmpty(srvCode), k -> new SrvQueue());
+
+        Request<T> r = new Request<>(req);
+
+        queue.submit(r);
+
+        return r.fut;
+    }
+
+    /**
+     * Waits for request result. Exception thrown by request is rethrown as is, if possible.
+     *
+     * @param fut Future.
+     * @return Request result.
+     */
+    public static <T> T get(CompletableFuture<T> fut) {
+        try {
+            return fut.join();
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            Throwables.throwIfUnchecked(cause);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Stops pool, requests submitted later will be rejected.
+     */
+    public void stop() {
+        service.shutdown();
+        try {
+            service.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Request and its result future.
+     */
+    private static class Request<T> {
+        /** Request to TC. */
+        private final Supplier<T> req;
+
+        /** Result future. */
+        private final CompletableFuture<T> fut = new CompletableFuture<>();
+
+        /**
+         * @param req Request to TC.
+         */
+        Request(Supplier<T> req) {
+            this.req = req;
+        }
+
+        /** Executes request and completes future. */
+        void run() {
+            try {
+                fut.complete(req.get());
+            }
+            catch (Throwable e) {
+                fut.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Queue of requests to one server, tracks count of requests handed to executor.
+     */
+    private class SrvQueue {
+        /** Requests waiting for budget. Guarded by this. */
+        private final Queue<Request<?>> waiting = new ArrayDeque<>();
+
+        /** Requests handed to executor. Guarded by this. */
+        private int running;
+
+        /**
+         * @param r Request.
+         */
+        void submit(Request<?> r) {
+            synchronized (this) {
+                if (running >= MAX_PARALLEL_REQUESTS_PER_SRV) {
+                    waiting.add(r);
+
+                    return;
+                }
+
+                running++;
+            }
+
+            execute(r);
+        }
+
+        /**
+         * @param first Request to execute, budget is already taken for it.
+         */
+        private void execute(Request<?> first) {
+            Request<?> r = first;
+
+            while (r != null) {
+                Request<?> task = r;
+
+                try {
+                    service.execute(() -> {
+                        try {
+                            task.run();
+                        }
+                        finally {
+                            onDone();
+                        }
+                    });
+
+                    return;
+                }
+                catch (RejectedExecutionException e) {
+                    task.fut.completeExceptionally(e);
+
+                    r = next();
+                }
+            }
+        }
+
+        /**
+         * Passes budget of completed request to next waiting request.
+         */
+        private void onDone() {
+            Request<?> r = next();
+
+            if (r != null)
+                execute(r);
+        }
+
+        /**
+         * @return Next waiting request, budget of completed request is passed to it; or {@code null} if there are no
+         * waiting requests and budget is released.
+         */
+        private Request<?> next() {
+            synchronized (this) {
+                Request<?> r = waiting.poll();
+
+                if (r == null)
+                    running--;
+
+                return r;
+            }
+        }
+    }
+}
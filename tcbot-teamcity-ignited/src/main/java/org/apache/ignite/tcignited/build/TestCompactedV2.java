@@ -82,6 +82,18 @@ public class TestCompactedV2 implements ITest {
      */
     public TestCompactedV2(IStringCompactor compactor, TestOccurrenceFull testOccurrence,
         ILogProductSpecific logSpecific) {
+        this(testOccurrence, logSpecific);
+
+        setStringIds(compactor.getStringId(testOccurrence.name), compactor.getStringId(testOccurrence.status));
+    }
+
+    /**
+     * Creates test without name and status, string IDs for them should be set using {@link #setStringIds(int, int)}.
+     *
+     * @param testOccurrence TestOccurrence.
+     * @param logSpecific Log product specific.
+     */
+    TestCompactedV2(TestOccurrenceFull testOccurrence, ILogProductSpecific logSpecific) {
         String testOccurrenceId = testOccurrence.getId();
         if (!Strings.isNullOrEmpty(testOccurrenceId)) {
             try {
@@ -93,8 +105,6 @@ public class TestCompactedV2 implements ITest {
             }
         }
 
-        name = compactor.getStringId(testOccurrence.name);
-        status = compactor.getStringId(testOccurrence.status);
         duration = testOccurrence.duration == null ? -1 : testOccurrence.duration;
 
         setMuted(testOccurrence.muted);
@@ -112,6 +122,15 @@ public class TestCompactedV2 implements ITest {
         setDetails(testOccurrence.details, logSpecific);
     }
 
+    /**
+     * @param name Test name string ID.
+     * @param status Status string ID.
+     */
+    void setStringIds(int name, int status) {
+        this.name = name;
+        this.status = status;
+    }
+
     public void setIgnored(Boolean ignored) {
         setFlag(IGNORED_F, ignored);
     }
@@ -19,8 +19,12 @@ package org.apache.ignite.tcignited.buildref;
 
 import com.google.common.cache.CacheBuilder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -28,16 +32,20 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.cache.Cache;
+import javax.cache.processor.EntryProcessor;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
+import org.apache.ignite.binary.BinaryObject;
 import org.apache.ignite.cache.QueryEntity;
 import org.apache.ignite.cache.query.QueryCursor;
 import org.apache.ignite.cache.query.ScanQuery;
@@ -46,13 +54,18 @@ import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
 import org.apache.ignite.ci.teamcity.ignited.runhist.RunHistKey;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.apache.ignite.internal.util.GridIntList;
+import org.apache.ignite.lang.IgniteBiTuple;
 import org.apache.ignite.lang.IgnitePredicate;
 import org.apache.ignite.tcbot.common.conf.TcBotSystemProperties;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.PartitionedScan;
+import org.apache.ignite.tcbot.persistence.event.InMemCacheVersions;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
 import org.apache.ignite.tcignited.build.UpdateCountersStorage;
+import org.apache.ignite.tcignited.event.BuildRefsSavedEvent;
 import org.apache.ignite.tcservice.model.hist.BuildRef;
 
 /**
@@ -62,26 +75,34 @@ public class BuildRefDao {
     /** Cache name */
     public static final String TEAMCITY_BUILD_CACHE_NAME = "teamcityBuildRef";
 
+    /** Suite in branch index cache name. */
+    public static final String TEAMCITY_BUILD_IDX_CACHE_NAME = "teamcityBuildRefSuiteBranchIdx";
+
     /** Ignite provider. */
     @Inject private Provider<Ignite> igniteProvider;
 
     /** Builds (Refs) cache: Long(ServerId||BuildId)-> Build reference */
     private IgniteCache<Long, BuildRefCompacted> buildRefsCache;
 
+    /** Suite in branch index: RunHistKey(ServerId||BranchId||suiteId)-> Build IDs sorted descending. */
+    private IgniteCache<RunHistKey, int[]> suiteBranchIdxCache;
+
     /** Compactor. */
     @Inject private IStringCompactor compactor;
 
     /** Update Counters for branch-related changes storage. */
     @Inject private UpdateCountersStorage countersStorage;
 
+    /** Change events bus. */
+    @Inject private TcEventBus eventBus;
+
     /** Non persistence cache for all BuildRefsCompacted for particular branch.
-     * RunHistKey(ServerId||BranchId||suiteId)-> Build reference
+     * RunHistKey(ServerId||BranchId||suiteId)-> Build reference. Saved builds are applied in place.
      */
     private final com.google.common.cache.Cache<RunHistKey, List<BuildRefCompacted>> buildRefsInMemCache
         = CacheBuilder.newBuilder()
         .maximumSize(Boolean.valueOf(System.getProperty(TcBotSystemProperties.DEV_MODE)) ? 1000 : 8000)
         .expireAfterAccess(16, TimeUnit.MINUTES)
-        .expireAfterWrite(45, TimeUnit.MINUTES) //workaround for stale records, enforcing to ask persistence sometimes.
         .softValues()
         .build();
 
@@ -91,10 +112,15 @@ public class BuildRefDao {
         = CacheBuilder.newBuilder()
         .maximumSize(Boolean.valueOf(System.getProperty(TcBotSystemProperties.DEV_MODE)) ? 200 : 2000)
         .expireAfterAccess(2, TimeUnit.MINUTES)
-        .expireAfterWrite(4, TimeUnit.MINUTES) //workaround for stale records
         .softValues()
         .build();
 
+    /** Versions of {@link #buildRefsInMemCache} keys. */
+    private final InMemCacheVersions suiteVersions = new InMemCacheVersions();
+
+    /** Versions of {@link #buildRefsInMemCacheForAllBranch} keys. */
+    private final InMemCacheVersions branchVersions = new InMemCacheVersions();
+
     /** */
     public BuildRefDao init() {
         CacheConfiguration<Long, BuildRefCompacted> cfg = CacheConfigs.getCacheV2Config(TEAMCITY_BUILD_CACHE_NAME);
@@ -103,9 +129,20 @@ public class BuildRefDao {
 
         buildRefsCache = igniteProvider.get().getOrCreateCache(cfg);
 
+        suiteBranchIdxCache = igniteProvider.get().getOrCreateCache(suiteBranchIdxCacheConfig());
+
+        eventBus.subscribe(BuildRefsSavedEvent.class, BuildRefDao.class.getSimpleName(), this::onBuildRefsSaved);
+
         return this;
     }
 
+    /**
+     * @return Config for suite in branch index cache.
+     */
+    public static CacheConfiguration<RunHistKey, int[]> suiteBranchIdxCacheConfig() {
+        return CacheConfigs.getCacheV2Config(TEAMCITY_BUILD_IDX_CACHE_NAME);
+    }
+
     /**
      * @param srvId Server id.
      * @return all builds for a server, full scan.
@@ -128,6 +165,22 @@ public class BuildRefDao {
             .map(javax.cache.Cache.Entry::getValue);
     }
 
+    /**
+     * Scans builds of server by partitions in parallel. Build references cache has the same affinity and keys as fat
+     * builds cache, so all builds of one call belong to the same fat build partition.
+     *
+     * @param srvId Server id.
+     * @param consumer Consumer of (build ID, state ID) pairs of one partition and the partition number. May be called
+     * concurrently.
+     */
+    public void forEachPartitionBuildStates(int srvId,
+        ObjIntConsumer<List<IgniteBiTuple<Integer, Integer>>> consumer) {
+        PartitionedScan.forEachPartition(buildRefsCache.<Long, BinaryObject>withKeepBinary(),
+            (k, v) -> isKeyForServer(k, srvId),
+            entry -> new IgniteBiTuple<>(cacheKeyToBuildId(entry.getKey()), entry.getValue().<Integer>field("state")),
+            consumer);
+    }
+
     /**
      * @param key Key.
      * @param srvId Server id.
@@ -166,29 +219,140 @@ public class BuildRefDao {
         if (size != 0) {
             buildRefsCache.putAll(entriesToPut);
 
-            invalidateHistoryInMem(srvId, entriesToPut.values().stream());
+            eventBus.publish(new BuildRefsSavedEvent(srvId, existingEntries, entriesToPut.values()));
         }
 
         return entriesToPut.keySet();
     }
 
-    public void invalidateHistoryInMem(int srvId, Stream<BuildRefCompacted> stream) {
-        Set<RunHistKey> setOfHistToClear = stream
-            .map(b -> new RunHistKey(srvId, b.buildTypeId(), b.branchName()))
-            .collect(Collectors.toSet());
+    /**
+     * Moves saved builds to actual suite in branch index entries.
+     *
+     * @param srvId Server id.
+     * @param persisted Previously persisted builds: cache key -> build reference.
+     * @param saved Saved builds.
+     */
+    private void updateSuiteBranchIdx(int srvId,
+        Map<Long, BuildRefCompacted> persisted,
+        Collection<BuildRefCompacted> saved) {
+        Map<RunHistKey, GridIntList> add = new HashMap<>();
+        Map<RunHistKey, GridIntList> rmv = new HashMap<>();
+
+        for (BuildRefCompacted ref : saved) {
+            RunHistKey key = new RunHistKey(srvId, ref.buildTypeId(), ref.branchName());
+            BuildRefCompacted prev = persisted.get(buildIdToCacheKey(srvId, ref.id()));
+
+            if (prev != null) {
+                RunHistKey prevKey = new RunHistKey(srvId, prev.buildTypeId(), prev.branchName());
+
+                if (prevKey.equals(key))
+                    continue;
+
+                rmv.computeIfAbsent(prevKey, k -> new GridIntList()).add(ref.id());
+            }
+
+            add.computeIfAbsent(key, k -> new GridIntList()).add(ref.id());
+        }
+
+        if (add.isEmpty() && rmv.isEmpty())
+            return;
 
-        Iterable<Long> cacheForAllBranch =
-            setOfHistToClear.stream()
-                .map(b -> branchNameToHistCacheKey(srvId, b.branch()))
-                .collect(Collectors.toSet());
+        Map<RunHistKey, EntryProcessor<RunHistKey, int[], Void>> procs = new HashMap<>();
 
-        buildRefsInMemCacheForAllBranch.invalidateAll(cacheForAllBranch);
-        buildRefsInMemCache.invalidateAll(setOfHistToClear);
+        add.forEach((k, ids) -> procs.put(k, new SuiteBranchIdxUpdateProcessor(ids.array(), new int[0])));
+        rmv.forEach((k, ids) -> {
+            GridIntList added = add.get(k);
 
-        setOfHistToClear.forEach(b -> {
-            int branch = b.branch();
-            countersStorage.increment(branch);
+            procs.put(k, new SuiteBranchIdxUpdateProcessor(added == null ? new int[0] : added.array(), ids.array()));
         });
+
+        suiteBranchIdxCache.invokeAll(procs);
+    }
+
+    /**
+     * Moves saved builds to actual suite in branch index entries, each index entry is updated once per event. Applies
+     * saved builds to in memory caches in place: saved builds are removed from entries of their previous suite and
+     * branch and added to entries of actual ones. Entries not cached are not loaded.
+     *
+     * @param evt Build references saved event.
+     */
+    private void onBuildRefsSaved(BuildRefsSavedEvent evt) {
+        int srvId = evt.srvId();
+
+        updateSuiteBranchIdx(srvId, evt.persisted(), evt.saved());
+
+        Set<Integer> savedIds = new HashSet<>();
+        Set<RunHistKey> suiteKeys = new HashSet<>();
+        Set<Long> branchKeys = new HashSet<>();
+        Map<RunHistKey, List<BuildRefCompacted>> addToSuite = new HashMap<>();
+        Map<Long, List<BuildRefCompacted>> addToBranch = new HashMap<>();
+
+        for (BuildRefCompacted ref : evt.saved()) {
+            savedIds.add(ref.id());
+
+            RunHistKey key = new RunHistKey(srvId, ref.buildTypeId(), ref.branchName());
+            long branchKey = branchNameToHistCacheKey(srvId, ref.branchName());
+
+            addToSuite.computeIfAbsent(key, k -> new ArrayList<>()).add(ref);
+            addToBranch.computeIfAbsent(branchKey, k -> new ArrayList<>()).add(ref);
+
+            suiteKeys.add(key);
+            branchKeys.add(branchKey);
+
+            BuildRefCompacted prev = evt.persisted().get(buildIdToCacheKey(srvId, ref.id()));
+
+            if (prev != null) {
+                suiteKeys.add(new RunHistKey(srvId, prev.buildTypeId(), prev.branchName()));
+                branchKeys.add(branchNameToHistCacheKey(srvId, prev.branchName()));
+            }
+        }
+
+        suiteKeys.forEach(key -> {
+            suiteVersions.changed(key);
+
+            buildRefsInMemCache.asMap().computeIfPresent(key,
+                (k, cached) -> withSavedBuilds(cached, savedIds, addToSuite.get(k), true));
+        });
+
+        branchKeys.forEach(key -> {
+            branchVersions.changed(key);
+
+            buildRefsInMemCacheForAllBranch.asMap().computeIfPresent(key,
+                (k, cached) -> withSavedBuilds(cached, savedIds, addToBranch.get(k), false));
+        });
+
+        evt.saved().stream()
+            .mapToInt(BuildRefCompacted::branchName)
+            .distinct()
+            .forEach(countersStorage::increment);
+    }
+
+    /**
+     * @param cached Cached builds.
+     * @param savedIds IDs of all saved builds.
+     * @param add Saved builds, which belong to the entry, or {@code null}.
+     * @param sort Sort result by ID descending.
+     * @return New list of builds for the entry, cached list is not modified to be safe for concurrent readers.
+     */
+    private static List<BuildRefCompacted> withSavedBuilds(List<BuildRefCompacted> cached,
+        Set<Integer> savedIds,
+        @Nullable List<BuildRefCompacted> add,
+        boolean sort) {
+        List<BuildRefCompacted> res = new ArrayList<>(cached.size() + (add == null ? 0 : add.size()));
+
+        for (BuildRefCompacted ref : cached) {
+            if (!savedIds.contains(ref.id()))
+                res.add(ref);
+        }
+
+        if (add != null) {
+            res.addAll(add);
+
+            if (sort)
+                res.sort(Comparator.comparing(BuildRefCompacted::id).reversed());
+        }
+
+        return res;
     }
 
     /**
@@ -218,6 +382,7 @@ public class BuildRefDao {
      * @param srvId Server id mask high.
      * @param buildTypeIdId Build type (suite) id from compactor.
      * @param branchNameIds Branch names for query.
+     * @return Builds sorted by ID descending.
      */
     @AutoProfiling
     @Nonnull public List<BuildRefCompacted> getAllBuildsCompacted(int srvId,
@@ -229,12 +394,8 @@ public class BuildRefDao {
             RunHistKey runHistKey = new RunHistKey(srvId, buildTypeIdId, branchNameId);
             try {
                 List<BuildRefCompacted> compactedBuildsForBranch =
-                    buildRefsInMemCache.get(runHistKey, () -> {
-                        List<BuildRefCompacted> branch = getBuildsForBranch(srvId, branchNameId);
-
-                        List<BuildRefCompacted> resForBranch = branch.stream()
-                            .filter(e -> e.buildTypeId() == buildTypeIdId)
-                            .collect(Collectors.toList());
+                    suiteVersions.get(buildRefsInMemCache, runHistKey, () -> {
+                        List<BuildRefCompacted> resForBranch = getBuildsForSuiteInBranch(runHistKey);
 
                         if (!resForBranch.isEmpty()) {
                             System.err.println("Branch " + compactor.getStringFromId(branchNameId)
@@ -252,6 +413,139 @@ public class BuildRefDao {
             }
         });
 
+        if (branchNameIds.size() > 1)
+            res.sort(Comparator.comparing(BuildRefCompacted::id).reversed());
+
+        return res;
+    }
+
+    /**
+     * Reads the most recent builds of suite in branches. Builds are taken from in memory cache if the whole suite in
+     * branch history is cached. Otherwise only index IDs within the bound are read, and build references are loaded by
+     * chunks until limit is reached, so the read does not depend on the size of the suite history.
+     *
+     * @param srvId Server id mask high.
+     * @param buildTypeIdId Build type (suite) id from compactor.
+     * @param branchNameIds Branch names for query.
+     * @param minBuildId Builds with ID less or equal to this are skipped, {@code null} means no bound.
+     * @param filter Builds filter applied before limit, {@code null} means all builds.
+     * @param limit Max count of builds to return.
+     * @return Builds sorted by ID descending.
+     */
+    @AutoProfiling
+    @Nonnull public List<BuildRefCompacted> getRecentBuildsCompacted(int srvId,
+        int buildTypeIdId,
+        Collection<Integer> branchNameIds,
+        @Nullable Integer minBuildId,
+        @Nullable Predicate<BuildRefCompacted> filter,
+        int limit) {
+        int bound = minBuildId == null ? Integer.MIN_VALUE : minBuildId;
+        Map<Integer, BuildRefCompacted> cached = new HashMap<>();
+        Set<RunHistKey> notCached = new HashSet<>();
+        GridIntList ids = new GridIntList();
+
+        for (Integer branchNameId : branchNameIds) {
+            RunHistKey key = new RunHistKey(srvId, buildTypeIdId, branchNameId);
+            List<BuildRefCompacted> builds = buildRefsInMemCache.getIfPresent(key);
+
+            if (builds == null) {
+                notCached.add(key);
+
+                continue;
+            }
+
+            for (BuildRefCompacted ref : builds) {
+                if (ref.id() <= bound)
+                    break;
+
+                cached.put(ref.id(), ref);
+                ids.add(ref.id());
+            }
+        }
+
+        if (!notCached.isEmpty()) {
+            suiteBranchIdxCache.getAll(notCached).values().forEach(idxIds -> {
+                for (int id : idxIds) {
+                    if (id <= bound)
+                        break;
+
+                    ids.add(id);
+                }
+            });
+        }
+
+        int[] sorted = ids.array();
+
+        Arrays.sort(sorted);
+
+        List<BuildRefCompacted> res = new ArrayList<>();
+        int chunk = Math.max(16, Math.min(limit, 1000) * 2);
+        int end = sorted.length;
+
+        while (end > 0 && res.size() < limit) {
+            int start = Math.max(0, end - chunk);
+            Set<Long> toLoad = new HashSet<>();
+
+            for (int i = start; i < end; i++) {
+                if (!cached.containsKey(sorted[i]))
+                    toLoad.add(buildIdToCacheKey(srvId, sorted[i]));
+            }
+
+            Map<Long, BuildRefCompacted> loaded = toLoad.isEmpty()
+                ? Collections.emptyMap()
+                : buildRefsCache.getAll(toLoad);
+
+            for (int i = end - 1; i >= start && res.size() < limit; i--) {
+                if (i + 1 < sorted.length && sorted[i] == sorted[i + 1])
+                    continue;
+
+                BuildRefCompacted ref = cached.get(sorted[i]);
+
+                if (ref == null) {
+                    ref = loaded.get(buildIdToCacheKey(srvId, sorted[i]));
+
+                    if (ref == null || ref.buildTypeId() != buildTypeIdId || !branchNameIds.contains(ref.branchName()))
+                        continue;
+                }
+
+                if (filter == null || filter.test(ref))
+                    res.add(ref);
+            }
+
+            end = start;
+        }
+
+        return res;
+    }
+
+    /**
+     * Collects builds using suite in branch index. IDs, which no longer match the key (e.g. cache was cleared
+     * externally), are skipped.
+     *
+     * @param key Server, suite and branch.
+     * @return Builds sorted by ID descending.
+     */
+    private List<BuildRefCompacted> getBuildsForSuiteInBranch(RunHistKey key) {
+        int[] ids = suiteBranchIdxCache.get(key);
+
+        if (ids == null || ids.length == 0)
+            return new ArrayList<>();
+
+        Set<Long> cacheKeys = new HashSet<>();
+
+        for (int id : ids)
+            cacheKeys.add(buildIdToCacheKey(key.srvId(), id));
+
+        Map<Long, BuildRefCompacted> refs = buildRefsCache.getAll(cacheKeys);
+        List<BuildRefCompacted> res = new ArrayList<>(refs.size());
+
+        for (int id : ids) {
+            BuildRefCompacted ref = refs.get(buildIdToCacheKey(key.srvId(), id));
+
+            if (ref != null && ref.buildTypeId() == key.testNameOrSuite() && ref.branchName() == key.branch())
+                res.add(ref);
+        }
+
         return res;
     }
 
@@ -289,7 +583,8 @@ public class BuildRefDao {
         long branchKey = branchNameToHistCacheKey(srvId, branchNameId);
 
         try {
-            return buildRefsInMemCacheForAllBranch.get(branchKey, () -> getBuildsForBranchNonCached(srvId, branchNameId));
+            return branchVersions.get(buildRefsInMemCacheForAllBranch, branchKey,
+                () -> getBuildsForBranchNonCached(srvId, branchNameId));
         }
         catch (ExecutionException e) {
             throw ExceptionUtil.propagateException(e);
@@ -332,7 +627,13 @@ public class BuildRefDao {
 
         if (buildPersisted == null || !buildPersisted.equals(refCompacted)) {
             buildRefsCache.put(cacheKey, refCompacted);
-            invalidateHistoryInMem(srvId, Stream.of(refCompacted));
+
+            Map<Long, BuildRefCompacted> persisted = buildPersisted == null
+                ? Collections.<Long, BuildRefCompacted>emptyMap()
+                : Collections.singletonMap(cacheKey, buildPersisted);
+            List<BuildRefCompacted> saved = Collections.singletonList(refCompacted);
+
+            eventBus.publish(new BuildRefsSavedEvent(srvId, persisted, saved));
 
             return true;
         }
@@ -340,14 +641,22 @@ public class BuildRefDao {
         return false;
     }
 
+    /**
+     * @param srvId Server id.
+     * @return IDs of all builds of server, parallel scan by partitions.
+     */
     @AutoProfiling
     public int[] getAllIds(int srvId) {
         GridIntList res = new GridIntList(buildRefsCache.size());
 
-        getAllBuildRefs(srvId)
-                .map(Cache.Entry::getKey)
-                .map(BuildRefDao::cacheKeyToBuildId)
-                .forEach(res::add);
+        PartitionedScan.forEachPartition(buildRefsCache.<Long, BinaryObject>withKeepBinary(),
+            (k, v) -> isKeyForServer(k, srvId),
+            entry -> cacheKeyToBuildId(entry.getKey()),
+            (ids, part) -> {
+                synchronized (res) {
+                    ids.forEach(res::add);
+                }
+            });
 
         return res.array();
     }
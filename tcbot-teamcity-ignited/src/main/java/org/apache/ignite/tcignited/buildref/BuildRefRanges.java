@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildref;
+
+import javax.annotation.Nullable;
+import org.apache.ignite.tcbot.persistence.Persisted;
+
+/**
+ * Ranges of builds for parallel full reindex and their completion flags. Range {@code i} contains builds started after
+ * build {@code sinceIds[i]} (if specified) and not after build {@code untilIds[i]}.
+ */
+@Persisted
+public class BuildRefRanges {
+    /** Build ID if range has no lower bound. */
+    public static final int NO_BUILD = -1;
+
+    /** Creation timestamp. */
+    private long createdTs;
+
+    /** Lower bound build IDs, exclusive, or {@link #NO_BUILD}. */
+    private int[] sinceIds;
+
+    /** Upper bound build IDs, inclusive. */
+    private int[] untilIds;
+
+    /** Range is loaded completely. */
+    private boolean[] done;
+
+    /**
+     * @param boundaries Boundary build IDs from newest to oldest.
+     */
+    public BuildRefRanges(int[] boundaries) {
+        createdTs = System.currentTimeMillis();
+        untilIds = boundaries.clone();
+        sinceIds = new int[boundaries.length];
+        done = new boolean[boundaries.length];
+
+        for (int i = 0; i < boundaries.length; i++)
+            sinceIds[i] = i + 1 < boundaries.length ? boundaries[i + 1] : NO_BUILD;
+    }
+
+    /**
+     * @return Creation timestamp.
+     */
+    public long createdTs() {
+        return createdTs;
+    }
+
+    /**
+     * @return Count of ranges.
+     */
+    public int size() {
+        return untilIds.length;
+    }
+
+    /**
+     * @param idx Range index.
+     * @return TC build locator dimensions selecting builds of range.
+     */
+    public String locator(int idx) {
+        String until = "untilBuild:(id:" + untilIds[idx] + ")";
+
+        return sinceIds[idx] == NO_BUILD ? until : "sinceBuild:(id:" + sinceIds[idx] + ")," + until;
+    }
+
+    /**
+     * @param idx Range index.
+     */
+    public boolean isDone(int idx) {
+        return done[idx];
+    }
+
+    /**
+     * @param idx Range index.
+     */
+    public void markDone(int idx) {
+        done[idx] = true;
+    }
+
+    /**
+     * @return Count of ranges not loaded yet.
+     */
+    public int pending() {
+        int cnt = 0;
+
+        for (boolean rangeDone : done) {
+            if (!rangeDone)
+                cnt++;
+        }
+
+        return cnt;
+    }
+
+    /**
+     * @param ranges Ranges.
+     * @param maxAgeMs Max age of ranges, ms.
+     * @return {@code true} if loading of ranges can be continued.
+     */
+    public static boolean canResume(@Nullable BuildRefRanges ranges, long maxAgeMs) {
+        return ranges != null
+            && ranges.pending() > 0
+            && System.currentTimeMillis() - ranges.createdTs < maxAgeMs;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.buildref;
+
+import com.google.common.base.Preconditions;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.tcbot.persistence.CacheConfigs;
+
+/**
+ * Stores progress of parallel build references reindex, so reindex is continued after restart.
+ */
+public class BuildRefRangesDao {
+    /** Cache name. */
+    public static final String BUILD_REF_RANGES_CACHE_NAME = "teamcityBuildRefRanges";
+
+    /** Ignite provider. */
+    @Inject private Provider<Ignite> igniteProvider;
+
+    /** Server ID -> ranges cache. */
+    private IgniteCache<Integer, BuildRefRanges> rangesCache;
+
+    /**
+     *
+     */
+    public void init() {
+        rangesCache = igniteProvider.get().getOrCreateCache(
+            CacheConfigs.getCache8PartsConfig(BUILD_REF_RANGES_CACHE_NAME));
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     * @return Ranges of reindex in progress or {@code null}.
+     */
+    @Nullable public BuildRefRanges get(int srvIdMaskHigh) {
+        Preconditions.checkNotNull(rangesCache, "init() was not called");
+
+        return rangesCache.get(srvIdMaskHigh);
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     * @param ranges Ranges.
+     */
+    public void save(int srvIdMaskHigh, BuildRefRanges ranges) {
+        Preconditions.checkNotNull(rangesCache, "init() was not called");
+
+        rangesCache.put(srvIdMaskHigh, ranges);
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     */
+    public void remove(int srvIdMaskHigh) {
+        Preconditions.checkNotNull(rangesCache, "init() was not called");
+
+        rangesCache.remove(srvIdMaskHigh);
+    }
+}
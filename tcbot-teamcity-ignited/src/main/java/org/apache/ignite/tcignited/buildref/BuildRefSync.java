@@ -17,21 +17,32 @@
 package org.apache.ignite.tcignited.buildref;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import org.apache.ignite.internal.util.GridIntList;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
+import org.apache.ignite.tcbot.common.util.IoExecutors;
 import org.apache.ignite.tcbot.common.util.TimeUtil;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
+import org.apache.ignite.tcignited.build.TcRequestsPool;
 import org.apache.ignite.tcservice.ITeamcityConn;
 import org.apache.ignite.tcservice.model.hist.BuildRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class checks all builds ocurred on a TC server.
@@ -48,16 +59,36 @@ public class BuildRefSync {
     /** Incremental builds WO modification to be found to stop iterating. */
     public static final int INCREMENTAL_BUILDS_WO_MODIFICATION_TO_STOP  = 1000;
 
+    /** Builds in one range of parallel reindex. */
+    public static final int RANGE_SIZE = 10000;
+
+    /** Ranges of parallel reindex loaded concurrently for one server. */
+    public static final int RANGE_LOADERS = TcRequestsPool.MAX_PARALLEL_REQUESTS_PER_SRV / 2;
+
+    /** Max age of parallel reindex ranges to continue reindex using them. */
+    public static final long RANGES_MAX_AGE_MS = Duration.ofDays(1).toMillis();
+
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(BuildRefSync.class);
+
     /** Build reference DAO. */
     @Inject private BuildRefDao buildRefDao;
 
     /** Build Sync. */
     @Inject private ProactiveFatBuildSync fatBuildSync;
 
+    /** Parallel reindex progress DAO. */
+    @Inject private BuildRefRangesDao rangesDao;
+
+    /** Pool for parallel requests to TC. */
+    @Inject private TcRequestsPool reqPool;
+
     public enum SyncMode {
         ULTRAFAST,
         FULL_REINDEX,
-        INCREMENTAL
+        INCREMENTAL,
+        /** Reindex of all builds by ranges of builds loaded in parallel, continued after restart. */
+        PARALLEL_FULL_REINDEX
     }
 
     /**
@@ -75,6 +106,8 @@ public class BuildRefSync {
         SyncMode syncMode,
         @Nullable Set<Integer> mandatoryToReload,
         ITeamcityConn conn) {
+        if (syncMode == SyncMode.PARALLEL_FULL_REINDEX)
+            return runParallelReindex(srvId, conn);
 
         AtomicReference<String> outLinkNext = new AtomicReference<>();
         List<BuildRef> tcDataFirstPage = conn.getBuildRefsPage(null, outLinkNext);
@@ -176,6 +209,164 @@ public class BuildRefSync {
         return sb.toString();
     }
 
+    /**
+     * Splits all builds into ranges using boundary builds found at each {@link #RANGE_SIZE} position in history and
+     * loads ranges in parallel. Loaded ranges are persisted, so reindex interrupted by restart is continued.
+     *
+     * @param srvId Server id.
+     * @param conn Teamcity to check builds.
+     */
+    private String runParallelReindex(String srvId, ITeamcityConn conn) {
+        int srvIdMaskHigh = ITeamcityIgnited.serverIdToInt(srvId);
+        BuildRefRanges ranges = rangesDao.get(srvIdMaskHigh);
+        boolean resumed = BuildRefRanges.canResume(ranges, RANGES_MAX_AGE_MS);
+
+        if (!resumed) {
+            ranges = new BuildRefRanges(findBoundaries(srvId, srvIdMaskHigh, conn));
+
+            rangesDao.save(srvIdMaskHigh, ranges);
+        }
+
+        BuildRefRanges rangesToLoad = ranges;
+        Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+
+        for (int i = 0; i < rangesToLoad.size(); i++) {
+            if (!rangesToLoad.isDone(i))
+                pending.add(i);
+        }
+
+        int rangesCnt = pending.size();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> loaders = new ArrayList<>();
+
+        // Loaders run on own threads and issue one page request at a time, so they take only part of server
+        // requests budget and fat builds are loaded during reindex.
+        ExecutorService loadersSvc = IoExecutors.newIoExecutor("tc-reindex-" + srvId + "-", RANGE_LOADERS);
+
+        try {
+            for (int i = 0; i < RANGE_LOADERS; i++) {
+                loaders.add(CompletableFuture.runAsync(() -> {
+                    Integer idx;
+
+                    while ((idx = pending.poll()) != null) {
+                        try {
+                            loadRange(srvId, rangesToLoad.locator(idx), conn);
+
+                            rangeDone(srvIdMaskHigh, rangesToLoad, idx);
+                        }
+                        catch (Exception e) {
+                            failed.incrementAndGet();
+
+                            logger.error("Failed to load builds range " + rangesToLoad.locator(idx) + " for " + srvId
+                                + ": " + e.getMessage(), e);
+                        }
+                    }
+                }, loadersSvc));
+            }
+
+            loaders.forEach(TcRequestsPool::get);
+        }
+        finally {
+            loadersSvc.shutdown();
+        }
+
+        if (failed.get() == 0)
+            rangesDao.remove(srvIdMaskHigh);
+
+        return (resumed ? "Resumed" : "Started") + " reindex of " + ranges.size() + " ranges, loaded "
+            + (rangesCnt - failed.get()) + ", failed " + failed.get();
+    }
+
+    /**
+     * Finds builds at each {@link #RANGE_SIZE} position in builds history, boundary builds are saved.
+     *
+     * @param srvId Server id.
+     * @param srvIdMaskHigh Server id mask high.
+     * @param conn Teamcity to check builds.
+     * @return Boundary build IDs from newest to oldest.
+     */
+    private int[] findBoundaries(String srvId, int srvIdMaskHigh, ITeamcityConn conn) {
+        GridIntList boundaries = new GridIntList();
+        boolean end = false;
+
+        for (int batch = 0; !end; batch++) {
+            List<CompletableFuture<List<BuildRef>>> probes = new ArrayList<>();
+
+            for (int i = 0; i < TcRequestsPool.MAX_PARALLEL_REQUESTS_PER_SRV; i++) {
+                long start = (long)(batch * TcRequestsPool.MAX_PARALLEL_REQUESTS_PER_SRV + i) * RANGE_SIZE;
+
+                probes.add(reqPool.submit(srvId,
+                    () -> conn.getBuildRefsPage(buildsUrl("start:" + start + ",count:1"), new AtomicReference<>())));
+            }
+
+            for (CompletableFuture<List<BuildRef>> probe : probes) {
+                List<BuildRef> page = TcRequestsPool.get(probe);
+
+                if (end || page.isEmpty() || page.get(0).getId() == null) {
+                    end = true;
+
+                    continue;
+                }
+
+                buildRefDao.saveChunk(srvIdMaskHigh, page);
+
+                boundaries.add(page.get(0).getId());
+            }
+        }
+
+        return boundaries.array();
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     * @param ranges Ranges.
+     * @param idx Loaded range index.
+     */
+    private synchronized void rangeDone(int srvIdMaskHigh, BuildRefRanges ranges, int idx) {
+        ranges.markDone(idx);
+
+        rangesDao.save(srvIdMaskHigh, ranges);
+    }
+
+    /**
+     * @param srvId Server id.
+     * @param locator Locator of range.
+     * @param conn Teamcity to check builds.
+     */
+    @SuppressWarnings({"WeakerAccess", "UnusedReturnValue"})
+    @MonitoredTask(name = "Actualize BuildRefs range(srv, locator)", nameExtArgsIndexes = {0, 1})
+    protected String loadRange(String srvId, String locator, ITeamcityConn conn) {
+        int srvIdMaskHigh = ITeamcityIgnited.serverIdToInt(srvId);
+        AtomicReference<String> outLinkNext = new AtomicReference<>();
+        String pageUrl = buildsUrl(locator);
+        int totalUpdated = 0;
+        int totalChecked = 0;
+
+        while (pageUrl != null) {
+            String url = pageUrl;
+            List<BuildRef> page = TcRequestsPool.get(
+                reqPool.submit(srvId, () -> conn.getBuildRefsPage(url, outLinkNext)));
+            Set<Long> buildsUpdated = buildRefDao.saveChunk(srvIdMaskHigh, page);
+
+            fatBuildSync.scheduleBuildsLoad(conn, cacheKeysToBuildIds(buildsUpdated));
+
+            totalUpdated += buildsUpdated.size();
+            totalChecked += page.size();
+
+            pageUrl = outLinkNext.getAndSet(null);
+        }
+
+        return "Entries saved " + totalUpdated + " Builds checked " + totalChecked;
+    }
+
+    /**
+     * @param locator Additional build locator dimensions.
+     * @return Relative URL of builds page.
+     */
+    private static String buildsUrl(String locator) {
+        return "app/rest/latest/builds?locator=defaultFilter:false," + locator;
+    }
+
     public boolean isEmpty(@Nullable Set<Integer> mandatoryToReload) {
         return mandatoryToReload == null || mandatoryToReload.isEmpty();
     }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.buildref;
+
+import java.util.Arrays;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.MutableEntry;
+import org.apache.ignite.cache.CacheEntryProcessor;
+import org.apache.ignite.ci.teamcity.ignited.runhist.RunHistKey;
+
+/**
+ * Updates build IDs for suite in branch index entry. Entry value is array of build IDs sorted descending without
+ * duplicates. ID both added and removed by one update is removed. Update is idempotent, and updates which only add IDs
+ * may be applied in any order. Updates adding and removing the same ID are not commutative, the last applied one wins:
+ * removal is used only for build moved to another suite or branch, and readers check suite and branch of loaded build.
+ */
+public class SuiteBranchIdxUpdateProcessor implements CacheEntryProcessor<RunHistKey, int[], Void> {
+    /** Serial version uid. */
+    private static final long serialVersionUID = 0L;
+
+    /** Build IDs to add. */
+    private final int[] add;
+
+    /** Build IDs to remove. */
+    private final int[] rmv;
+
+    /**
+     * @param add Build IDs to add.
+     * @param rmv Build IDs to remove.
+     */
+    public SuiteBranchIdxUpdateProcessor(int[] add, int[] rmv) {
+        this.add = add;
+        this.rmv = rmv;
+    }
+
+    /** {@inheritDoc} */
+    @Override public Void process(MutableEntry<RunHistKey, int[]> entry, Object... arguments)
+        throws EntryProcessorException {
+        int[] cur = entry.exists() ? entry.getValue() : new int[0];
+
+        if (!changes(cur))
+            return null;
+
+        int[] added = add.clone();
+        int[] removed = rmv.clone();
+
+        Arrays.sort(added);
+        Arrays.sort(removed);
+
+        // Merge current (descending) and added (ascending, read from the end) skipping duplicates and removed IDs.
+        int[] res = new int[cur.length + added.length];
+        int cnt = 0;
+        int i = 0;
+        int j = added.length - 1;
+
+        while (i < cur.length || j >= 0) {
+            int id = j < 0 || (i < cur.length && cur[i] >= added[j]) ? cur[i++] : added[j--];
+
+            if (cnt > 0 && res[cnt - 1] == id)
+                continue;
+
+            if (Arrays.binarySearch(removed, id) >= 0)
+                continue;
+
+            res[cnt++] = id;
+        }
+
+        if (cnt == 0)
+            entry.remove();
+        else
+            entry.setValue(Arrays.copyOf(res, cnt));
+
+        return null;
+    }
+
+    /**
+     * @param cur Current entry value, sorted descending.
+     * @return {@code False} if all added IDs are already present and no removed ID is, so entry is kept as is.
+     */
+    private boolean changes(int[] cur) {
+        for (int id : add) {
+            if (!containsDesc(cur, id))
+                return true;
+        }
+
+        for (int id : rmv) {
+            if (containsDesc(cur, id))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @param arr Array sorted descending.
+     * @param id Build ID.
+     * @return {@code True} if array contains ID.
+     */
+    private static boolean containsDesc(int[] arr, int id) {
+        int lo = 0;
+        int hi = arr.length - 1;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (arr[mid] == id)
+                return true;
+
+            if (arr[mid] > id)
+                lo = mid + 1;
+            else
+                hi = mid - 1;
+        }
+
+        return false;
+    }
+}
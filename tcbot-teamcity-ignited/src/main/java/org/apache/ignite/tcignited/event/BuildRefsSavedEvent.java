@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.event;
+
+import java.util.Collection;
+import java.util.Map;
+import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
+
+/**
+ * Build references were saved to persistence.
+ */
+public class BuildRefsSavedEvent {
+    /** Server id. */
+    private final int srvId;
+
+    /** Previously persisted versions of saved builds: cache key -> build reference. */
+    private final Map<Long, BuildRefCompacted> persisted;
+
+    /** Saved builds. */
+    private final Collection<BuildRefCompacted> saved;
+
+    /**
+     * @param srvId Server id.
+     * @param persisted Previously persisted versions of saved builds, cache key -> build reference.
+     * @param saved Saved builds.
+     */
+    public BuildRefsSavedEvent(int srvId, Map<Long, BuildRefCompacted> persisted,
+        Collection<BuildRefCompacted> saved) {
+        this.srvId = srvId;
+        this.persisted = persisted;
+        this.saved = saved;
+    }
+
+    /**
+     * @return Server id.
+     */
+    public int srvId() {
+        return srvId;
+    }
+
+    /**
+     * @return Previously persisted versions of saved builds: cache key -> build reference.
+     */
+    public Map<Long, BuildRefCompacted> persisted() {
+        return persisted;
+    }
+
+    /**
+     * @return Saved builds.
+     */
+    public Collection<BuildRefCompacted> saved() {
+        return saved;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return "BuildRefsSavedEvent{srvId=" + srvId + ", saved=" + saved.size() + "}";
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.event;
+
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+
+/**
+ * Fat build was saved to persistence.
+ */
+public class FatBuildSavedEvent {
+    /** Server id. */
+    private final int srvId;
+
+    /** Saved build. */
+    private final FatBuildCompacted build;
+
+    /**
+     * @param srvId Server id.
+     * @param build Saved build.
+     */
+    public FatBuildSavedEvent(int srvId, FatBuildCompacted build) {
+        this.srvId = srvId;
+        this.build = build;
+    }
+
+    /**
+     * @return Server id.
+     */
+    public int srvId() {
+        return srvId;
+    }
+
+    /**
+     * @return Saved build.
+     */
+    public FatBuildCompacted build() {
+        return build;
+    }
+
+    /** {@inheritDoc} */
+    @Override public String toString() {
+        return "FatBuildSavedEvent{srvId=" + srvId + ", buildId=" + build.id() + "}";
+    }
+}
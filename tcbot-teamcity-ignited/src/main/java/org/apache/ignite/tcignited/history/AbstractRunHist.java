@@ -16,8 +16,8 @@
  */
 package org.apache.ignite.tcignited.history;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -25,13 +25,61 @@ import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
 import org.apache.ignite.tcbot.common.TcBotConst;
 
 /**
- * Abstract in memory summary of suite or test execution history
+ * Abstract in memory summary of suite or test execution history. Invocations are available by index (from the oldest
+ * to the most recent) as primitives, so history checks don't require {@link Invocation} instances.
  */
 public abstract class AbstractRunHist implements IRunHistory {
+    /**
+     * @return Invocations count.
+     */
+    public abstract int invocationsCount();
+
+    /**
+     * @param idx Invocation index.
+     * @return Status code of invocation.
+     */
+    public abstract byte statusAt(int idx);
+
+    /**
+     * @param idx Invocation index.
+     * @return Build ID of invocation.
+     */
+    public abstract int buildIdAt(int idx);
+
+    /**
+     * @param idx Invocation index.
+     * @return Changes state of invocation.
+     */
+    public abstract ChangesState changesStateAt(int idx);
+
     /**
      *
      */
-    public abstract Iterable<Invocation> invocations();
+    public Iterable<Invocation> invocations() {
+        return () -> new Iterator<Invocation>() {
+            /** Index of element to be returned in case next is called now. */
+            private int curIdx;
+
+            /** {@inheritDoc} */
+            @Override public boolean hasNext() {
+                return curIdx < invocationsCount();
+            }
+
+            /** {@inheritDoc} */
+            @Override public Invocation next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                Invocation invocation = new Invocation(buildIdAt(curIdx))
+                    .withChangeState(changesStateAt(curIdx))
+                    .withStatus(statusAt(curIdx));
+
+                curIdx++;
+
+                return invocation;
+            }
+        };
+    }
 
     /**
      *
@@ -42,20 +90,37 @@ public abstract class AbstractRunHist implements IRunHistory {
 
     /** {@inheritDoc} */
     @Override public int getCriticalFailuresCount() {
-        return (int)getInvocations().filter(inv -> inv.status() == InvocationData.CRITICAL_FAILURE).count();
+        int res = 0;
+        for (int i = 0, cnt = invocationsCount(); i < cnt; i++) {
+            if (statusAt(i) == InvocationData.CRITICAL_FAILURE)
+                res++;
+        }
+
+        return res;
     }
 
     /** {@inheritDoc} */
     @Override public int getFailuresCount() {
-        return (int)getInvocations().filter(inv ->
-            inv.status() == InvocationData.FAILURE
-                || inv.status() == InvocationData.CRITICAL_FAILURE).count();
+        int res = 0;
+        for (int i = 0, cnt = invocationsCount(); i < cnt; i++) {
+            byte status = statusAt(i);
+            if (status == InvocationData.FAILURE || status == InvocationData.CRITICAL_FAILURE)
+                res++;
+        }
+
+        return res;
     }
 
     /** {@inheritDoc} */
     @Override public int getRunsCount() {
-        return (int)getInvocations().filter(inv ->
-            inv.status() != InvocationData.MISSING && !Invocation.isMutedOrIgnored(inv.status())).count();
+        int res = 0;
+        for (int i = 0, cnt = invocationsCount(); i < cnt; i++) {
+            byte status = statusAt(i);
+            if (status != InvocationData.MISSING && !Invocation.isMutedOrIgnored(status))
+                res++;
+        }
+
+        return res;
     }
 
     /** {@inheritDoc} */
@@ -71,7 +136,7 @@ public abstract class AbstractRunHist implements IRunHistory {
             return null;
 
         return "Test seems to be flaky: " +
-            "changed its status [" + statusChange + "/" + getInvocations().count() + "] without code modifications";
+            "changed its status [" + statusChange + "/" + invocationsCount() + "] without code modifications";
     }
 
     /**
@@ -80,98 +145,37 @@ public abstract class AbstractRunHist implements IRunHistory {
     public int getStatusChangesWithoutCodeModification() {
         int statusChange = 0;
 
-        Invocation prev = null;
+        boolean hasPrev = false;
+        byte prevStatus = 0;
+        ChangesState prevChangesState = null;
 
-        for (Invocation cur : invocations()) {
-            if (cur == null)
-                continue;
+        for (int i = 0, cnt = invocationsCount(); i < cnt; i++) {
+            byte status = statusAt(i);
 
-            if (cur.status() == InvocationData.MISSING)
+            if (status == InvocationData.MISSING)
                 continue;
 
+            ChangesState changesState = changesStateAt(i);
+
             //todo here all previous MISSING invocations status could be checked
-            if (prev != null) {
-                if (prev.status() != cur.status()
-                    && cur.changesState() == ChangesState.NONE
-                    && prev.changesState() != ChangesState.UNKNOWN)
+            if (hasPrev) {
+                if (prevStatus != status
+                    && changesState == ChangesState.NONE
+                    && prevChangesState != ChangesState.UNKNOWN)
                     statusChange++;
             }
 
-            prev = cur;
-        }
-        return statusChange;
-    }
-
-    @Nullable
-    public Integer detectTemplate(IEventTemplate t) {
-        int centralEvtBuild = t.beforeEvent().length;
-
-        int[] template = concatArr(t.beforeEvent(), t.eventAndAfter());
-
-        assert centralEvtBuild < template.length;
-        assert centralEvtBuild >= 0;
-
-        boolean includeMissing = t.includeMissing();
-
-        List<Invocation> histAsArr = new ArrayList<>();
-        for (Invocation invocation : invocations()) {
-            if (includeMissing || invocation.status() != InvocationData.MISSING)
-                histAsArr.add(invocation);
-        }
-
-        if (histAsArr.size() < template.length)
-            return null;
-
-        Integer detectedAt = null;
-
-        //startIgnite from the end to find most recent
-        for (int idx = histAsArr.size() - template.length; idx >= 0; idx--) {
-            detectedAt = checkTemplateAtPos(template, centralEvtBuild, histAsArr, idx);
-
-            if (detectedAt != null)
-                break;
-        }
-
-        if (detectedAt != null && t.shouldBeFirstNonMissing()) {
-            for (Invocation invocation : invocations()) {
-                if (invocation.status() != InvocationData.MISSING)
-                    return invocation.buildId() != detectedAt ? null : detectedAt;
-            }
-
-            return null;
+            hasPrev = true;
+            prevStatus = status;
+            prevChangesState = changesState;
         }
 
-        return detectedAt;
-    }
-
-    private static int[] concatArr(int[] arr1, int[] arr2) {
-        int[] arr1and2 = new int[arr1.length + arr2.length];
-        System.arraycopy(arr1, 0, arr1and2, 0, arr1.length);
-        System.arraycopy(arr2, 0, arr1and2, arr1.length, arr2.length);
-
-        return arr1and2;
+        return statusChange;
     }
 
+    /** {@inheritDoc} */
     @Nullable
-    private static Integer checkTemplateAtPos(int[] template, int centralEvtBuild, List<Invocation> histAsArr,
-        int idx) {
-        for (int tIdx = 0; tIdx < template.length; tIdx++) {
-            Invocation curStatus = histAsArr.get(idx + tIdx);
-
-            if (curStatus == null)
-                break;
-
-            RunStatus tmpl = RunStatus.byCode(template[tIdx]);
-
-            if ((tmpl == RunStatus.RES_OK_OR_FAILURE && (curStatus.status() == InvocationData.OK || curStatus.status() == InvocationData.FAILURE))
-                || curStatus.status() == tmpl.getCode()) {
-                if (tIdx == template.length - 1)
-                    return histAsArr.get(idx + centralEvtBuild).buildId();
-            }
-            else
-                break;
-        }
-
-        return null;
+    @Override public Integer detectTemplate(IEventTemplate t) {
+        return EventTemplateMatcher.of(t).detect(this);
     }
 }
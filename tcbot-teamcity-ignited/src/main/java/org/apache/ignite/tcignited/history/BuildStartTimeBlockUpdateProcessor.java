@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.MutableEntry;
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+/**
+ * Sets start times into block of build start times. Entry value is array of {@link BuildStartTimeStorage#BLOCK_SIZE}
+ * encoded start times, already known start times are never overwritten, so update may be applied in any order.
+ */
+public class BuildStartTimeBlockUpdateProcessor implements CacheEntryProcessor<Long, int[], Void> {
+    /** Serial version uid. */
+    private static final long serialVersionUID = 0L;
+
+    /** Indexes in block. */
+    private final int[] idxs;
+
+    /** Encoded start times. */
+    private final int[] times;
+
+    /**
+     * @param idxs Indexes in block.
+     * @param times Encoded start times, in order of indexes.
+     */
+    public BuildStartTimeBlockUpdateProcessor(int[] idxs, int[] times) {
+        this.idxs = idxs;
+        this.times = times;
+    }
+
+    /** {@inheritDoc} */
+    @Override public Void process(MutableEntry<Long, int[]> entry, Object... arguments)
+        throws EntryProcessorException {
+        int[] block = entry.exists() ? entry.getValue() : new int[BuildStartTimeStorage.BLOCK_SIZE];
+        boolean changed = !entry.exists();
+
+        for (int i = 0; i < idxs.length; i++) {
+            if (block[idxs[i]] == 0 && times[i] != 0) {
+                block[idxs[i]] = times[i];
+
+                changed = true;
+            }
+        }
+
+        if (changed)
+            entry.setValue(block);
+
+        return null;
+    }
+}
@@ -17,49 +17,54 @@
 
 package org.apache.ignite.tcignited.history;
 
-import java.time.Duration;
-import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerArray;
-import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import javax.cache.processor.EntryProcessor;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
-import org.apache.ignite.tcbot.common.TcBotConst;
+import org.apache.ignite.internal.util.GridIntList;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
-import org.apache.ignite.tcignited.buildref.BuildRefDao;
 
 /**
+ * Build start times storage. Build IDs are increasing for a server, so start times are stored in dense blocks of
+ * {@link #BLOCK_SIZE} consecutive build IDs. Each start time is encoded as int count of seconds since
+ * {@link #BASE_SEC}, TeamCity provides dates with seconds precision. Blocks used are kept on heap, so lookups and
+ * searches of build ID by age don't access cache.
  */
 public class BuildStartTimeStorage {
-    /** Build Start time Cache name. */
-    public static final String BUILD_START_TIME_CACHE_NAME = "teamcityBuildStartTime";
+    /** Build start time blocks cache name. */
+    public static final String BUILD_START_TIME_BLOCKS_CACHE_NAME = "teamcityBuildStartTimeBlocks";
+
+    /** Bits of build ID used for index in block. */
+    private static final int BLOCK_BITS = 10;
+
+    /** Build IDs count in block. */
+    public static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+    /** Base for encoded start times: 2000-01-01T00:00:00Z, in seconds. */
+    private static final long BASE_SEC = 946684800L;
 
     /** Ignite provider. */
     @Inject
     private Provider<Ignite> igniteProvider;
 
-    /** Build start time. */
-    private IgniteCache<Long, Long> buildStartTime;
+    /** Build start time blocks, value is array of encoded start times, 0 if start time is unknown. */
+    private IgniteCache<Long, int[]> blocksCache;
 
-    /**
-     * Biggest build ID, which is older than particular days count.
-     * Map: server ID-> Array of build Ids
-     * Array[0] = max build ID
-     * Array[1] = max build ID older than 1 day
-     */
-    private final ConcurrentMap<Integer, AtomicIntegerArray> maxBuildIdOlderThanDays = new ConcurrentHashMap<>();
-
-    /** Millis in day. */
-    private static final long MILLIS_IN_DAY = Duration.ofDays(1).toMillis();
+    /** Blocks loaded from cache. Map: server ID -> block number -> block. */
+    private final ConcurrentMap<Integer, ConcurrentSkipListMap<Integer, Block>> blocks = new ConcurrentHashMap<>();
 
     /**
      * Initialize
@@ -67,15 +72,58 @@ public class BuildStartTimeStorage {
     public void init() {
         Ignite ignite = igniteProvider.get();
 
-        buildStartTime = ignite.getOrCreateCache(CacheConfigs.getCacheV2Config(BUILD_START_TIME_CACHE_NAME));
+        blocksCache = ignite.getOrCreateCache(CacheConfigs.getCacheV2Config(BUILD_START_TIME_BLOCKS_CACHE_NAME));
     }
 
     /**
      * @param srvId Server id mask high.
+     * @param blockNo Block number.
+     */
+    public static long blockKey(long srvId, int blockNo) {
+        return (long)blockNo | srvId << 32;
+    }
+
+    /**
      * @param buildId Build id.
+     * @return Number of block containing build.
      */
-    public static long buildIdToCacheKey(long srvId, int buildId) {
-        return (long)buildId | srvId << 32;
+    public static int blockNo(int buildId) {
+        return buildId >>> BLOCK_BITS;
+    }
+
+    /**
+     * @param blockNo Block number.
+     * @param idx Index in block.
+     * @return Build id.
+     */
+    public static int buildId(int blockNo, int idx) {
+        return blockNo << BLOCK_BITS | idx;
+    }
+
+    /**
+     * @param buildId Build id.
+     * @return Index of build in block.
+     */
+    public static int idxInBlock(int buildId) {
+        return buildId & (BLOCK_SIZE - 1);
+    }
+
+    /**
+     * @param ts Timestamp.
+     * @return Encoded start time or 0 if timestamp can't be stored.
+     */
+    public static int encode(long ts) {
+        long sec = ts / 1000 - BASE_SEC;
+
+        return sec > 0 && sec <= Integer.MAX_VALUE ? (int)sec : 0;
+    }
+
+    /**
+     * @param time Encoded start time.
+     * @return Timestamp or 0 if start time is unknown.
+     */
+    public static long decode(int time) {
+        return time == 0 ? 0 : (BASE_SEC + time) * 1000;
     }
 
     /**
@@ -84,101 +132,245 @@ public class BuildStartTimeStorage {
      */
     @AutoProfiling
     @Nullable public Long getBuildStartTime(int srvId, int buildId) {
-        Long ts = buildStartTime.get(buildIdToCacheKey(srvId, buildId));
-        if (ts == null || ts <= 0)
+        Block block = block(srvId, blockNo(buildId), false);
+        if (block == null)
             return null;
 
-        processBuildForBorder(srvId, buildId, ts);
+        long ts = decode(block.times.get(idxInBlock(buildId)));
 
-        return ts;
+        return ts > 0 ? ts : null;
     }
 
     public boolean setBuildStartTime(int srvId, int buildId, long ts) {
-        if (ts <= 0)
+        int time = encode(ts);
+        if (time == 0)
+            return false;
+
+        int blockNo = blockNo(buildId);
+        int idx = idxInBlock(buildId);
+
+        if (!block(srvId, blockNo, true).set(idx, time))
             return false;
 
-        processBuildForBorder(srvId, buildId, ts);
+        blocksCache.invoke(blockKey(srvId, blockNo),
+            new BuildStartTimeBlockUpdateProcessor(new int[] {idx}, new int[] {time}));
 
-        return buildStartTime.putIfAbsent(buildIdToCacheKey(srvId, buildId), ts);
+        return true;
     }
 
     @AutoProfiling
     public boolean setBuildProcessed(int srvId, int buildId, long ts) {
-        if (ts <= 0)
-            return false;
+        return setBuildStartTime(srvId, buildId, ts);
+    }
+
+    /**
+     * @param srvId Server id.
+     * @param buildIds Build ids.
+     * @return Start timestamps in order of build ids, 0 if start time is unknown.
+     */
+    @AutoProfiling
+    public long[] getBuildsStartTime(int srvId, int[] buildIds) {
+        ConcurrentSkipListMap<Integer, Block> srvBlocks = loadBlocks(srvId, buildIds);
+        long[] res = new long[buildIds.length];
 
-        processBuildForBorder(srvId, buildId, ts);
+        for (int i = 0; i < buildIds.length; i++) {
+            Block block = srvBlocks.get(blockNo(buildIds[i]));
 
-        return buildStartTime.putIfAbsent(buildIdToCacheKey(srvId, buildId), ts);
-    }
+            if (block != null)
+                res[i] = decode(block.times.get(idxInBlock(buildIds[i])));
+        }
 
-    private static Set<Long> buildsIdsToCacheKeys(int srvId, Collection<Integer> ids) {
-        return ids.stream()
-            .filter(Objects::nonNull).map(id -> buildIdToCacheKey(srvId, id)).collect(Collectors.toSet());
+        return res;
     }
 
-    public Map<Integer, Long> getBuildsStartTime(int srvId, Set<Integer> ids) {
-        Set<Long> cacheKeys = buildsIdsToCacheKeys(srvId, ids);
+    /**
+     * @param srvId Server id.
+     * @param buildIds Build ids.
+     * @param startTimes Start timestamps in order of build ids, unknown (non positive) values are skipped.
+     */
+    public void setBuildsStartTime(int srvId, int[] buildIds, long[] startTimes) {
+        loadBlocks(srvId, buildIds);
+
+        Map<Long, GridIntList> idxs = new HashMap<>();
+        Map<Long, GridIntList> times = new HashMap<>();
 
-        Map<Integer, Long> res = new HashMap<>();
+        for (int i = 0; i < buildIds.length; i++) {
+            int time = encode(startTimes[i]);
+            if (time == 0)
+                continue;
 
-        buildStartTime.getAll(cacheKeys).forEach((k, ts) -> {
-            if (ts != null && ts > 0) {
-                int buildId = BuildRefDao.cacheKeyToBuildId(k);
+            int blockNo = blockNo(buildIds[i]);
+            int idx = idxInBlock(buildIds[i]);
 
-                res.put(buildId, ts);
+            if (!block(srvId, blockNo, true).set(idx, time))
+                continue;
 
-                processBuildForBorder(srvId, buildId, ts);
-            }
-        });
+            long key = blockKey(srvId, blockNo);
 
-        return res;
+            idxs.computeIfAbsent(key, k -> new GridIntList()).add(idx);
+            times.computeIfAbsent(key, k -> new GridIntList()).add(time);
+        }
+
+        if (idxs.isEmpty())
+            return;
+
+        Map<Long, EntryProcessor<Long, int[], Void>> procs = new HashMap<>();
+
+        idxs.forEach((k, blockIdxs) ->
+            procs.put(k, new BuildStartTimeBlockUpdateProcessor(blockIdxs.array(), times.get(k).array())));
+
+        blocksCache.invokeAll(procs);
     }
 
-    public void setBuildsStartTime(int srvId, Map<Integer, Long> builds) {
-        Map<Long, Long> res = new HashMap<>();
+    /**
+     * Finds biggest build ID, which is older than particular days count. Blocks are searched by minimal start time
+     * using binary search, start times are increasing with build IDs except of builds queued for a long time. Only
+     * blocks already loaded are searched, so border may be lower than actual one, but never higher.
+     *
+     * @param srvId Server id.
+     * @param ageDays Age of build in days.
+     * @return Build ID or {@code null} if there is no known build older than age.
+     */
+    @Nullable public Integer getBorderForAgeForBuildId(int srvId, int ageDays) {
+        ConcurrentSkipListMap<Integer, Block> srvBlocks = blocks.get(srvId);
+        if (srvBlocks == null || srvBlocks.isEmpty())
+            return null;
+
+        int borderTime = encode(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(ageDays));
+        if (borderTime == 0)
+            return null;
+
+        int low = srvBlocks.firstKey();
+        int high = srvBlocks.lastKey();
+        Integer found = null;
 
-        builds.forEach((buildId, ts) -> {
-            if (ts != null && ts > 0) {
-                res.put(buildIdToCacheKey(srvId, buildId), ts);
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Map.Entry<Integer, Block> entry = srvBlocks.floorEntry(mid);
 
-                processBuildForBorder(srvId, buildId, ts);
+            if (entry.getValue().minTime.get() <= borderTime) {
+                found = entry.getKey();
+                low = mid + 1;
             }
-        });
+            else
+                high = entry.getKey() - 1;
+        }
 
-        buildStartTime.putAll(res);
+        if (found == null)
+            return null;
+
+        for (Map.Entry<Integer, Block> entry = srvBlocks.floorEntry(found);
+             entry != null;
+             entry = srvBlocks.lowerEntry(entry.getKey())) {
+            int idx = entry.getValue().maxIdxNotAfter(borderTime);
+
+            if (idx >= 0)
+                return buildId(entry.getKey(), idx);
+        }
+
+        return null;
     }
 
-    private void processBuildForBorder(int srvId, Integer buildId, Long ts) {
-        if (ts == null || ts <= 0)
-            return;
+    /**
+     * @param srvId Server id.
+     * @param blockNo Block number.
+     * @param create Create empty block if it is absent in cache.
+     */
+    @Nullable private Block block(int srvId, int blockNo, boolean create) {
+        ConcurrentSkipListMap<Integer, Block> srvBlocks = blocks.computeIfAbsent(srvId,
+            k -> new ConcurrentSkipListMap<>());
 
-        AtomicIntegerArray arr = maxBuildIdOlderThanDays.computeIfAbsent(srvId,
-            k -> new AtomicIntegerArray(TcBotConst.BUILD_MAX_DAYS + 1));
+        Block block = srvBlocks.get(blockNo);
+        if (block != null)
+            return block;
 
-        long ageMs = System.currentTimeMillis() - ts;
-        if (ageMs < 0)
-            return;
+        int[] persisted = blocksCache.get(blockKey(srvId, blockNo));
+        if (persisted == null && !create)
+            return null;
 
-        long days = ageMs / MILLIS_IN_DAY;
-        if (days > TcBotConst.BUILD_MAX_DAYS)
-            days = TcBotConst.BUILD_MAX_DAYS;
+        Block loaded = new Block(persisted != null ? persisted : new int[BLOCK_SIZE]);
+        Block prev = srvBlocks.putIfAbsent(blockNo, loaded);
 
-        arr.accumulateAndGet((int)days, buildId, Math::max);
+        return prev != null ? prev : loaded;
     }
 
-    @Nullable public Integer getBorderForAgeForBuildId(int srvId, int ageDays) {
-        AtomicIntegerArray arr = maxBuildIdOlderThanDays.get(srvId);
-        if (arr == null)
-            return null;
+    /**
+     * Loads blocks containing builds from cache with one bulk get.
+     *
+     * @param srvId Server id.
+     * @param buildIds Build ids.
+     * @return Loaded blocks of server.
+     */
+    private ConcurrentSkipListMap<Integer, Block> loadBlocks(int srvId, int[] buildIds) {
+        ConcurrentSkipListMap<Integer, Block> srvBlocks = blocks.computeIfAbsent(srvId,
+            k -> new ConcurrentSkipListMap<>());
+
+        Set<Long> keys = new HashSet<>();
 
-        for (int i = ageDays; i < TcBotConst.BUILD_MAX_DAYS; i++) {
-            int buildId = arr.get(i);
-            if (buildId != 0)
-                return buildId;
+        for (int buildId : buildIds) {
+            int blockNo = blockNo(buildId);
+
+            if (!srvBlocks.containsKey(blockNo))
+                keys.add(blockKey(srvId, blockNo));
         }
 
-        return null;
+        if (keys.isEmpty())
+            return srvBlocks;
+
+        blocksCache.getAll(keys).forEach((k, v) -> srvBlocks.putIfAbsent((int)k.longValue(), new Block(v)));
+
+        return srvBlocks;
     }
 
+    /**
+     * On heap copy of block of start times.
+     */
+    private static class Block {
+        /** Encoded start times. */
+        private final AtomicIntegerArray times;
+
+        /** Minimal known encoded start time, {@link Integer#MAX_VALUE} for empty block. */
+        private final AtomicInteger minTime = new AtomicInteger(Integer.MAX_VALUE);
+
+        /**
+         * @param persisted Persisted encoded start times.
+         */
+        Block(int[] persisted) {
+            times = new AtomicIntegerArray(persisted);
+
+            for (int time : persisted) {
+                if (time != 0)
+                    minTime.accumulateAndGet(time, Math::min);
+            }
+        }
+
+        /**
+         * @param idx Index.
+         * @param time Encoded start time.
+         * @return {@code true} if start time was unknown and was set.
+         */
+        boolean set(int idx, int time) {
+            if (!times.compareAndSet(idx, 0, time))
+                return false;
+
+            minTime.accumulateAndGet(time, Math::min);
+
+            return true;
+        }
+
+        /**
+         * @param time Encoded start time.
+         * @return Biggest index with known start time which is not after provided, or -1 if not found.
+         */
+        int maxIdxNotAfter(int time) {
+            for (int idx = BLOCK_SIZE - 1; idx >= 0; idx--) {
+                int val = times.get(idx);
+
+                if (val != 0 && val <= time)
+                    return idx;
+            }
+
+            return -1;
+        }
+    }
 }
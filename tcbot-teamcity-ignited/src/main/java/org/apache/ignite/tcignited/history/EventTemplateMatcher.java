@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.history;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * Event template compiled into shift-and automaton over run statuses. History is scanned once from the most recent
+ * invocation backwards, so the most recent occurrence of the template is found first, and invocations are neither
+ * copied nor created.
+ */
+public class EventTemplateMatcher {
+    /** Compiled templates. Templates are expected to be constants, so this map is not cleaned. */
+    private static final ConcurrentMap<IEventTemplate, EventTemplateMatcher> compiled = new ConcurrentHashMap<>();
+
+    /** Statuses alphabet size, codes outside of it never match. */
+    private static final int ALPHABET = 16;
+
+    /** Masks for status code: bit {@code j} is set if reversed template position {@code j} accepts this code. */
+    private final long[] masks = new long[ALPHABET];
+
+    /** Bit indicating full template matched. */
+    private final long acceptBit;
+
+    /** Position of the event in template. */
+    private final int centralEvt;
+
+    /** Missing runs are part of the template. */
+    private final boolean includeMissing;
+
+    /** Event should be the first non-missing run in history. */
+    private final boolean shouldBeFirstNonMissing;
+
+    /**
+     * @param t Template.
+     */
+    private EventTemplateMatcher(IEventTemplate t) {
+        int[] before = t.beforeEvent();
+        int[] eventAndAfter = t.eventAndAfter();
+        int len = before.length + eventAndAfter.length;
+
+        Preconditions.checkArgument(eventAndAfter.length > 0, "Template should contain event");
+        Preconditions.checkArgument(len <= Long.SIZE, "Template is too long: %s", len);
+
+        for (int j = 0; j < len; j++) {
+            int code = j < before.length ? before[j] : eventAndAfter[j - before.length];
+            long bit = 1L << (len - 1 - j);
+
+            if (code == RunStatus.RES_OK_OR_FAILURE.getCode()) {
+                masks[InvocationData.OK] |= bit;
+                masks[InvocationData.FAILURE] |= bit;
+            }
+            else if (code >= 0 && code < ALPHABET)
+                masks[code] |= bit;
+        }
+
+        acceptBit = 1L << (len - 1);
+        centralEvt = before.length;
+        includeMissing = t.includeMissing();
+        shouldBeFirstNonMissing = t.shouldBeFirstNonMissing();
+    }
+
+    /**
+     * @param t Template.
+     * @return Compiled template.
+     */
+    public static EventTemplateMatcher of(IEventTemplate t) {
+        return compiled.computeIfAbsent(t, EventTemplateMatcher::new);
+    }
+
+    /**
+     * @param hist History.
+     * @return Build ID of the event for the most recent template occurrence or null if template was not found.
+     */
+    @Nullable public Integer detect(AbstractRunHist hist) {
+        int cnt = hist.invocationsCount();
+        long state = 0;
+        int startIdx = -1;
+
+        for (int i = cnt - 1; i >= 0; i--) {
+            byte status = hist.statusAt(i);
+
+            if (!includeMissing && status == InvocationData.MISSING)
+                continue;
+
+            long mask = status >= 0 && status < ALPHABET ? masks[status] : 0;
+
+            state = ((state << 1) | 1) & mask;
+
+            if ((state & acceptBit) != 0) {
+                startIdx = i;
+
+                break;
+            }
+        }
+
+        if (startIdx < 0)
+            return null;
+
+        int evtIdx = startIdx;
+        for (int passed = 0; ; evtIdx++) {
+            if (!includeMissing && hist.statusAt(evtIdx) == InvocationData.MISSING)
+                continue;
+
+            if (passed == centralEvt)
+                break;
+
+            passed++;
+        }
+
+        int detectedAt = hist.buildIdAt(evtIdx);
+
+        if (shouldBeFirstNonMissing) {
+            for (int i = 0; i < cnt; i++) {
+                if (hist.statusAt(i) != InvocationData.MISSING)
+                    return hist.buildIdAt(i) != detectedAt ? null : detectedAt;
+            }
+
+            return null;
+        }
+
+        return detectedAt;
+    }
+}
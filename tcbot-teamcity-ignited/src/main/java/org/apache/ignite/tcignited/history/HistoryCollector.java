@@ -26,6 +26,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiPredicate;
@@ -39,8 +41,10 @@ import org.apache.ignite.binary.BinaryObject;
 import org.apache.ignite.cache.query.QueryCursor;
 import org.apache.ignite.cache.query.ScanQuery;
 import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
 import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
 import org.apache.ignite.ci.teamcity.ignited.runhist.RunHistKey;
+import org.apache.ignite.internal.util.GridIntList;
 import org.apache.ignite.tcbot.common.TcBotConst;
 import org.apache.ignite.tcbot.common.conf.IBuildParameterSpec;
 import org.apache.ignite.tcbot.common.conf.IDataSourcesConfigSupplier;
@@ -49,12 +53,15 @@ import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.exeption.ServicesStartingException;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.event.InMemCacheVersions;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
 import org.apache.ignite.tcignited.ITeamcityIgnited;
 import org.apache.ignite.tcignited.build.FatBuildDao;
 import org.apache.ignite.tcignited.build.ITest;
 import org.apache.ignite.tcignited.build.TestCompactedV2;
 import org.apache.ignite.tcignited.buildref.BranchEquivalence;
 import org.apache.ignite.tcignited.buildref.BuildRefDao;
+import org.apache.ignite.tcignited.event.FatBuildSavedEvent;
 import org.apache.ignite.tcservice.model.hist.BuildRef;
 import org.apache.ignite.tcservice.model.result.tests.TestOccurrence;
 import org.slf4j.Logger;
@@ -87,6 +94,9 @@ public class HistoryCollector {
 
     @Inject private IDataSourcesConfigSupplier cfg;
 
+    /** Change events bus. */
+    @Inject private TcEventBus eventBus;
+
     /**
      * Non persistence cache for all suite RunHistory for particular branch. RunHistKey(ServerId||BranchId||suiteId)->
      * Build reference
@@ -95,10 +105,27 @@ public class HistoryCollector {
         = CacheBuilder.newBuilder()
         .maximumSize(Boolean.valueOf(System.getProperty(TcBotSystemProperties.DEV_MODE)) ? 1000 : 8000)
         .expireAfterAccess(16, TimeUnit.MINUTES)
-        .expireAfterWrite(17, TimeUnit.MINUTES) //workaround for stale records
+        .expireAfterWrite(2, TimeUnit.HOURS) // Saved builds are applied in place, reload drops builds out of scope.
         .softValues()
         .build();
 
+    /** Versions of {@link #runHistInMemCache} keys. */
+    private final InMemCacheVersions runHistVersions = new InMemCacheVersions();
+
+    /**
+     * Server code for server ID. Filled when history is loaded for server, so filtering parameters of builds saved
+     * later can be resolved from the actual server config.
+     */
+    private final ConcurrentMap<Integer, String> srvCodeBySrvId = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribes to saved builds.
+     */
+    public void init() {
+        eventBus.subscribe(FatBuildSavedEvent.class, HistoryCollector.class.getSimpleName(),
+            evt -> onFatBuildSaved(evt.srvId(), evt.build()));
+    }
+
     /**
      * @param srvCode Server id mask to be placed at high bits in the key.
      * @param testName Test name.
@@ -120,7 +147,7 @@ public class HistoryCollector {
 
         SuiteHistory hist;
         try {
-            hist = runHistInMemCache.get(runHistKey,
+            hist = runHistVersions.get(runHistInMemCache, runHistKey,
                 () -> loadSuiteHistory(srvCode, buildTypeId, normalizedBaseBranch));
         }
         catch (ExecutionException e) {
@@ -130,6 +157,13 @@ public class HistoryCollector {
         return hist;
     }
 
+    /**
+     * @return Snapshot of suite histories currently cached in memory.
+     */
+    public Map<RunHistKey, SuiteHistory> inMemHistories() {
+        return new HashMap<>(runHistInMemCache.asMap());
+    }
+
     /**
      *  Latest actual Build ids supplier. This supplier should handle all equivalent branches in
      *     it.
@@ -144,50 +178,33 @@ public class HistoryCollector {
         String btId = compactor.getStringFromId(buildTypeId);
         String branchId = compactor.getStringFromId(normalizedBaseBranch);
         Set<Integer> strings = branchEquivalence.branchIdsForQuery(branchId, compactor);
-        List<BuildRefCompacted> bRefsList =
-            buildRefDao.getAllBuildsCompacted(srvId, buildTypeId, strings);
-
         long curTs = System.currentTimeMillis();
-        Set<Integer> buildIds = bRefsList.stream()
-            .filter(b -> {
-                Integer maxBuildIdForDay = buildStartTimeStorage.getBorderForAgeForBuildId(srvId, TcBotConst.HISTORY_BUILD_ID_BORDER_DAYS);
-
-                if (maxBuildIdForDay == null)
-                    return true;
+        Integer maxBuildIdForDay = buildStartTimeStorage.getBorderForAgeForBuildId(srvId,
+            TcBotConst.HISTORY_BUILD_ID_BORDER_DAYS);
 
-                return b.id() > maxBuildIdForDay;
+        List<BuildRefCompacted> bRefsList = buildRefDao.getRecentBuildsCompacted(srvId, buildTypeId, strings,
+            maxBuildIdForDay, this::applicableForHistory, Integer.MAX_VALUE);
 
-            })
-            .filter(this::applicableForHistory)
-            .map(BuildRefCompacted::id)
-            .filter(bId -> !knownBuilds.contains(bId)).collect(Collectors.toSet());
+        int[] buildIds = bRefsList.stream()
+            .mapToInt(BuildRefCompacted::id)
+            .filter(bId -> !knownBuilds.contains(bId))
+            .distinct()
+            .toArray();
 
         logger.info("***** Loading build start time history for suite "
             + compactor.getStringFromId(buildTypeId)
-            + " branch " + compactor.getStringFromId(normalizedBaseBranch) + ": " + buildIds.size() + " builds" );
+            + " branch " + compactor.getStringFromId(normalizedBaseBranch) + ": " + buildIds.length + " builds" );
 
-        Map<Integer, Long> buildStartTimes = getStartTimeFromSpecialCache(srvId, buildIds);
-
-        Set<Integer> notFoundKeys = new HashSet<>(buildIds);
-        notFoundKeys.removeAll(buildStartTimes.keySet());
-
-        if (!notFoundKeys.isEmpty()) {
-            Map<Integer, Long> buildStartTimeFromFatBuild = getStartTimeFromFatBuild(srvId, notFoundKeys);
-
-            buildStartTimes.putAll(buildStartTimeFromFatBuild);
-
-            buildStartTimeStorage.setBuildsStartTime(srvId, buildStartTimeFromFatBuild);
-        }
+        long[] buildStartTimes = getBuildsStartTime(srvId, buildIds);
 
         long minBuildStartTs = curTs - Duration.ofDays(TcBotConst.HISTORY_MAX_DAYS).toMillis();
 
-        Set<Integer> buildInScope = buildIds.stream().filter(
-            bId -> {
-                Long startTime = buildStartTimes.get(bId);
+        Set<Integer> buildInScope = new HashSet<>();
 
-                return startTime != null && startTime > minBuildStartTs;
-            }
-        ).collect(Collectors.toSet());
+        for (int i = 0; i < buildIds.length; i++) {
+            if (buildStartTimes[i] > minBuildStartTs)
+                buildInScope.add(buildIds[i]);
+        }
 
         logger.info("*** Build " + btId + " branch " + branchId + " builds in scope " +
             buildInScope.size() + " from " + bRefsList.size());
@@ -195,16 +212,41 @@ public class HistoryCollector {
         return buildInScope;
     }
 
-    @SuppressWarnings("WeakerAccess")
+    /**
+     * Bulk version of {@link #getBuildStartTime(int, int)}. Start times missing in start time storage are read from
+     * fat builds and saved to the storage.
+     *
+     * @param srvId Server id.
+     * @param buildIds Build ids.
+     * @return Start timestamps in order of build ids, 0 if start time is unknown.
+     */
     @AutoProfiling
-    protected Map<Integer, Long> getStartTimeFromSpecialCache(int srvId, Set<Integer> buildIds) {
-        return buildStartTimeStorage.getBuildsStartTime(srvId, buildIds);
-    }
+    public long[] getBuildsStartTime(int srvId, int[] buildIds) {
+        long[] res = buildStartTimeStorage.getBuildsStartTime(srvId, buildIds);
 
-    @SuppressWarnings("WeakerAccess")
-    @AutoProfiling
-    protected Map<Integer, Long> getStartTimeFromFatBuild(int srvId, Set<Integer> buildIds) {
-        return fatBuildDao.getBuildStartTime(srvId, buildIds);
+        GridIntList missingIdx = new GridIntList();
+
+        for (int i = 0; i < res.length; i++) {
+            if (res[i] <= 0)
+                missingIdx.add(i);
+        }
+
+        if (missingIdx.isEmpty())
+            return res;
+
+        int[] missingIds = new int[missingIdx.size()];
+
+        for (int i = 0; i < missingIds.length; i++)
+            missingIds[i] = buildIds[missingIdx.get(i)];
+
+        long[] fromFatBuilds = fatBuildDao.getBuildsStartTime(srvId, missingIds);
+
+        for (int i = 0; i < missingIds.length; i++)
+            res[missingIdx.get(i)] = fromFatBuilds[i];
+
+        buildStartTimeStorage.setBuildsStartTime(srvId, missingIds, fromFatBuilds);
+
+        return res;
     }
 
     /**
@@ -219,6 +261,9 @@ public class HistoryCollector {
                                             int buildTypeId,
                                             int normalizedBaseBranch) {
         int srvId = ITeamcityIgnited.serverIdToInt(srvCode);
+
+        srvCodeBySrvId.put(srvId, srvCode);
+
         Map<Integer, SuiteInvocation> suiteRunHist = histDao.getSuiteRunHist(srvId, buildTypeId, normalizedBaseBranch);
 
         logger.info("***** Found persisted history for suite "  + compactor.getStringFromId(buildTypeId)
@@ -248,13 +293,47 @@ public class HistoryCollector {
     }
 
     /**
+     * Appends saved build to the suite history: persists its suite invocation and adds new column to the history in
+     * memory (if it is loaded), so history is not reloaded from the fat builds after each build finish.
+     *
      * @param srvId Server id.
-     * @param b Build ref to invalidate.
+     * @param build Fat build saved.
      */
-    public void invalidateHistoryInMem(int srvId, BuildRefCompacted b) {
-        RunHistKey inv = new RunHistKey(srvId, b.buildTypeId(), b.branchName());
+    public void onFatBuildSaved(int srvId, FatBuildCompacted build) {
+        String branchName = compactor.getStringFromId(build.branchName());
+        Integer normalizedBranch = compactor.getStringIdIfPresent(BranchEquivalence.normalizeBranch(branchName));
+
+        if (normalizedBranch == null)
+            return;
+
+        RunHistKey key = new RunHistKey(srvId, build.buildTypeId(), normalizedBranch);
+
+        if (build.isRunning(compactor) || build.isQueued(compactor))
+            return; // build is not a part of the history yet.
+
+        runHistVersions.changed(key);
+
+        String srvCode = srvCodeBySrvId.get(srvId);
+
+        if (srvCode == null)
+            return; // history was not loaded for the server yet.
+
+        if (!applicableForHistory(build)) {
+            SuiteHistory hist = runHistInMemCache.getIfPresent(key);
+
+            // Build is not a part of the history anymore (e.g. cancelled), it is dropped only if it was counted.
+            if (hist != null && hist.containsBuild(build.id()))
+                runHistInMemCache.invalidate(key);
+
+            return;
+        }
+
+        SuiteInvocation sinv = toSuiteInvocation(srvId, normalizedBranch, build, getFilteringParameters(srvCode),
+            compactor.getStringId(TestOccurrence.STATUS_SUCCESS));
+
+        histDao.put(srvId, build.id(), sinv);
 
-        runHistInMemCache.invalidate(inv);
+        runHistInMemCache.asMap().computeIfPresent(key, (k, hist) -> hist.withSuiteInvocation(sinv));
     }
 
     @Nonnull
@@ -275,32 +354,22 @@ public class HistoryCollector {
                                                                          HashSet<Integer> missedBuildsIds,
                                                                          int normalizedBaseBranch) {
 
+        int srvId = ITeamcityIgnited.serverIdToInt(srvCode);
         Set<Integer> filteringParameters = getFilteringParameters(srvCode);
-        BiPredicate<Integer, Integer> paramsFilter = (k, v) -> filteringParameters.contains(k);
 
         Map<Integer, SuiteInvocation> suiteRunHist = new HashMap<>();
         int successStatusStrId = compactor.getStringId(TestOccurrence.STATUS_SUCCESS);
 
         logger.info(Thread.currentThread().getName() + "addSuiteInvocationsToHistory: getAll: " + missedBuildsIds.size());
 
-        int srvId = ITeamcityIgnited.serverIdToInt(srvCode);
         Iterables.partition(missedBuildsIds, 32 * 10).forEach(
             chunk -> {
                 fatBuildDao.getAllFatBuilds(srvId, chunk).forEach((buildCacheKey, fatBuildCompacted) -> {
                     if (!applicableForHistory(fatBuildCompacted))
                         return;
 
-                    SuiteInvocation sinv = new SuiteInvocation(srvId, normalizedBaseBranch, fatBuildCompacted, compactor, paramsFilter);
-
-                    Stream<ITest> tests = fatBuildCompacted.getAllTests();
-                    tests.forEach(
-                        testCompacted -> {
-                            Invocation invocation = TestCompactedV2.toInvocation(testCompacted,
-                                fatBuildCompacted, successStatusStrId);
-
-                            sinv.addTest(testCompacted.testName(), invocation);
-                        }
-                    );
+                    SuiteInvocation sinv = toSuiteInvocation(srvId, normalizedBaseBranch, fatBuildCompacted,
+                        filteringParameters, successStatusStrId);
 
                     suiteRunHist.put(fatBuildCompacted.id(), sinv);
                 });
@@ -317,6 +386,35 @@ public class HistoryCollector {
         return suiteRunHist;
     }
 
+    /**
+     * @param srvId Server id.
+     * @param normalizedBaseBranch Normalized base branch.
+     * @param build Fat build.
+     * @param filteringParameters Filtering parameters to be saved with suite invocation.
+     * @param successStatusStrId Success status string id.
+     */
+    @Nonnull
+    private SuiteInvocation toSuiteInvocation(int srvId,
+        int normalizedBaseBranch,
+        FatBuildCompacted build,
+        Set<Integer> filteringParameters,
+        int successStatusStrId) {
+        BiPredicate<Integer, Integer> paramsFilter = (k, v) -> filteringParameters.contains(k);
+
+        SuiteInvocation sinv = new SuiteInvocation(srvId, normalizedBaseBranch, build, compactor, paramsFilter);
+
+        Stream<ITest> tests = build.getAllTests();
+        tests.forEach(
+            testCompacted -> {
+                Invocation invocation = TestCompactedV2.toInvocation(testCompacted, build, successStatusStrId);
+
+                sinv.addTest(testCompacted.testName(), invocation);
+            }
+        );
+
+        return sinv;
+    }
+
     /**
      * @param srvCode Server code.
      * @param buildTypeId Build type id.
@@ -380,8 +478,7 @@ public class HistoryCollector {
                             return stateQueued != state;
                         }));
 
-        int cnt = 0;
-        List<Long> idsToCheck = new ArrayList<>();
+        Map<Integer, GridIntList> candidates = new HashMap<>();
 
         try (QueryCursor<Cache.Entry<Long, BinaryObject>> cursor = query) {
             for (Cache.Entry<Long, BinaryObject> next : cursor) {
@@ -390,22 +487,31 @@ public class HistoryCollector {
 
                 int buildId = BuildRefDao.cacheKeyToBuildId(key);
 
-                Integer borderBuildId = buildStartTimeStorage.getBorderForAgeForBuildId(srvId, days);
+                // Builds older than border were already skipped by scan query filter.
+                candidates.computeIfAbsent(srvId, k -> new GridIntList()).add(buildId);
+            }
+        }
+
+        int cnt = 0;
+        List<Long> idsToCheck = new ArrayList<>();
 
-                boolean passesDate = borderBuildId == null || buildId >= borderBuildId;
+        for (Map.Entry<Integer, GridIntList> entry : candidates.entrySet()) {
+            int srvId = entry.getKey();
+            int[] buildIds = entry.getValue().array();
+            long[] startTimes = getBuildsStartTime(srvId, buildIds);
 
-                if (!passesDate)
-                    continue;
+            for (int i = 0; i < buildIds.length; i++) {
+                long startTs = startTimes[i];
 
-                Long startTs = getBuildStartTime(srvId, buildId);
-                if (startTs == null || startTs < minTs)
-                    continue; //time not saved in the DB, skip
+                if (startTs < minTs)
+                    continue; //time not saved in the DB or build is too old, skip
 
-                System.err.println("Found build at srv [" + srvId + "]: [" + buildId + "] to analyze, ts=" + startTs);
+                System.err.println("Found build at srv [" + srvId + "]: [" + buildIds[i] + "] to analyze," +
+                    " ts=" + startTs);
 
                 cnt++;
 
-                idsToCheck.add(key);
+                idsToCheck.add(BuildRefDao.buildIdToCacheKey(srvId, buildIds[i]));
             }
         }
 
@@ -18,7 +18,6 @@
 package org.apache.ignite.tcignited.history;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -125,10 +124,23 @@ public class InvocationData {
         return Collections.unmodifiableList(invocationList);
     }
 
+    /**
+     * @param idx Index. Called for each position during history scans, so check does not box arguments.
+     */
     public Invocation getInvocationAt(int idx) {
         int size = invocationList.size();
-        Preconditions.checkState(idx < size,
-            "Requested invocation outside suite history [" + idx + "] size [" + size + "]");
+
+        if (idx >= size)
+            throw new IllegalStateException("Requested invocation outside suite history [" + idx + "] size ["
+                + size + "]");
+
         return invocationList.get(idx);
     }
+
+    /**
+     * @return Invocations count.
+     */
+    public int size() {
+        return invocationList.size();
+    }
 }
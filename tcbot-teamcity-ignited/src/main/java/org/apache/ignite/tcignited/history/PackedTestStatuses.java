@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ignite.tcignited.history;
+
+import java.util.Arrays;
+
+/**
+ * Test statuses of all suite invocations packed into one slab: one row per test, one column per build. Row of a test is
+ * located using primitive open addressing map: test name (compactor ID) -> row index, so no boxed keys and no per-test
+ * arrays are created.
+ *
+ * Each status ({@link RunStatus} code) takes 4 bits, 16 statuses per word. Rows are word aligned, unused tail of the
+ * last word of a row is filled with {@link #PADDING}. Run, failure and critical failure counts are computed for all
+ * rows in one pass using word-at-a-time popcount when statuses are {@link #seal() sealed}.
+ */
+class PackedTestStatuses {
+    /** Free slot marker for rows table. */
+    private static final int FREE = -1;
+
+    /** Minimal capacity of the open addressing table. */
+    private static final int MIN_CAPACITY = 16;
+
+    /** Bits per status. */
+    private static final int BITS = 4;
+
+    /** Statuses per word. */
+    private static final int PER_WORD = Long.SIZE / BITS;
+
+    /** Status mask. */
+    private static final long MASK = (1L << BITS) - 1;
+
+    /** Lowest bit of each status in a word, multiplied by code gives code broadcasted to all positions. */
+    private static final long LOW_BITS = 0x1111111111111111L;
+
+    /** Code for unused positions, never matches a {@link RunStatus} code. */
+    private static final int PADDING = (int)MASK;
+
+    /** Aggregates per row: runs, failures, critical failures. */
+    private static final int AGGREGATES = 3;
+
+    /** Columns count: builds count in history. */
+    private final int buildsCnt;
+
+    /** Words per row. */
+    private final int wordsPerRow;
+
+    /** Open addressing table: test names. */
+    private int[] keys;
+
+    /** Open addressing table: row index for test, {@link #FREE} for empty slot. */
+    private int[] rows;
+
+    /** Rows count. */
+    private int size;
+
+    /** Statuses slab, row {@code r} starts at word {@code r * wordsPerRow}. */
+    private long[] slab;
+
+    /** Aggregates for rows, filled by {@link #seal()}. */
+    private int[] aggregates;
+
+    /**
+     * @param buildsCnt Builds count.
+     * @param expectedTests Expected tests count.
+     */
+    PackedTestStatuses(int buildsCnt, int expectedTests) {
+        this.buildsCnt = buildsCnt;
+        this.wordsPerRow = wordsForRow(buildsCnt);
+
+        int cap = tableCapacity(expectedTests);
+
+        keys = new int[cap];
+        rows = new int[cap];
+        Arrays.fill(rows, FREE);
+
+        slab = new long[expectedTests * wordsPerRow];
+    }
+
+    /**
+     * @param buildsCnt Builds count.
+     * @param keys Keys.
+     * @param rows Rows.
+     * @param size Size.
+     */
+    private PackedTestStatuses(int buildsCnt, int[] keys, int[] rows, int size) {
+        this.buildsCnt = buildsCnt;
+        this.wordsPerRow = wordsForRow(buildsCnt);
+        this.keys = keys;
+        this.rows = rows;
+        this.size = size;
+        this.slab = new long[size * wordsPerRow];
+    }
+
+    /**
+     * @param buildsCnt Builds count.
+     */
+    private static int wordsForRow(int buildsCnt) {
+        return (buildsCnt + PER_WORD - 1) / PER_WORD;
+    }
+
+    /**
+     * @param expected Expected elements count.
+     */
+    private static int tableCapacity(int expected) {
+        int cap = MIN_CAPACITY;
+
+        while (cap * 3L / 4 <= expected)
+            cap <<= 1;
+
+        return cap;
+    }
+
+    /**
+     * @param key Key.
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param testName Test name.
+     * @return Slot for test in the table: either occupied by this test or free.
+     */
+    private int slot(int testName) {
+        int mask = keys.length - 1;
+        int idx = mix(testName) & mask;
+
+        while (rows[idx] != FREE && keys[idx] != testName)
+            idx = (idx + 1) & mask;
+
+        return idx;
+    }
+
+    /**
+     * @param testName Test name.
+     * @return Row index or negative value if test is not present.
+     */
+    int row(int testName) {
+        return rows[slot(testName)];
+    }
+
+    /**
+     * @param testName Test name.
+     * @param fill Status to fill row with if it is created.
+     * @return Row index.
+     */
+    int getOrAddRow(int testName, byte fill) {
+        int idx = slot(testName);
+
+        if (rows[idx] != FREE)
+            return rows[idx];
+
+        if ((size + 1) * 4L > keys.length * 3L) {
+            rehash(keys.length << 1);
+
+            idx = slot(testName);
+        }
+
+        int row = size;
+        int off = row * wordsPerRow;
+
+        if (off + wordsPerRow > slab.length)
+            slab = Arrays.copyOf(slab, Math.max(slab.length * 2, off + wordsPerRow));
+
+        fillRow(row, fill);
+
+        keys[idx] = testName;
+        rows[idx] = row;
+        size++;
+
+        return row;
+    }
+
+    /**
+     * @param newCap New table capacity.
+     */
+    private void rehash(int newCap) {
+        int[] oldKeys = keys;
+        int[] oldRows = rows;
+
+        keys = new int[newCap];
+        rows = new int[newCap];
+        Arrays.fill(rows, FREE);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldRows[i] == FREE)
+                continue;
+
+            int idx = slot(oldKeys[i]);
+
+            keys[idx] = oldKeys[i];
+            rows[idx] = oldRows[i];
+        }
+    }
+
+    /**
+     * Fills all statuses of the row with provided code, unused tail is filled with padding.
+     *
+     * @param row Row index.
+     * @param code Status code.
+     */
+    private void fillRow(int row, int code) {
+        int off = row * wordsPerRow;
+
+        Arrays.fill(slab, off, off + wordsPerRow, LOW_BITS * code);
+
+        int tail = buildsCnt % PER_WORD;
+
+        if (tail != 0) {
+            long lowMask = (1L << (tail * BITS)) - 1;
+
+            slab[off + wordsPerRow - 1] = (LOW_BITS * code & lowMask) | (LOW_BITS * PADDING & ~lowMask);
+        }
+    }
+
+    /**
+     * @param row Row index.
+     * @param col Column (build) index.
+     * @param status Status code.
+     */
+    void set(int row, int col, byte status) {
+        assert status >= 0 && status < PADDING : status;
+
+        int wordIdx = row * wordsPerRow + col / PER_WORD;
+        int shift = (col % PER_WORD) * BITS;
+
+        slab[wordIdx] = (slab[wordIdx] & ~(MASK << shift)) | ((long)status << shift);
+    }
+
+    /**
+     * @param row Row index.
+     * @param col Column (build) index.
+     * @return Status code.
+     */
+    byte get(int row, int col) {
+        long word = slab[row * wordsPerRow + col / PER_WORD];
+
+        return (byte)((word >>> ((col % PER_WORD) * BITS)) & MASK);
+    }
+
+    /**
+     * @return Builds (columns) count.
+     */
+    int buildsCount() {
+        return buildsCnt;
+    }
+
+    /**
+     * @return Tests (rows) count.
+     */
+    int testsCount() {
+        return size;
+    }
+
+    /**
+     * @param row Row index.
+     * @return Runs count: statuses excluding missing, muted and ignored.
+     */
+    int runs(int row) {
+        return aggregates[row * AGGREGATES];
+    }
+
+    /**
+     * @param row Row index.
+     * @return Failures count including critical failures.
+     */
+    int failures(int row) {
+        return aggregates[row * AGGREGATES + 1];
+    }
+
+    /**
+     * @param row Row index.
+     * @return Critical failures count.
+     */
+    int criticalFailures(int row) {
+        return aggregates[row * AGGREGATES + 2];
+    }
+
+    /**
+     * Releases slab space reserved for rows not created and calculates aggregates for all rows. Should be called after
+     * all modifications, sealed instance is not modified anymore and may be shared between threads.
+     */
+    void seal() {
+        int len = size * wordsPerRow;
+
+        if (slab.length > len)
+            slab = Arrays.copyOf(slab, len);
+
+        int[] aggr = new int[size * AGGREGATES];
+
+        for (int r = 0; r < size; r++) {
+            int failure = 0;
+            int critical = 0;
+            int notRun = 0;
+
+            for (int w = r * wordsPerRow, end = w + wordsPerRow; w < end; w++) {
+                long word = slab[w];
+
+                failure += countEqual(word, InvocationData.FAILURE);
+                critical += countEqual(word, InvocationData.CRITICAL_FAILURE);
+                notRun += countEqual(word, InvocationData.MISSING)
+                    + countEqual(word, InvocationData.MUTED)
+                    + countEqual(word, InvocationData.FAILURE_MUTED)
+                    + countEqual(word, InvocationData.OK_MUTED)
+                    + countEqual(word, InvocationData.IGNORED);
+            }
+
+            aggr[r * AGGREGATES] = buildsCnt - notRun;
+            aggr[r * AGGREGATES + 1] = failure + critical;
+            aggr[r * AGGREGATES + 2] = critical;
+        }
+
+        aggregates = aggr;
+    }
+
+    /**
+     * @param word Word with statuses.
+     * @param code Status code.
+     * @return Count of statuses in the word equal to code.
+     */
+    private static int countEqual(long word, int code) {
+        long x = word ^ (LOW_BITS * code); // matching statuses become zero
+
+        long nonZero = (x | (x >>> 1) | (x >>> 2) | (x >>> 3)) & LOW_BITS;
+
+        return PER_WORD - Long.bitCount(nonZero);
+    }
+
+    /**
+     * @param cols Sorted indexes of columns to keep.
+     * @return Statuses containing only provided columns, not sealed.
+     */
+    PackedTestStatuses selectColumns(int[] cols) {
+        PackedTestStatuses res = new PackedTestStatuses(cols.length, keys.clone(), rows.clone(), size);
+
+        for (int r = 0; r < size; r++) {
+            res.fillRow(r, PADDING);
+
+            for (int j = 0; j < cols.length; j++)
+                res.set(r, j, get(r, cols[j]));
+        }
+
+        return res;
+    }
+
+    /**
+     * @param col Index of column to be inserted or replaced.
+     * @param replace Replace existing column, otherwise new column is inserted at provided index.
+     * @param fill Status to fill column with.
+     * @return Copy of statuses with column inserted or replaced, not sealed.
+     */
+    PackedTestStatuses withColumn(int col, boolean replace, byte fill) {
+        int newCnt = replace ? buildsCnt : buildsCnt + 1;
+        PackedTestStatuses res = new PackedTestStatuses(newCnt, keys.clone(), rows.clone(), size);
+
+        for (int r = 0; r < size; r++) {
+            res.fillRow(r, fill);
+
+            for (int j = 0; j < buildsCnt; j++) {
+                if (j == col && replace)
+                    continue;
+
+                res.set(r, j < col || replace ? j : j + 1, get(r, j));
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * @return Approximate heap size used by statuses, aggregates and index, bytes.
+     */
+    long memoryFootprint() {
+        return (long)keys.length * Integer.BYTES
+            + (long)rows.length * Integer.BYTES
+            + (long)slab.length * Long.BYTES
+            + (aggregates == null ? 0 : (long)aggregates.length * Integer.BYTES);
+    }
+}
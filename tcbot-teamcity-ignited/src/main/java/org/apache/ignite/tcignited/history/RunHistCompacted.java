@@ -57,6 +57,26 @@ public class RunHistCompacted extends AbstractRunHist {
         return data.invocationsIterable();
     }
 
+    /** {@inheritDoc} */
+    @Override public int invocationsCount() {
+        return data.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override public byte statusAt(int idx) {
+        return data.getInvocationAt(idx).status();
+    }
+
+    /** {@inheritDoc} */
+    @Override public int buildIdAt(int idx) {
+        return data.getInvocationAt(idx).buildId();
+    }
+
+    /** {@inheritDoc} */
+    @Override public ChangesState changesStateAt(int idx) {
+        return data.getInvocationAt(idx).changesState();
+    }
+
     public Set<Integer> buildIds() {
         return data.buildIdsMapping().keySet();
     }
@@ -19,12 +19,8 @@ package org.apache.ignite.tcignited.history;
 
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -34,71 +30,100 @@ import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
  * Suite run history (in memory) summary with tests grouped by name.
  */
 public class SuiteHistory implements ISuiteRunHistory {
-    /** Tests history: Test name ID->statuses for invocations */
-    private Map<Integer, byte[]> testsInvStatues = new HashMap<>();
+    /** Tests history: Test name ID->statuses for invocations, packed into one slab. */
+    private PackedTestStatuses testsInvStatues;
 
     /** Suite history. */
     private RunHistCompacted suiteHist = new RunHistCompacted();
 
     public SuiteHistory(Map<Integer, SuiteInvocation> suiteRunHist) {
-        //filling data for tests invoked.
-        Map<Integer, RunHistCompacted> testsHist = new HashMap<>();
-
-        suiteRunHist.forEach((buildId, suiteInv) -> addSuiteInvocation(suiteInv, testsHist));
+        suiteRunHist.forEach((buildId, suiteInv) -> suiteHist.addInvocation(suiteInv.suiteInvocation()));
 
         suiteHist.sort();
 
         Map<Integer, Integer> buildIdToIdx = suiteHist.buildIdsMapping();
         int buildsCnt = buildIdToIdx.size();
+        int expectedTests = suiteRunHist.values().stream().mapToInt(inv -> inv.tests().size()).max().orElse(0);
 
-        byte missingCode = (byte)RunStatus.RES_MISSING.getCode();
-        testsHist.forEach((k, testHist) -> {
-            byte[] testStatusesUltraComp = new byte[buildsCnt];
-
-            for (int i = 0; i < testStatusesUltraComp.length; i++)
-                testStatusesUltraComp[i] = missingCode;
+        testsInvStatues = new PackedTestStatuses(buildsCnt, expectedTests);
 
-            testHist.getInvocations().forEach(
-                invocation -> {
-                    int i = invocation.buildId();
-                    Integer idx = buildIdToIdx.get(i);
-                    if (idx == null)
-                        return;
+        //filling data for tests invoked directly into packed statuses.
+        byte missingCode = (byte)RunStatus.RES_MISSING.getCode();
+        suiteRunHist.forEach((buildId, suiteInv) -> {
+            Integer idx = buildIdToIdx.get(suiteInv.suiteInvocation().buildId());
+            if (idx == null)
+                return;
 
-                    Preconditions.checkState(idx < testStatusesUltraComp.length);
+            Preconditions.checkState(idx < buildsCnt);
 
-                    testStatusesUltraComp[idx] = invocation.status();
-                }
-            );
+            suiteInv.tests().forEach((tName, invocation) -> {
+                int row = testsInvStatues.getOrAddRow(tName, missingCode);
 
-            testsInvStatues.put(k, testStatusesUltraComp);
+                testsInvStatues.set(row, idx, invocation.status());
+            });
         });
+
+        testsInvStatues.seal();
     }
 
     private SuiteHistory() {}
 
     /**
-     * @param suiteInv suite invocation (build) to be added to history (summary).
-     * @param testsHist tests map.
+     * Creates copy of this history with provided suite invocation (build) added as a new column, or replacing column
+     * of the same build. Existing rows are copied, so this instance can still be used by concurrent readers.
+     *
+     * @param suiteInv Suite invocation (build) to be added to history.
+     * @return new history instance.
      */
-    private void addSuiteInvocation(SuiteInvocation suiteInv, Map<Integer, RunHistCompacted> testsHist) {
-        suiteInv.tests().forEach(
-            (tName, invocation) -> {
-                testsHist.computeIfAbsent(tName, k_ -> new RunHistCompacted())
-                    .addInvocation(invocation);
-            });
+    public SuiteHistory withSuiteInvocation(SuiteInvocation suiteInv) {
+        Invocation suiteInvocation = suiteInv.suiteInvocation();
+        int buildId = suiteInvocation.buildId();
+
+        List<Invocation> invocations = suiteHist.getInvocations().collect(Collectors.toList());
+
+        int pos = 0;
+        while (pos < invocations.size() && invocations.get(pos).buildId() < buildId)
+            pos++;
+
+        boolean replace = pos < invocations.size() && invocations.get(pos).buildId() == buildId;
+
+        SuiteHistory res = new SuiteHistory();
+
+        for (int i = 0; i < invocations.size(); i++) {
+            if (i == pos)
+                res.suiteHist.addInvocation(suiteInvocation);
+
+            if (i != pos || !replace)
+                res.suiteHist.addInvocation(invocations.get(i));
+        }
+
+        if (pos == invocations.size())
+            res.suiteHist.addInvocation(suiteInvocation);
 
-        suiteHist.addInvocation(suiteInv.suiteInvocation());
+        int colIdx = pos;
+        byte missingCode = (byte)RunStatus.RES_MISSING.getCode();
+
+        res.testsInvStatues = testsInvStatues.withColumn(colIdx, replace, missingCode);
+
+        suiteInv.tests().forEach((tName, testInv) -> {
+            int row = res.testsInvStatues.getOrAddRow(tName, missingCode);
+
+            res.testsInvStatues.set(row, colIdx, testInv.status());
+        });
+
+        res.testsInvStatues.seal();
+
+        return res;
     }
 
     /** {@inheritDoc} */
     @Nullable @Override public IRunHistory getTestRunHist(int testName) {
-        byte[] testInvStatuses = testsInvStatues.get(testName);
+        int row = testsInvStatues.row(testName);
 
-        if(testInvStatuses == null)
+        if (row < 0)
             return null;
 
-        return new TestUltraCompactRunHist(testInvStatuses, suiteHist);
+        return new TestUltraCompactRunHist(testsInvStatues, row, suiteHist);
     }
 
     /** {@inheritDoc} */
@@ -107,126 +132,109 @@ public class SuiteHistory implements ISuiteRunHistory {
 
         Map<Integer, Integer> buildIdToIdx = suiteHist.buildIdsMapping();
 
-        Set<Integer> indexesToKeep = suitesFiltered.buildIds().stream().map(buildIdToIdx::get).collect(Collectors.toSet());
+        int[] indexesToKeep = suitesFiltered.buildIds().stream().mapToInt(buildIdToIdx::get).sorted().toArray();
 
         SuiteHistory res = new SuiteHistory();
 
         res.suiteHist = suitesFiltered;
+        res.testsInvStatues = testsInvStatues.selectColumns(indexesToKeep);
+        res.testsInvStatues.seal();
 
-        testsInvStatues.forEach((tName, invList) -> {
-            byte[] buildsFiltered = new byte[indexesToKeep.size()];
+        return res;
+    }
 
-            int j = 0;
-            for (int i = 0; i < invList.length; i++) {
-                if (!indexesToKeep.contains(i))
-                    continue;
+    @Override public IRunHistory self() {
+        return suiteHist;
+    }
 
-                buildsFiltered[j] = invList[i];
-                j++;
-            }
+    /**
+     * @return Tests count in history.
+     */
+    public int testsCount() {
+        return testsInvStatues.testsCount();
+    }
 
-            res.testsInvStatues.put(tName, buildsFiltered);
-        });
+    /**
+     * @param buildId Build id.
+     * @return {@code true} if build is counted in this history.
+     */
+    public boolean containsBuild(int buildId) {
+        return suiteHist.getInvocations().anyMatch(inv -> inv.buildId() == buildId);
+    }
 
-        return res;
+    /**
+     * @return Builds (suite invocations) count in history.
+     */
+    public int buildsCount() {
+        return testsInvStatues.buildsCount();
     }
-    @Override public IRunHistory self() {
-        return suiteHist;
+
+    /**
+     * @return Approximate heap size of tests statuses, bytes.
+     */
+    public long testStatusesFootprint() {
+        return testsInvStatues.memoryFootprint();
     }
 
     private static class TestUltraCompactRunHist extends AbstractRunHist {
-        @Nonnull private final byte[] testInvStatuses;
+        /** Packed statuses shared between all tests of the suite. */
+        @Nonnull private final PackedTestStatuses statuses;
+        /** Row of the test. */
+        private final int row;
         @Nonnull private final RunHistCompacted suiteHist;
 
-        public TestUltraCompactRunHist(@Nonnull byte[] testInvStatuses, @Nonnull RunHistCompacted suiteHist) {
-            this.testInvStatuses = testInvStatuses;
+        public TestUltraCompactRunHist(@Nonnull PackedTestStatuses statuses, int row,
+            @Nonnull RunHistCompacted suiteHist) {
+            this.statuses = statuses;
+            this.row = row;
             this.suiteHist = suiteHist;
 
-            Preconditions.checkState(testInvStatuses.length == suiteHist.getInvocations().count());
+            Preconditions.checkState(statuses.buildsCount() == suiteHist.invocationsCount());
         }
 
         /** {@inheritDoc} */
         @Nullable @Override public List<Integer> getLatestRunResults() {
-            List<Integer> res = new ArrayList<>();
-            for (int i = 0; i < testInvStatuses.length; i++)
-                res.add((int)testInvStatuses[i]);
+            int len = statuses.buildsCount();
+            List<Integer> res = new ArrayList<>(len);
+            for (int i = 0; i < len; i++)
+                res.add((int)statuses.get(row, i));
 
             return res;
         }
 
         /** {@inheritDoc} */
         @Override public int getCriticalFailuresCount() {
-            int res = 0;
-            for (int i = 0; i < testInvStatuses.length; i++) {
-                if (testInvStatuses[i] == InvocationData.CRITICAL_FAILURE)
-                    res++;
-            }
-
-            return res;
+            return statuses.criticalFailures(row);
         }
 
         /** {@inheritDoc} */
         @Override public int getRunsCount() {
-            int res = 0;
-            for (int i = 0; i < testInvStatuses.length; i++) {
-                byte status = testInvStatuses[i];
-                if (status != InvocationData.MISSING && !Invocation.isMutedOrIgnored(status))
-                    res++;
-            }
-
-            return res;
+            return statuses.runs(row);
         }
 
         /** {@inheritDoc} */
         @Override public int getFailuresCount() {
-            int res = 0;
-            for (int i = 0; i < testInvStatuses.length; i++) {
-                byte status = testInvStatuses[i];
-                if (status == InvocationData.FAILURE || status == InvocationData.CRITICAL_FAILURE)
-                    res++;
-            }
-
-            return res;
+            return statuses.failures(row);
         }
 
         /** {@inheritDoc} */
-        @Override public Iterable<Invocation> invocations() {
-            return () -> new TestUltraCompactRunHistIterator(testInvStatuses, suiteHist);
+        @Override public int invocationsCount() {
+            return statuses.buildsCount();
         }
-    }
-
-
-    private static class TestUltraCompactRunHistIterator implements Iterator<Invocation> {
-        /** Cur index: index of element to be returned in case next is called now. */
-        private int curIdx = 0;
-        @Nonnull private final byte[] testInvStatuses;
-        @Nonnull private final RunHistCompacted suiteHist;
 
-        public TestUltraCompactRunHistIterator(@Nonnull byte[] testInvStatuses,
-            @Nonnull RunHistCompacted suiteHist) {
-            this.testInvStatuses = testInvStatuses;
-            this.suiteHist = suiteHist;
+        /** {@inheritDoc} */
+        @Override public byte statusAt(int idx) {
+            return statuses.get(row, idx);
         }
 
         /** {@inheritDoc} */
-        @Override public boolean hasNext() {
-            return curIdx < testInvStatuses.length;
+        @Override public int buildIdAt(int idx) {
+            return suiteHist.buildIdAt(idx);
         }
 
         /** {@inheritDoc} */
-        @Override public Invocation next() {
-            if (!hasNext())
-                throw new NoSuchElementException();
-
-            Invocation suiteInv = suiteHist.getInvocationAt(curIdx);
-
-            Invocation invocation = new Invocation(suiteInv.buildId())
-                .withChangeState(suiteInv.changesState())
-                .withStatus(testInvStatuses[curIdx]);
-
-            curIdx++;
-
-            return invocation;
+        @Override public ChangesState changesStateAt(int idx) {
+            return suiteHist.changesStateAt(idx);
         }
     }
 }
@@ -91,4 +91,14 @@ public class SuiteInvocationHistoryDao {
 
         suiteHist.putAll(data);
     }
+
+    /**
+     * @param srvId Server id.
+     * @param buildId Build id.
+     * @param inv Suite invocation.
+     */
+    @AutoProfiling
+    public void put(int srvId, int buildId, SuiteInvocation inv) {
+        suiteHist.put(BuildRefDao.buildIdToCacheKey(srvId, buildId), inv);
+    }
 }
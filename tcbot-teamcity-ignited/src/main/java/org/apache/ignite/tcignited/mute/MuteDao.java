@@ -18,10 +18,14 @@
 package org.apache.ignite.tcignited.mute;
 
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.cache.Cache;
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -30,6 +34,8 @@ import org.apache.ignite.IgniteCache;
 import org.apache.ignite.ci.teamcity.ignited.mute.MuteInfoCompacted;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
 import org.apache.ignite.tcbot.persistence.CacheConfigs;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
+import org.apache.ignite.tcignited.event.MutesChangedEvent;
 import org.apache.ignite.tcservice.model.mute.MuteInfo;
 import org.apache.ignite.tcbot.persistence.IStringCompactor;
 import org.apache.ignite.internal.util.typedef.F;
@@ -51,11 +57,20 @@ public class MuteDao {
     /** Compactor. */
     @Inject private IStringCompactor compactor;
 
+    /** Change events bus. */
+    @Inject private TcEventBus eventBus;
+
+    /** Mutes in memory: server ID -> compacted mutes. Entry is dropped when mutes of server are reloaded from TC. */
+    private final ConcurrentMap<Integer, List<MuteInfoCompacted>> mutesInMem = new ConcurrentHashMap<>();
+
     /**
      *
      */
     public void init() {
         muteCache = igniteProvider.get().getOrCreateCache(CacheConfigs.getCacheV2Config(TEAMCITY_MUTE_CACHE_NAME));
+
+        eventBus.subscribe(MutesChangedEvent.class, MuteDao.class.getSimpleName(),
+            evt -> mutesInMem.remove(evt.srvId()));
     }
 
     /**
@@ -65,13 +80,27 @@ public class MuteDao {
     @AutoProfiling
     public SortedSet<MuteInfo> getMutes(int srvIdMaskHigh) {
         Preconditions.checkNotNull(muteCache, "init() was not called");
-        long srvId = (long) srvIdMaskHigh << 32;
 
         TreeSet<MuteInfo> res = new TreeSet<>();
 
+        for (MuteInfoCompacted mute : mutesInMem.computeIfAbsent(srvIdMaskHigh, this::loadMutes))
+            res.add(mute.toMuteInfo(compactor));
+
+        return res;
+    }
+
+    /**
+     * @param srvIdMaskHigh Server id mask high.
+     * @return Persisted mutes of server.
+     */
+    private List<MuteInfoCompacted> loadMutes(int srvIdMaskHigh) {
+        long srvId = (long) srvIdMaskHigh << 32;
+
+        List<MuteInfoCompacted> res = new ArrayList<>();
+
         for (Cache.Entry<Long, MuteInfoCompacted> entry : muteCache) {
             if ((entry.getKey() & srvId) == srvId)
-                res.add(entry.getValue().toMuteInfo(compactor));
+                res.add(entry.getValue());
         }
 
         return res;
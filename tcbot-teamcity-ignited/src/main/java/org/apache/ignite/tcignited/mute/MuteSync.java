@@ -23,7 +23,9 @@ import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
 
 import org.apache.ignite.tcbot.common.interceptor.MonitoredTask;
+import org.apache.ignite.tcbot.persistence.event.TcEventBus;
 import org.apache.ignite.tcbot.persistence.scheduler.IScheduler;
+import org.apache.ignite.tcignited.event.MutesChangedEvent;
 import org.apache.ignite.tcservice.model.mute.MuteInfo;
 import org.apache.ignite.tcservice.ITeamcityConn;
 import org.apache.ignite.internal.util.typedef.F;
@@ -38,6 +40,9 @@ public class MuteSync {
     /** Mute DAO. */
     @Inject private MuteDao muteDao;
 
+    /** Change events bus. */
+    @Inject private TcEventBus eventBus;
+
     /**
      * Start named task to refresh mutes for given project.
      */
@@ -86,6 +91,8 @@ public class MuteSync {
 
         mutesDeleted += muteDao.removeAllAfter(srvIdMaskHigh, lastId);
 
+        eventBus.publish(new MutesChangedEvent(srvIdMaskHigh));
+
         return "Mutes saved " + mutesSaved + ", removed " + mutesDeleted + " for " + projectId;
     }
 
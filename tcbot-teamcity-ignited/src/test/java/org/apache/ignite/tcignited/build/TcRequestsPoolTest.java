@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.build;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.apache.ignite.tcignited.build.TcRequestsPool.MAX_PARALLEL_REQUESTS_PER_SRV;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks per server budget of TC requests pool.
+ */
+public class TcRequestsPoolTest {
+    /** Server code. */
+    private static final String SRV = "apache";
+
+    /** Pool. */
+    private final TcRequestsPool pool = new TcRequestsPool();
+
+    /** Requests being executed. */
+    private final AtomicInteger running = new AtomicInteger();
+
+    /** Max requests executed in parallel. */
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    /** */
+    @After
+    public void tearDown() {
+        pool.stop();
+    }
+
+    /** */
+    @Test
+    public void testServerBudgetIsRespected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> futs = new ArrayList<>();
+
+        for (int i = 0; i < 3 * MAX_PARALLEL_REQUESTS_PER_SRV; i++)
+            futs.add(submitBlocked(SRV, release, i));
+
+        waitRunning(MAX_PARALLEL_REQUESTS_PER_SRV);
+
+        // Give executor a chance to start requests over budget.
+        Thread.sleep(100);
+
+        assertEquals(MAX_PARALLEL_REQUESTS_PER_SRV, running.get());
+
+        release.countDown();
+
+        for (int i = 0; i < futs.size(); i++)
+            assertEquals(i, (int)futs.get(i).get(10, TimeUnit.SECONDS));
+
+        assertEquals(MAX_PARALLEL_REQUESTS_PER_SRV, maxRunning.get());
+    }
+
+    /** */
+    @Test
+    public void testServersHaveSeparateBudgets() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < MAX_PARALLEL_REQUESTS_PER_SRV; i++)
+            submitBlocked(SRV, release, i);
+
+        waitRunning(MAX_PARALLEL_REQUESTS_PER_SRV);
+
+        assertEquals("other", pool.submit("other", () -> "other").get(10, TimeUnit.SECONDS));
+
+        release.countDown();
+    }
+
+    /** */
+    @Test
+    public void testQueuedRequestIsHandedOffWhenSlotFrees() throws Exception {
+        List<CountDownLatch> releases = new ArrayList<>();
+
+        for (int i = 0; i < MAX_PARALLEL_REQUESTS_PER_SRV; i++) {
+            CountDownLatch release = new CountDownLatch(1);
+
+            releases.add(release);
+
+            submitBlocked(SRV, release, i);
+        }
+
+        waitRunning(MAX_PARALLEL_REQUESTS_PER_SRV);
+
+        CompletableFuture<String> queued = pool.submit(SRV, () -> "queued");
+
+        Thread.sleep(100);
+
+        assertFalse(queued.isDone());
+
+        releases.get(0).countDown();
+
+        assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+
+        releases.forEach(CountDownLatch::countDown);
+    }
+
+    /** */
+    @Test
+    public void testFailedRequestReleasesBudget() throws Exception {
+        IllegalStateException err = new IllegalStateException("Test failure");
+        List<CompletableFuture<Object>> failed = new ArrayList<>();
+
+        for (int i = 0; i < 2 * MAX_PARALLEL_REQUESTS_PER_SRV; i++) {
+            failed.add(pool.submit(SRV, () -> {
+                throw err;
+            }));
+        }
+
+        for (CompletableFuture<Object> fut : failed) {
+            try {
+                TcRequestsPool.get(fut);
+
+                fail();
+            }
+            catch (IllegalStateException e) {
+                assertSame(err, e);
+            }
+        }
+
+        assertFullBudgetAvailable();
+    }
+
+    /** */
+    @Test
+    public void testQueuedRequestsAreRejectedAfterStop() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < MAX_PARALLEL_REQUESTS_PER_SRV; i++)
+            submitBlocked(SRV, release, i);
+
+        waitRunning(MAX_PARALLEL_REQUESTS_PER_SRV);
+
+        CompletableFuture<String> queued1 = pool.submit(SRV, () -> "queued1");
+        CompletableFuture<String> queued2 = pool.submit(SRV, () -> "queued2");
+
+        Thread stopper = new Thread(pool::stop);
+
+        stopper.start();
+
+        // Stopper waits for termination after executor shutdown.
+        while (stopper.getState() != Thread.State.TIMED_WAITING)
+            Thread.sleep(10);
+
+        release.countDown();
+
+        assertRejected(queued1);
+        assertRejected(queued2);
+        assertRejected(pool.submit(SRV, () -> "afterStop"));
+
+        stopper.join(10_000);
+    }
+
+    /**
+     * @param srv Server code.
+     * @param release Latch to complete request.
+     * @param res Request result.
+     */
+    private CompletableFuture<Integer> submitBlocked(String srv, CountDownLatch release, int res) {
+        return pool.submit(srv, () -> {
+            int cnt = running.incrementAndGet();
+
+            maxRunning.accumulateAndGet(cnt, Math::max);
+
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            }
+            catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            finally {
+                running.decrementAndGet();
+            }
+
+            return res;
+        });
+    }
+
+    /**
+     * @param cnt Count of requests expected to be executed.
+     */
+    private void waitRunning(int cnt) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+
+        while (running.get() < cnt) {
+            assertTrue(System.currentTimeMillis() < deadline);
+
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Checks that all requests of server budget are started in parallel.
+     */
+    private void assertFullBudgetAvailable() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> futs = new ArrayList<>();
+
+        for (int i = 0; i < MAX_PARALLEL_REQUESTS_PER_SRV; i++)
+            futs.add(submitBlocked(SRV, release, i));
+
+        waitRunning(MAX_PARALLEL_REQUESTS_PER_SRV);
+
+        release.countDown();
+
+        for (CompletableFuture<Integer> fut : futs)
+            fut.get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param fut Future.
+     */
+    private static void assertRejected(CompletableFuture<?> fut) throws Exception {
+        try {
+            fut.get(10, TimeUnit.SECONDS);
+
+            fail();
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
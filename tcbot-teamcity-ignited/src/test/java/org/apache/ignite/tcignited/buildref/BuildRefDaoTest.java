@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.buildref;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.ci.teamcity.ignited.BuildRefCompacted;
+import org.apache.ignite.ci.teamcity.ignited.runhist.RunHistKey;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.InMemoryStringCompactor;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks reads of recent builds of suite in branch through the index.
+ */
+public class BuildRefDaoTest {
+    /** Server id. */
+    private static final int SRV_ID = 1;
+
+    /** Suite. */
+    private static final int SUITE = 10;
+
+    /** Branch. */
+    private static final int BRANCH = 20;
+
+    /** Other branch. */
+    private static final int OTHER_BRANCH = 21;
+
+    /** Build references: cache key -> reference. */
+    private final Map<Long, BuildRefCompacted> refs = new HashMap<>();
+
+    /** Suite in branch index. */
+    private final Map<RunHistKey, int[]> idx = new HashMap<>();
+
+    /** Cache keys of loaded build references. */
+    private final List<Long> loadedKeys = new ArrayList<>();
+
+    /** Dao. */
+    private BuildRefDao dao;
+
+    /** */
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        IgniteCache<Long, BuildRefCompacted> refsCache = mock(IgniteCache.class);
+        IgniteCache<RunHistKey, int[]> idxCache = mock(IgniteCache.class);
+
+        when(refsCache.getAll(anySet())).thenAnswer(inv -> {
+            Set<Long> keys = inv.getArgument(0);
+
+            loadedKeys.addAll(keys);
+
+            return keys.stream().filter(refs::containsKey).collect(Collectors.toMap(k -> k, refs::get));
+        });
+
+        when(idxCache.getAll(anySet())).thenAnswer(inv -> {
+            Set<RunHistKey> keys = inv.getArgument(0);
+
+            return keys.stream().filter(idx::containsKey).collect(Collectors.toMap(k -> k, idx::get));
+        });
+
+        Ignite ignite = mock(Ignite.class);
+
+        when(ignite.getOrCreateCache(any(CacheConfiguration.class))).thenAnswer(inv -> {
+            CacheConfiguration cfg = inv.getArgument(0);
+
+            return BuildRefDao.TEAMCITY_BUILD_CACHE_NAME.equals(cfg.getName()) ? refsCache : idxCache;
+        });
+
+        dao = Guice.createInjector(new AbstractModule() {
+            @Override protected void configure() {
+                bind(Ignite.class).toInstance(ignite);
+                bind(IStringCompactor.class).toInstance(new InMemoryStringCompactor());
+            }
+        }).getInstance(BuildRefDao.class).init();
+    }
+
+    /** */
+    @Test
+    public void testOnlyFirstChunkIsLoadedForLimit() {
+        addBuilds(BRANCH, 1, 1000);
+
+        List<BuildRefCompacted> res = recent(null, null, 5, BRANCH);
+
+        assertEquals(Arrays.asList(1000, 999, 998, 997, 996), ids(res));
+        assertEquals(16, loadedKeys.size());
+    }
+
+    /** */
+    @Test
+    public void testBuildsOutOfBoundAreNotLoaded() {
+        addBuilds(BRANCH, 1, 1000);
+
+        List<BuildRefCompacted> res = recent(995, null, 100, BRANCH);
+
+        assertEquals(Arrays.asList(1000, 999, 998, 997, 996), ids(res));
+
+        for (Long key : loadedKeys)
+            assertTrue(BuildRefDao.cacheKeyToBuildId(key) > 995);
+    }
+
+    /** */
+    @Test
+    public void testFilteredBuildsAreLoadedByChunks() {
+        addBuilds(BRANCH, 1, 1000);
+
+        List<BuildRefCompacted> res = recent(null, ref -> ref.id() % 20 == 0, 3, BRANCH);
+
+        assertEquals(Arrays.asList(1000, 980, 960), ids(res));
+
+        // Chunks [985, 1000], [969, 984], [953, 968].
+        assertEquals(48, loadedKeys.size());
+    }
+
+    /** */
+    @Test
+    public void testBranchesAreMergedWithoutDuplicates() {
+        addBuilds(BRANCH, 1, 10);
+        addIdx(OTHER_BRANCH, 15, 12, 10, 7);
+
+        for (int id : new int[] {15, 12})
+            addRef(id, OTHER_BRANCH);
+
+        List<BuildRefCompacted> res = recent(null, null, 100, BRANCH, OTHER_BRANCH);
+
+        assertEquals(Arrays.asList(15, 12, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1), ids(res));
+    }
+
+    /** */
+    @Test
+    public void testStaleIndexEntriesAreSkipped() {
+        addBuilds(BRANCH, 1, 10);
+
+        // Build 11 was moved to other branch, build 12 was removed, but index was not updated yet.
+        addIdx(BRANCH, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1);
+        addRef(11, OTHER_BRANCH);
+
+        List<BuildRefCompacted> res = recent(null, null, 2, BRANCH);
+
+        assertEquals(Arrays.asList(10, 9), ids(res));
+    }
+
+    /**
+     * Adds builds of suite in branch with IDs in range, and their index entry.
+     *
+     * @param branch Branch.
+     * @param from First build ID.
+     * @param to Last build ID.
+     */
+    private void addBuilds(int branch, int from, int to) {
+        int[] ids = new int[to - from + 1];
+
+        for (int id = to; id >= from; id--) {
+            addRef(id, branch);
+
+            ids[to - id] = id;
+        }
+
+        addIdx(branch, ids);
+    }
+
+    /**
+     * @param id Build ID.
+     * @param branch Branch.
+     */
+    private void addRef(int id, int branch) {
+        BuildRefCompacted ref = new BuildRefCompacted().withId(id).buildTypeId(SUITE).branchName(branch);
+
+        refs.put(BuildRefDao.buildIdToCacheKey(SRV_ID, id), ref);
+    }
+
+    /**
+     * @param branch Branch.
+     * @param ids Build IDs sorted descending.
+     */
+    private void addIdx(int branch, int... ids) {
+        idx.put(new RunHistKey(SRV_ID, SUITE, branch), ids);
+    }
+
+    /**
+     * @param minBuildId Min build ID.
+     * @param filter Filter.
+     * @param limit Limit.
+     * @param branches Branches.
+     */
+    private List<BuildRefCompacted> recent(Integer minBuildId, Predicate<BuildRefCompacted> filter, int limit,
+        Integer... branches) {
+        Collection<Integer> branchIds = new HashSet<>(Arrays.asList(branches));
+
+        return dao.getRecentBuildsCompacted(SRV_ID, SUITE, branchIds, minBuildId, filter, limit);
+    }
+
+    /**
+     * @param refs Build references.
+     */
+    private static List<Integer> ids(List<BuildRefCompacted> refs) {
+        return refs.stream().map(BuildRefCompacted::id).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.buildref;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks ranges of parallel reindex.
+ */
+public class BuildRefRangesTest {
+    /** */
+    @Test
+    public void testLocators() {
+        BuildRefRanges ranges = new BuildRefRanges(new int[] {300, 200, 100});
+
+        assertEquals(3, ranges.size());
+        assertEquals("sinceBuild:(id:200),untilBuild:(id:300)", ranges.locator(0));
+        assertEquals("sinceBuild:(id:100),untilBuild:(id:200)", ranges.locator(1));
+        assertEquals("untilBuild:(id:100)", ranges.locator(2));
+    }
+
+    /** */
+    @Test
+    public void testSingleRange() {
+        BuildRefRanges ranges = new BuildRefRanges(new int[] {42});
+
+        assertEquals(1, ranges.size());
+        assertEquals("untilBuild:(id:42)", ranges.locator(0));
+    }
+
+    /** */
+    @Test
+    public void testMarkDone() {
+        BuildRefRanges ranges = new BuildRefRanges(new int[] {300, 200, 100});
+
+        assertEquals(3, ranges.pending());
+
+        ranges.markDone(1);
+        ranges.markDone(1);
+
+        assertFalse(ranges.isDone(0));
+        assertTrue(ranges.isDone(1));
+        assertFalse(ranges.isDone(2));
+        assertEquals(2, ranges.pending());
+
+        ranges.markDone(0);
+        ranges.markDone(2);
+
+        assertEquals(0, ranges.pending());
+    }
+
+    /** */
+    @Test
+    public void testCanResume() {
+        BuildRefRanges ranges = new BuildRefRanges(new int[] {300, 200});
+
+        assertFalse(BuildRefRanges.canResume(null, Long.MAX_VALUE));
+        assertTrue(BuildRefRanges.canResume(ranges, Long.MAX_VALUE));
+
+        // Too old.
+        assertFalse(BuildRefRanges.canResume(ranges, 0));
+
+        ranges.markDone(0);
+
+        assertTrue(BuildRefRanges.canResume(ranges, Long.MAX_VALUE));
+
+        // Nothing to load.
+        ranges.markDone(1);
+
+        assertFalse(BuildRefRanges.canResume(ranges, Long.MAX_VALUE));
+    }
+
+    /** */
+    @Test
+    public void testEmptyRanges() {
+        BuildRefRanges ranges = new BuildRefRanges(new int[0]);
+
+        assertEquals(0, ranges.size());
+        assertEquals(0, ranges.pending());
+        assertFalse(BuildRefRanges.canResume(ranges, Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.buildref;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.ignite.tcignited.ITeamcityIgnited;
+import org.apache.ignite.tcignited.build.ProactiveFatBuildSync;
+import org.apache.ignite.tcignited.build.TcRequestsPool;
+import org.apache.ignite.tcservice.ITeamcityConn;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.ignite.tcignited.buildref.BuildRefSync.RANGE_SIZE;
+import static org.apache.ignite.tcignited.buildref.BuildRefSync.SyncMode.PARALLEL_FULL_REINDEX;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks parallel reindex of build references by ranges.
+ */
+public class BuildRefSyncTest {
+    /** Server code. */
+    private static final String SRV = "apache";
+
+    /** Server id. */
+    private static final int SRV_ID = ITeamcityIgnited.serverIdToInt(SRV);
+
+    /** Builds page size of TC. */
+    private static final int PAGE_SIZE = 4000;
+
+    /** Boundary probe locator. */
+    private static final Pattern PROBE = Pattern.compile(".*locator=defaultFilter:false,start:(\\d+),count:1");
+
+    /** Range locator. */
+    private static final Pattern RANGE
+        = Pattern.compile(".*locator=defaultFilter:false,(?:sinceBuild:\\(id:(\\d+)\\),)?untilBuild:\\(id:(\\d+)\\)");
+
+    /** Build references DAO. */
+    private final BuildRefDao buildRefDao = mock(BuildRefDao.class);
+
+    /** Ranges DAO. */
+    private final BuildRefRangesDao rangesDao = mock(BuildRefRangesDao.class);
+
+    /** Requests pool. */
+    private final TcRequestsPool reqPool = new TcRequestsPool();
+
+    /** IDs of builds saved. */
+    private final Set<Integer> savedIds = ConcurrentHashMap.newKeySet();
+
+    /** Requested URLs. */
+    private final List<String> requested = new CopyOnWriteArrayList<>();
+
+    /** Locator of range failing to load. */
+    private volatile String failingRange;
+
+    /** Last saved ranges. */
+    private volatile BuildRefRanges savedRanges;
+
+    /** Count of builds in TC, IDs are from count down to 1, newest first. */
+    private int buildsCnt;
+
+    /** Sync. */
+    private BuildRefSync sync;
+
+    /** */
+    @Before
+    public void setUp() {
+        when(buildRefDao.saveChunk(anyInt(), anyList())).thenAnswer(inv -> {
+            List<BuildRef> page = inv.getArgument(1);
+
+            page.forEach(ref -> savedIds.add(ref.getId()));
+
+            return Collections.emptySet();
+        });
+
+        doAnswer(inv -> {
+            savedRanges = inv.getArgument(1);
+
+            return null;
+        }).when(rangesDao).save(anyInt(), any(BuildRefRanges.class));
+
+        sync = Guice.createInjector(new AbstractModule() {
+            @Override protected void configure() {
+                bind(BuildRefDao.class).toInstance(buildRefDao);
+                bind(BuildRefRangesDao.class).toInstance(rangesDao);
+                bind(ProactiveFatBuildSync.class).toInstance(mock(ProactiveFatBuildSync.class));
+                bind(TcRequestsPool.class).toInstance(reqPool);
+            }
+        }).getInstance(BuildRefSync.class);
+    }
+
+    /** */
+    @After
+    public void tearDown() {
+        reqPool.stop();
+    }
+
+    /** */
+    @Test
+    public void testBoundariesAndRangesLoad() {
+        buildsCnt = 2 * RANGE_SIZE + 5000;
+
+        String res = sync.runActualizeBuildRefs(SRV, PARALLEL_FULL_REINDEX, null, conn());
+
+        assertEquals("Started reindex of 3 ranges, loaded 3, failed 0", res);
+
+        BuildRefRanges ranges = savedRanges;
+
+        assertNotNull(ranges);
+        assertEquals(3, ranges.size());
+        assertEquals("sinceBuild:(id:15000),untilBuild:(id:25000)", ranges.locator(0));
+        assertEquals("sinceBuild:(id:5000),untilBuild:(id:15000)", ranges.locator(1));
+        assertEquals("untilBuild:(id:5000)", ranges.locator(2));
+        assertEquals(0, ranges.pending());
+
+        assertEquals(allIds(1, buildsCnt), savedIds);
+
+        // One batch of probes, first probe out of history ends probing.
+        assertEquals(TcRequestsPool.MAX_PARALLEL_REQUESTS_PER_SRV, probes());
+
+        verify(rangesDao).remove(SRV_ID);
+    }
+
+    /** */
+    @Test
+    public void testProbingContinuesWhileBoundariesFound() {
+        int boundaries = TcRequestsPool.MAX_PARALLEL_REQUESTS_PER_SRV + 1;
+
+        buildsCnt = (boundaries - 1) * RANGE_SIZE + 1;
+
+        String res = sync.runActualizeBuildRefs(SRV, PARALLEL_FULL_REINDEX, null, conn());
+
+        assertEquals("Started reindex of " + boundaries + " ranges, loaded " + boundaries + ", failed 0", res);
+        assertEquals("untilBuild:(id:1)", savedRanges.locator(boundaries - 1));
+        assertEquals(2 * TcRequestsPool.MAX_PARALLEL_REQUESTS_PER_SRV, probes());
+        assertEquals(allIds(1, buildsCnt), savedIds);
+    }
+
+    /** */
+    @Test
+    public void testResumeLoadsOnlyPendingRanges() {
+        buildsCnt = 2 * RANGE_SIZE + 5000;
+
+        BuildRefRanges ranges = new BuildRefRanges(new int[] {25000, 15000, 5000});
+
+        ranges.markDone(0);
+
+        when(rangesDao.get(SRV_ID)).thenReturn(ranges);
+
+        String res = sync.runActualizeBuildRefs(SRV, PARALLEL_FULL_REINDEX, null, conn());
+
+        assertEquals("Resumed reindex of 3 ranges, loaded 2, failed 0", res);
+        assertEquals(0, probes());
+        assertEquals(allIds(1, 15000), savedIds);
+        assertEquals(0, ranges.pending());
+
+        // Progress is saved after each range.
+        verify(rangesDao, times(2)).save(eq(SRV_ID), any(BuildRefRanges.class));
+        verify(rangesDao).remove(SRV_ID);
+    }
+
+    /** */
+    @Test
+    public void testFailedRangeIsKeptForResume() {
+        buildsCnt = 2 * RANGE_SIZE + 5000;
+        failingRange = "sinceBuild:(id:5000),untilBuild:(id:15000)";
+
+        String res = sync.runActualizeBuildRefs(SRV, PARALLEL_FULL_REINDEX, null, conn());
+
+        assertEquals("Started reindex of 3 ranges, loaded 2, failed 1", res);
+
+        BuildRefRanges ranges = savedRanges;
+
+        assertTrue(ranges.isDone(0));
+        assertFalse(ranges.isDone(1));
+        assertTrue(ranges.isDone(2));
+        assertTrue(BuildRefRanges.canResume(ranges, BuildRefSync.RANGES_MAX_AGE_MS));
+
+        verify(rangesDao, never()).remove(anyInt());
+
+        // Next run loads only the failed range.
+        failingRange = null;
+        savedIds.clear();
+
+        when(rangesDao.get(SRV_ID)).thenReturn(ranges);
+
+        res = sync.runActualizeBuildRefs(SRV, PARALLEL_FULL_REINDEX, null, conn());
+
+        assertEquals("Resumed reindex of 3 ranges, loaded 1, failed 0", res);
+        assertSame(ranges, savedRanges);
+        assertEquals(allIds(5001, 15000), savedIds);
+    }
+
+    /**
+     * @return TC connection returning builds by probe and range locators, paged by {@link #PAGE_SIZE}.
+     */
+    private ITeamcityConn conn() {
+        ITeamcityConn conn = mock(ITeamcityConn.class);
+
+        when(conn.getBuildRefsPage(anyString(), any())).thenAnswer(inv -> {
+            String url = inv.getArgument(0);
+            AtomicReference<String> next = inv.getArgument(1);
+
+            requested.add(url);
+
+            return page(url, next);
+        });
+
+        return conn;
+    }
+
+    /**
+     * @param url Page URL, next pages have offset after '#'.
+     * @param next Next page URL.
+     */
+    private List<BuildRef> page(String url, AtomicReference<String> next) {
+        int hash = url.indexOf('#');
+        String base = hash < 0 ? url : url.substring(0, hash);
+        int offset = hash < 0 ? 0 : Integer.parseInt(url.substring(hash + 1));
+
+        Matcher probe = PROBE.matcher(base);
+
+        if (probe.matches()) {
+            int pos = Integer.parseInt(probe.group(1));
+
+            return pos < buildsCnt ? Collections.singletonList(buildRef(buildsCnt - pos)) : Collections.emptyList();
+        }
+
+        Matcher range = RANGE.matcher(base);
+
+        assertTrue(url, range.matches());
+
+        if (failingRange != null && base.endsWith(failingRange))
+            throw new IllegalStateException("Test failure");
+
+        int since = range.group(1) == null ? 0 : Integer.parseInt(range.group(1));
+        int until = Integer.parseInt(range.group(2));
+
+        List<BuildRef> res = new ArrayList<>();
+
+        for (int id = until - offset; id > since && res.size() < PAGE_SIZE; id--)
+            res.add(buildRef(id));
+
+        if (until - offset - res.size() > since)
+            next.set(base + "#" + (offset + res.size()));
+
+        return res;
+    }
+
+    /**
+     * @return Count of boundary probes requested.
+     */
+    private int probes() {
+        return (int)requested.stream().filter(url -> PROBE.matcher(url).matches()).count();
+    }
+
+    /**
+     * @param id Build ID.
+     */
+    private static BuildRef buildRef(int id) {
+        BuildRef ref = new BuildRef();
+
+        ref.setId(id);
+
+        return ref;
+    }
+
+    /**
+     * @param from First ID.
+     * @param to Last ID.
+     */
+    private static Set<Integer> allIds(int from, int to) {
+        Set<Integer> res = new HashSet<>();
+
+        for (int id = from; id <= to; id++)
+            res.add(id);
+
+        return res;
+    }
+}
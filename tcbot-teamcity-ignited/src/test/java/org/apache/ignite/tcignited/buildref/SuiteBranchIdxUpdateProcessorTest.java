@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.buildref;
+
+import javax.cache.processor.MutableEntry;
+import org.apache.ignite.ci.teamcity.ignited.runhist.RunHistKey;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks updates of suite in branch index entries.
+ */
+public class SuiteBranchIdxUpdateProcessorTest {
+    /** */
+    @Test
+    public void testAddToMissingEntry() {
+        Entry entry = new Entry(null);
+
+        apply(entry, new int[] {5, 1, 3}, new int[0]);
+
+        assertArrayEquals(new int[] {5, 3, 1}, entry.val);
+    }
+
+    /** */
+    @Test
+    public void testMergeKeepsDescendingOrder() {
+        Entry entry = new Entry(new int[] {10, 7, 3});
+
+        apply(entry, new int[] {1, 12, 8, 5}, new int[0]);
+
+        assertArrayEquals(new int[] {12, 10, 8, 7, 5, 3, 1}, entry.val);
+    }
+
+    /** */
+    @Test
+    public void testDuplicatesAreSkipped() {
+        Entry entry = new Entry(new int[] {10, 7, 3});
+
+        apply(entry, new int[] {7, 8, 8, 10, 2}, new int[0]);
+
+        assertArrayEquals(new int[] {10, 8, 7, 3, 2}, entry.val);
+    }
+
+    /** */
+    @Test
+    public void testRemove() {
+        Entry entry = new Entry(new int[] {10, 7, 3});
+
+        apply(entry, new int[] {5}, new int[] {7, 4});
+
+        assertArrayEquals(new int[] {10, 5, 3}, entry.val);
+    }
+
+    /** */
+    @Test
+    public void testRemoveWinsOverAddInOneUpdate() {
+        Entry entry = new Entry(new int[] {10});
+
+        apply(entry, new int[] {5, 7}, new int[] {5});
+
+        assertArrayEquals(new int[] {10, 7}, entry.val);
+    }
+
+    /** */
+    @Test
+    public void testRemoveToEmptyRemovesEntry() {
+        Entry entry = new Entry(new int[] {10, 7});
+
+        apply(entry, new int[0], new int[] {7, 10});
+
+        assertFalse(entry.exists());
+        assertTrue(entry.removed);
+    }
+
+    /** */
+    @Test
+    public void testNoChangesKeepEntry() {
+        int[] val = {10, 7, 3};
+
+        Entry entry = new Entry(val);
+
+        // All added IDs are present, including both ends of the array.
+        apply(entry, new int[] {3, 10, 7}, new int[] {1, 5, 11});
+
+        assertSame(val, entry.val);
+        assertEquals(0, entry.writes);
+    }
+
+    /** */
+    @Test
+    public void testNoChangesForMissingEntry() {
+        Entry entry = new Entry(null);
+
+        apply(entry, new int[0], new int[] {1});
+
+        assertNull(entry.val);
+        assertEquals(0, entry.writes);
+        assertFalse(entry.removed);
+    }
+
+    /** */
+    @Test
+    public void testUpdateIsIdempotent() {
+        Entry entry = new Entry(new int[] {10, 3});
+
+        apply(entry, new int[] {7, 1}, new int[] {3});
+        apply(entry, new int[] {7, 1}, new int[] {3});
+
+        assertArrayEquals(new int[] {10, 7, 1}, entry.val);
+        assertEquals(1, entry.writes);
+    }
+
+    /**
+     * @param entry Entry.
+     * @param add Build IDs to add.
+     * @param rmv Build IDs to remove.
+     */
+    private static void apply(Entry entry, int[] add, int[] rmv) {
+        new SuiteBranchIdxUpdateProcessor(add, rmv).process(entry);
+    }
+
+    /**
+     * Entry kept in memory.
+     */
+    private static class Entry implements MutableEntry<RunHistKey, int[]> {
+        /** Value. */
+        private int[] val;
+
+        /** Count of values set. */
+        private int writes;
+
+        /** Entry was removed. */
+        private boolean removed;
+
+        /**
+         * @param val Value.
+         */
+        Entry(int[] val) {
+            this.val = val;
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean exists() {
+            return val != null;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void remove() {
+            val = null;
+            removed = true;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void setValue(int[] val) {
+            this.val = val;
+            writes++;
+        }
+
+        /** {@inheritDoc} */
+        @Override public RunHistKey getKey() {
+            return new RunHistKey(1, 2, 3);
+        }
+
+        /** {@inheritDoc} */
+        @Override public int[] getValue() {
+            return val;
+        }
+
+        /** {@inheritDoc} */
+        @Override public <T> T unwrap(Class<T> clazz) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.history;
+
+import javax.cache.processor.MutableEntry;
+import org.junit.Test;
+
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.BLOCK_SIZE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks updates of build start time blocks.
+ */
+public class BuildStartTimeBlockUpdateProcessorTest {
+    /** */
+    @Test
+    public void testMissingBlockIsCreated() {
+        Entry entry = new Entry(null);
+
+        apply(entry, new int[] {0, BLOCK_SIZE - 1}, new int[] {100, 200});
+
+        assertEquals(BLOCK_SIZE, entry.val.length);
+        assertEquals(100, entry.val[0]);
+        assertEquals(200, entry.val[BLOCK_SIZE - 1]);
+        assertEquals(0, entry.val[1]);
+        assertEquals(1, entry.writes);
+    }
+
+    /** */
+    @Test
+    public void testKnownTimesAreNotOverwritten() {
+        int[] block = new int[BLOCK_SIZE];
+
+        block[5] = 100;
+
+        Entry entry = new Entry(block);
+
+        apply(entry, new int[] {5, 6}, new int[] {300, 400});
+
+        assertEquals(100, entry.val[5]);
+        assertEquals(400, entry.val[6]);
+        assertEquals(1, entry.writes);
+    }
+
+    /** */
+    @Test
+    public void testNoChangesKeepEntry() {
+        int[] block = new int[BLOCK_SIZE];
+
+        block[5] = 100;
+
+        Entry entry = new Entry(block);
+
+        // Known time and unknown time are skipped.
+        apply(entry, new int[] {5, 7}, new int[] {300, 0});
+
+        assertEquals(100, entry.val[5]);
+        assertEquals(0, entry.val[7]);
+        assertEquals(0, entry.writes);
+    }
+
+    /** */
+    @Test
+    public void testUpdatesInAnyOrder() {
+        Entry entry1 = new Entry(null);
+        Entry entry2 = new Entry(null);
+
+        apply(entry1, new int[] {1, 2}, new int[] {10, 20});
+        apply(entry1, new int[] {2, 3}, new int[] {20, 30});
+
+        apply(entry2, new int[] {2, 3}, new int[] {20, 30});
+        apply(entry2, new int[] {1, 2}, new int[] {10, 20});
+
+        for (int i = 0; i < BLOCK_SIZE; i++)
+            assertEquals(entry1.val[i], entry2.val[i]);
+
+        assertEquals(30, entry1.val[3]);
+    }
+
+    /**
+     * @param entry Entry.
+     * @param idxs Indexes in block.
+     * @param times Encoded start times.
+     */
+    private static void apply(Entry entry, int[] idxs, int[] times) {
+        new BuildStartTimeBlockUpdateProcessor(idxs, times).process(entry);
+    }
+
+    /**
+     * Entry kept in memory.
+     */
+    private static class Entry implements MutableEntry<Long, int[]> {
+        /** Value. */
+        private int[] val;
+
+        /** Count of values set. */
+        private int writes;
+
+        /**
+         * @param val Value.
+         */
+        Entry(int[] val) {
+            this.val = val;
+        }
+
+        /** {@inheritDoc} */
+        @Override public boolean exists() {
+            return val != null;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void remove() {
+            val = null;
+        }
+
+        /** {@inheritDoc} */
+        @Override public void setValue(int[] val) {
+            this.val = val;
+            writes++;
+        }
+
+        /** {@inheritDoc} */
+        @Override public Long getKey() {
+            return 1L;
+        }
+
+        /** {@inheritDoc} */
+        @Override public int[] getValue() {
+            return val;
+        }
+
+        /** {@inheritDoc} */
+        @Override public <T> T unwrap(Class<T> clazz) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
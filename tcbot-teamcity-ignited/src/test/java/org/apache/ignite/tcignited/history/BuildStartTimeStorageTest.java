@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.history;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.BLOCK_SIZE;
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.blockKey;
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.blockNo;
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.buildId;
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.decode;
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.encode;
+import static org.apache.ignite.tcignited.history.BuildStartTimeStorage.idxInBlock;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks build start times storage: blocks math, encoding and search of build by age.
+ */
+public class BuildStartTimeStorageTest {
+    /** Server id. */
+    private static final int SRV_ID = 1;
+
+    /** Hour, ms. */
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    /** Blocks cache. */
+    @SuppressWarnings("unchecked")
+    private final IgniteCache<Long, int[]> cache = mock(IgniteCache.class);
+
+    /** Storage. */
+    private BuildStartTimeStorage storage;
+
+    /** */
+    @Before
+    public void setUp() {
+        Ignite ignite = mock(Ignite.class);
+
+        when(ignite.getOrCreateCache(any(CacheConfiguration.class))).thenReturn(cache);
+
+        storage = Guice.createInjector(new AbstractModule() {
+            @Override protected void configure() {
+                bind(Ignite.class).toInstance(ignite);
+            }
+        }).getInstance(BuildStartTimeStorage.class);
+
+        storage.init();
+    }
+
+    /** */
+    @Test
+    public void testBlockMath() {
+        assertEquals(0, blockNo(0));
+        assertEquals(0, blockNo(BLOCK_SIZE - 1));
+        assertEquals(1, blockNo(BLOCK_SIZE));
+        assertEquals(0, idxInBlock(BLOCK_SIZE));
+        assertEquals(BLOCK_SIZE - 1, idxInBlock(2 * BLOCK_SIZE - 1));
+
+        for (int id : new int[] {0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, 5_000_000, Integer.MAX_VALUE})
+            assertEquals(id, buildId(blockNo(id), idxInBlock(id)));
+
+        assertEquals(Integer.MAX_VALUE >>> 10, blockNo(Integer.MAX_VALUE));
+
+        assertEquals(7L, blockKey(0, 7));
+        assertEquals((3L << 32) | 7, blockKey(3, 7));
+        assertEquals((3L << 32) | (Integer.MAX_VALUE >>> 10), blockKey(3, blockNo(Integer.MAX_VALUE)));
+    }
+
+    /** */
+    @Test
+    public void testEncoding() {
+        long ts = 1_570_000_000_123L;
+
+        // Seconds precision.
+        assertEquals(1_570_000_000_000L, decode(encode(ts)));
+        assertEquals(1, encode(946_684_801_000L));
+
+        // Timestamps not after base can't be stored.
+        assertEquals(0, encode(946_684_800_000L));
+        assertEquals(0, encode(0));
+        assertEquals(0, encode(-1));
+
+        assertEquals(0, decode(0));
+    }
+
+    /** */
+    @Test
+    public void testStartTimeIsNotOverwritten() {
+        long ts = 1_570_000_000_000L;
+
+        assertNull(storage.getBuildStartTime(SRV_ID, 5));
+
+        assertTrue(storage.setBuildStartTime(SRV_ID, 5, ts));
+        assertFalse(storage.setBuildStartTime(SRV_ID, 5, ts + 1000));
+        assertFalse(storage.setBuildStartTime(SRV_ID, 6, 0));
+
+        assertEquals(ts, (long)storage.getBuildStartTime(SRV_ID, 5));
+        assertNull(storage.getBuildStartTime(SRV_ID, 6));
+        assertNull(storage.getBuildStartTime(SRV_ID + 1, 5));
+    }
+
+    /** */
+    @Test
+    public void testPersistedBlockIsLoaded() {
+        long ts = 1_570_000_000_000L;
+        int[] block = new int[BLOCK_SIZE];
+
+        block[BLOCK_SIZE - 1] = encode(ts);
+
+        when(cache.getAll(anySet())).thenReturn(Collections.singletonMap(blockKey(SRV_ID, 2), block));
+
+        int lastOfBlock = buildId(2, BLOCK_SIZE - 1);
+
+        long[] res = storage.getBuildsStartTime(SRV_ID, new int[] {lastOfBlock, lastOfBlock + 1, lastOfBlock - 1});
+
+        assertArrayEquals(new long[] {ts, 0, 0}, res);
+    }
+
+    /** */
+    @Test
+    public void testBorderForAgeWithoutBuilds() {
+        assertNull(storage.getBorderForAgeForBuildId(SRV_ID, 1));
+    }
+
+    /** */
+    @Test
+    public void testBorderForAge() {
+        long now = System.currentTimeMillis();
+
+        // Block k has builds started (10.5 - 2k) and (9.5 - 2k) days ago at first and last indexes.
+        for (int k = 0; k < 5; k++) {
+            int first = buildId(k, 0);
+            int last = buildId(k, BLOCK_SIZE - 1);
+
+            storage.setBuildsStartTime(SRV_ID, new int[] {first, last},
+                new long[] {daysAgo(now, 10.5 - 2 * k), daysAgo(now, 9.5 - 2 * k)});
+        }
+
+        assertNull(storage.getBorderForAgeForBuildId(SRV_ID, 11));
+        assertEquals(buildId(0, 0), (int)storage.getBorderForAgeForBuildId(SRV_ID, 10));
+
+        // Border is the last build of block, the first build of the next block is newer.
+        assertEquals(buildId(1, BLOCK_SIZE - 1), (int)storage.getBorderForAgeForBuildId(SRV_ID, 7));
+        assertEquals(buildId(2, 0), (int)storage.getBorderForAgeForBuildId(SRV_ID, 6));
+        assertEquals(buildId(3, BLOCK_SIZE - 1), (int)storage.getBorderForAgeForBuildId(SRV_ID, 3));
+        assertEquals(buildId(4, BLOCK_SIZE - 1), (int)storage.getBorderForAgeForBuildId(SRV_ID, 0));
+    }
+
+    /** */
+    @Test
+    public void testBorderForAgeWithMissingBlocksAndEntries() {
+        long now = System.currentTimeMillis();
+
+        // Blocks 1, 2, 4, 5 and 6 are missing, builds between known ones have no start times.
+        storage.setBuildsStartTime(SRV_ID,
+            new int[] {buildId(0, 100), buildId(0, 200), buildId(3, 10), buildId(3, 500), buildId(7, 1)},
+            new long[] {daysAgo(now, 9.5), daysAgo(now, 8.5), daysAgo(now, 6.5), daysAgo(now, 5.5), daysAgo(now, 1.5)});
+
+        assertNull(storage.getBorderForAgeForBuildId(SRV_ID, 10));
+        assertEquals(buildId(0, 100), (int)storage.getBorderForAgeForBuildId(SRV_ID, 9));
+        assertEquals(buildId(0, 200), (int)storage.getBorderForAgeForBuildId(SRV_ID, 7));
+        assertEquals(buildId(3, 10), (int)storage.getBorderForAgeForBuildId(SRV_ID, 6));
+        assertEquals(buildId(3, 500), (int)storage.getBorderForAgeForBuildId(SRV_ID, 2));
+        assertEquals(buildId(7, 1), (int)storage.getBorderForAgeForBuildId(SRV_ID, 1));
+    }
+
+    /** */
+    @Test
+    public void testBorderForAgeIsNeverHigherThanActual() {
+        long now = System.currentTimeMillis();
+
+        // Build of block 1 was queued for a long time, so it started after builds of block 2.
+        storage.setBuildsStartTime(SRV_ID,
+            new int[] {buildId(0, 1), buildId(1, 1), buildId(1, 2), buildId(2, 1)},
+            new long[] {daysAgo(now, 8.5), daysAgo(now, 1.5), daysAgo(now, 6.5), daysAgo(now, 4.5)});
+
+        assertEquals(buildId(1, 2), (int)storage.getBorderForAgeForBuildId(SRV_ID, 6));
+        assertEquals(buildId(2, 1), (int)storage.getBorderForAgeForBuildId(SRV_ID, 4));
+        assertEquals(buildId(0, 1), (int)storage.getBorderForAgeForBuildId(SRV_ID, 7));
+    }
+
+    /**
+     * @param now Current time.
+     * @param days Days.
+     * @return Timestamp days ago.
+     */
+    private static long daysAgo(long now, double days) {
+        return now - (long)(days * 24 * HOUR);
+    }
+}
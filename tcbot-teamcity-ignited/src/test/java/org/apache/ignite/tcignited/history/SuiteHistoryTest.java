@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcignited.history;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.ignite.ci.teamcity.ignited.fatbuild.FatBuildCompacted;
+import org.apache.ignite.ci.teamcity.ignited.runhist.Invocation;
+import org.apache.ignite.tcbot.persistence.IStringCompactor;
+import org.apache.ignite.tcbot.persistence.InMemoryStringCompactor;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks packed statuses of suite history.
+ */
+public class SuiteHistoryTest {
+    /** Test name. */
+    private static final int TEST = 42;
+
+    /** Compactor. */
+    private final IStringCompactor c = new InMemoryStringCompactor();
+
+    @Test
+    public void testStatusesAndCountersAcrossWords() {
+        Map<Integer, SuiteInvocation> invs = new HashMap<>();
+        List<Integer> expected = new ArrayList<>();
+
+        int[] codes = {
+            InvocationData.OK, InvocationData.FAILURE, InvocationData.CRITICAL_FAILURE, InvocationData.MUTED,
+            InvocationData.OK_MUTED, InvocationData.FAILURE_MUTED, InvocationData.IGNORED};
+
+        for (int buildId = 100; buildId < 120; buildId++) {
+            SuiteInvocation inv = suiteInvocation(buildId);
+
+            if (buildId % 5 == 0)
+                expected.add(InvocationData.MISSING);
+            else {
+                int code = codes[buildId % codes.length];
+
+                inv.addTest(TEST, new Invocation(buildId).withStatus(code));
+                expected.add(code);
+            }
+
+            invs.put(buildId, inv);
+        }
+
+        SuiteHistory hist = new SuiteHistory(invs);
+
+        assertNull(hist.getTestRunHist(TEST + 1));
+        assertEquals(20, hist.buildsCount());
+        assertEquals(1, hist.testsCount());
+
+        IRunHistory testHist = hist.getTestRunHist(TEST);
+        assertNotNull(testHist);
+
+        assertEquals(expected, testHist.getLatestRunResults());
+        assertCounters(expected, testHist);
+    }
+
+    @Test
+    public void testColumnAppendAndReplace() {
+        Map<Integer, SuiteInvocation> invs = new HashMap<>();
+
+        for (int buildId = 1; buildId <= 16; buildId++) {
+            SuiteInvocation inv = suiteInvocation(buildId);
+
+            inv.addTest(TEST, new Invocation(buildId).withStatus(InvocationData.OK));
+
+            invs.put(buildId, inv);
+        }
+
+        SuiteHistory hist = new SuiteHistory(invs);
+
+        SuiteInvocation newBuild = suiteInvocation(17);
+        newBuild.addTest(TEST, new Invocation(17).withStatus(InvocationData.FAILURE));
+        newBuild.addTest(TEST + 1, new Invocation(17).withStatus(InvocationData.OK));
+
+        SuiteHistory appended = hist.withSuiteInvocation(newBuild);
+
+        assertEquals(17, appended.buildsCount());
+        assertEquals(1, appended.getTestRunHist(TEST).getFailuresCount());
+        assertEquals(17, appended.getTestRunHist(TEST).getRunsCount());
+        assertEquals(1, appended.getTestRunHist(TEST + 1).getRunsCount());
+        assertEquals(InvocationData.MISSING, (int)appended.getTestRunHist(TEST + 1).getLatestRunResults().get(0));
+
+        SuiteInvocation rerun = suiteInvocation(5);
+        rerun.addTest(TEST, new Invocation(5).withStatus(InvocationData.CRITICAL_FAILURE));
+
+        SuiteHistory replaced = appended.withSuiteInvocation(rerun);
+
+        assertEquals(17, replaced.buildsCount());
+        assertEquals(1, replaced.getTestRunHist(TEST).getCriticalFailuresCount());
+        assertEquals(2, replaced.getTestRunHist(TEST).getFailuresCount());
+        assertEquals(InvocationData.CRITICAL_FAILURE, (int)replaced.getTestRunHist(TEST).getLatestRunResults().get(4));
+
+        // Original history is not affected.
+        assertEquals(16, hist.buildsCount());
+        assertEquals(0, hist.getTestRunHist(TEST).getFailuresCount());
+    }
+
+    /**
+     * @param expected Expected statuses.
+     * @param hist History to check.
+     */
+    private static void assertCounters(List<Integer> expected, IRunHistory hist) {
+        int runs = 0;
+        int failures = 0;
+        int critical = 0;
+
+        for (Integer s : expected) {
+            if (s != InvocationData.MISSING && !Invocation.isMutedOrIgnored(s.byteValue()))
+                runs++;
+
+            if (s == InvocationData.FAILURE || s == InvocationData.CRITICAL_FAILURE)
+                failures++;
+
+            if (s == InvocationData.CRITICAL_FAILURE)
+                critical++;
+        }
+
+        assertEquals(runs, hist.getRunsCount());
+        assertEquals(failures, hist.getFailuresCount());
+        assertEquals(critical, hist.getCriticalFailuresCount());
+    }
+
+    /**
+     * @param buildId Build id.
+     */
+    private SuiteInvocation suiteInvocation(int buildId) {
+        FatBuildCompacted build = new FatBuildCompacted();
+
+        build.withId(buildId);
+
+        return new SuiteInvocation(1, 1, build, c, (k, v) -> false);
+    }
+}
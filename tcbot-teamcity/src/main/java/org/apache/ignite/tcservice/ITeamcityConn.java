@@ -24,10 +24,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import org.apache.ignite.tcservice.model.agent.Agent;
+import org.apache.ignite.tcservice.model.agent.AgentRef;
 import org.apache.ignite.tcservice.model.changes.Change;
 import org.apache.ignite.tcservice.model.changes.ChangesList;
 import org.apache.ignite.tcservice.model.conf.BuildType;
@@ -38,6 +40,7 @@ import org.apache.ignite.tcservice.model.mute.MuteInfo;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrences;
 import org.apache.ignite.tcservice.model.result.stat.Statistics;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
 import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
 import org.apache.ignite.tcbot.common.exeption.ServiceConflictException;
 import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
@@ -101,6 +104,24 @@ public interface ITeamcityConn {
      */
     public TestOccurrencesFull getTestsPage(int buildId, @Nullable String href, boolean testDtls);
 
+    /**
+     * Streams tests page: each occurrence is provided to consumer as soon as it is read, so page is not collected.
+     *
+     * @param buildId Build id.
+     * @param href Href. Null activates first page loaded.
+     * @param testDtls Query test details.
+     * @param consumer Consumer of test occurrences.
+     * @return Reference to next page or null if this page is the last one.
+     */
+    @Nullable public default String getTestsPage(int buildId, @Nullable String href, boolean testDtls,
+        Consumer<TestOccurrenceFull> consumer) {
+        TestOccurrencesFull page = getTestsPage(buildId, href, testDtls);
+
+        page.getTests().forEach(consumer);
+
+        return page.nextHref();
+    }
+
     /**
      * Trigger build.
      * @param buildTypeId Build type (suite) identifier.
@@ -170,6 +191,15 @@ public interface ITeamcityConn {
      */
     public List<Agent> agents(boolean connected, boolean authorized);
 
+    /**
+     * Get list of teamcity agents using one request, only id, name and running build id are filled.
+     *
+     * @param connected Connected flag.
+     * @param authorized Authorized flag.
+     * @return List of teamcity agents.
+     */
+    public List<AgentRef> agentStates(boolean connected, boolean authorized);
+
     /**
      * @param buildId
      * @return
@@ -29,21 +29,27 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.SortedSet;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 import org.apache.ignite.tcbot.common.conf.IDataSourcesConfigSupplier;
 import org.apache.ignite.tcbot.common.conf.ITcServerConfig;
 import org.apache.ignite.tcbot.common.conf.TcBotWorkDir;
 import org.apache.ignite.tcbot.common.exeption.ExceptionUtil;
 import org.apache.ignite.tcbot.common.exeption.ServiceConflictException;
 import org.apache.ignite.tcbot.common.interceptor.AutoProfiling;
+import org.apache.ignite.tcbot.common.util.FutureUtil;
 import org.apache.ignite.tcbot.common.util.HttpUtil;
+import org.apache.ignite.tcbot.common.util.IoExecutors;
 import org.apache.ignite.tcservice.http.ITeamcityHttpConnection;
 import org.apache.ignite.tcservice.model.agent.Agent;
+import org.apache.ignite.tcservice.model.agent.AgentRef;
 import org.apache.ignite.tcservice.model.agent.AgentsRef;
 import org.apache.ignite.tcservice.model.changes.Change;
 import org.apache.ignite.tcservice.model.changes.ChangesList;
@@ -58,7 +64,9 @@ import org.apache.ignite.tcservice.model.mute.Mutes;
 import org.apache.ignite.tcservice.model.result.Build;
 import org.apache.ignite.tcservice.model.result.problems.ProblemOccurrences;
 import org.apache.ignite.tcservice.model.result.stat.Statistics;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrenceFull;
 import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesFull;
+import org.apache.ignite.tcservice.model.result.tests.TestOccurrencesParser;
 import org.apache.ignite.tcservice.model.user.User;
 import org.apache.ignite.tcservice.model.user.Users;
 import org.apache.ignite.tcservice.util.XmlUtil;
@@ -109,12 +117,22 @@ public class TeamcityServiceConnection implements ITeamcity {
     @Override public List<Agent> agents(boolean connected, boolean authorized) {
         String url = "app/rest/agents?locator=connected:" + connected + ",authorized:" + authorized;
 
-        return getJaxbUsingHref(url, AgentsRef.class)
+        List<Future<Agent>> futures = getJaxbUsingHref(url, AgentsRef.class)
             .getAgent()
             .stream()
-            .parallel()
-            .map(v -> getJaxbUsingHref(v.getHref(), Agent.class))
+            .map(v -> IoExecutors.shared().submit(() -> getJaxbUsingHref(v.getHref(), Agent.class)))
             .collect(Collectors.toList());
+
+        return FutureUtil.getResults(futures).collect(Collectors.toList());
+    }
+
+    /** {@inheritDoc} */
+    @AutoProfiling
+    @Override public List<AgentRef> agentStates(boolean connected, boolean authorized) {
+        String url = "app/rest/agents?locator=connected:" + connected + ",authorized:" + authorized
+            + "&fields=agent(id,name,build(id))";
+
+        return getJaxbUsingHref(url, AgentsRef.class).getAgent();
     }
 
     /** {@inheritDoc} */
@@ -372,9 +390,37 @@ public class TeamcityServiceConnection implements ITeamcity {
     /** {@inheritDoc} */
     @AutoProfiling
     @Override public TestOccurrencesFull getTestsPage(int buildId, @Nullable String href, boolean testDtls) {
+        return sendGetXmlParseJaxb(testsPageUrl(buildId, href, testDtls), TestOccurrencesFull.class);
+    }
+
+    /** {@inheritDoc} */
+    @AutoProfiling
+    @Override public String getTestsPage(int buildId, @Nullable String href, boolean testDtls,
+        Consumer<TestOccurrenceFull> consumer) {
+        String url = testsPageUrl(buildId, href, testDtls);
+
+        try {
+            try (InputStream inputStream = teamcityHttpConn.sendGet(basicAuthTok, url)) {
+                return TestOccurrencesParser.parse(inputStream, consumer);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catch (XMLStreamException e) {
+            throw ExceptionUtil.propagateException(e);
+        }
+    }
+
+    /**
+     * @param buildId Build id.
+     * @param href Href. Null activates first page loaded.
+     * @param testDtls request test details string
+     */
+    private String testsPageUrl(int buildId, @Nullable String href, boolean testDtls) {
         String relPathSelected = Strings.isNullOrEmpty(href) ? testsStartHref(buildId, testDtls) : href;
-        String url = host() + (relPathSelected.startsWith("/") ? relPathSelected.substring(1) : relPathSelected);
-        return sendGetXmlParseJaxb(url, TestOccurrencesFull.class);
+
+        return host() + (relPathSelected.startsWith("/") ? relPathSelected.substring(1) : relPathSelected);
     }
 
     /**
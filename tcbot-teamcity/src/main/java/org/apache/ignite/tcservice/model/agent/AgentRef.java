@@ -20,8 +20,10 @@ package org.apache.ignite.tcservice.model.agent;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
 import org.apache.ignite.tcservice.model.Properties;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
 
 /**
  * <p>Java class for agent complex type.
@@ -56,7 +58,8 @@ import org.apache.ignite.tcservice.model.Properties;
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "agent", propOrder = {
     "properties",
-    "pool"
+    "pool",
+    "build"
 })
 public class AgentRef {
 
@@ -82,6 +85,8 @@ public class AgentRef {
     protected String ip;
     @XmlAttribute(name = "locator")
     protected String locator;
+    @XmlElement(name = "build")
+    protected BuildRef build;
 
     /**
      * Gets the value of the properties property.
@@ -338,4 +343,11 @@ public class AgentRef {
     public void setLocator(String value) {
         this.locator = value;
     }
+
+    /**
+     * @return Build running on agent, {@code null} if agent is idle or build was not requested in fields.
+     */
+    public BuildRef getBuild() {
+        return build;
+    }
 }
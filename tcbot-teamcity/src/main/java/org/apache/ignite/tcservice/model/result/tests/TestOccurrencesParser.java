@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ignite.tcservice.model.result.tests;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.ignite.tcservice.model.hist.BuildRef;
+
+/**
+ * Streaming pull parser for tests occurrences page ({@link TestOccurrencesFull} XML). Each occurrence is provided to
+ * consumer as soon as its element is closed, so the page is never kept as a whole.
+ */
+public class TestOccurrencesParser {
+    /** Factory, thread safe after configuration. */
+    private static final XMLInputFactory factory = XMLInputFactory.newInstance();
+
+    static {
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * @param is XML stream, encoding is detected from prolog.
+     * @param consumer Consumer of test occurrences.
+     * @return Reference to next page or null.
+     */
+    @Nullable public static String parse(InputStream is, Consumer<TestOccurrenceFull> consumer)
+        throws XMLStreamException {
+        XMLStreamReader reader = factory.createXMLStreamReader(is);
+
+        try {
+            String nextHref = null;
+            TestOccurrenceFull occurrence = null;
+
+            while (reader.hasNext()) {
+                int evt = reader.next();
+
+                if (evt == XMLStreamConstants.START_ELEMENT) {
+                    String elem = reader.getLocalName();
+
+                    if ("testOccurrences".equals(elem))
+                        nextHref = attr(reader, "nextHref");
+                    else if ("testOccurrence".equals(elem))
+                        occurrence = readOccurrence(reader);
+                    else if (occurrence != null) {
+                        if ("test".equals(elem)) {
+                            TestRef test = new TestRef();
+
+                            test.id = attr(reader, "id");
+                            test.name = attr(reader, "name");
+
+                            occurrence.test = test;
+                        }
+                        else if ("build".equals(elem))
+                            occurrence.build = readBuildRef(reader);
+                        else if ("details".equals(elem))
+                            occurrence.details = reader.getElementText();
+                    }
+                }
+                else if (evt == XMLStreamConstants.END_ELEMENT
+                    && occurrence != null
+                    && "testOccurrence".equals(reader.getLocalName())) {
+                    consumer.accept(occurrence);
+
+                    occurrence = null;
+                }
+            }
+
+            return nextHref;
+        }
+        finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @param reader Reader positioned at test occurrence start.
+     */
+    private static TestOccurrenceFull readOccurrence(XMLStreamReader reader) {
+        TestOccurrenceFull occurrence = new TestOccurrenceFull();
+
+        occurrence.setId(attr(reader, "id"));
+        occurrence.name = attr(reader, "name");
+        occurrence.status = attr(reader, "status");
+        occurrence.duration = intAttr(reader, "duration");
+        occurrence.href = attr(reader, "href");
+        occurrence.muted = boolAttr(reader, "muted");
+        occurrence.currentlyMuted = boolAttr(reader, "currentlyMuted");
+        occurrence.currentlyInvestigated = boolAttr(reader, "currentlyInvestigated");
+        occurrence.ignored = boolAttr(reader, "ignored");
+
+        return occurrence;
+    }
+
+    /**
+     * @param reader Reader positioned at build reference start.
+     */
+    private static BuildRef readBuildRef(XMLStreamReader reader) {
+        BuildRef build = new BuildRef();
+
+        build.setId(intAttr(reader, "id"));
+        build.buildTypeId = attr(reader, "buildTypeId");
+        build.branchName = attr(reader, "branchName");
+        build.status = attr(reader, "status");
+        build.state = attr(reader, "state");
+        build.buildNumber = attr(reader, "number");
+
+        return build;
+    }
+
+    /**
+     * @param reader Reader.
+     * @param name Attribute name.
+     */
+    @Nullable private static String attr(XMLStreamReader reader, String name) {
+        return reader.getAttributeValue(null, name);
+    }
+
+    /**
+     * @param reader Reader.
+     * @param name Attribute name.
+     */
+    @Nullable private static Integer intAttr(XMLStreamReader reader, String name) {
+        String val = attr(reader, name);
+
+        if (val == null)
+            return null;
+
+        try {
+            return Integer.valueOf(val.trim());
+        }
+        catch (NumberFormatException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * @param reader Reader.
+     * @param name Attribute name.
+     */
+    @Nullable private static Boolean boolAttr(XMLStreamReader reader, String name) {
+        String val = attr(reader, name);
+
+        if (val == null)
+            return null;
+
+        String trimmed = val.trim();
+
+        return "true".equals(trimmed) || "1".equals(trimmed);
+    }
+}